@@ -0,0 +1,93 @@
+package com.example.demo.bench;
+
+import com.example.demo.model.AppointmentRequestDTO;
+import com.example.demo.service.AppointmentService;
+import com.example.demo.service.BookingConflictException;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code AppointmentService.bookAppointment}: a booking into a free slot (lock, overlap
+ * check, insert, slot index update) and a booking rejected as overlapping. Also
+ * {@code bookAppointments} with {@value #BULK_SIZE} free slots per call; compare its
+ * per-call time with {@code BULK_SIZE} single bookings.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class BookingBenchmark {
+
+  private static final int SLOTS_PER_DAY = 48; // 15-minute slots, 08:00 - 20:00
+  private static final int BULK_SIZE = 20;
+
+  private final AtomicLong sequence = new AtomicLong();
+  private AppointmentService appointmentService;
+  private SeededApplication app;
+  private LocalDate firstFreeDay;
+
+  @Setup(Level.Trial)
+  public void setUp(SeededApplication app) {
+    this.app = app;
+    this.appointmentService = app.bean(AppointmentService.class);
+    this.firstFreeDay = LocalDate.now().plusYears(1);
+  }
+
+  @Benchmark
+  public Object bookFreeSlot() {
+    return appointmentService.bookAppointment(freeSlot());
+  }
+
+  @Benchmark
+  public Object bookFreeSlotsInBulk() {
+    List<AppointmentRequestDTO> requests = new ArrayList<>(BULK_SIZE);
+    for (int i = 0; i < BULK_SIZE; i++) {
+      requests.add(freeSlot());
+    }
+    return appointmentService.bookAppointments(requests);
+  }
+
+  // Every call gets a distinct (lawyer, day, slot) so it never conflicts.
+  private AppointmentRequestDTO freeSlot() {
+    long n = sequence.getAndIncrement();
+    int lawyer = (int) (n % app.lawyers);
+    long k = n / app.lawyers;
+    LocalTime start = LocalTime.of(8, 0).plusMinutes(15 * (k % SLOTS_PER_DAY));
+    return request(app.lawyerIds.get(lawyer), firstFreeDay.plusDays(k / SLOTS_PER_DAY), start);
+  }
+
+  @Benchmark
+  public Object bookTakenSlot() {
+    // Every lawyer has a seeded 09:00-10:00 appointment on the first seeded day; unless
+    // that one was seeded as cancelled, this request overlaps it and is rejected.
+    long n = sequence.getAndIncrement();
+    Long lawyerId = app.lawyerIds.get((int) (n % app.lawyers));
+    try {
+      return appointmentService.bookAppointment(
+          request(lawyerId, LocalDate.now().minusYears(3), LocalTime.of(9, 30)));
+    } catch (BookingConflictException e) {
+      return e;
+    }
+  }
+
+  private AppointmentRequestDTO request(Long lawyerId, LocalDate date, LocalTime start) {
+    AppointmentRequestDTO request = new AppointmentRequestDTO();
+    request.setClientId(app.clientIds.get(0));
+    request.setLawyerId(lawyerId);
+    request.setType("video");
+    request.setDate(date);
+    request.setStartTime(start);
+    request.setEndTime(start.plusMinutes(15));
+    request.setFee(1500);
+    return request;
+  }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.bench;
+
+import com.example.demo.service.DashboardStatsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin dashboard stats: the in-memory snapshot served by {@code /api/profile/stats}
+ * and the GROUP BY reconciliation that corrects it in the background.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class DashboardBenchmark {
+
+  private DashboardStatsService stats;
+
+  @Setup(Level.Trial)
+  public void setUp(SeededApplication app) {
+    this.stats = app.bean(DashboardStatsService.class);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Object snapshot() {
+    return stats.snapshot();
+  }
+
+  @Benchmark
+  public void reconcile() {
+    stats.reconcile();
+  }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.bench;
+
+import com.example.demo.model.AvailabilityQuery;
+import com.example.demo.model.LawyerSearchCriteria;
+import com.example.demo.model.RecommendationQuery;
+import com.example.demo.service.AvailabilityService;
+import com.example.demo.service.LawyerRecommender;
+import com.example.demo.service.LawyerSearchIndex;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login (one BCrypt check at the configured cost; see {@link PasswordHashingBenchmark}
+ * for the hash alone) and the lawyer directory: the full card listing behind {@code GET /api/lawyers},
+ * the filtered search that {@code FindLawyers.tsx} issues while the user types, the
+ * top 20 of {@code GET /api/lawyers/recommended}, and a month of availability for a page
+ * of 100 search results.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class DirectoryBenchmark {
+
+  private UserService userService;
+  private LawyerSearchIndex searchIndex;
+  private LawyerRecommender recommender;
+  private AvailabilityService availabilityService;
+  private SeededApplication app;
+
+  @Setup(Level.Trial)
+  public void setUp(SeededApplication app) {
+    this.app = app;
+    this.userService = app.bean(UserService.class);
+    this.searchIndex = app.bean(LawyerSearchIndex.class);
+    this.recommender = app.bean(LawyerRecommender.class);
+    this.availabilityService = app.bean(AvailabilityService.class);
+  }
+
+  @Benchmark
+  public Object login() {
+    int i = ThreadLocalRandom.current().nextInt(app.lawyers);
+    return userService.login(app.lawyerEmail(i), SeededApplication.PASSWORD);
+  }
+
+  @Benchmark
+  public Object listAllLawyers() {
+    return userService.getLawyerCards();
+  }
+
+  @Benchmark
+  public Object searchWithFilters() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    LawyerSearchCriteria criteria = new LawyerSearchCriteria();
+    criteria.setQ("advo");
+    criteria.setSpecialization(SeededApplication.SPECIALIZATIONS[random.nextInt(SeededApplication.SPECIALIZATIONS.length)]);
+    criteria.setLocation(SeededApplication.CITIES[random.nextInt(SeededApplication.CITIES.length)]);
+    criteria.setMaxFee(3000);
+    criteria.setSize(100);
+    return searchIndex.search(criteria);
+  }
+
+  @Benchmark
+  public Object searchFreeText() {
+    LawyerSearchCriteria criteria = new LawyerSearchCriteria();
+    criteria.setQ("tax");
+    criteria.setSize(100);
+    return searchIndex.search(criteria);
+  }
+
+  @Benchmark
+  public Object recommendForQuery() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    RecommendationQuery query = new RecommendationQuery();
+    query.setSpecialization(List.of(SeededApplication.SPECIALIZATIONS[random.nextInt(SeededApplication.SPECIALIZATIONS.length)]));
+    query.setLanguage(List.of(SeededApplication.LANGUAGES[random.nextInt(SeededApplication.LANGUAGES.length)]));
+    query.setBudget(1000 + 500 * random.nextInt(8));
+    return recommender.recommend(query);
+  }
+
+  @Benchmark
+  public Object recommendWithoutCriteria() {
+    return recommender.recommend(new RecommendationQuery());
+  }
+
+  @Benchmark
+  public Object monthOfAvailabilityForSearchPage() {
+    int first = ThreadLocalRandom.current().nextInt(app.lawyers - 100);
+    AvailabilityQuery query = new AvailabilityQuery();
+    query.setTo(LocalDate.now().plusDays(29));
+    query.setMinMinutes(30);
+    return availabilityService.getAvailability(app.lawyerIds.subList(first, first + 100), query);
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt verification, the CPU cost of one login, at each candidate
+ * {@code app.passwords.bcrypt-cost}. Runs on one thread, so the score is logins per
+ * second per core; multiply by {@code app.passwords.threads} for the login capacity of a
+ * node. No Spring context or database is involved.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+
+  private static final String PASSWORD = SeededApplication.PASSWORD;
+
+  @Param({"8", "10", "12", "14"})
+  public int cost;
+
+  private BCryptPasswordEncoder encoder;
+  private String hash;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    encoder = new BCryptPasswordEncoder(cost);
+    hash = encoder.encode(PASSWORD);
+  }
+
+  @Benchmark
+  public boolean verify() {
+    return encoder.matches(PASSWORD, hash);
+  }
+}
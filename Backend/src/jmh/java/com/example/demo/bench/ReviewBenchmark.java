@@ -0,0 +1,52 @@
+package com.example.demo.bench;
+
+import com.example.demo.model.ReviewRequestDTO;
+import com.example.demo.service.ReviewService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Review writes with their rating aggregate update, and the batch rating lookup used
+ * for a page of lawyer cards.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class ReviewBenchmark {
+
+  private static final int PAGE = 100;
+
+  private ReviewService reviewService;
+  private SeededApplication app;
+
+  @Setup(Level.Trial)
+  public void setUp(SeededApplication app) {
+    this.app = app;
+    this.reviewService = app.bean(ReviewService.class);
+  }
+
+  @Benchmark
+  public Object createReview() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    ReviewRequestDTO dto = new ReviewRequestDTO();
+    dto.setClientId(app.clientIds.get(random.nextInt(app.clientIds.size())));
+    dto.setLawyerId(app.lawyerIds.get(random.nextInt(app.lawyers)));
+    dto.setRating(1 + random.nextInt(5));
+    dto.setComment("Benchmark review");
+    return reviewService.createReview(dto);
+  }
+
+  @Benchmark
+  public Object ratingsForPage() {
+    int from = ThreadLocalRandom.current().nextInt(app.lawyers - PAGE);
+    List<Long> ids = app.lawyerIds.subList(from, from + PAGE);
+    return reviewService.getRatings(ids);
+  }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.bench;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.model.Appointment;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.DashboardStatsService;
+import com.example.demo.service.LawyerRecommender;
+import com.example.demo.service.LawyerSearchIndex;
+import com.example.demo.service.PasswordHasher;
+import com.example.demo.service.ReviewService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the application (no web server) on an in-memory H2 database and seeds it with
+ * synthetic lawyers, clients, appointments and reviews. One instance per benchmark
+ * trial; every benchmark class shares this setup.
+ * <p>
+ * Sizes default to 10k lawyers, 1M appointments and 100k reviews and can be lowered
+ * with {@code -Dbench.lawyers}, {@code -Dbench.appointments} and {@code -Dbench.reviews}
+ * for quick runs.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+  static final String[] SPECIALIZATIONS = {
+      "Corporate Law", "Criminal Law", "Family Law", "Property Law",
+      "Civil Law", "Contract Law", "Tax Law", "Labor Law"};
+  static final String[] CITIES = {
+      "Mumbai", "Delhi", "Bengaluru", "Hyderabad", "Chennai", "Kolkata", "Pune", "Jaipur"};
+  static final String[] LANGUAGES = {"English", "Hindi", "Marathi", "Tamil", "Telugu", "Bengali"};
+  static final String[] STATUSES = {"pending", "confirmed", "completed", "cancelled"};
+  static final String PASSWORD = "bench-password";
+
+  private static final int CLIENTS = 1_000;
+  private static final int SLOTS_PER_DAY = 8;
+  private static final int JDBC_BATCH = 5_000;
+  private static final String INSERT_APPOINTMENT = "insert into appointment (id, client_id, lawyer_id, type,"
+      + " status, date, start_time, end_time, fee, active_slot, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+  private static final String INSERT_REVIEW = "insert into review (client_id, lawyer_id, rating, comment,"
+      + " created_at, updated_at) values (?, ?, ?, ?, ?, ?)";
+
+  public int lawyers = Integer.getInteger("bench.lawyers", 10_000);
+  public int appointments = Integer.getInteger("bench.appointments", 1_000_000);
+  public int reviews = Integer.getInteger("bench.reviews", 100_000);
+
+  public ConfigurableApplicationContext context;
+  public List<Long> lawyerIds = new ArrayList<>();
+  public List<Long> clientIds = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void start() {
+    start(new SpringApplicationBuilder(DemoApplication.class).web(WebApplicationType.NONE));
+  }
+
+  /** Boots the given application with the benchmark database plus {@code extraArgs}, then seeds it. */
+  public void start(SpringApplicationBuilder builder, String... extraArgs) {
+    // Command-line arguments, so they win over any application.properties on the classpath
+    List<String> args = new ArrayList<>(List.of(
+        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.jpa.hibernate.ddl-auto=validate",
+        "--spring.jpa.show-sql=false",
+        "--spring.main.banner-mode=off",
+        "--logging.level.root=WARN"));
+    args.addAll(List.of(extraArgs));
+    context = builder.run(args.toArray(String[]::new));
+
+    seedUsers();
+    seedAppointments();
+    seedReviews();
+
+    bean(LawyerSearchIndex.class).rebuild();
+    bean(DashboardStatsService.class).reconcile();
+    bean(ReviewService.class).rebuildRatings();
+    bean(LawyerRecommender.class).rebuild();
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  public <T> T bean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  public String lawyerEmail(int i) {
+    return "lawyer" + i + "@bench.test";
+  }
+
+  private void seedUsers() {
+    UserRepository users = bean(UserRepository.class);
+    Random random = new Random(42);
+    // One hash shared by every account; hashing each would dominate seeding
+    String passwordHash = bean(PasswordHasher.class).hash(PASSWORD);
+    new TransactionTemplate(bean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+      for (int i = 0; i < lawyers; i++) {
+        User lawyer = new User();
+        lawyer.setName("Advocate " + i);
+        lawyer.setEmail(lawyerEmail(i));
+        lawyer.setPassword(passwordHash);
+        lawyer.setRole("lawyer");
+        lawyer.setBio("Practising advocate with a focus on " + pick(random, SPECIALIZATIONS));
+        lawyer.setLocation(pick(random, CITIES));
+        lawyer.setConsultationFee(500 + 100 * random.nextInt(50));
+        lawyer.setYearsOfExperience(1 + random.nextInt(35));
+        lawyer.setBarCouncilNumber("BC/" + i);
+        lawyer.setSpecializations(List.of(pick(random, SPECIALIZATIONS), pick(random, SPECIALIZATIONS)));
+        lawyer.setLanguages(List.of("English", pick(random, LANGUAGES)));
+        lawyer.setEducation(List.of("LLB"));
+        boolean verified = random.nextInt(10) < 8;
+        lawyer.setIsVerified(verified);
+        lawyer.setVerificationStatus(verified ? "verified" : "pending");
+        lawyerIds.add(users.save(lawyer).getId());
+      }
+      for (int i = 0; i < CLIENTS; i++) {
+        User client = new User();
+        client.setName("Client " + i);
+        client.setEmail("client" + i + "@bench.test");
+        client.setPassword(passwordHash);
+        client.setRole("client");
+        clientIds.add(users.save(client).getId());
+      }
+    });
+  }
+
+  // Appointments are spread over past days, SLOTS_PER_DAY one-hour slots per lawyer-day,
+  // so the (lawyer, date, start_time) unique index is never violated.
+  private void seedAppointments() {
+    JdbcTemplate jdbc = bean(JdbcTemplate.class);
+    Random random = new Random(7);
+    LocalDate firstDay = LocalDate.now().minusYears(3);
+    List<Object[]> batch = new ArrayList<>(JDBC_BATCH);
+    for (int i = 0; i < appointments; i++) {
+      int perLawyer = i / lawyers;
+      Long lawyerId = lawyerIds.get(i % lawyers);
+      LocalDate date = firstDay.plusDays(perLawyer / SLOTS_PER_DAY);
+      LocalTime start = LocalTime.of(9 + perLawyer % SLOTS_PER_DAY, 0);
+      String status = pick(random, STATUSES);
+      batch.add(new Object[]{
+          i + 1L, clientIds.get(random.nextInt(clientIds.size())), lawyerId,
+          random.nextBoolean() ? "video" : "chat", status,
+          Date.valueOf(date), Time.valueOf(start), Time.valueOf(start.plusHours(1)),
+          500 + 100 * random.nextInt(50), "cancelled".equals(status) ? null : Boolean.TRUE});
+      if (batch.size() == JDBC_BATCH) {
+        insert(jdbc, INSERT_APPOINTMENT, batch);
+      }
+    }
+    insert(jdbc, INSERT_APPOINTMENT, batch);
+    // Ids were assigned above, so start the generator's next block after them
+    jdbc.execute("alter sequence appointment_seq restart with " + (appointments + Appointment.ID_ALLOCATION_SIZE + 1));
+  }
+
+  private void seedReviews() {
+    JdbcTemplate jdbc = bean(JdbcTemplate.class);
+    Random random = new Random(11);
+    List<Object[]> batch = new ArrayList<>(JDBC_BATCH);
+    for (int i = 0; i < reviews; i++) {
+      Timestamp at = Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(1_000_000)));
+      batch.add(new Object[]{
+          clientIds.get(random.nextInt(clientIds.size())), lawyerIds.get(random.nextInt(lawyers)),
+          1 + random.nextInt(5), "Synthetic review " + i, at, at});
+      if (batch.size() == JDBC_BATCH) {
+        insert(jdbc, INSERT_REVIEW, batch);
+      }
+    }
+    insert(jdbc, INSERT_REVIEW, batch);
+  }
+
+  private static void insert(JdbcTemplate jdbc, String sql, List<Object[]> batch) {
+    if (batch.isEmpty()) return;
+    jdbc.batchUpdate(sql, batch);
+    batch.clear();
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.bench;
+
+import com.example.demo.model.AppointmentQuery;
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.User;
+import com.example.demo.model.UserSummary;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AppointmentService;
+import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the list payloads: a page of {@code User} entities next to
+ * the {@link UserSummary} and {@link LawyerCard} projections that replaced them, and an
+ * appointment history page (fetched and written in one read-only transaction, as the
+ * web layer does with open-session-in-view).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+  private static final int PAGE = 100;
+
+  private ObjectMapper objectMapper;
+  private AppointmentService appointmentService;
+  private TransactionTemplate readOnly;
+  private SeededApplication app;
+
+  private List<User> users;
+  private List<UserSummary> summaries;
+  private List<LawyerCard> cards;
+
+  @Setup(Level.Trial)
+  public void setUp(SeededApplication app) {
+    this.app = app;
+    this.objectMapper = app.bean(ObjectMapper.class);
+    this.appointmentService = app.bean(AppointmentService.class);
+    this.readOnly = new TransactionTemplate(app.bean(PlatformTransactionManager.class));
+    this.readOnly.setReadOnly(true);
+
+    List<Long> ids = app.lawyerIds.subList(0, PAGE);
+    this.users = readOnly.execute(status -> {
+      List<User> loaded = app.bean(UserRepository.class).findAllById(ids);
+      loaded.forEach(u -> {
+        u.getSpecializations().size();
+        u.getLanguages().size();
+        u.getEducation().size();
+      });
+      return loaded;
+    });
+    this.summaries = users.stream().map(UserSummary::from).toList();
+    this.cards = app.bean(UserService.class).getLawyerCards().subList(0, PAGE);
+  }
+
+  @Benchmark
+  public byte[] userEntities() throws Exception {
+    return objectMapper.writeValueAsBytes(users);
+  }
+
+  @Benchmark
+  public byte[] userSummaries() throws Exception {
+    return objectMapper.writeValueAsBytes(summaries);
+  }
+
+  @Benchmark
+  public byte[] lawyerCards() throws Exception {
+    return objectMapper.writeValueAsBytes(cards);
+  }
+
+  @Benchmark
+  public byte[] appointmentHistoryPage() {
+    Long lawyerId = app.lawyerIds.get(ThreadLocalRandom.current().nextInt(app.lawyers));
+    return readOnly.execute(status -> {
+      try {
+        return objectMapper.writeValueAsBytes(
+            appointmentService.getAppointmentsForLawyer(lawyerId, new AppointmentQuery()).getItems());
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+}
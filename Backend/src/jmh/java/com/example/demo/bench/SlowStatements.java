@@ -0,0 +1,66 @@
+package com.example.demo.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import javax.sql.DataSource;
+
+/**
+ * Adds a fixed delay to every statement execution, so the in-memory H2 database behaves
+ * like a remote MySQL server where a thread spends most of a request blocked on the
+ * network. The delay sits under Hikari, so pooled connections stay busy for its length.
+ * It starts at zero so seeding runs at full speed; set it with {@link #setDelayMs}.
+ */
+class SlowStatements implements BeanPostProcessor {
+
+  private static final Set<String> EXECUTE_METHODS = Set.of(
+      "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+  private volatile long delayMs;
+
+  void setDelayMs(long delayMs) {
+    this.delayMs = delayMs;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    if (bean instanceof HikariDataSource hikari && hikari.getDataSource() == null) {
+      JdbcDataSource h2 = new JdbcDataSource();
+      h2.setURL(hikari.getJdbcUrl());
+      h2.setUser(hikari.getUsername());
+      h2.setPassword(hikari.getPassword());
+      hikari.setDataSource(proxy(DataSource.class, h2));
+    }
+    return bean;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T proxy(Class<T> type, T target) {
+    InvocationHandler handler = (proxy, method, args) -> {
+      if (delayMs > 0 && target instanceof Statement && EXECUTE_METHODS.contains(method.getName())) {
+        Thread.sleep(delayMs);
+      }
+      Object result;
+      try {
+        result = method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      // Wrap whatever hands out connections and statements, so their executions are delayed too
+      Class<?> returned = method.getReturnType();
+      if (result != null && returned.isInterface()
+          && (Connection.class.isAssignableFrom(returned) || Statement.class.isAssignableFrom(returned))) {
+        return proxy((Class<Object>) returned, result);
+      }
+      return result;
+    };
+    return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler);
+  }
+}
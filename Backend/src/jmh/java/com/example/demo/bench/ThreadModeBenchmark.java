@@ -0,0 +1,100 @@
+package com.example.demo.bench;
+
+import com.example.demo.DemoApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * HTTP load test comparing Tomcat's platform-thread pool with virtual-thread request
+ * handling ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * The server runs on a real port. Every SQL statement is delayed by
+ * {@code -Dbench.db-latency-ms} (default 5) to stand in for a remote database. The
+ * platform pool is capped at {@code -Dbench.tomcat-threads} (default 32), below the 64
+ * client threads. In one group, 48 threads fetch rating aggregates, a primary-key
+ * lookup that blocks on the database, and 16 threads search lawyers, which is answered
+ * from memory. The group shows whether slow database requests hold up the fast ones.
+ * <p>
+ * Non-200 responses (for example 503 from the admission filter) are counted in the
+ * {@code rejected} column.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ThreadModeBenchmark {
+
+  @Param({"platform", "virtual"})
+  public String mode;
+
+  private SeededApplication app;
+  private String baseUrl;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Outcomes {
+    public long rejected;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SlowStatements slowStatements = new SlowStatements();
+    app = new SeededApplication();
+    app.start(new SpringApplicationBuilder(DemoApplication.class)
+            .initializers(context -> context.getBeanFactory().addBeanPostProcessor(slowStatements)),
+        "--server.port=0",
+        "--management.server.port=0",
+        "--server.tomcat.threads.max=" + Integer.getInteger("bench.tomcat-threads", 32),
+        "--spring.threads.virtual.enabled=" + "virtual".equals(mode));
+    slowStatements.setDelayMs(Long.getLong("bench.db-latency-ms", 5));
+
+    int port = ((WebServerApplicationContext) app.context).getWebServer().getPort();
+    baseUrl = "http://localhost:" + port;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    app.stop();
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(48)
+  public int lawyerRatings(Outcomes outcomes) throws Exception {
+    int from = ThreadLocalRandom.current().nextInt(app.lawyers - 10);
+    String ids = app.lawyerIds.subList(from, from + 10).stream().map(String::valueOf)
+        .collect(Collectors.joining(","));
+    return get("/api/reviews/ratings?lawyerIds=" + ids, outcomes);
+  }
+
+  @Benchmark
+  @Group("mixed")
+  @GroupThreads(16)
+  public int lawyerSearch(Outcomes outcomes) throws Exception {
+    return get("/api/lawyers/search?q=tax&size=20", outcomes);
+  }
+
+  // Blocking HttpURLConnection with keep-alive: one socket per client thread and no
+  // extra client-side threads competing with the server for CPU.
+  private int get(String path, Outcomes outcomes) throws Exception {
+    HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+    connection.setReadTimeout(30_000);
+    int status = connection.getResponseCode();
+    try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+      if (body != null) body.transferTo(OutputStream.nullOutputStream());
+    }
+    if (status != 200) outcomes.rejected++;
+    return status;
+  }
+}
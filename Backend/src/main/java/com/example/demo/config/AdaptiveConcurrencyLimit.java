@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How many requests a route may run at once, adjusted from their latency.
+ * <p>
+ * Two moving averages of the request time are kept: a short one (about the last 10
+ * requests) and a long one (about the last minute, however many requests that is), which
+ * stands for the route's usual latency. A slowdown that lasts therefore becomes the new
+ * usual after a few minutes and the limit recovers. While the short average stays within {@code tolerance} times the long one, the
+ * limit grows by roughly its square root; once requests slow down past that, it shrinks in
+ * proportion, by at most half, but never below {@code minLimit}. Samples taken while less
+ * than half the limit is in use are ignored, since they say nothing about whether the
+ * limit is too high or too low.
+ * <p>
+ * Admission is a compare-and-set on the in-flight count; only the limit update after each
+ * request is synchronized.
+ */
+final class AdaptiveConcurrencyLimit {
+
+  private static final double SHORT_WEIGHT = 0.1;
+  private static final double LONG_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+  private static final double SMOOTHING = 0.2;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int limit;
+
+  // Guarded by this
+  private double estimate;
+  private double shortRtt;
+  private double longRtt;
+  private long lastSample;
+
+  AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.estimate = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    this.limit = (int) estimate;
+  }
+
+  boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) return false;
+      if (inFlight.compareAndSet(current, current + 1)) return true;
+    }
+  }
+
+  /** Ends a request admitted by {@link #tryAcquire} that took {@code nanos}. */
+  void release(long nanos) {
+    int busy = inFlight.getAndDecrement();
+    update(nanos, busy);
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void update(long nanos, int busy) {
+    long now = System.nanoTime();
+    if (longRtt == 0) {
+      shortRtt = longRtt = nanos;
+      lastSample = now;
+      return;
+    }
+    shortRtt += (nanos - shortRtt) * SHORT_WEIGHT;
+    longRtt += (nanos - longRtt) * Math.min(1.0, (now - lastSample) / LONG_WINDOW_NANOS);
+    lastSample = now;
+    if (busy < estimate / 2) return;
+
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+    double next = estimate * gradient + Math.sqrt(estimate);
+    estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+    limit = (int) estimate;
+  }
+}
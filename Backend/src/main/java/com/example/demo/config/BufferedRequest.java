@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/** Reads the body up front so a filter can inspect it and the controller deserialize it again. */
+final class BufferedRequest extends HttpServletRequestWrapper {
+
+  /** Largest body kept in memory; the filtered endpoints take small JSON documents. */
+  static final int MAX_BODY_BYTES = 64 * 1024;
+
+  final byte[] body;
+
+  private BufferedRequest(HttpServletRequest request, byte[] body) {
+    super(request);
+    this.body = body;
+  }
+
+  /**
+   * Wraps {@code request} with its body read into memory. A body an earlier filter already
+   * buffered is shared rather than copied.
+   *
+   * @throws TooLargeException if the body is over {@link #MAX_BODY_BYTES}
+   */
+  static BufferedRequest of(HttpServletRequest request) throws IOException {
+    if (request instanceof BufferedRequest buffered) return buffered;
+    BufferedRequest earlier = WebUtils.getNativeRequest(request, BufferedRequest.class);
+    if (earlier != null) return new BufferedRequest(request, earlier.body);
+    if (request.getContentLengthLong() > MAX_BODY_BYTES) throw new TooLargeException();
+    byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+    if (body.length > MAX_BODY_BYTES) throw new TooLargeException();
+    return new BufferedRequest(request, body);
+  }
+
+  @Override
+  public ServletInputStream getInputStream() {
+    ByteArrayInputStream in = new ByteArrayInputStream(body);
+    return new ServletInputStream() {
+      @Override
+      public int read() {
+        return in.read();
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        return in.read(b, off, len);
+      }
+
+      @Override
+      public boolean isFinished() {
+        return in.available() == 0;
+      }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setReadListener(ReadListener listener) {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public BufferedReader getReader() {
+    String encoding = getCharacterEncoding();
+    Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+    return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+  }
+
+  /** The body is over {@link #MAX_BODY_BYTES}; the filters answer it with a 413. */
+  static final class TooLargeException extends IOException {
+    TooLargeException() {
+      super("Request body is over " + MAX_BODY_BYTES + " bytes");
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many requests use the database at once when requests run on virtual threads.
+ * <p>
+ * A platform-thread Tomcat pool bounds concurrency by itself. With virtual threads
+ * every request gets its own thread, and thousands of them would otherwise pile up
+ * inside Hikari waiting for one of a few connections until the pool timeout.
+ * <p>
+ * A request takes a permit the first time it asks for a connection (see
+ * {@link VirtualThreadConfig}) and holds it until the request ends. Requests served
+ * from memory, such as lawyer search, never take one. At most
+ * {@code app.db-admission.permits} requests hold a permit (default: twice the Hikari
+ * pool size). Others wait up to {@code app.db-admission.timeout-ms}; after that the
+ * connection request fails and the request is answered with a 503 if nothing has been
+ * written yet. Connections taken outside a request, for example by scheduled jobs, are
+ * not limited.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class DatabaseAdmissionFilter extends OncePerRequestFilter {
+
+  private static final ThreadLocal<Admission> CURRENT = new ThreadLocal<>();
+
+  private final Semaphore permits;
+  private final long timeoutMs;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  public DatabaseAdmissionFilter(DataSource dataSource,
+                                 @Value("${app.db-admission.permits:0}") int configuredPermits,
+                                 @Value("${app.db-admission.timeout-ms:2000}") long timeoutMs) throws SQLException {
+    int poolSize = dataSource.isWrapperFor(HikariDataSource.class)
+        ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() : 10;
+    this.permits = new Semaphore(configuredPermits > 0 ? configuredPermits : 2 * poolSize, true);
+    this.timeoutMs = timeoutMs;
+  }
+
+  /** Called before every connection checkout; blocks for this request's permit if it has none yet. */
+  void admit() throws SQLException {
+    Admission admission = CURRENT.get();
+    if (admission == null || admission.holding) return;
+
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      admission.rejected = true;
+      meterRegistry.counter("http.server.requests.rejected", "reason", "db-admission").increment();
+      throw new SQLTransientConnectionException("Too many requests waiting for the database");
+    }
+    admission.holding = true;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Admission admission = new Admission();
+    CURRENT.set(admission);
+    try {
+      chain.doFilter(request, response);
+    } catch (ServletException | RuntimeException e) {
+      if (!admission.rejected || response.isCommitted()) throw e;
+    } finally {
+      CURRENT.remove();
+      if (admission.holding) permits.release();
+    }
+    if (admission.rejected && !response.isCommitted()) {
+      response.reset();
+      response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+      response.setHeader("Retry-After", "1");
+      response.setContentType("application/json");
+      response.getWriter().write("{\"error\":\"Server busy, please retry\"}");
+    }
+  }
+
+  private static final class Admission {
+    boolean holding;
+    boolean rejected;
+  }
+}
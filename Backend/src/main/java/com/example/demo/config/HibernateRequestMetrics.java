@@ -0,0 +1,103 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Per-request Hibernate work: SQL statements, entity loads and collection fetches.
+ * <p>
+ * Hibernate's own statistics are global, so the counts are kept per thread instead: a
+ * {@link StatementInspector} sees every statement, and post-load / collection-init event
+ * listeners see every entity and lazy collection loaded. This filter resets the counters
+ * when a request starts and records them against the matched URI pattern when it ends,
+ * as {@code hibernate.request.statements}, {@code hibernate.request.entity.loads} and
+ * {@code hibernate.request.collection.fetches}.
+ */
+@Component
+public class HibernateRequestMetrics extends OncePerRequestFilter
+    implements StatementInspector, HibernatePropertiesCustomizer {
+
+  private static final ThreadLocal<int[]> COUNTS = new ThreadLocal<>(); // statements, entities, collections
+  private static final int STATEMENTS = 0, ENTITIES = 1, COLLECTIONS = 2;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void registerListeners(ApplicationReadyEvent event) {
+    EntityManagerFactory emf = event.getApplicationContext().getBean(EntityManagerFactory.class);
+    EventListenerRegistry listeners = emf.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry().getService(EventListenerRegistry.class);
+    listeners.appendListeners(EventType.POST_LOAD, e -> increment(ENTITIES));
+    listeners.appendListeners(EventType.INIT_COLLECTION, e -> increment(COLLECTIONS));
+  }
+
+  @Override
+  public String inspect(String sql) {
+    increment(STATEMENTS);
+    return sql;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    int[] counts = new int[3];
+    COUNTS.set(counts);
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      COUNTS.remove();
+      Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+      record("hibernate.request.statements", "SQL statements per request", uri, request, counts[STATEMENTS]);
+      record("hibernate.request.entity.loads", "Entities loaded per request", uri, request, counts[ENTITIES]);
+      record("hibernate.request.collection.fetches", "Collections fetched per request", uri, request, counts[COLLECTIONS]);
+    }
+  }
+
+  // Streaming responses finish on another thread; their counts are not attributed.
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return true;
+  }
+
+  private void record(String name, String description, String uri, HttpServletRequest request, int value) {
+    DistributionSummary.builder(name)
+        .description(description)
+        .tag("uri", uri)
+        .tag("method", request.getMethod())
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(value);
+  }
+
+  private static void increment(int counter) {
+    int[] counts = COUNTS.get();
+    if (counts != null) counts[counter]++;
+  }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.config;
+
+import com.example.demo.config.IdempotencyStore.Claimed;
+import com.example.demo.config.IdempotencyStore.Completed;
+import com.example.demo.config.IdempotencyStore.InProgress;
+import com.example.demo.config.IdempotencyStore.Outcome;
+import com.example.demo.config.IdempotencyStore.Stored;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * {@code Idempotency-Key} support for the requests a client may send again after a lost
+ * response: booking, bulk booking, adding a review and cancelling. A request that carries
+ * the header runs once per key; repeats get the first response again, marked with
+ * {@code Idempotent-Replayed: true}. Requests without the header are not affected.
+ * <p>
+ * Each request is fingerprinted (method, path and body). Reusing a key for a different
+ * request gets a 422. A repeat that arrives while the first is still running waits up
+ * to {@code app.idempotency.wait-ms} for its response, then gets a 409 with
+ * {@code Retry-After}. Responses with a 5xx or 429 status are not kept, so the key can be
+ * retried. Storage and expiry are up to {@link IdempotencyStore}.
+ * <p>
+ * Runs before {@link RateLimitFilter}, so replays do not use up rate limits.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String KEY_HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private static final Map<String, String> POSTS = Map.of(
+      "/api/appointments/book", "booking",
+      "/api/appointments/bulk", "bulk-booking",
+      "/api/reviews/add", "review");
+  private static final Pattern CANCEL = Pattern.compile("/api/appointments/\\d+/cancel");
+
+  private final IdempotencyStore store;
+  private final Duration wait;
+  private final Counter replayed;
+
+  public IdempotencyFilter(IdempotencyStore store, MeterRegistry meterRegistry,
+                           @Value("${app.idempotency.wait-ms:10000}") long waitMs) {
+    this.store = store;
+    this.wait = Duration.ofMillis(waitMs);
+    this.replayed = meterRegistry.counter("http.server.requests.replayed");
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return request.getHeader(KEY_HEADER) == null || scope(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String key = request.getHeader(KEY_HEADER).trim();
+    if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+      write(response, 400, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+      return;
+    }
+    String scope = scope(request);
+    BufferedRequest buffered;
+    try {
+      buffered = BufferedRequest.of(request);
+    } catch (BufferedRequest.TooLargeException e) {
+      write(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body is too large");
+      return;
+    }
+    String fingerprint = fingerprint(request, buffered.body);
+
+    long deadline = System.nanoTime() + wait.toNanos();
+    while (true) {
+      Outcome outcome = store.begin(scope, key, fingerprint);
+      if (outcome instanceof Claimed claimed) {
+        run(buffered, response, chain, claimed);
+        return;
+      }
+      if (outcome instanceof Completed completed) {
+        replay(response, completed.response());
+        return;
+      }
+      if (!(outcome instanceof InProgress running)) {
+        write(response, 422, "Idempotency-Key was already used for a different request");
+        return;
+      }
+      try {
+        if (!store.await(running, deadline)) {
+          response.setHeader("Retry-After", "1");
+          write(response, 409, "A request with this Idempotency-Key is still in progress");
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server busy, please retry");
+        return;
+      }
+    }
+  }
+
+  // Runs the request holding the key, keeping its response unless a retry should run it again
+  private void run(BufferedRequest request, HttpServletResponse response, FilterChain chain, Claimed claimed)
+      throws ServletException, IOException {
+    ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+    try {
+      chain.doFilter(request, captured);
+    } catch (ServletException | IOException | RuntimeException e) {
+      store.release(claimed);
+      throw e;
+    }
+    try {
+      int status = captured.getStatus();
+      if (status < 500 && status != 429) {
+        store.complete(claimed, status, captured.getContentType(),
+            new String(captured.getContentAsByteArray(), StandardCharsets.UTF_8));
+      } else {
+        store.release(claimed);
+      }
+    } finally {
+      captured.copyBodyToResponse();
+    }
+  }
+
+  private void replay(HttpServletResponse response, Stored stored) throws IOException {
+    replayed.increment();
+    response.setStatus(stored.status());
+    response.setHeader(REPLAYED_HEADER, "true");
+    // The guarded controllers allow any origin; without this the browser hides the response
+    response.setHeader("Access-Control-Allow-Origin", "*");
+    if (stored.contentType() != null) {
+      response.setContentType(stored.contentType());
+    }
+    if (stored.body() != null) {
+      response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void write(HttpServletResponse response, int status, String error) throws IOException {
+    response.setStatus(status);
+    response.setHeader("Access-Control-Allow-Origin", "*");
+    response.setContentType("application/json");
+    response.getWriter().write("{\"error\":\"" + error + "\"}");
+  }
+
+  // Which requests take a key, under a name per route; null for the others
+  private static String scope(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return switch (request.getMethod()) {
+      case "POST" -> POSTS.get(path);
+      case "PUT" -> CANCEL.matcher(path).matches() ? "cancellation" : null;
+      default -> null;
+    };
+  }
+
+  private static String fingerprint(HttpServletRequest request, byte[] body) {
+    MessageDigest sha256;
+    try {
+      sha256 = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    sha256.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+    return HexFormat.of().formatHex(sha256.digest(body));
+  }
+}
@@ -0,0 +1,220 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Responses by idempotency key, for {@link IdempotencyFilter}. The {@code idempotency_key}
+ * table is the record: the first request with a key claims it with an insert and stores
+ * its response there when it finishes; both are single-row statements on the primary key.
+ * Finished responses are also kept in memory, bounded by an estimate of their size in
+ * bytes ({@code app.idempotency.cache.max-weight-bytes}), so a retry that reaches the same
+ * node is answered without a query.
+ * <p>
+ * Duplicates arriving while the first request runs wait for it: on the same node for its
+ * completion, from other nodes by polling the row. A claim whose request failed is deleted,
+ * so a retry runs again; one left behind by a node that stopped is taken over after
+ * {@code app.idempotency.claim-timeout}. Keys are kept for {@code app.idempotency.ttl} and
+ * purged every {@code app.idempotency.purge-interval-ms}.
+ */
+@Component
+public class IdempotencyStore {
+
+  private static final long POLL_MS = 50;
+
+  private static final RowMapper<Stored> STORED = (rs, row) -> new Stored(rs.getString(1),
+      (Integer) rs.getObject(2, Integer.class), rs.getString(3), rs.getString(4),
+      rs.getObject(5, LocalDateTime.class));
+
+  private final JdbcTemplate jdbc;
+  private final Duration ttl;
+  private final Duration claimTimeout;
+  private final Cache<String, Stored> finished;
+  // Requests running on this node, by scope and key; completed when they finish either way
+  private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+
+  public IdempotencyStore(JdbcTemplate jdbc, MeterRegistry meterRegistry,
+                          @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                          @Value("${app.idempotency.claim-timeout:2m}") Duration claimTimeout,
+                          @Value("${app.idempotency.cache.max-weight-bytes:8388608}") long maxWeightBytes) {
+    this.jdbc = jdbc;
+    this.ttl = ttl;
+    this.claimTimeout = claimTimeout;
+    this.finished = Caffeine.newBuilder()
+        .maximumWeight(maxWeightBytes)
+        .weigher((String id, Stored stored) -> 100 + 2 * (stored.body() == null ? 0 : stored.body().length()))
+        .expireAfter(new UntilExpiry())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, finished, "idempotency.responses");
+  }
+
+  /**
+   * Claims the key for a request with this fingerprint, or tells what became of an earlier
+   * claim. A {@link Claimed} result must be passed to {@link #complete} or {@link #release}.
+   */
+  Outcome begin(String scope, String key, String fingerprint) {
+    String id = scope + ":" + key;
+    Stored stored = finished.getIfPresent(id);
+    if (stored != null) return answer(stored, fingerprint);
+
+    CompletableFuture<Void> mine = new CompletableFuture<>();
+    CompletableFuture<Void> other = running.putIfAbsent(id, mine);
+    if (other != null) return new InProgress(other);
+
+    // Stored to the microsecond; complete and release find their claim by it
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    try {
+      jdbc.update("insert into idempotency_key (scope, idem_key, fingerprint, claimed_at, expires_at) values (?, ?, ?, ?, ?)",
+          scope, key, fingerprint, now, now.plus(ttl));
+      return new Claimed(scope, key, fingerprint, now, mine);
+    } catch (DuplicateKeyException e) {
+      // Claimed before; take it over if that claim expired or was abandoned
+    }
+    int taken = jdbc.update("""
+            update idempotency_key
+            set fingerprint = ?, claimed_at = ?, status = null, content_type = null, body = null, expires_at = ?
+            where scope = ? and idem_key = ? and (expires_at < ? or (status is null and claimed_at < ?))
+            """,
+        fingerprint, now, now.plus(ttl), scope, key, now, now.minus(claimTimeout));
+    if (taken == 1) return new Claimed(scope, key, fingerprint, now, mine);
+    finish(id, mine);
+
+    List<Stored> rows = jdbc.query(
+        "select fingerprint, status, content_type, body, expires_at from idempotency_key where scope = ? and idem_key = ?",
+        STORED, scope, key);
+    if (rows.isEmpty()) return new InProgress(null); // released meanwhile; the caller tries again
+    stored = rows.get(0);
+    if (stored.status() == null) {
+      return stored.fingerprint().equals(fingerprint) ? new InProgress(null) : new Mismatch();
+    }
+    finished.put(id, stored);
+    return answer(stored, fingerprint);
+  }
+
+  /** Records the claimed request's response for the requests that repeat it. */
+  void complete(Claimed claim, int status, String contentType, String body) {
+    LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+    int updated = jdbc.update("""
+            update idempotency_key set status = ?, content_type = ?, body = ?, expires_at = ?
+            where scope = ? and idem_key = ? and claimed_at = ? and status is null
+            """,
+        status, contentType, body, expiresAt, claim.scope(), claim.key(), claim.claimedAt());
+    // Otherwise the claim timed out and another request has the key now
+    if (updated == 1) {
+      finished.put(claim.id(), new Stored(claim.fingerprint(), status, contentType, body, expiresAt));
+    }
+    finish(claim.id(), claim.done());
+  }
+
+  /** Gives the key up after the claimed request failed, so that a retry runs it again. */
+  void release(Claimed claim) {
+    try {
+      jdbc.update("delete from idempotency_key where scope = ? and idem_key = ? and claimed_at = ? and status is null",
+          claim.scope(), claim.key(), claim.claimedAt());
+    } finally {
+      finish(claim.id(), claim.done());
+    }
+  }
+
+  /**
+   * Waits for the request holding the key, or on another node a poll interval. Returns
+   * false once {@code deadlineNanos} (a {@link System#nanoTime} value) has passed.
+   */
+  boolean await(InProgress waiting, long deadlineNanos) throws InterruptedException {
+    long remaining = deadlineNanos - System.nanoTime();
+    if (remaining <= 0) return false;
+    if (waiting.done() == null) {
+      Thread.sleep(Math.min(POLL_MS, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+      return true;
+    }
+    try {
+      waiting.done().get(remaining, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      return false;
+    } catch (ExecutionException e) {
+      // Never completed exceptionally
+    }
+    return true;
+  }
+
+  @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:600000}",
+      initialDelayString = "${app.idempotency.purge-interval-ms:600000}")
+  public int purge() {
+    return jdbc.update("delete from idempotency_key where expires_at < ?", LocalDateTime.now());
+  }
+
+  private static Outcome answer(Stored stored, String fingerprint) {
+    return stored.fingerprint().equals(fingerprint) ? new Completed(stored) : new Mismatch();
+  }
+
+  private void finish(String id, CompletableFuture<Void> done) {
+    running.remove(id, done);
+    done.complete(null);
+  }
+
+  // Cached responses go when their row expires
+  private static final class UntilExpiry implements Expiry<String, Stored> {
+    @Override
+    public long expireAfterCreate(String id, Stored stored, long currentTime) {
+      return Math.max(0, Duration.between(LocalDateTime.now(), stored.expiresAt()).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(String id, Stored stored, long currentTime, long currentDuration) {
+      return expireAfterCreate(id, stored, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String id, Stored stored, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
+  sealed interface Outcome permits Claimed, Completed, InProgress, Mismatch {
+  }
+
+  /** This request holds the key and runs. */
+  record Claimed(String scope, String key, String fingerprint, LocalDateTime claimedAt,
+                 CompletableFuture<Void> done) implements Outcome {
+    String id() {
+      return scope + ":" + key;
+    }
+  }
+
+  /** An earlier request with the key and the same fingerprint finished with this response. */
+  record Completed(Stored response) implements Outcome {
+  }
+
+  /** An earlier request with the key is still running; {@code done} is null if not on this node. */
+  record InProgress(CompletableFuture<Void> done) implements Outcome {
+  }
+
+  /** The key was used for a request with another fingerprint. */
+  record Mismatch() implements Outcome {
+  }
+
+  /** A key's row; status is null while its request runs. */
+  record Stored(String fingerprint, Integer status, String contentType, String body, LocalDateTime expiresAt) {
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RateLimitStore} that keeps the buckets in this JVM. Enough for a single node and
+ * for tests; with several nodes each one allows the full limit.
+ * <p>
+ * A bucket is a single {@code AtomicLong} updated by compare-and-set: the time at which it
+ * will be full again (the "virtual scheduling" form of a token bucket). Taking a token
+ * pushes that time one refill interval later, and is refused while it is more than a
+ * period ahead. At most {@code app.rate-limit.max-keys} buckets are kept, and one unused
+ * for {@code app.rate-limit.idle-ttl} is dropped; both only ever reset a bucket to full,
+ * so the TTL should be longer than the longest configured period.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+  private final Cache<String, AtomicLong> buckets;
+
+  public InMemoryRateLimitStore(@Value("${app.rate-limit.max-keys:100000}") long maxKeys,
+                                @Value("${app.rate-limit.idle-ttl:1h}") Duration idleTtl) {
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maxKeys)
+        .expireAfterAccess(idleTtl)
+        .build();
+  }
+
+  @Override
+  public long tryAcquire(String key, int capacity, Duration period) {
+    long periodNanos = period.toNanos();
+    long interval = periodNanos / capacity;
+    long now = System.nanoTime();
+    AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+    while (true) {
+      long current = fullAt.get();
+      long start = current - now > 0 ? current : now;
+      long next = start + interval;
+      long ahead = next - now;
+      if (ahead > periodNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(ahead - periodNanos));
+      }
+      if (fullAt.compareAndSet(current, next)) return 0;
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.config;
+
+import com.example.demo.config.RateLimitProperties.Concurrency;
+import com.example.demo.config.RateLimitProperties.Limit;
+import com.example.demo.config.RateLimitProperties.Route;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admission control for the endpoints that cost the most per request: sign-in,
+ * registration and password reset (BCrypt hashing) and booking (a locking transaction).
+ * <p>
+ * Each route has token buckets (see {@link RateLimitStore}) per client address and per
+ * account, the email in auth requests or the {@code clientId} of a booking, configured
+ * under {@code app.rate-limit.routes}. The address bucket is checked first, so a flood
+ * from one address cannot drain the buckets of the accounts it names; a bulk booking
+ * then takes a token from every distinct client it books for. A request that finds a
+ * bucket empty is answered 429 with {@code Retry-After}, before its body is deserialized
+ * or the database is touched, and one with a body over 64 KB is answered 413. Requests that pass then need a slot under the route's
+ * {@link AdaptiveConcurrencyLimit}; when the route has slowed down and every slot is
+ * taken, they are shed with a 503.
+ * <p>
+ * The client address is {@code getRemoteAddr()}; behind a proxy, set
+ * {@code server.forward-headers-strategy} so it is the caller's and not the proxy's.
+ * Other endpoints pass straight through. {@code app.rate-limit.enabled=false} removes the
+ * filter.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private static final Map<String, Guarded> GUARDED = Map.of(
+      "/api/auth/login", new Guarded("login", "email"),
+      "/api/auth/register", new Guarded("register", "email"),
+      "/api/auth/forgot-password", new Guarded("forgot-password", "email"),
+      "/api/appointments/book", new Guarded("booking", "clientId"),
+      "/api/appointments/bulk", new Guarded("booking", "clientId"));
+
+  private final RateLimitStore store;
+  private final ObjectMapper objectMapper;
+  private final Map<String, Route> routes;
+  private final Map<String, AdaptiveConcurrencyLimit> limits = new HashMap<>();
+  private final Counter rateLimited;
+  private final Counter shed;
+
+  public RateLimitFilter(RateLimitStore store, RateLimitProperties properties, ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+    this.store = store;
+    this.objectMapper = objectMapper;
+    this.routes = properties.routes();
+    Concurrency concurrency = properties.concurrency();
+    for (Guarded guarded : GUARDED.values()) {
+      limits.computeIfAbsent(guarded.route(), route -> {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(concurrency.initialLimit(),
+            concurrency.minLimit(), concurrency.maxLimit(), concurrency.tolerance());
+        meterRegistry.gauge("http.server.concurrency.limit", Tags.of("route", route), limit,
+            AdaptiveConcurrencyLimit::limit);
+        return limit;
+      });
+    }
+    this.rateLimited = meterRegistry.counter("http.server.requests.rejected", "reason", "rate-limit");
+    this.shed = meterRegistry.counter("http.server.requests.rejected", "reason", "concurrency-limit");
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"POST".equals(request.getMethod()) || guarded(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Guarded guarded = guarded(request);
+    Route route = routes.get(guarded.route());
+
+    if (route != null) {
+      if (route.ip() != null && reject(response, guarded.route() + ":ip:" + request.getRemoteAddr(), route.ip())) {
+        return;
+      }
+      if (route.account() != null) {
+        BufferedRequest buffered;
+        try {
+          buffered = BufferedRequest.of(request);
+        } catch (BufferedRequest.TooLargeException e) {
+          write(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Request body is too large");
+          return;
+        }
+        request = buffered;
+        for (String account : accounts(buffered.body, guarded.accountField())) {
+          if (reject(response, guarded.route() + ":account:" + account, route.account())) return;
+        }
+      }
+    }
+
+    AdaptiveConcurrencyLimit limit = limits.get(guarded.route());
+    if (!limit.tryAcquire()) {
+      shed.increment();
+      write(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1, "Server busy, please retry");
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      limit.release(System.nanoTime() - start);
+    }
+  }
+
+  private boolean reject(HttpServletResponse response, String key, Limit limit) throws IOException {
+    long waitMs = store.tryAcquire(key, limit.capacity(), limit.period());
+    if (waitMs == 0) return false;
+    rateLimited.increment();
+    write(response, 429, (waitMs + 999) / 1000, "Too many requests, please retry later");
+    return true;
+  }
+
+  private static void write(HttpServletResponse response, int status, long retryAfterSeconds, String error)
+      throws IOException {
+    response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+    write(response, status, error);
+  }
+
+  private static void write(HttpServletResponse response, int status, String error) throws IOException {
+    response.setStatus(status);
+    // The guarded controllers allow any origin; without this the browser hides the status
+    response.setHeader("Access-Control-Allow-Origin", "*");
+    response.setContentType("application/json");
+    response.getWriter().write("{\"error\":\"" + error + "\"}");
+  }
+
+  private static Guarded guarded(HttpServletRequest request) {
+    return GUARDED.get(request.getRequestURI().substring(request.getContextPath().length()));
+  }
+
+  // The email or client id in the body; for bulk booking, each distinct client id. Empty if absent or unparseable
+  private Set<String> accounts(byte[] body, String field) {
+    JsonNode node;
+    try {
+      node = objectMapper.readTree(body);
+    } catch (IOException e) {
+      return Set.of();
+    }
+    if (node == null) return Set.of();
+    Set<String> accounts = new LinkedHashSet<>();
+    for (JsonNode item : node.isArray() ? node : List.of(node)) {
+      if (!item.hasNonNull(field)) continue;
+      String value = item.get(field).asText().trim().toLowerCase(Locale.ROOT);
+      if (!value.isEmpty()) accounts.add(value);
+    }
+    return accounts;
+  }
+
+  private record Guarded(String route, String accountField) {
+  }
+}
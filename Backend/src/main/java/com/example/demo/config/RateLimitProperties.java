@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings for {@link RateLimitFilter} under {@code app.rate-limit}.
+ *
+ * @param routes limits per guarded route ({@code login}, {@code register},
+ *               {@code forgot-password}, {@code booking}); a route or limit left out is
+ *               not rate limited
+ */
+@ConfigurationProperties("app.rate-limit")
+public record RateLimitProperties(Map<String, Route> routes, @DefaultValue Concurrency concurrency) {
+
+  public RateLimitProperties {
+    routes = routes == null ? Map.of() : routes;
+  }
+
+  /**
+   * @param ip      bucket per client address
+   * @param account bucket per email (auth routes) or client id (booking)
+   */
+  public record Route(Limit ip, Limit account) {
+  }
+
+  /** {@code capacity} requests at once, refilled evenly over {@code period}. */
+  public record Limit(int capacity, Duration period) {
+    public Limit {
+      if (capacity <= 0 || period == null || period.isNegative() || period.isZero()) {
+        throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+      }
+    }
+  }
+
+  /**
+   * Bounds of the latency-driven concurrency limit each route gets (see
+   * {@link AdaptiveConcurrencyLimit}). {@code tolerance} is how many times the usual
+   * latency a route may reach before its limit shrinks.
+   */
+  public record Concurrency(@DefaultValue("20") int initialLimit,
+                            @DefaultValue("4") int minLimit,
+                            @DefaultValue("200") int maxLimit,
+                            @DefaultValue("1.5") double tolerance) {
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import java.time.Duration;
+
+/**
+ * Token buckets behind {@link RateLimitFilter}, one per route and client key. The backend
+ * is chosen with {@code app.rate-limit.store}. {@link InMemoryRateLimitStore} keeps the
+ * buckets in this JVM, so each node enforces its limits separately; a shared backend
+ * (one atomic script per call in Redis or similar) makes them hold across nodes.
+ */
+public interface RateLimitStore {
+
+  /**
+   * Takes a token from the key's bucket, which holds {@code capacity} tokens and refills
+   * completely over {@code period}.
+   *
+   * @return 0 if a token was taken, otherwise the milliseconds until one is available
+   */
+  long tryAcquire(String key, int capacity, Duration period);
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas under {@code app.datasource} (see {@link ReplicaRoutingConfig}). Their
+ * pools take the {@code spring.datasource.hikari.*} settings of the primary, except for
+ * the connection timeout.
+ *
+ * @param replicaTimeout how long to wait for a replica connection before using the primary
+ * @param maxLag         replication delay at which a MySQL replica is taken out of rotation
+ */
+@ConfigurationProperties("app.datasource")
+public record ReplicaProperties(List<Replica> replicas,
+                                @DefaultValue("1s") Duration replicaTimeout,
+                                @DefaultValue("30s") Duration maxLag) {
+
+  public ReplicaProperties {
+    replicas = replicas == null ? List.of() : replicas;
+  }
+
+  public record Replica(String url, String username, String password) {
+  }
+}
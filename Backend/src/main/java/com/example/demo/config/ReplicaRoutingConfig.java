@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+import com.example.demo.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single Boot-configured pool with a {@link ReplicaRoutingDataSource} once a
+ * replica is configured ({@code app.datasource.replicas[0].url}). The primary still comes
+ * from {@code spring.datasource.*}; Flyway, schema validation and every read-write
+ * transaction use it. Without replicas none of this is created.
+ * <p>
+ * Hibernate is switched to releasing its connection at the end of every transaction.
+ * Its default keeps the first connection for the rest of the session, and with
+ * open-session-in-view a request that reads and then writes would send the write down
+ * the replica connection its read-only transaction was given.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+  private final ReplicaRoutingDataSource routing;
+
+  public ReplicaRoutingConfig(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties,
+                              ReadYourWrites readYourWrites, Environment environment, MeterRegistry meterRegistry) {
+    Binder binder = Binder.get(environment);
+
+    HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    primary.setPoolName("primary");
+    primary.setMetricRegistry(meterRegistry);
+
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (ReplicaProperties.Replica replica : replicaProperties.replicas()) {
+      HikariConfig config = new HikariConfig();
+      binder.bind("spring.datasource.hikari", Bindable.ofInstance(config));
+      config.setJdbcUrl(replica.url());
+      config.setUsername(replica.username());
+      config.setPassword(replica.password());
+      config.setReadOnly(true);
+      config.setConnectionTimeout(replicaProperties.replicaTimeout().toMillis());
+      // Fill the pool in the background; an unreachable replica must not stop startup
+      config.setInitializationFailTimeout(-1);
+      config.setPoolName("replica-" + (replicas.size() + 1));
+      config.setMetricRegistry(meterRegistry);
+      replicas.add(new HikariDataSource(config));
+    }
+    this.routing = new ReplicaRoutingDataSource(primary, replicas, readYourWrites,
+        replicaProperties.maxLag(), meterRegistry);
+  }
+
+  @Bean
+  public DataSource dataSource() {
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+    return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+        PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+  }
+
+  @Scheduled(fixedDelayString = "${app.datasource.health-check-ms:5000}")
+  public void checkReplicas() {
+    routing.checkReplicas();
+  }
+
+  @PreDestroy
+  void close() {
+    routing.close();
+  }
+}
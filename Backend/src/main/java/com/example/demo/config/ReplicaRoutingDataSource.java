@@ -0,0 +1,206 @@
+package com.example.demo.config;
+
+import com.example.demo.service.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out primary or replica connections depending on the transaction asking.
+ * <p>
+ * Read-only transactions ({@code @Transactional(readOnly = true)}, which includes Spring
+ * Data's own finders) get a connection from one of the healthy replicas, taken in turn;
+ * everything else gets the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so that the
+ * connection is only fetched once the transaction's read-only flag is known.
+ * <p>
+ * Read-your-writes: reads during a web request about an account that recently wrote (see
+ * {@link ReadYourWrites}) go to the primary. The request's accounts are the
+ * {@code clientId}, {@code lawyerId} and {@code userId} in its path and the
+ * {@code clientId}, {@code lawyerId} and {@code lawyerIds} parameters. Reads keyed by
+ * email (logins, profile lookups) and cache fills do not use read-only transactions and so
+ * always go to the primary. Replicas that fail to hand out a connection, or fail
+ * {@link #checkReplicas}, are left out until a later check passes. Each pool exports the
+ * usual {@code hikaricp.*} metrics under its own pool name. Routing decisions are counted
+ * in {@code db.routing.connections}, and {@code db.replica.healthy} is 1 while a replica
+ * is in rotation.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+  private static final List<String> ACCOUNT_VARIABLES = List.of("clientId", "lawyerId", "userId");
+  private static final List<String> ACCOUNT_PARAMETERS = List.of("clientId", "lawyerId", "lawyerIds");
+
+  private final HikariDataSource primary;
+  private final List<Replica> replicas = new ArrayList<>();
+  private final ReadYourWrites readYourWrites;
+  private final Duration maxLag;
+  private final AtomicInteger next = new AtomicInteger();
+  private final Counter writes;
+  private final Counter stickyReads;
+  private final Counter fallbackReads;
+
+  public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                  ReadYourWrites readYourWrites, Duration maxLag, MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.maxLag = maxLag;
+    this.readYourWrites = readYourWrites;
+    String name = primary.getPoolName();
+    this.writes = meterRegistry.counter("db.routing.connections", "pool", name, "reason", "read-write");
+    this.stickyReads = meterRegistry.counter("db.routing.connections", "pool", name, "reason", "sticky");
+    this.fallbackReads = meterRegistry.counter("db.routing.connections", "pool", name, "reason", "no-replica");
+    for (HikariDataSource pool : replicaPools) {
+      Replica replica = new Replica(pool, meterRegistry.counter("db.routing.connections",
+          "pool", pool.getPoolName(), "reason", "read-only"));
+      meterRegistry.gauge("db.replica.healthy", Tags.of("pool", pool.getPoolName()), replica,
+          r -> r.healthy ? 1 : 0);
+      replicas.add(replica);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+        && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (readYourWrites.wroteRecently(accounts())) {
+        stickyReads.increment();
+        return primary.getConnection();
+      }
+      Connection connection = replicaConnection();
+      if (connection != null) return connection;
+      fallbackReads.increment();
+      return primary.getConnection();
+    }
+    writes.increment();
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return primary.getConnection(username, password);
+  }
+
+  // Round robin over the healthy replicas; null when none can give a connection
+  private Connection replicaConnection() {
+    int count = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+    for (int i = 0; i < count; i++) {
+      Replica replica = replicas.get((start + i) % count);
+      if (!replica.healthy) continue;
+      try {
+        Connection connection = replica.pool.getConnection();
+        replica.routed.increment();
+        return connection;
+      } catch (SQLException e) {
+        replica.healthy = false;
+      }
+    }
+    return null;
+  }
+
+  // Accounts the current web request is about; none outside a request
+  private static Set<Long> accounts() {
+    if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+      return Set.of();
+    }
+    HttpServletRequest request = attributes.getRequest();
+    Set<Long> accounts = new HashSet<>();
+    if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables) {
+      for (String name : ACCOUNT_VARIABLES) {
+        addId(accounts, variables.get(name));
+      }
+    }
+    for (String name : ACCOUNT_PARAMETERS) {
+      String[] values = request.getParameterValues(name);
+      if (values == null) continue;
+      for (String value : values) {
+        for (String id : value.split(",")) {
+          addId(accounts, id);
+        }
+      }
+    }
+    return accounts;
+  }
+
+  private static void addId(Set<Long> accounts, Object value) {
+    if (value == null) return;
+    try {
+      accounts.add(Long.valueOf(value.toString().trim()));
+    } catch (NumberFormatException e) {
+      // not an id; the controller will reject the request
+    }
+  }
+
+  /**
+   * Probes every replica: it must hand out a valid connection and, on MySQL, replicate
+   * with less than the allowed lag. Replicas pass in and out of rotation accordingly.
+   */
+  public void checkReplicas() {
+    for (Replica replica : replicas) {
+      boolean healthy;
+      try (Connection connection = replica.pool.getConnection()) {
+        healthy = connection.isValid(1) && lagAcceptable(connection);
+      } catch (SQLException e) {
+        healthy = false;
+      }
+      replica.healthy = healthy;
+    }
+  }
+
+  private boolean lagAcceptable(Connection connection) throws SQLException {
+    if (!connection.getMetaData().getDatabaseProductName().contains("MySQL")) return true;
+    try (Statement statement = connection.createStatement();
+         ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+      if (!status.next()) return true; // a standalone server, not replicating
+      long lag = status.getLong("Seconds_Behind_Source");
+      return !status.wasNull() && lag <= maxLag.toSeconds(); // null: replication stopped
+    }
+  }
+
+  // Pool settings and metadata come from the primary
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    return iface.isInstance(this) ? (T) this : primary.unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || primary.isWrapperFor(iface);
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(replica -> replica.pool.close());
+    primary.close();
+  }
+
+  private static final class Replica {
+    final HikariDataSource pool;
+    final Counter routed;
+    volatile boolean healthy = true;
+
+    Replica(HikariDataSource pool, Counter routed) {
+      this.pool = pool;
+      this.routed = routed;
+    }
+  }
+}
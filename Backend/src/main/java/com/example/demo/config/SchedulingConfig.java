@@ -0,0 +1,12 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// With spring.threads.virtual.enabled=true, @Async and @Scheduled tasks run on virtual threads.
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class SchedulingConfig {
+}
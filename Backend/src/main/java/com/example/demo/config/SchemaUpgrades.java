@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.AppointmentNote;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Data fixes for databases that schema update ({@code ddl-auto=update}) managed before
+ * the Flyway migrations. They run at startup, after the migrations and before the web
+ * server takes requests. Every step is safe to repeat, including on several nodes.
+ */
+@Component
+public class SchemaUpgrades implements SmartInitializingSingleton {
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    migrateLegacyNotes();
+    alignIdSequence("appointment", "appointment_seq", Appointment.ID_ALLOCATION_SIZE);
+    alignIdSequence("appointment_note", "appointment_note_seq", AppointmentNote.ID_ALLOCATION_SIZE);
+  }
+
+  /**
+   * Notes used to live in the {@code appointment_notes} element-collection table. Copies
+   * them into {@code appointment_note} (only while that is still empty) and renames the old
+   * table so it is not copied again.
+   */
+  private void migrateLegacyNotes() {
+    try {
+      jdbc.queryForObject("select count(*) from appointment_notes", Long.class);
+    } catch (BadSqlGrammarException e) {
+      return; // already migrated, or never existed
+    }
+    Long existing = jdbc.queryForObject("select count(*) from appointment_note", Long.class);
+    if (existing == 0) {
+      jdbc.update("""
+          insert into appointment_note (id, appointment_id, content)
+          select row_number() over (order by appointment_id), appointment_id, note
+          from appointment_notes
+          """);
+    }
+    jdbc.execute("alter table appointment_notes rename to appointment_notes_legacy");
+  }
+
+  /**
+   * Moves an id counter past ids that are already taken. On MySQL, which has no sequences,
+   * the pooled generator keeps its counter in a table that schema update created starting
+   * at 1: below rows inserted with auto-increment ids or copied in by a migration. The
+   * update only ever moves the counter forward. Databases with real sequences have no such
+   * table and are left alone.
+   */
+  private void alignIdSequence(String table, String sequenceTable, int allocationSize) {
+    Long maxId = jdbc.queryForObject("select max(id) from " + table, Long.class);
+    if (maxId == null) return;
+
+    // The pooled optimizer hands out the block that ends at the value it reads
+    long floor = maxId + allocationSize + 1;
+    try {
+      jdbc.update("update " + sequenceTable + " set next_val = ? where next_val < ?", floor, floor);
+    } catch (BadSqlGrammarException e) {
+      // A native sequence rather than the table emulation; nothing to align
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true}. Spring Boot already moves
+ * Tomcat, {@code @Async} and {@code @Scheduled} onto virtual threads; this routes every
+ * connection checkout through {@link DatabaseAdmissionFilter}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  static BeanPostProcessor admissionControlledDataSource(ObjectProvider<DatabaseAdmissionFilter> admission) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlledDataSource) return bean;
+        return new AdmissionControlledDataSource(dataSource, admission);
+      }
+    };
+  }
+
+  private static final class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<DatabaseAdmissionFilter> admission;
+
+    AdmissionControlledDataSource(DataSource target, ObjectProvider<DatabaseAdmissionFilter> admission) {
+      super(target);
+      this.admission = admission;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      admission.getObject().admit();
+      return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      admission.getObject().admit();
+      return super.getConnection(username, password);
+    }
+  }
+}
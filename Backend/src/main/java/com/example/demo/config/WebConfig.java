@@ -1,16 +1,40 @@
 package com.example.demo.config;
 
+import com.example.demo.controller.AppointmentController;
+import com.example.demo.controller.ConditionalGet;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.*;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Open-session-in-view (spring.jpa.open-in-view is off so it can be registered here),
+    // except for auth: once a request has touched the database the session keeps its
+    // connection, which a login would then hold while it waits for password hashing.
+    // With read replicas the session gives its connection back after each transaction
+    // instead (see ReplicaRoutingConfig), so a write never reuses a replica connection.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openInView).excludePathPatterns("/api/auth/**");
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // Applies to all endpoints
             .allowedOrigins("http://localhost:5173") // Your frontend origin
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-            .allowedHeaders("*");
+            .allowedHeaders("*")
+            .exposedHeaders(AppointmentController.NEXT_CURSOR_HEADER, ConditionalGet.NEXT_SINCE_HEADER, "ETag",
+                IdempotencyFilter.REPLAYED_HEADER);
     }
 }
@@ -1,41 +1,120 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.AppointmentPage;
+import com.example.demo.model.AppointmentQuery;
 import com.example.demo.model.AppointmentRequestDTO;
 import com.example.demo.model.Appointment;
+import com.example.demo.model.BulkStatusRequest;
+import com.example.demo.model.NotePage;
+import com.example.demo.model.NoteRequestDTO;
 import com.example.demo.service.AppointmentService;
+import com.example.demo.service.BookingConflictException;
+import com.example.demo.service.CollectionVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/appointments")
 @CrossOrigin("*")
 public class AppointmentController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  private static final String NDJSON = "application/x-ndjson";
+
   @Autowired
   private AppointmentService appointmentService;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private CollectionVersions versions;
+
   @PostMapping("/book")
-  public ResponseEntity<Appointment> bookAppointment(@RequestBody AppointmentRequestDTO request) {
-    return ResponseEntity.ok(appointmentService.bookAppointment(request));
+  public ResponseEntity<?> bookAppointment(@RequestBody AppointmentRequestDTO request) {
+    try {
+      return ResponseEntity.ok(appointmentService.bookAppointment(request));
+    } catch (BookingConflictException e) {
+      return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
   }
 
+  // Books every item in one transaction; the response has one result per item, in order.
+  @PostMapping("/bulk")
+  public ResponseEntity<?> bookAppointments(@RequestBody List<AppointmentRequestDTO> requests) {
+    try {
+      return ResponseEntity.ok(appointmentService.bookAppointments(requests));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // 304 if If-None-Match is current; ?since= returns only appointments changed after it
   @GetMapping("/lawyer/{lawyerId}")
-  public ResponseEntity<List<Appointment>> getAppointmentsForLawyer(@PathVariable Long lawyerId) {
-    return ResponseEntity.ok(appointmentService.getAppointmentsForLawyer(lawyerId));
+  public ResponseEntity<?> getAppointmentsForLawyer(@PathVariable Long lawyerId, AppointmentQuery query,
+                                                    WebRequest request) {
+    String etag = versions.etag(CollectionVersions.lawyerAppointments(lawyerId));
+    if (request.checkNotModified(etag)) return null;
+    String nextSince = ConditionalGet.nextSince();
+    try {
+      return page(appointmentService.getAppointmentsForLawyer(lawyerId, query), etag, nextSince);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
   }
 
   @GetMapping("/client/{clientId}")
-  public ResponseEntity<List<Appointment>> getAppointmentsForClient(@PathVariable Long clientId) {
-    return ResponseEntity.ok(appointmentService.getAppointmentsForClient(clientId));
+  public ResponseEntity<?> getAppointmentsForClient(@PathVariable Long clientId, AppointmentQuery query,
+                                                    WebRequest request) {
+    String etag = versions.etag(CollectionVersions.clientAppointments(clientId));
+    if (request.checkNotModified(etag)) return null;
+    String nextSince = ConditionalGet.nextSince();
+    try {
+      return page(appointmentService.getAppointmentsForClient(clientId, query), etag, nextSince);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Same history as NDJSON (one appointment per line) when the client sends
+  // "Accept: application/x-ndjson"; the whole range is streamed oldest first, no paging.
+  @GetMapping(value = "/lawyer/{lawyerId}", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamAppointmentsForLawyer(
+      @PathVariable Long lawyerId, AppointmentQuery query) {
+    return ndjson(sink -> appointmentService.streamAppointmentsForLawyer(lawyerId, query, sink));
+  }
+
+  @GetMapping(value = "/client/{clientId}", produces = NDJSON)
+  public ResponseEntity<StreamingResponseBody> streamAppointmentsForClient(
+      @PathVariable Long clientId, AppointmentQuery query) {
+    return ndjson(sink -> appointmentService.streamAppointmentsForClient(clientId, query, sink));
   }
 
   @PutMapping("/{appointmentId}/confirm")
   public ResponseEntity<?> confirmAppointment(@PathVariable Long appointmentId) {
-    return ResponseEntity.ok(appointmentService.updateStatus(appointmentId, "confirmed"));
+    try {
+      return ResponseEntity.ok(appointmentService.updateStatus(appointmentId, "confirmed"));
+    } catch (BookingConflictException e) {
+      return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+    } catch (OptimisticLockingFailureException e) {
+      // Cancelled or confirmed by someone else, e.g. the timers, while this was in flight
+      return ResponseEntity.status(409).body(Map.of("error", "Appointment " + appointmentId + " changed meanwhile"));
+    }
   }
 
   @PutMapping("/{appointmentId}/cancel")
@@ -47,15 +126,67 @@ public class AppointmentController {
     return ResponseEntity.ok(appointmentService.cancelAppointment(appointmentId, reason));
   }
 
+  // Body: {"appointmentIds": [...], "status": "confirmed" | "cancelled", "reason": "..."}
+  @PutMapping("/bulk-status")
+  public ResponseEntity<?> updateStatuses(@RequestBody BulkStatusRequest request) {
+    try {
+      return ResponseEntity.ok(appointmentService.updateStatuses(request));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Appends one note and returns it; body: {"note": "...", "authorId": 12}
   @PutMapping("/{appointmentId}/add-note")
-  public ResponseEntity<Appointment> addNoteToAppointment(
+  public ResponseEntity<?> addNoteToAppointment(
       @PathVariable Long appointmentId,
-      @RequestBody Map<String, String> body
+      @RequestBody NoteRequestDTO body
   ) {
-    String note = body.get("note");
-    return ResponseEntity.ok(appointmentService.addNoteToAppointment(appointmentId, note));
+    try {
+      return ResponseEntity.ok(appointmentService.addNoteToAppointment(appointmentId, body.getNote(), body.getAuthorId()));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    } catch (NoSuchElementException e) {
+      return ResponseEntity.status(404).body(Map.of("error", e.getMessage()));
+    }
   }
 
+  // Newest first, paged like history: X-Next-Cursor fetches the next (older) page.
+  @GetMapping("/{appointmentId}/notes")
+  public ResponseEntity<?> getNotes(
+      @PathVariable Long appointmentId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit
+  ) {
+    try {
+      NotePage page = appointmentService.getNotes(appointmentId, cursor, limit);
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+      if (page.getNextCursor() != null) {
+        response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+      }
+      return response.body(page.getItems());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
 
+  private static ResponseEntity<List<Appointment>> page(AppointmentPage page, String etag, String nextSince) {
+    ResponseEntity.BodyBuilder response = ConditionalGet.ok(etag, nextSince);
+    if (page.getNextCursor() != null) {
+      response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+    }
+    return response.body(page.getItems());
+  }
 
+  private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<Appointment>> source) {
+    StreamingResponseBody body = out -> source.accept(apt -> {
+      try {
+        out.write(objectMapper.writeValueAsBytes(apt));
+        out.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+  }
 }
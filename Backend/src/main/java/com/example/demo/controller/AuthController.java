@@ -1,6 +1,8 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.User;
+import com.example.demo.model.UserSummary;
+import com.example.demo.service.HashingUnavailableException;
 import com.example.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -20,7 +22,9 @@ public class AuthController {
     public ResponseEntity<?> register(@RequestBody User user) {
         try {
             User createdUser = userService.registerUser(user);
-            return ResponseEntity.ok(Map.of("message", "User registered successfully", "user", createdUser));
+            return ResponseEntity.ok(Map.of("message", "User registered successfully", "user", UserSummary.from(createdUser)));
+        } catch (HashingUnavailableException e) {
+            return busy(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -31,9 +35,13 @@ public class AuthController {
         String email = loginData.get("email");
         String password = loginData.get("password");
 
-        return userService.login(email, password)
-            .map(user -> ResponseEntity.ok(Map.of("message", "Login successful", "user", user)))
-            .orElse(ResponseEntity.status(401).body(Map.of("error", "Invalid credentials")));
+        try {
+            return userService.login(email, password)
+                .<ResponseEntity<?>>map(user -> ResponseEntity.ok(Map.of("message", "Login successful", "user", user)))
+                .orElse(ResponseEntity.status(401).body(Map.of("error", "Invalid credentials")));
+        } catch (HashingUnavailableException e) {
+            return busy(e);
+        }
     }
 
      // --- NEW ENDPOINT FOR FORGOT PASSWORD ---
@@ -46,7 +54,12 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", "Email and new password must be provided."));
         }
 
-        boolean isUpdated = userService.updatePassword(email, newPassword);
+        boolean isUpdated;
+        try {
+            isUpdated = userService.updatePassword(email, newPassword);
+        } catch (HashingUnavailableException e) {
+            return busy(e);
+        }
 
         if (isUpdated) {
             return ResponseEntity.ok(Map.of("message", "Password updated successfully. You can now login."));
@@ -54,4 +67,9 @@ public class AuthController {
             return ResponseEntity.status(404).body(Map.of("error", "User with this email does not exist."));
         }
     }
+
+    // Hashing pool saturated: fail fast and let the client retry
+    private static ResponseEntity<?> busy(HashingUnavailableException e) {
+        return ResponseEntity.status(503).header("Retry-After", "1").body(Map.of("error", e.getMessage()));
+    }
 }
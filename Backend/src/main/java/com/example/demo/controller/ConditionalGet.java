@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Shared response handling for polled lists. Endpoints first compare the client's
+ * {@code If-None-Match} with the list's ETag from
+ * {@link com.example.demo.service.CollectionVersions} and answer 304 on a match, before
+ * any query runs. Full responses carry the ETag, {@code Cache-Control: no-cache} (so
+ * browsers revalidate instead of reusing a stale copy) and {@code X-Next-Since}, which
+ * the client sends back as {@code ?since=} to get only the records changed since.
+ */
+public final class ConditionalGet {
+
+  public static final String NEXT_SINCE_HEADER = "X-Next-Since";
+
+  // A row's updatedAt is set at flush, shortly before its transaction commits; a read in
+  // that window misses it, so the next delta starts this much before the read.
+  private static final Duration SINCE_OVERLAP = Duration.ofSeconds(5);
+
+  private ConditionalGet() {
+  }
+
+  /** The {@code since} for the client's next delta; take it before reading the list. */
+  static String nextSince() {
+    return LocalDateTime.now().minus(SINCE_OVERLAP).toString();
+  }
+
+  static ResponseEntity.BodyBuilder ok(String etag, String nextSince) {
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.noCache())
+        .header(NEXT_SINCE_HEADER, nextSince);
+  }
+}
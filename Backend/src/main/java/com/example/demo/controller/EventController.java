@@ -0,0 +1,28 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UserEventHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin("*")
+public class EventController {
+
+  @Autowired
+  private UserEventHub eventHub;
+
+  // Server-Sent Events for one user: "appointment", "appointment-note", "review" and
+  // "resync" (reload lists). Browsers resume with the Last-Event-ID header on their own;
+  // ?lastEventId= does the same for a fresh EventSource.
+  @GetMapping(value = "/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter subscribe(
+      @PathVariable Long userId,
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventHeader,
+      @RequestParam(value = "lastEventId", required = false) Long lastEventParam
+  ) {
+    return eventHub.subscribe(userId, lastEventHeader != null ? lastEventHeader : lastEventParam);
+  }
+}
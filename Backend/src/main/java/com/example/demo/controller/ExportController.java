@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.ExportFilter;
+import com.example.demo.service.DataExporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Admin downloads: ?format=csv (default) or ndjson, ?gzip=true for a .gz file. Rows are
+// streamed as they are read, so a failure part way through truncates the download.
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+  private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+  @Autowired
+  private DataExporter exporter;
+
+  @GetMapping("/users")
+  public ResponseEntity<?> exportUsers(ExportFilter filter,
+                                       @RequestParam(defaultValue = "csv") String format,
+                                       @RequestParam(defaultValue = "false") boolean gzip) {
+    return download("users", filter, format, gzip, (f, out) -> exporter.exportUsers(filter, f, out));
+  }
+
+  @GetMapping("/appointments")
+  public ResponseEntity<?> exportAppointments(ExportFilter filter,
+                                              @RequestParam(defaultValue = "csv") String format,
+                                              @RequestParam(defaultValue = "false") boolean gzip) {
+    return download("appointments", filter, format, gzip, (f, out) -> exporter.exportAppointments(filter, f, out));
+  }
+
+  @GetMapping("/reviews")
+  public ResponseEntity<?> exportReviews(ExportFilter filter,
+                                         @RequestParam(defaultValue = "csv") String format,
+                                         @RequestParam(defaultValue = "false") boolean gzip) {
+    return download("reviews", filter, format, gzip, (f, out) -> exporter.exportReviews(filter, f, out));
+  }
+
+  private interface Export {
+    void write(DataExporter.Format format, OutputStream out) throws IOException;
+  }
+
+  private static ResponseEntity<?> download(String name, ExportFilter filter, String format, boolean gzip,
+                                            Export export) {
+    DataExporter.Format parsed;
+    try {
+      parsed = DataExporter.Format.parse(format);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+    if (filter.getFrom() != null && filter.getTo() != null && filter.getFrom().isAfter(filter.getTo())) {
+      return ResponseEntity.badRequest().body(Map.of("error", "from must not be after to"));
+    }
+
+    StreamingResponseBody body = out -> {
+      if (!gzip) {
+        export.write(parsed, out);
+        return;
+      }
+      GZIPOutputStream zipped = new GZIPOutputStream(out, 8192);
+      export.write(parsed, zipped);
+      zipped.finish();
+    };
+    String filename = name + "-" + LocalDate.now() + "." + parsed.extension + (gzip ? ".gz" : "");
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+        .contentType(gzip ? GZIP : parsed.mediaType)
+        .body(body);
+  }
+}
@@ -1,11 +1,24 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.User;
+import com.example.demo.model.AvailabilityQuery;
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.LawyerSearchCriteria;
+import com.example.demo.model.RecommendationQuery;
+import com.example.demo.model.WorkingHours;
+import com.example.demo.service.AvailabilityService;
+import com.example.demo.service.CollectionVersions;
+import com.example.demo.service.LawyerRecommender;
+import com.example.demo.service.LawyerSearchIndex;
 import com.example.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/lawyers")
@@ -15,8 +28,80 @@ public class LawyerController {
   @Autowired
   private UserService userService;
 
+  @Autowired
+  private LawyerSearchIndex lawyerSearchIndex;
+
+  @Autowired
+  private LawyerRecommender lawyerRecommender;
+
+  @Autowired
+  private AvailabilityService availabilityService;
+
+  @Autowired
+  private CollectionVersions versions;
+
+  // 304 if If-None-Match is current; ?since= returns only lawyers changed after it
   @GetMapping
-  public List<User> getAllLawyers() {
-    return userService.getAllLawyers();
+  public ResponseEntity<List<LawyerCard>> getAllLawyers(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+      WebRequest request) {
+    String etag = versions.etag(CollectionVersions.LAWYERS);
+    if (request.checkNotModified(etag)) return null;
+    String nextSince = ConditionalGet.nextSince();
+    return ConditionalGet.ok(etag, nextSince).body(userService.getLawyerCards(since));
+  }
+
+  // Free 15-minute aligned intervals per day, e.g. /7/availability?from=2025-06-01&to=2025-06-30
+  @GetMapping("/{id}/availability")
+  public ResponseEntity<?> getAvailability(@PathVariable Long id, AvailabilityQuery query) {
+    try {
+      return ResponseEntity.ok(availabilityService.getAvailability(id, query));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Same for many lawyers at once, e.g. a page of search results: /availability?lawyerIds=1,2,3
+  @GetMapping("/availability")
+  public ResponseEntity<?> getAvailability(@RequestParam List<Long> lawyerIds, AvailabilityQuery query) {
+    try {
+      return ResponseEntity.ok(availabilityService.getAvailability(lawyerIds, query));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @GetMapping("/{id}/working-hours")
+  public List<WorkingHours> getWorkingHours(@PathVariable Long id) {
+    return availabilityService.getWorkingHours(id);
+  }
+
+  // Body: [{"dayOfWeek": "MONDAY", "startTime": "09:00", "endTime": "13:00"}, ...]
+  @PutMapping("/{id}/working-hours")
+  public ResponseEntity<?> setWorkingHours(@PathVariable Long id, @RequestBody List<WorkingHours> periods) {
+    try {
+      return ResponseEntity.ok(availabilityService.setWorkingHours(id, periods));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<?> searchLawyers(LawyerSearchCriteria criteria) {
+    try {
+      return ResponseEntity.ok(lawyerSearchIndex.search(criteria));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Best matches first, e.g. /recommended?specialization=Family Law&language=Hindi&budget=2000
+  @GetMapping("/recommended")
+  public ResponseEntity<?> recommendLawyers(RecommendationQuery query) {
+    try {
+      return ResponseEntity.ok(lawyerRecommender.recommend(query));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
   }
-}
\ No newline at end of file
+}
@@ -4,14 +4,15 @@ import com.example.demo.model.Review;
 import com.example.demo.model.ReviewRequestDTO;
 import com.example.demo.model.ReviewResponseDTO;
 import com.example.demo.repository.ReviewRepository;
+import com.example.demo.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reviews")
@@ -21,27 +22,37 @@ public class ReviewController {
   @Autowired
   private ReviewRepository reviewRepository;
 
+  @Autowired
+  private ReviewService reviewService;
+
   @PostMapping("/add")
-  public ResponseEntity<Review> createReview(@RequestBody ReviewRequestDTO dto) {
-    Review review = new Review();
-    review.setAppointmentId(dto.getAppointmentId());
-    review.setClientId(dto.getClientId());
-    review.setLawyerId(dto.getLawyerId());
-    review.setRating(dto.getRating());
-    review.setComment(dto.getComment());
-    review.setCreatedAt(LocalDateTime.now());
-    review.setUpdatedAt(LocalDateTime.now());
-    return ResponseEntity.ok(reviewRepository.save(review));
+  public ResponseEntity<?> createReview(@RequestBody ReviewRequestDTO dto) {
+    try {
+      return ResponseEntity.ok(reviewService.createReview(dto));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  // Rating aggregates for many lawyers at once, e.g. /ratings?lawyerIds=1,2,3
+  @GetMapping("/ratings")
+  public ResponseEntity<?> getRatings(@RequestParam List<Long> lawyerIds) {
+    try {
+      return ResponseEntity.ok(reviewService.getRatings(lawyerIds));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+  }
+
+  @PostMapping("/ratings/rebuild")
+  public ResponseEntity<Map<String, Integer>> rebuildRatings() {
+    return ResponseEntity.ok(Map.of("lawyers", reviewService.rebuildRatings()));
   }
 
   @PatchMapping("/{id}/respond")
   public ResponseEntity<Review> respondToReview(@PathVariable Long id, @RequestBody ReviewResponseDTO dto) {
-    return reviewRepository.findById(id)
-        .map(r -> {
-          r.setResponse(dto.getResponse());
-          r.setUpdatedAt(LocalDateTime.now());
-          return ResponseEntity.ok(reviewRepository.save(r));
-        })
+    return reviewService.respondToReview(id, dto.getResponse())
+        .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
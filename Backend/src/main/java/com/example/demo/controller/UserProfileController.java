@@ -1,13 +1,18 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.User;
+import com.example.demo.model.UserSummary;
+import com.example.demo.service.CollectionVersions;
+import com.example.demo.service.DashboardStatsService;
 import com.example.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -18,64 +23,63 @@ public class UserProfileController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DashboardStatsService dashboardStats;
+
+    @Autowired
+    private CollectionVersions versions;
+
     @GetMapping
-    public ResponseEntity<User> getProfile(@RequestParam String email) {
+    public ResponseEntity<UserSummary> getProfile(@RequestParam String email) {
         return ResponseEntity.ok(userService.getUserByEmail(email));
     }
 
     @PutMapping
-    public ResponseEntity<User> updateProfile(@RequestParam String email, @RequestBody User updatedUser) {
+    public ResponseEntity<UserSummary> updateProfile(@RequestParam String email, @RequestBody User updatedUser) {
         return ResponseEntity.ok(userService.updateUserProfile(email, updatedUser));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<UserSummary>> getAllUsers() {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    // 304 if If-None-Match is current; ?since= returns only lawyers changed after it
     @GetMapping("/lawyers")
-    public ResponseEntity<List<User>> getAllLawyers() {
-        return ResponseEntity.ok(userService.getAllLawyers());
+    public ResponseEntity<List<UserSummary>> getAllLawyers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            WebRequest request) {
+        String etag = versions.etag(CollectionVersions.LAWYERS);
+        if (request.checkNotModified(etag)) return null;
+        String nextSince = ConditionalGet.nextSince();
+        return ConditionalGet.ok(etag, nextSince).body(userService.getAllLawyers(since));
     }
 
     @GetMapping("/lawyers/pending")
-    public ResponseEntity<List<User>> getPendingLawyers() {
-        List<User> lawyers = userService.getAllLawyers();
-        List<User> pendingLawyers = lawyers.stream()
+    public ResponseEntity<List<UserSummary>> getPendingLawyers(WebRequest request) {
+        String etag = versions.etag(CollectionVersions.LAWYERS);
+        if (request.checkNotModified(etag)) return null;
+        String nextSince = ConditionalGet.nextSince();
+        List<UserSummary> lawyers = userService.getAllLawyers();
+        List<UserSummary> pendingLawyers = lawyers.stream()
             .filter(lawyer -> "pending".equals(lawyer.getVerificationStatus()))
             .toList();
-        return ResponseEntity.ok(pendingLawyers);
+        return ConditionalGet.ok(etag, nextSince).body(pendingLawyers);
     }
 
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
-        List<User> allUsers = userService.getAllUsers();
-        List<User> lawyers = userService.getAllLawyers();
-        
-        long totalUsers = allUsers.size();
-        long totalClients = allUsers.stream()
-            .filter(user -> "client".equals(user.getRole()))
-            .count();
-        long totalLawyers = lawyers.size();
-        long pendingVerifications = lawyers.stream()
-            .filter(lawyer -> "pending".equals(lawyer.getVerificationStatus()))
-            .count();
-        long verifiedLawyers = lawyers.stream()
-            .filter(lawyer -> "verified".equals(lawyer.getVerificationStatus()))
-            .count();
-        
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalUsers", totalUsers);
-        stats.put("totalClients", totalClients);
-        stats.put("totalLawyers", totalLawyers);
-        stats.put("pendingVerifications", pendingVerifications);
-        stats.put("verifiedLawyers", verifiedLawyers);
-        
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(dashboardStats.snapshot());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UserSummary> getUserById(@PathVariable Long id) {
+        UserSummary user = userService.getUserById(id);
+        return user == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(user);
     }
 
     @PatchMapping("/verify/{id}")
-    public ResponseEntity<User> verifyLawyer(@PathVariable Long id, @RequestParam String status) {
+    public ResponseEntity<UserSummary> verifyLawyer(@PathVariable Long id, @RequestParam String status) {
         return ResponseEntity.ok(userService.updateVerificationStatus(id, status));
     }
 
@@ -1,22 +1,32 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+    name = "uk_appointment_lawyer_slot",
+    columnNames = {"lawyer_id", "date", "start_time", "active_slot"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Appointment {
 
+  // Pooled ids: one round trip reserves ID_ALLOCATION_SIZE of them, and unlike IDENTITY the
+  // id is known before the insert, so Hibernate can batch inserts. On MySQL, which has no
+  // sequences, Hibernate keeps the counter in an appointment_seq table.
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+  @SequenceGenerator(name = "appointment_seq", sequenceName = "appointment_seq", allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
 
   private Long clientId;
@@ -25,12 +35,6 @@ public class Appointment {
   private String type; // video or chat
   private String status; // pending, confirmed, cancelled, completed
 
-  @Builder.Default
-  @ElementCollection
-  @CollectionTable(name = "appointment_notes", joinColumns = @JoinColumn(name = "appointment_id"))
-  @Column(name = "note")
-  private List<String> notes = new ArrayList<>();
-
   private LocalDate date;
   private LocalTime startTime;
   private LocalTime endTime;
@@ -38,4 +42,18 @@ public class Appointment {
   private int fee;
 
   private String cancelReason; // optional
+
+  // TRUE while the appointment holds its slot, NULL once cancelled. Unique indexes ignore
+  // NULLs, so the constraint above only stops two live bookings from sharing a start time.
+  @JsonIgnore
+  @Builder.Default
+  private Boolean activeSlot = Boolean.TRUE;
+
+  // Bumped on every update, so concurrent status changes cannot silently overwrite each
+  // other; updatedAt is what ?since= delta queries filter on.
+  @Version
+  private long version;
+
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
 }
@@ -0,0 +1,46 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry in an appointment's conversation. Notes are only ever appended, one INSERT
+ * each, and read a page at a time by (appointment, id).
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_appointment_note_appointment", columnList = "appointment_id, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AppointmentNote {
+
+  public static final int ID_ALLOCATION_SIZE = 50;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_note_seq")
+  @SequenceGenerator(name = "appointment_note_seq", sequenceName = "appointment_note_seq",
+      allocationSize = ID_ALLOCATION_SIZE)
+  private Long id;
+
+  // Writes the foreign key. Set it with a reference so appending never loads the appointment.
+  @JsonIgnore
+  @ToString.Exclude
+  @EqualsAndHashCode.Exclude
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "appointment_id", nullable = false)
+  private Appointment appointment;
+
+  @Column(name = "appointment_id", insertable = false, updatable = false)
+  private Long appointmentId;
+
+  private Long authorId; // null for notes the system adds, such as cancellations
+
+  @Column(columnDefinition = "TEXT")
+  private String content;
+
+  private LocalDateTime createdAt; // null for notes migrated from the old collection table
+}
@@ -0,0 +1,33 @@
+package com.example.demo.model;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Filters and paging for appointment history. {@code cursor} is the opaque value the
+ * previous page returned in the {@code X-Next-Cursor} header; {@code limit} is capped
+ * by the service. {@code since} (ISO date-time, usually the previous response's
+ * {@code X-Next-Since} header) keeps only appointments changed after it. Pages are
+ * oldest first unless {@code order} is {@code desc}, which history screens use to show the
+ * most recent appointments first; a cursor only continues in the order it came from.
+ */
+@Data
+public class AppointmentQuery {
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate from;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate to;
+
+  private String status;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+  private LocalDateTime since;
+
+  private String cursor;
+  private Integer limit;
+  private String order;
+}
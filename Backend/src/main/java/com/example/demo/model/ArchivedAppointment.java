@@ -0,0 +1,62 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A finished appointment moved to cold storage by the archiver. Rows are written only by
+ * its batch copy and never updated; readers get them back as {@link Appointment}s.
+ */
+@Entity
+@Table(name = "appointment_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedAppointment {
+
+  @Id
+  private Long id;
+
+  private Long clientId;
+  private Long lawyerId;
+
+  private String type;
+  private String status;
+
+  private LocalDate date;
+  private LocalTime startTime;
+  private LocalTime endTime;
+
+  private int fee;
+
+  private String cancelReason;
+
+  private long version;
+
+  private LocalDateTime updatedAt;
+
+  private LocalDateTime archivedAt;
+
+  /** As it was when archived. Finished appointments hold no slot. */
+  public Appointment toAppointment() {
+    return Appointment.builder()
+        .id(id)
+        .clientId(clientId)
+        .lawyerId(lawyerId)
+        .type(type)
+        .status(status)
+        .date(date)
+        .startTime(startTime)
+        .endTime(endTime)
+        .fee(fee)
+        .cancelReason(cancelReason)
+        .activeSlot(null)
+        .version(version)
+        .updatedAt(updatedAt)
+        .build();
+  }
+}
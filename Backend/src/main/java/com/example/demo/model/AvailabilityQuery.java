@@ -0,0 +1,22 @@
+package com.example.demo.model;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Range for availability lookups. {@code from} defaults to today and {@code to} to two
+ * weeks later; days before today are never returned. {@code minMinutes} drops free
+ * intervals shorter than the consultation the client wants.
+ */
+@Data
+public class AvailabilityQuery {
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate from;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate to;
+
+  private Integer minMinutes;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk request. {@code index} is the item's position in the
+ * request; {@code outcome} is "ok", "invalid", "conflict" or "not_found".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+  public static final String OK = "ok";
+  public static final String INVALID = "invalid";
+  public static final String CONFLICT = "conflict";
+  public static final String NOT_FOUND = "not_found";
+
+  private int index;
+  private String outcome;
+  private Appointment appointment; // set when outcome is "ok"
+  private String error;
+
+  public static BulkItemResult ok(int index, Appointment appointment) {
+    return new BulkItemResult(index, OK, appointment, null);
+  }
+
+  public static BulkItemResult failed(int index, String outcome, String error) {
+    return new BulkItemResult(index, outcome, null, error);
+  }
+}
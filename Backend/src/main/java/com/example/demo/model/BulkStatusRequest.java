@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusRequest {
+  private List<Long> appointmentIds;
+  private String status; // confirmed or cancelled
+  private String reason; // cancellations only
+}
@@ -0,0 +1,26 @@
+package com.example.demo.model;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of the admin exports; unset fields do not filter. {@code role} applies
+ * to users; {@code lawyerId} and {@code clientId} to appointments and reviews;
+ * {@code status} to appointments. {@code from} and {@code to} (ISO dates, both inclusive)
+ * bound an appointment's date and a review's creation day.
+ */
+@Data
+public class ExportFilter {
+  private String role;
+  private Long lawyerId;
+  private Long clientId;
+  private String status;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate from;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate to;
+}
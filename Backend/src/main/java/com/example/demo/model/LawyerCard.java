@@ -0,0 +1,56 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Compact, read-only view of a lawyer as shown on directory and search cards.
+ * Carries only public profile fields; never the password or KYC documents.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LawyerCard {
+  private Long id;
+  private String name;
+  private String role;
+  private String bio;
+  private String location;
+  private Integer consultationFee;
+  private Integer yearsOfExperience;
+  private List<String> specializations;
+  private List<String> languages;
+  private List<String> education;
+
+  @JsonProperty("isVerified")
+  private boolean verified;
+
+  private String verificationStatus;
+
+  public static LawyerCard from(User user) {
+    return LawyerCard.builder()
+        .id(user.getId())
+        .name(user.getName())
+        .role(user.getRole())
+        .bio(user.getBio())
+        .location(user.getLocation())
+        .consultationFee(user.getConsultationFee())
+        .yearsOfExperience(user.getYearsOfExperience())
+        .specializations(copyOf(user.getSpecializations()))
+        .languages(copyOf(user.getLanguages()))
+        .education(copyOf(user.getEducation()))
+        .verified(user.getIsVerified())
+        .verificationStatus(user.getVerificationStatus())
+        .build();
+  }
+
+  static List<String> copyOf(List<String> values) {
+    return values == null ? List.of() : values.stream().filter(v -> v != null).toList();
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Materialized review aggregate for one lawyer: count, sum and a 1-5 star histogram.
+ * Maintained from the outbox event of each review insert by {@code RatingAggregator}.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LawyerRating {
+
+  @Id
+  private Long lawyerId;
+
+  private long reviewCount;
+  private long ratingSum;
+
+  private long stars1;
+  private long stars2;
+  private long stars3;
+  private long stars4;
+  private long stars5;
+
+  private LocalDateTime lastReviewAt;
+
+  public static LawyerRating empty(Long lawyerId) {
+    return LawyerRating.builder().lawyerId(lawyerId).build();
+  }
+
+  public double getAverageRating() {
+    return reviewCount == 0 ? 0 : Math.round(ratingSum * 100.0 / reviewCount) / 100.0;
+  }
+
+  public long[] getHistogram() {
+    return new long[]{stars1, stars2, stars3, stars4, stars5};
+  }
+
+  public void add(int rating, LocalDateTime at) {
+    reviewCount++;
+    ratingSum += rating;
+    switch (rating) {
+      case 1 -> stars1++;
+      case 2 -> stars2++;
+      case 3 -> stars3++;
+      case 4 -> stars4++;
+      case 5 -> stars5++;
+      default -> throw new IllegalArgumentException("Rating must be between 1 and 5");
+    }
+    if (at != null && (lastReviewAt == null || at.isAfter(lastReviewAt))) {
+      lastReviewAt = at;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ranked result of {@code GET /api/lawyers/recommended}. {@code score} is between 0
+ * and 1 and only meaningful relative to the other results of the same query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerRecommendation {
+  private LawyerCard lawyer;
+  private double score;
+  private double averageRating;
+  private long reviewCount;
+  private int completedAppointments;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+/**
+ * Query parameters accepted by {@code GET /api/lawyers/search}.
+ * <p>
+ * {@code sort} is one of {@code fee}, {@code experience} or {@code name}; prefix with
+ * {@code -} for descending order. Either {@code page} or the opaque {@code cursor}
+ * returned by the previous page may be used for paging.
+ */
+@Data
+public class LawyerSearchCriteria {
+  private String q;
+  private String specialization;
+  private String location;
+  private String language;
+  private Integer maxFee;
+  private Integer minExperience;
+  private String sort = "-experience";
+  private int page = 0;
+  private int size = 20;
+  private String cursor;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LawyerSearchResponse {
+  private List<LawyerCard> items;
+  private int total;
+  private int page;
+  private int size;
+  private String nextCursor; // null on the last page
+}
@@ -0,0 +1,9 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+@Data
+public class NoteRequestDTO {
+  private String note;
+  private Long authorId;
+}
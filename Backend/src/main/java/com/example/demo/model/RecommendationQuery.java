@@ -0,0 +1,19 @@
+package com.example.demo.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Query parameters accepted by {@code GET /api/lawyers/recommended}. Every field is
+ * optional: specializations and languages are matched by exact (case-insensitive)
+ * value, and {@code budget} is the consultation fee the client has in mind. Lawyers that
+ * miss a criterion rank lower rather than being left out.
+ */
+@Data
+public class RecommendationQuery {
+  private List<String> specialization;
+  private List<String> language;
+  private Integer budget;
+  private Integer limit;
+}
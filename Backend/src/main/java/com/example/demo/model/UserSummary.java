@@ -0,0 +1,73 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Account view returned by auth, profile and admin endpoints instead of the {@link User}
+ * entity. Never carries the password; KYC document links are only filled in where the
+ * caller is allowed to see them (the owner's profile and lawyer verification).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSummary {
+  private Long id;
+  private String name;
+  private String email;
+  private String phone;
+  private String role;
+  private String bio;
+  private String location;
+  private Integer consultationFee;
+  private String barCouncilNumber;
+  private Integer yearsOfExperience;
+  private List<String> specializations;
+  private List<String> languages;
+  private List<String> education;
+
+  @JsonProperty("isVerified")
+  private boolean verified;
+
+  private String verificationStatus;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String aadhaarPan;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String driveLink;
+
+  public static UserSummary from(User user) {
+    return from(user, false);
+  }
+
+  public static UserSummary from(User user, boolean withDocuments) {
+    if (user == null) return null;
+    return UserSummary.builder()
+        .id(user.getId())
+        .name(user.getName())
+        .email(user.getEmail())
+        .phone(user.getPhone())
+        .role(user.getRole())
+        .bio(user.getBio())
+        .location(user.getLocation())
+        .consultationFee(user.getConsultationFee())
+        .barCouncilNumber(user.getBarCouncilNumber())
+        .yearsOfExperience(user.getYearsOfExperience())
+        .specializations(LawyerCard.copyOf(user.getSpecializations()))
+        .languages(LawyerCard.copyOf(user.getLanguages()))
+        .education(LawyerCard.copyOf(user.getEducation()))
+        .verified(user.getIsVerified())
+        .verificationStatus(user.getVerificationStatus())
+        .aadhaarPan(withDocuments ? user.getAadhaarPan() : null)
+        .driveLink(withDocuments ? user.getDriveLink() : null)
+        .build();
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * One working period of a lawyer's weekly template, for example MONDAY 09:00-13:00. A
+ * day may have several periods; a lawyer with no rows works the default template.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_working_hours_lawyer", columnList = "lawyer_id"))
+@Data
+public class WorkingHours {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @JsonIgnore
+  private Long id;
+
+  @JsonIgnore
+  private Long lawyerId;
+
+  @Enumerated(EnumType.STRING)
+  private DayOfWeek dayOfWeek;
+
+  private LocalTime startTime;
+  private LocalTime endTime;
+}
@@ -0,0 +1,103 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ArchivedAppointment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.example.demo.repository.AppointmentRepository.HISTORY_FILTER;
+import static com.example.demo.repository.AppointmentRepository.HISTORY_FILTER_NEWEST_FIRST;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Reads of the appointment archive. The history queries take the same filters, cursor
+ * and order as their {@link AppointmentRepository} counterparts, so the two can be merged.
+ */
+public interface AppointmentArchiveRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+  @Query("select a from ArchivedAppointment a where a.lawyerId = :ownerId" + HISTORY_FILTER)
+  List<ArchivedAppointment> findLawyerHistory(@Param("ownerId") Long lawyerId,
+                                              @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                              @Param("status") String status,
+                                              @Param("since") LocalDateTime since,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterTime") LocalTime afterTime,
+                                              @Param("afterId") Long afterId,
+                                              Pageable limit);
+
+  @Query("select a from ArchivedAppointment a where a.clientId = :ownerId" + HISTORY_FILTER)
+  List<ArchivedAppointment> findClientHistory(@Param("ownerId") Long clientId,
+                                              @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                              @Param("status") String status,
+                                              @Param("since") LocalDateTime since,
+                                              @Param("afterDate") LocalDate afterDate,
+                                              @Param("afterTime") LocalTime afterTime,
+                                              @Param("afterId") Long afterId,
+                                              Pageable limit);
+
+  @Query("select a from ArchivedAppointment a where a.lawyerId = :ownerId" + HISTORY_FILTER_NEWEST_FIRST)
+  List<ArchivedAppointment> findLawyerHistoryNewestFirst(@Param("ownerId") Long lawyerId,
+                                                         @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                         @Param("status") String status,
+                                                         @Param("since") LocalDateTime since,
+                                                         @Param("afterDate") LocalDate afterDate,
+                                                         @Param("afterTime") LocalTime afterTime,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable limit);
+
+  @Query("select a from ArchivedAppointment a where a.clientId = :ownerId" + HISTORY_FILTER_NEWEST_FIRST)
+  List<ArchivedAppointment> findClientHistoryNewestFirst(@Param("ownerId") Long clientId,
+                                                         @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                         @Param("status") String status,
+                                                         @Param("since") LocalDateTime since,
+                                                         @Param("afterDate") LocalDate afterDate,
+                                                         @Param("afterTime") LocalTime afterTime,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable limit);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("select a from ArchivedAppointment a where a.lawyerId = :ownerId" + HISTORY_FILTER)
+  Stream<ArchivedAppointment> streamLawyerHistory(@Param("ownerId") Long lawyerId,
+                                                  @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                  @Param("status") String status,
+                                                  @Param("since") LocalDateTime since,
+                                                  @Param("afterDate") LocalDate afterDate,
+                                                  @Param("afterTime") LocalTime afterTime,
+                                                  @Param("afterId") Long afterId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("select a from ArchivedAppointment a where a.clientId = :ownerId" + HISTORY_FILTER)
+  Stream<ArchivedAppointment> streamClientHistory(@Param("ownerId") Long clientId,
+                                                  @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                  @Param("status") String status,
+                                                  @Param("since") LocalDateTime since,
+                                                  @Param("afterDate") LocalDate afterDate,
+                                                  @Param("afterTime") LocalTime afterTime,
+                                                  @Param("afterId") Long afterId);
+
+  @Query("select max(a.date) from ArchivedAppointment a")
+  LocalDate findLatestDate();
+
+  // Rows of [lawyerId, count], as AppointmentRepository.countCompletedByLawyer
+  @Query("select a.lawyerId, count(a) from ArchivedAppointment a where a.status = 'completed' group by a.lawyerId")
+  List<Object[]> countCompletedByLawyer();
+
+  long countByLawyerIdAndStatus(Long lawyerId, String status);
+
+  // Rows of [status, count]
+  @Query("select a.status, count(a) from ArchivedAppointment a group by a.status")
+  List<Object[]> countByStatus();
+
+  // Rows of [date, count] for appointment dates between the given days, both included
+  @Query("select a.date, count(a) from ArchivedAppointment a where a.date between :from and :to group by a.date")
+  List<Object[]> countByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
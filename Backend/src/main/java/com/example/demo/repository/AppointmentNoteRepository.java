@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AppointmentNote;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AppointmentNoteRepository extends JpaRepository<AppointmentNote, Long> {
+
+  // Newest first; beforeId is a keyset cursor (the last id of the previous page)
+  @Query("""
+      select n from AppointmentNote n
+      where n.appointmentId = :appointmentId and (:beforeId is null or n.id < :beforeId)
+      order by n.id desc
+      """)
+  List<AppointmentNote> findPage(@Param("appointmentId") Long appointmentId,
+                                 @Param("beforeId") Long beforeId,
+                                 Pageable limit);
+}
@@ -1,10 +1,149 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Appointment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+  // Shared filter for history queries. "since" keeps only rows changed after that time
+  // (delta sync). The "after" triple is a keyset cursor on (date, startTime, id),
+  // matching the ORDER BY, so a page never needs an OFFSET.
+  String HISTORY_RANGE = """
+       and (:from is null or a.date >= :from)
+       and (:to is null or a.date <= :to)
+       and (:status is null or a.status = :status)
+       and (:since is null or a.updatedAt > :since)
+      """;
+
+  String HISTORY_FILTER = HISTORY_RANGE + """
+       and (:afterDate is null
+            or a.date > :afterDate
+            or (a.date = :afterDate and (a.startTime > :afterTime
+                or (a.startTime = :afterTime and a.id > :afterId))))
+      order by a.date, a.startTime, a.id
+      """;
+
+  // The same, newest first, for history screens: the cursor is the last (oldest) row of
+  // the previous page and the next page starts just before it. Same index, read backwards.
+  String HISTORY_FILTER_NEWEST_FIRST = HISTORY_RANGE + """
+       and (:afterDate is null
+            or a.date < :afterDate
+            or (a.date = :afterDate and (a.startTime < :afterTime
+                or (a.startTime = :afterTime and a.id < :afterId))))
+      order by a.date desc, a.startTime desc, a.id desc
+      """;
+
   List<Appointment> findByLawyerId(Long lawyerId);
   List<Appointment> findByClientId(Long clientId);
+
+  // Rows of [lawyerId, date, id, startTime, endTime] of live appointments on the given
+  // days, for the slot index. Scalar rows, so entities already in the persistence context
+  // cannot hide a change committed since they were loaded. Not read-only, so that it reads
+  // the primary: a replica may not have the latest bookings yet.
+  @Transactional
+  @Query("""
+      select a.lawyerId, a.date, a.id, a.startTime, a.endTime from Appointment a
+      where a.lawyerId in :lawyerIds and a.date in :dates and a.status <> 'cancelled'
+      """)
+  List<Object[]> findLiveSlotsOn(@Param("lawyerIds") Collection<Long> lawyerIds,
+                                 @Param("dates") Collection<LocalDate> dates);
+
+  // Rows of [lawyerId, date, startTime, endTime] of live appointments, for availability
+  // bitmaps; from the primary like findLiveSlotsOn, since the bitmaps are cached
+  @Transactional
+  @Query("""
+      select a.lawyerId, a.date, a.startTime, a.endTime from Appointment a
+      where a.lawyerId in :lawyerIds and a.date between :from and :to and a.status <> 'cancelled'
+      """)
+  List<Object[]> findLiveSlots(@Param("lawyerIds") Collection<Long> lawyerIds,
+                               @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  // Rows of [lawyerId, count] of completed appointments, for the recommendation index
+  @Query("select a.lawyerId, count(a) from Appointment a where a.status = 'completed' group by a.lawyerId")
+  List<Object[]> countCompletedByLawyer();
+
+  long countByLawyerIdAndStatus(Long lawyerId, String status);
+
+  // Rows of [status, count]
+  @Query("select a.status, count(a) from Appointment a group by a.status")
+  List<Object[]> countByStatus();
+
+  // Rows of [date, count] for appointment dates between the given days, both included
+  @Query("select a.date, count(a) from Appointment a where a.date between :from and :to group by a.date")
+  List<Object[]> countByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  @Query("select a from Appointment a where a.lawyerId = :ownerId" + HISTORY_FILTER)
+  List<Appointment> findLawyerHistory(@Param("ownerId") Long lawyerId,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("status") String status,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("afterDate") LocalDate afterDate,
+                                      @Param("afterTime") LocalTime afterTime,
+                                      @Param("afterId") Long afterId,
+                                      Pageable limit);
+
+  @Query("select a from Appointment a where a.clientId = :ownerId" + HISTORY_FILTER)
+  List<Appointment> findClientHistory(@Param("ownerId") Long clientId,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("status") String status,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("afterDate") LocalDate afterDate,
+                                      @Param("afterTime") LocalTime afterTime,
+                                      @Param("afterId") Long afterId,
+                                      Pageable limit);
+
+  @Query("select a from Appointment a where a.lawyerId = :ownerId" + HISTORY_FILTER_NEWEST_FIRST)
+  List<Appointment> findLawyerHistoryNewestFirst(@Param("ownerId") Long lawyerId,
+                                                 @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                 @Param("status") String status,
+                                                 @Param("since") LocalDateTime since,
+                                                 @Param("afterDate") LocalDate afterDate,
+                                                 @Param("afterTime") LocalTime afterTime,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable limit);
+
+  @Query("select a from Appointment a where a.clientId = :ownerId" + HISTORY_FILTER_NEWEST_FIRST)
+  List<Appointment> findClientHistoryNewestFirst(@Param("ownerId") Long clientId,
+                                                 @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                 @Param("status") String status,
+                                                 @Param("since") LocalDateTime since,
+                                                 @Param("afterDate") LocalDate afterDate,
+                                                 @Param("afterTime") LocalTime afterTime,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable limit);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("select a from Appointment a where a.lawyerId = :ownerId" + HISTORY_FILTER)
+  Stream<Appointment> streamLawyerHistory(@Param("ownerId") Long lawyerId,
+                                          @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                          @Param("status") String status,
+                                          @Param("since") LocalDateTime since,
+                                          @Param("afterDate") LocalDate afterDate,
+                                          @Param("afterTime") LocalTime afterTime,
+                                          @Param("afterId") Long afterId);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  @Query("select a from Appointment a where a.clientId = :ownerId" + HISTORY_FILTER)
+  Stream<Appointment> streamClientHistory(@Param("ownerId") Long clientId,
+                                          @Param("from") LocalDate from, @Param("to") LocalDate to,
+                                          @Param("status") String status,
+                                          @Param("since") LocalDateTime since,
+                                          @Param("afterDate") LocalDate afterDate,
+                                          @Param("afterTime") LocalTime afterTime,
+                                          @Param("afterId") Long afterId);
 }
@@ -0,0 +1,34 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.LawyerRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface LawyerRatingRepository extends JpaRepository<LawyerRating, Long> {
+
+  List<LawyerRating> findByLawyerIdIn(Collection<Long> lawyerIds);
+
+  // Single-statement increment: the row lock taken by the UPDATE makes concurrent
+  // reviews for the same lawyer apply one after another without a read-modify-write.
+  // lastReviewAt only moves forward, as in LawyerRating.add, whatever order reviews arrive in.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update LawyerRating r set
+        r.reviewCount = r.reviewCount + 1,
+        r.ratingSum = r.ratingSum + :rating,
+        r.stars1 = r.stars1 + case when :rating = 1 then 1 else 0 end,
+        r.stars2 = r.stars2 + case when :rating = 2 then 1 else 0 end,
+        r.stars3 = r.stars3 + case when :rating = 3 then 1 else 0 end,
+        r.stars4 = r.stars4 + case when :rating = 4 then 1 else 0 end,
+        r.stars5 = r.stars5 + case when :rating = 5 then 1 else 0 end,
+        r.lastReviewAt = case when r.lastReviewAt is null or r.lastReviewAt < :at then :at else r.lastReviewAt end
+      where r.lawyerId = :lawyerId
+      """)
+  int increment(@Param("lawyerId") Long lawyerId, @Param("rating") int rating, @Param("at") LocalDateTime at);
+}
@@ -1,14 +1,25 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Review;
+import jakarta.persistence.QueryHint;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
   List<Review> findByLawyerId(Long lawyerId);
   List<Review> findByClientId(Long clientId);
+
+  // Rows of [lawyerId, rating, createdAt] grouped by lawyer, for rebuilding aggregates
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+  @Query("select r.lawyerId, r.rating, r.createdAt from Review r where r.lawyerId is not null order by r.lawyerId")
+  Stream<Object[]> streamRatingsByLawyer();
 }
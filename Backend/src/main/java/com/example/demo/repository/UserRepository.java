@@ -2,7 +2,12 @@ package com.example.demo.repository;
 
 import com.example.demo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,5 +15,52 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     List<User> findByRole(String role);
-}
 
+    // Rehash after login: only replaces the value that was verified, so a password change
+    // that lands in between is kept
+    @Modifying
+    @Query("update User u set u.password = :hash where u.id = :id and u.password = :previous")
+    int replacePassword(@Param("id") Long id, @Param("previous") String previous, @Param("hash") String hash);
+
+    // Locks the rows of the given lawyers until the transaction ends, in id order, and returns
+    // the ids that exist and belong to lawyers. Bookings take their lawyers' rows this way
+    // (see AppointmentSlotIndex) and reject the ids left out.
+    @Query(value = "select id from users where id in :ids and role = 'lawyer' order by id for update",
+        nativeQuery = true)
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
+    // Rows of [role, verificationStatus, count]
+    @Query("select u.role, u.verificationStatus, count(u) from User u group by u.role, u.verificationStatus")
+    List<Object[]> countByRoleAndVerificationStatus();
+
+    // Read projections: one query for the scalar columns plus one per element collection,
+    // all with the same role filter (null = every user) and updated-since filter (null =
+    // any time), so listing N users costs four queries instead of 1 + 3N and never
+    // selects the password column.
+
+    // Rows of [id, name, email, phone, role, bio, location, consultationFee,
+    //          barCouncilNumber, yearsOfExperience, isVerified, verificationStatus,
+    //          aadhaarPan, driveLink]
+    @Query("""
+        select u.id, u.name, u.email, u.phone, u.role, u.bio, u.location, u.consultationFee,
+               u.barCouncilNumber, u.yearsOfExperience, u.isVerified, u.verificationStatus,
+               u.aadhaarPan, u.driveLink
+        from User u where (:role is null or u.role = :role)
+          and (:since is null or u.updatedAt > :since)
+        order by u.id
+        """)
+    List<Object[]> findSummaryRows(@Param("role") String role, @Param("since") LocalDateTime since);
+
+    // Rows of [userId, value]
+    @Query("select u.id, s from User u join u.specializations s where (:role is null or u.role = :role)"
+        + " and (:since is null or u.updatedAt > :since)")
+    List<Object[]> findSpecializationRows(@Param("role") String role, @Param("since") LocalDateTime since);
+
+    @Query("select u.id, l from User u join u.languages l where (:role is null or u.role = :role)"
+        + " and (:since is null or u.updatedAt > :since)")
+    List<Object[]> findLanguageRows(@Param("role") String role, @Param("since") LocalDateTime since);
+
+    @Query("select u.id, e from User u join u.education e where (:role is null or u.role = :role)"
+        + " and (:since is null or u.updatedAt > :since)")
+    List<Object[]> findEducationRows(@Param("role") String role, @Param("since") LocalDateTime since);
+}
@@ -0,0 +1,27 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.WorkingHours;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WorkingHoursRepository extends JpaRepository<WorkingHours, Long> {
+  List<WorkingHours> findByLawyerIdOrderByDayOfWeekAscStartTimeAsc(Long lawyerId);
+
+  // For the cached availability templates, so from the primary: a replica may lag behind a change
+  @Transactional
+  List<WorkingHours> findByLawyerIdIn(Collection<Long> lawyerIds);
+
+  // Rows of [lawyerId, startTime, endTime] of every template, for the recommendation index
+  @Query("select w.lawyerId, w.startTime, w.endTime from WorkingHours w")
+  List<Object[]> findAllPeriods();
+
+  @Modifying
+  @Query("delete from WorkingHours w where w.lawyerId = :lawyerId")
+  void deleteByLawyerId(@Param("lawyerId") Long lawyerId);
+}
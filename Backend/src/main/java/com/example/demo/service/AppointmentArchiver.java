@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.AppointmentArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hot/cold split of appointment storage. Completed and cancelled appointments dated more
+ * than {@code app.archive.horizon} ago move from {@code appointment} to
+ * {@code appointment_archive}, {@code app.archive.batch-size} per transaction, every
+ * {@code app.archive.interval-ms}. The appointment table, and with it the booking and
+ * history queries, then grows with live and recent appointments rather than all history.
+ * <p>
+ * A batch locks its rows before copying and deleting them, so a status change racing
+ * the move either lands first and is copied, or waits and then finds the row gone.
+ * Archived appointments are read-only.
+ * <p>
+ * Readers ask {@link #mayHold} whether a date range reaches into the archive at all; only
+ * then do they query it as well.
+ */
+@Component
+public class AppointmentArchiver {
+
+  private static final String COLUMNS =
+      "id, client_id, lawyer_id, type, status, date, start_time, end_time, fee, cancel_reason, version, updated_at";
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transactions;
+  private final AppointmentArchiveRepository archiveRepository;
+  private final Duration horizon;
+  private final int batchSize;
+  private final Counter archived;
+
+  // Day after the newest archived appointment as last read from the table; null if empty
+  private volatile LocalDate latestArchived;
+
+  public AppointmentArchiver(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                             AppointmentArchiveRepository archiveRepository, MeterRegistry meterRegistry,
+                             @Value("${app.archive.horizon:90d}") Duration horizon,
+                             @Value("${app.archive.batch-size:500}") int batchSize) {
+    if (horizon.toDays() < 1) throw new IllegalArgumentException("app.archive.horizon must be at least a day");
+    this.jdbc = jdbc;
+    this.transactions = new TransactionTemplate(transactionManager);
+    this.archiveRepository = archiveRepository;
+    this.horizon = horizon;
+    this.batchSize = batchSize;
+    this.archived = meterRegistry.counter("appointments.archived");
+  }
+
+  /** Moves every archivable appointment, a batch at a time. Returns how many moved. */
+  @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}",
+      initialDelayString = "${app.archive.interval-ms:3600000}")
+  public int archive() {
+    LocalDate cutoff = cutoff();
+    int total = 0;
+    int moved;
+    do {
+      moved = transactions.execute(status -> moveBatch(cutoff));
+      total += moved;
+    } while (moved == batchSize);
+    archived.increment(total);
+    refresh();
+    return total;
+  }
+
+  private int moveBatch(LocalDate cutoff) {
+    List<Long> ids = jdbc.queryForList("""
+        select id from appointment
+        where date < ? and status in ('completed', 'cancelled')
+        limit ? for update
+        """, Long.class, cutoff, batchSize);
+    if (ids.isEmpty()) return 0;
+
+    String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+    List<Object> args = new ArrayList<>(ids.size() + 1);
+    args.add(LocalDateTime.now());
+    args.addAll(ids);
+    jdbc.update("insert into appointment_archive (" + COLUMNS + ", archived_at) select " + COLUMNS
+        + ", ? from appointment where id in (" + in + ")", args.toArray());
+    jdbc.update("delete from appointment where id in (" + in + ")", ids.toArray());
+    return ids.size();
+  }
+
+  /**
+   * Every archived appointment is dated before this day. Other nodes archive with the same
+   * horizon, so their moves stay below the cutoff; the newest archived day covers rows
+   * moved earlier under a longer one.
+   */
+  public LocalDate archivedBefore() {
+    LocalDate cutoff = cutoff();
+    LocalDate latest = latestArchived;
+    return latest != null && latest.isAfter(cutoff) ? latest : cutoff;
+  }
+
+  /** Whether appointments dated on or after {@code from} (null: any date) can be archived. */
+  public boolean mayHold(LocalDate from) {
+    return from == null || from.isBefore(archivedBefore());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void refresh() {
+    LocalDate latest = archiveRepository.findLatestDate();
+    latestArchived = latest == null ? null : latest.plusDays(1);
+  }
+
+  private LocalDate cutoff() {
+    return LocalDate.now().minusDays(horizon.toDays());
+  }
+}
@@ -1,18 +1,42 @@
 package com.example.demo.service;
 
 import com.example.demo.model.Appointment;
+import com.example.demo.model.AppointmentNote;
+import com.example.demo.model.AppointmentPage;
+import com.example.demo.model.AppointmentQuery;
 import com.example.demo.model.AppointmentRequestDTO;
+import com.example.demo.model.BulkItemResult;
+import com.example.demo.model.BulkStatusRequest;
+import com.example.demo.model.NotePage;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AppointmentService {
+  // Outbox event types (see Outbox); the payload is the appointment as written.
+  String APPOINTMENT_BOOKED = "appointment.booked";
+  String APPOINTMENT_STATUS_CHANGED = "appointment.status-changed";
+
   Appointment updateStatus(Long id, String status);
 
-  Appointment addNoteToAppointment(Long id, String note);
+  // Appends one note (a single INSERT); throws NoSuchElementException for an unknown appointment.
+  AppointmentNote addNoteToAppointment(Long id, String note, Long authorId);
+
+  // Newest notes first; pass the previous page's nextCursor to get older ones.
+  NotePage getNotes(Long appointmentId, String cursor, Integer limit);
 
   Appointment cancelAppointment(Long id, String reason);
 
   Appointment bookAppointment(AppointmentRequestDTO request);
-  List<Appointment> getAppointmentsForLawyer(Long lawyerId);
-  List<Appointment> getAppointmentsForClient(Long clientId);
+
+  // Bulk variants: one transaction for the whole list, one result per item, in request order.
+  List<BulkItemResult> bookAppointments(List<AppointmentRequestDTO> requests);
+  List<BulkItemResult> updateStatuses(BulkStatusRequest request);
+
+  AppointmentPage getAppointmentsForLawyer(Long lawyerId, AppointmentQuery query);
+  AppointmentPage getAppointmentsForClient(Long clientId, AppointmentQuery query);
+
+  // Streams every matching appointment to the sink without holding them all in memory.
+  void streamAppointmentsForLawyer(Long lawyerId, AppointmentQuery query, Consumer<Appointment> sink);
+  void streamAppointmentsForClient(Long clientId, AppointmentQuery query, Consumer<Appointment> sink);
 }
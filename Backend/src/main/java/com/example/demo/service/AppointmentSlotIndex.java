@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Per-lawyer, per-day interval index of booked slots.
+ * <p>
+ * Each lawyer-day is a {@link TreeMap} of non-overlapping intervals keyed by start time,
+ * so an overlap check is one floor and one ceiling lookup (O(log n)). All reads and
+ * writes for a lawyer must run inside {@link #withLawyerLock}, which guards the cached
+ * days through a fixed set of lock stripes rather than one global lock.
+ * <p>
+ * The database decides between bookings: a booking transaction first locks the lawyer's
+ * row ({@link #lockLawyers}), which orders bookings for that lawyer across all nodes,
+ * then {@link #reload}s the days it books from the database, so its overlap check sees
+ * every committed booking. That lock is taken before the stripe, and nothing waits for a
+ * connection while holding a stripe; otherwise a booking waiting for the pool could block
+ * the commits that would free it. Cached days are bounded in number and expire after
+ * {@code app.availability.ttl}.
+ * <p>
+ * Reserving and releasing also keep the {@link AvailabilityIndex} bitmaps in step.
+ */
+@Component
+public class AppointmentSlotIndex {
+
+  private static final int STRIPES = 256; // power of two
+  private static final int MAX_CACHED_DAYS = 100_000;
+
+  private final AppointmentRepository repository;
+  private final UserRepository userRepository;
+  private final AvailabilityIndex availability;
+
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+  private final Cache<DayKey, TreeMap<LocalTime, Slot>> days;
+
+  public AppointmentSlotIndex(AppointmentRepository repository, UserRepository userRepository,
+                              AvailabilityIndex availability,
+                              @Value("${app.availability.ttl:60s}") Duration ttl) {
+    this.repository = repository;
+    this.userRepository = userRepository;
+    this.availability = availability;
+    this.days = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_DAYS)
+        .expireAfterWrite(ttl)
+        .build();
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  public <T> T withLawyerLock(Long lawyerId, Supplier<T> action) {
+    ReentrantLock lock = stripeFor(lawyerId);
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Runs {@code action} holding the locks of all the given lawyers. Stripes are taken in
+   * index order, so two threads locking overlapping sets cannot deadlock.
+   */
+  public <T> T withLawyerLocks(Collection<Long> lawyerIds, Supplier<T> action) {
+    int[] order = lawyerIds.stream().mapToInt(AppointmentSlotIndex::stripeIndex).distinct().sorted().toArray();
+    int locked = 0;
+    try {
+      for (int stripe : order) {
+        stripes[stripe].lock();
+        locked++;
+      }
+      return action.get();
+    } finally {
+      for (int i = locked - 1; i >= 0; i--) {
+        stripes[order[i]].unlock();
+      }
+    }
+  }
+
+  /** Returns the live appointment overlapping [start, end), or {@code null} if the range is free. */
+  public Long findOverlap(Long lawyerId, LocalDate date, LocalTime start, LocalTime end) {
+    assertLocked(lawyerId);
+    TreeMap<LocalTime, Slot> day = day(lawyerId, date);
+
+    Map.Entry<LocalTime, Slot> before = day.floorEntry(start);
+    if (before != null && before.getValue().end.isAfter(start)) {
+      return before.getValue().appointmentId;
+    }
+    Map.Entry<LocalTime, Slot> next = day.ceilingEntry(start);
+    if (next != null && next.getKey().isBefore(end)) {
+      return next.getValue().appointmentId;
+    }
+    return null;
+  }
+
+  /**
+   * Locks the rows of the given lawyers for the rest of the current transaction and
+   * returns the ids that exist and are lawyers. Must be called before taking their stripes.
+   */
+  public Set<Long> lockLawyers(Collection<Long> lawyerIds) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("Lawyer rows can only be locked inside a transaction");
+    }
+    return new HashSet<>(userRepository.lockByIds(lawyerIds));
+  }
+
+  /**
+   * Replaces the cached days of these lawyers on these dates with what the database holds
+   * now. Called in a booking transaction once it has locked the lawyers' rows, so no other
+   * booking for them can commit until it ends.
+   */
+  public void reload(Collection<Long> lawyerIds, Collection<LocalDate> dates) {
+    load(lawyerIds, dates);
+  }
+
+  private Map<DayKey, TreeMap<LocalTime, Slot>> load(Collection<Long> lawyerIds, Collection<LocalDate> dates) {
+    lawyerIds.forEach(this::assertLocked);
+    Map<DayKey, TreeMap<LocalTime, Slot>> loaded = new HashMap<>();
+    for (Long lawyerId : lawyerIds) {
+      for (LocalDate date : dates) {
+        loaded.put(new DayKey(lawyerId, date), new TreeMap<>());
+      }
+    }
+    if (loaded.isEmpty()) return loaded;
+    for (Object[] row : repository.findLiveSlotsOn(lawyerIds, dates)) {
+      loaded.get(new DayKey((Long) row[0], (LocalDate) row[1]))
+          .put((LocalTime) row[3], new Slot((LocalTime) row[4], (Long) row[2]));
+    }
+    loaded.forEach((key, day) -> {
+      days.put(key, day);
+      availability.replace(key.lawyerId, key.date, bitmap(day));
+    });
+    return loaded;
+  }
+
+  /**
+   * Adds a booking made in the current transaction. Once it commits, the day's bitmap is
+   * written again, so that an availability read that loaded the day before the commit
+   * does not cache it without the booking. If it rolls back, the day is dropped, to be
+   * reloaded by the next booking.
+   */
+  public void reserve(Appointment appointment) {
+    assertLocked(appointment.getLawyerId());
+    day(appointment.getLawyerId(), appointment.getDate())
+        .put(appointment.getStartTime(), new Slot(appointment.getEndTime(), appointment.getId()));
+    availability.markBooked(
+        appointment.getLawyerId(), appointment.getDate(), appointment.getStartTime(), appointment.getEndTime());
+    TransactionHooks.afterCommit(() -> withLawyerLock(appointment.getLawyerId(), () -> {
+      publish(appointment.getLawyerId(), appointment.getDate());
+      return null;
+    }));
+    TransactionHooks.afterRollback(() -> withLawyerLock(appointment.getLawyerId(), () -> {
+      invalidate(appointment.getLawyerId(), appointment.getDate());
+      return null;
+    }));
+  }
+
+  public void release(Appointment appointment) {
+    assertLocked(appointment.getLawyerId());
+    TreeMap<LocalTime, Slot> day = days.getIfPresent(new DayKey(appointment.getLawyerId(), appointment.getDate()));
+    if (day != null) {
+      Slot slot = day.get(appointment.getStartTime());
+      if (slot != null && slot.appointmentId.equals(appointment.getId())) {
+        day.remove(appointment.getStartTime());
+      }
+    }
+    // Neighbours may share a partly used slot with the freed interval, so rebuild the day
+    publish(appointment.getLawyerId(), appointment.getDate());
+  }
+
+  // Rebuilds the day's bitmap from its intervals; if they are not cached, drops the bitmap
+  private void publish(Long lawyerId, LocalDate date) {
+    TreeMap<LocalTime, Slot> day = days.getIfPresent(new DayKey(lawyerId, date));
+    if (day == null) {
+      availability.invalidate(lawyerId, date);
+    } else {
+      availability.replace(lawyerId, date, bitmap(day));
+    }
+  }
+
+  /**
+   * Frees the appointment's slot once the current transaction commits (immediately if
+   * there is none). Releasing late is safe: until then the slot simply stays taken. The
+   * transaction still holds its connection at that point, which the lock order allows.
+   */
+  public void releaseAfterCommit(Appointment appointment) {
+    TransactionHooks.afterCommit(() -> withLawyerLock(appointment.getLawyerId(), () -> {
+      release(appointment);
+      return null;
+    }));
+  }
+
+  /** Drops a cached lawyer-day so that it is loaded from the database again. */
+  public void invalidate(Long lawyerId, LocalDate date) {
+    assertLocked(lawyerId);
+    days.invalidate(new DayKey(lawyerId, date));
+    availability.invalidate(lawyerId, date);
+  }
+
+  // Days are reloaded before each booking; one missing here expired or was evicted since
+  private TreeMap<LocalTime, Slot> day(Long lawyerId, LocalDate date) {
+    DayKey key = new DayKey(lawyerId, date);
+    TreeMap<LocalTime, Slot> day = days.getIfPresent(key);
+    return day != null ? day : load(Set.of(lawyerId), Set.of(date)).get(key);
+  }
+
+  private static long[] bitmap(TreeMap<LocalTime, Slot> day) {
+    long[] booked = new long[2];
+    day.forEach((start, taken) -> AvailabilityIndex.setRange(
+        booked, AvailabilityIndex.slotOf(start), AvailabilityIndex.slotsUntil(taken.end)));
+    return booked;
+  }
+
+  private ReentrantLock stripeFor(Long lawyerId) {
+    return stripes[stripeIndex(lawyerId)];
+  }
+
+  private static int stripeIndex(Long lawyerId) {
+    int h = Long.hashCode(lawyerId);
+    h ^= (h >>> 16);
+    return h & (STRIPES - 1);
+  }
+
+  private void assertLocked(Long lawyerId) {
+    if (!stripeFor(lawyerId).isHeldByCurrentThread()) {
+      throw new IllegalStateException("Lawyer " + lawyerId + " slots accessed without its lock");
+    }
+  }
+
+  private record DayKey(Long lawyerId, LocalDate date) {
+  }
+
+  private record Slot(LocalTime end, Long appointmentId) {
+  }
+}
@@ -0,0 +1,342 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.repository.AppointmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers on appointment start times: reminders {@code app.timers.reminders} before the
+ * start of pending and confirmed appointments, and cancellation, through
+ * {@link AppointmentService#cancelAppointment}, of bookings still pending
+ * {@code app.timers.expire-pending} before their start.
+ * <p>
+ * Only the timers due in the next {@code app.timers.lookahead} are held, in a
+ * {@link TimingWheel} ticking every {@code app.timers.tick-ms}. Every
+ * {@code app.timers.load-ms} the window from the last fired tick onwards is read again by
+ * start time (an index range), which picks up bookings made since on any node; a timer
+ * already held is not added twice. The work per tick and per load depends on how many
+ * appointments start in the window, not on how many there are.
+ * <p>
+ * One node at a time runs the timers: the one holding the {@code appointment-timers} row of
+ * {@code scheduler_lease}. It renews the lease every third of {@code app.timers.lease-ms}
+ * and records how far it has fired; another node takes over once the lease has run out
+ * and resumes from there, or from {@code app.timers.catch-up} ago at most. Each timer
+ * also records that it fired in {@code appointment_timer_fired}, in the transaction of its
+ * effect, so a timer fired just before a takeover does not fire again.
+ * <p>
+ * Ticks run on a thread of their own rather than on the shared {@code @Scheduled}
+ * scheduler: a long archive run or recommendation rebuild there would otherwise hold up
+ * lease renewals until another node took over mid-batch.
+ * <p>
+ * Reminders go to both participants' event streams, and to the {@link Outbox} as
+ * {@value #APPOINTMENT_REMINDER} for handlers that deliver them elsewhere.
+ */
+@Component
+@ConditionalOnProperty(name = "app.timers.enabled", havingValue = "true", matchIfMissing = true)
+public class AppointmentTimers {
+
+  public static final String APPOINTMENT_REMINDER = "appointment.reminder";
+
+  static final String LEASE = "appointment-timers";
+  static final String EXPIRY = "expiry";
+  static final String EXPIRED_REASON = "Not confirmed in time";
+
+  private static final int WHEEL_SLOTS = 64;
+  private static final int WHEEL_LEVELS = 3;
+  private static final int MAX_ATTEMPTS = 5;
+
+  private static final String WINDOW = """
+      select id, date, start_time from appointment
+      where status in (%s) and date between ? and ?
+        and (date > ? or start_time >= ?) and (date < ? or start_time < ?)
+      """;
+  static final String REMINDED = WINDOW.formatted("'pending', 'confirmed'");
+  static final String PENDING = WINDOW.formatted("'pending'");
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transactions;
+  private final AppointmentRepository repository;
+  private final AppointmentService appointmentService;
+  private final UserEventHub events;
+  private final Outbox outbox;
+  private final List<Duration> reminders;
+  private final Duration expirePending;
+  private final long tickMillis;
+  private final Duration lookahead;
+  private final Duration loadInterval;
+  private final Duration lease;
+  private final Duration catchUp;
+  private final Duration retry;
+  private final String node = UUID.randomUUID().toString();
+
+  private final Counter reminded;
+  private final Counter expired;
+  private final Counter failed;
+  private final Counter tickFailed;
+
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(task -> {
+    Thread thread = new Thread(task, "appointment-timers");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // Everything below is only touched by tick(), under this object's lock
+  private boolean owner;
+  private LocalDateTime renewAt = LocalDateTime.MIN;
+  private TimingWheel<Timer> wheel;
+  private final Map<String, Timer> scheduled = new HashMap<>();
+  private final Queue<Timer> ready = new ArrayDeque<>();
+  private LocalDateTime loadFrom;
+  private LocalDateTime nextLoad;
+
+  public AppointmentTimers(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                           AppointmentRepository repository, AppointmentService appointmentService,
+                           UserEventHub events, Outbox outbox, MeterRegistry meterRegistry,
+                           @Value("${app.timers.reminders:24h,1h}") List<Duration> reminders,
+                           @Value("${app.timers.expire-pending:1h}") Duration expirePending,
+                           @Value("${app.timers.tick-ms:1000}") long tickMs,
+                           @Value("${app.timers.lookahead:10m}") Duration lookahead,
+                           @Value("${app.timers.load-ms:60000}") long loadMs,
+                           @Value("${app.timers.lease-ms:30000}") long leaseMs,
+                           @Value("${app.timers.catch-up:30d}") Duration catchUp,
+                           @Value("${app.timers.retry-ms:60000}") long retryMs) {
+    if (loadMs > lookahead.toMillis()) {
+      throw new IllegalArgumentException("app.timers.load-ms must not exceed app.timers.lookahead");
+    }
+    this.jdbc = jdbc;
+    this.transactions = new TransactionTemplate(transactionManager);
+    this.repository = repository;
+    this.appointmentService = appointmentService;
+    this.events = events;
+    this.outbox = outbox;
+    this.reminders = List.copyOf(reminders);
+    this.expirePending = expirePending;
+    this.tickMillis = tickMs;
+    this.lookahead = lookahead;
+    this.loadInterval = Duration.ofMillis(loadMs);
+    this.lease = Duration.ofMillis(leaseMs);
+    this.catchUp = catchUp;
+    this.retry = Duration.ofMillis(retryMs);
+    this.reminded = meterRegistry.counter("appointment.timers", "outcome", "reminded");
+    this.expired = meterRegistry.counter("appointment.timers", "outcome", "expired");
+    this.failed = meterRegistry.counter("appointment.timers", "outcome", "failed");
+    this.tickFailed = meterRegistry.counter("appointment.timers", "outcome", "tick-failed");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startTicking() {
+    ticker.scheduleWithFixedDelay(() -> {
+      try {
+        tick();
+      } catch (RuntimeException e) {
+        // e.g. the database is unreachable; the next tick tries again, and an exception
+        // escaping here would cancel every later tick
+        tickFailed.increment();
+      }
+    }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  void stopTicking() {
+    ticker.shutdownNow();
+  }
+
+  /** Renews or takes the lease, reloads the window when due and fires what the wheel hands out. */
+  public synchronized void tick() {
+    LocalDateTime now = LocalDateTime.now();
+    if (!holdLease(now)) return;
+    if (!now.isBefore(nextLoad)) {
+      load(now);
+    }
+    wheel.advance(millis(now), ready::add);
+    while (!ready.isEmpty()) {
+      // Firing a backlog can take a while; stop as soon as another node may have taken over
+      if (!holdLease(LocalDateTime.now())) return;
+      fire(ready.poll());
+    }
+  }
+
+  /** Whether this node holds the lease; renews it, or tries to take it, when that is due. */
+  private boolean holdLease(LocalDateTime now) {
+    if (now.isBefore(renewAt)) return owner;
+    LocalDateTime expiresAt = now.plus(lease);
+    if (owner) {
+      int renewed = jdbc.update("update scheduler_lease set expires_at = ?, watermark = ? where name = ? and owner = ?",
+          expiresAt, watermark(), LEASE, node);
+      if (renewed == 0) release();
+    } else if (jdbc.update("update scheduler_lease set owner = ?, expires_at = ? where name = ? and (owner = ? or expires_at < ?)",
+        node, expiresAt, LEASE, node, now) == 1) {
+      LocalDateTime watermark = jdbc.queryForObject("select watermark from scheduler_lease where name = ?",
+          LocalDateTime.class, LEASE);
+      start(now, watermark);
+    }
+    renewAt = now.plus(lease.dividedBy(3));
+    return owner;
+  }
+
+  // Every timer due before this has fired, apart from ones waiting for a retry
+  private LocalDateTime watermark() {
+    long oldest = wheel.currentTime();
+    for (Timer timer : ready) {
+      oldest = Math.min(oldest, millis(timer.due()));
+    }
+    return time(oldest);
+  }
+
+  private void start(LocalDateTime now, LocalDateTime watermark) {
+    LocalDateTime oldest = now.minus(catchUp);
+    owner = true;
+    wheel = new TimingWheel<>(tickMillis, WHEEL_SLOTS, WHEEL_LEVELS, millis(now));
+    loadFrom = watermark == null || watermark.isBefore(oldest) ? oldest : watermark;
+    nextLoad = now;
+  }
+
+  private void release() {
+    owner = false;
+    wheel = null;
+    scheduled.clear();
+    ready.clear();
+  }
+
+  /**
+   * Schedules the timers due from the last fired tick (after a takeover: from the
+   * watermark) to the end of the lookahead. Timers already due go straight to firing.
+   */
+  private void load(LocalDateTime now) {
+    LocalDateTime from = loadFrom != null ? loadFrom : time(wheel.currentTime());
+    LocalDateTime to = now.plus(lookahead);
+    loadFrom = null;
+    for (Duration before : reminders) {
+      String name = "reminder-" + before;
+      window(REMINDED, from.plus(before), to.plus(before), (id, start) -> {
+        if (start.isAfter(now)) {
+          schedule(new Timer(id, name, start.minus(before), before, 0));
+        }
+      });
+    }
+    window(PENDING, from.plus(expirePending), to.plus(expirePending),
+        (id, start) -> schedule(new Timer(id, EXPIRY, start.minus(expirePending), null, 0)));
+    // Records older than the catch-up can no longer be loaded again
+    jdbc.update("delete from appointment_timer_fired where due_at < ?", now.minus(catchUp));
+    nextLoad = now.plus(loadInterval);
+  }
+
+  // Appointments of the query's statuses starting in [from, to)
+  private void window(String sql, LocalDateTime from, LocalDateTime to, StartSink sink) {
+    jdbc.query(sql, rs -> {
+          sink.accept(rs.getLong(1),
+              LocalDateTime.of(rs.getObject(2, LocalDate.class), rs.getObject(3, LocalTime.class)));
+        },
+        from.toLocalDate(), to.toLocalDate(), from.toLocalDate(), from.toLocalTime(),
+        to.toLocalDate(), to.toLocalTime());
+  }
+
+  private void schedule(Timer timer) {
+    if (scheduled.putIfAbsent(timer.key(), timer) != null) return;
+    if (!wheel.add(millis(timer.due()), timer)) {
+      ready.add(timer);
+    }
+  }
+
+  private void fire(Timer timer) {
+    Counter outcome;
+    try {
+      outcome = transactions.execute(status -> {
+        try {
+          jdbc.update("insert into appointment_timer_fired (appointment_id, timer, due_at, fired_at) values (?, ?, ?, ?)",
+              timer.appointmentId(), timer.name(), timer.due(), LocalDateTime.now());
+        } catch (DuplicateKeyException e) {
+          return null; // fired before, by this node or another
+        }
+        Appointment apt = repository.findById(timer.appointmentId()).orElse(null);
+        if (apt == null) return null;
+        return timer.before() == null ? expire(apt) : remind(apt, timer.before());
+      });
+    } catch (RuntimeException e) {
+      failed.increment();
+      if (timer.attempts() + 1 < MAX_ATTEMPTS) {
+        Timer again = timer.retried();
+        scheduled.put(again.key(), again);
+        wheel.add(millis(LocalDateTime.now().plus(retry)), again);
+      } else {
+        scheduled.remove(timer.key());
+      }
+      return;
+    }
+    scheduled.remove(timer.key());
+    if (outcome != null) {
+      outcome.increment();
+    }
+  }
+
+  private Counter expire(Appointment apt) {
+    if (!"pending".equals(apt.getStatus())) return null;
+    appointmentService.cancelAppointment(apt.getId(), EXPIRED_REASON);
+    return expired;
+  }
+
+  private Counter remind(Appointment apt, Duration before) {
+    boolean live = "pending".equals(apt.getStatus()) || "confirmed".equals(apt.getStatus());
+    if (!live || !LocalDateTime.of(apt.getDate(), apt.getStartTime()).isAfter(LocalDateTime.now())) return null;
+    Reminder reminder = new Reminder(apt, before.toMinutes());
+    events.publish("appointment-reminder", reminder, apt.getClientId(), apt.getLawyerId());
+    outbox.append(APPOINTMENT_REMINDER, apt.getId(), reminder);
+    return reminded;
+  }
+
+  private static long millis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static LocalDateTime time(long millis) {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+  }
+
+  /** What reminder streams and outbox handlers receive. */
+  public record Reminder(Appointment appointment, long minutesBefore) {
+  }
+
+  // A reminder, or with before == null the pending expiry, of one appointment
+  private record Timer(long appointmentId, String name, LocalDateTime due, Duration before, int attempts) {
+
+    String key() {
+      return appointmentId + "/" + name;
+    }
+
+    Timer retried() {
+      return new Timer(appointmentId, name, due, before, attempts + 1);
+    }
+  }
+
+  @FunctionalInterface
+  private interface StartSink {
+    void accept(long appointmentId, LocalDateTime start);
+  }
+}
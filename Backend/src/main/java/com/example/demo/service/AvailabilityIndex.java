@@ -0,0 +1,150 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
+
+/**
+ * Booked-slot bitmaps per lawyer-day: 96 fifteen-minute slots in a {@code long[2]}, bit
+ * {@code i} set when any live appointment overlaps slot {@code i}.
+ * <p>
+ * Bitmaps are never modified once published; writers swap in a new array, so readers
+ * need no lock. Writes happen under the lawyer's lock in {@link AppointmentSlotIndex},
+ * which calls {@link #markBooked}, {@link #replace} and {@link #invalidate} as it reserves
+ * and releases slots. Only days that are already cached are updated; a missing day is
+ * simply loaded on its next read.
+ * <p>
+ * Days are filled by {@link AvailabilityService} without any lock: it takes a
+ * {@link #stamp} before its query and {@link #putIfUnchanged} caches the result only if
+ * no write touched the day in between. Days expire
+ * after {@code app.availability.ttl}, which bounds how long bookings made through other
+ * nodes can go unseen here.
+ */
+@Component
+public class AvailabilityIndex {
+
+  public static final int SLOT_MINUTES = 15;
+  public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES; // 96
+  static final long[] NONE = new long[2];
+
+  private static final int MAX_CACHED_DAYS = 200_000;
+  private static final int CHANGE_STRIPES = 4096; // power of two
+
+  private final Cache<DayKey, long[]> days;
+  // Bumped by every write to a day, cached or not, inside its map entry's compute, which
+  // orders it with putIfUnchanged. Days share counters, so a write may reject an
+  // unrelated load; that day is just loaded again next time.
+  private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+
+  public AvailabilityIndex(@Value("${app.availability.ttl:60s}") Duration ttl) {
+    this.days = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_DAYS)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  /** The day's booked bitmap, or {@code null} if it is not cached. */
+  public long[] get(Long lawyerId, LocalDate date) {
+    return days.getIfPresent(new DayKey(lawyerId, date));
+  }
+
+  /** Taken before reading a day from the database, for {@link #putIfUnchanged}. */
+  public long stamp(Long lawyerId, LocalDate date) {
+    return changes.get(changeIndex(new DayKey(lawyerId, date)));
+  }
+
+  /** Caches a day read from the database, unless a write touched it since {@code stamp}. */
+  public void putIfUnchanged(Long lawyerId, LocalDate date, long[] booked, long stamp) {
+    days.asMap().compute(new DayKey(lawyerId, date),
+        (k, bits) -> changes.get(changeIndex(k)) == stamp ? booked : bits);
+  }
+
+  public void markBooked(Long lawyerId, LocalDate date, LocalTime start, LocalTime end) {
+    write(new DayKey(lawyerId, date), bits -> {
+      long[] next = bits.clone();
+      setRange(next, slotOf(start), slotsUntil(end));
+      return next;
+    });
+  }
+
+  /** Replaces a cached day with a bitmap rebuilt from its remaining live intervals. */
+  public void replace(Long lawyerId, LocalDate date, long[] booked) {
+    write(new DayKey(lawyerId, date), bits -> booked);
+  }
+
+  public void invalidate(Long lawyerId, LocalDate date) {
+    write(new DayKey(lawyerId, date), bits -> null);
+  }
+
+  private void write(DayKey key, UnaryOperator<long[]> update) {
+    days.asMap().compute(key, (k, bits) -> {
+      changes.incrementAndGet(changeIndex(k));
+      return bits == null ? null : update.apply(bits);
+    });
+  }
+
+  private static int changeIndex(DayKey key) {
+    int h = key.hashCode();
+    return (h ^ (h >>> 16)) & (CHANGE_STRIPES - 1);
+  }
+
+  /** Index of the slot containing {@code time}. */
+  public static int slotOf(LocalTime time) {
+    return time.toSecondOfDay() / (SLOT_MINUTES * 60);
+  }
+
+  /** Index one past the last slot touched by an interval ending (exclusively) at {@code end}. */
+  public static int slotsUntil(LocalTime end) {
+    int seconds = SLOT_MINUTES * 60;
+    return (end.toSecondOfDay() + seconds - 1) / seconds;
+  }
+
+  public static LocalTime timeOf(int slot) {
+    return slot >= SLOTS_PER_DAY ? null : LocalTime.ofSecondOfDay((long) slot * SLOT_MINUTES * 60);
+  }
+
+  /** Sets bits {@code [from, to)} of a two-word bitmap. */
+  public static void setRange(long[] bits, int from, int to) {
+    for (int word = 0; word < 2; word++) {
+      int lo = Math.max(from, word * 64) - word * 64;
+      int hi = Math.min(to, word * 64 + 64) - word * 64;
+      if (lo < hi) {
+        long upTo = hi == 64 ? -1L : (1L << hi) - 1;
+        bits[word] |= upTo & -(1L << lo);
+      }
+    }
+  }
+
+  /** First set bit at or after {@code from}, or {@link #SLOTS_PER_DAY} if there is none. */
+  public static int nextSet(long[] bits, int from) {
+    return next(bits, from, false);
+  }
+
+  /** First clear bit at or after {@code from}, or {@link #SLOTS_PER_DAY} if there is none. */
+  public static int nextClear(long[] bits, int from) {
+    return next(bits, from, true);
+  }
+
+  private static int next(long[] bits, int from, boolean clear) {
+    for (int word = from >> 6; word < 2; word++) {
+      long value = clear ? ~bits[word] : bits[word];
+      if (from > word * 64) {
+        value &= -(1L << (from - word * 64));
+      }
+      if (value != 0) {
+        return Math.min(word * 64 + Long.numberOfTrailingZeros(value), SLOTS_PER_DAY);
+      }
+    }
+    return SLOTS_PER_DAY;
+  }
+
+  private record DayKey(Long lawyerId, LocalDate date) {
+  }
+}
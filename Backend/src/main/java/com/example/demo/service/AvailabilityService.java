@@ -0,0 +1,268 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AvailabilityQuery;
+import com.example.demo.model.DayAvailability;
+import com.example.demo.model.FreeInterval;
+import com.example.demo.model.LawyerAvailability;
+import com.example.demo.model.WorkingHours;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.WorkingHoursRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.demo.service.AvailabilityIndex.SLOT_MINUTES;
+
+/**
+ * When lawyers are free: each day's weekly working-hours template minus its booked-slot
+ * bitmap, as 15-minute aligned intervals.
+ * <p>
+ * Templates and booked bitmaps are cached, so a query over a month for a page of search
+ * results is a few bitwise operations per lawyer-day. At most one SQL query loads the
+ * lawyer-days that are not cached yet, from the primary database even when replicas are
+ * configured, since what it reads is cached. It takes no slot locks, so it never holds up
+ * bookings; a day a booking changed while it ran is returned but not cached (see
+ * {@link AvailabilityIndex#putIfUnchanged}). Templates are cached the same way against
+ * {@link #setWorkingHours}, and expire after {@code app.availability.ttl}.
+ */
+@Service
+public class AvailabilityService {
+
+  public static final int MAX_LAWYERS = 500;
+  public static final int MAX_DAYS = 62;
+  private static final int DEFAULT_DAYS = 14;
+  private static final int MAX_CACHED_TEMPLATES = 50_000;
+
+  // Monday to Friday, 09:00 - 17:00, for lawyers who have not set their own hours
+  static final List<WorkingHours> DEFAULT_HOURS = defaultHours();
+
+  private final AppointmentRepository appointmentRepository;
+  private final WorkingHoursRepository workingHoursRepository;
+  private final AvailabilityIndex index;
+  private final LawyerRecommender recommender;
+
+  // Working slots per lawyer, indexed by DayOfWeek.getValue() - 1
+  private final Cache<Long, long[][]> templates;
+  // Bumped with every committed template change; a load that started before is not cached
+  private final AtomicLong templateChanges = new AtomicLong();
+
+  public AvailabilityService(AppointmentRepository appointmentRepository,
+                             WorkingHoursRepository workingHoursRepository,
+                             AvailabilityIndex index, LawyerRecommender recommender,
+                             @Value("${app.availability.ttl:60s}") Duration ttl) {
+    this.appointmentRepository = appointmentRepository;
+    this.workingHoursRepository = workingHoursRepository;
+    this.index = index;
+    this.recommender = recommender;
+    this.templates = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_TEMPLATES)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  public LawyerAvailability getAvailability(Long lawyerId, AvailabilityQuery query) {
+    return getAvailability(List.of(lawyerId), query).get(0);
+  }
+
+  public List<LawyerAvailability> getAvailability(Collection<Long> lawyerIds, AvailabilityQuery query) {
+    List<Long> ids = lawyerIds == null ? List.of()
+        : lawyerIds.stream().filter(Objects::nonNull).distinct().toList();
+    if (ids.isEmpty()) {
+      throw new IllegalArgumentException("At least one lawyer id is required");
+    }
+    if (ids.size() > MAX_LAWYERS) {
+      throw new IllegalArgumentException("At most " + MAX_LAWYERS + " lawyers per request");
+    }
+    LocalDate today = LocalDate.now();
+    LocalDate from = query.getFrom() == null || query.getFrom().isBefore(today) ? today : query.getFrom();
+    LocalDate to = query.getTo() == null ? from.plusDays(DEFAULT_DAYS - 1) : query.getTo();
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("'to' must not be before 'from'");
+    }
+    int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+    if (days > MAX_DAYS) {
+      throw new IllegalArgumentException("At most " + MAX_DAYS + " days per request");
+    }
+    int minMinutes = query.getMinMinutes() == null ? 0 : query.getMinMinutes();
+    int minSlots = Math.max(1, (minMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+
+    Map<Long, long[][]> hours = templates(ids);
+    Map<Long, long[][]> booked = booked(ids, from, days);
+
+    // Slots of today that have already started are not offered
+    long[] past = new long[2];
+    AvailabilityIndex.setRange(past, 0, AvailabilityIndex.slotsUntil(LocalTime.now()));
+
+    List<LawyerAvailability> result = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      long[][] template = hours.get(id);
+      long[][] lawyerBooked = booked.get(id);
+      List<DayAvailability> out = new ArrayList<>(days);
+      for (int d = 0; d < days; d++) {
+        LocalDate date = from.plusDays(d);
+        long[] working = template[date.getDayOfWeek().getValue() - 1];
+        long[] free = {working[0] & ~lawyerBooked[d][0], working[1] & ~lawyerBooked[d][1]};
+        if (date.equals(today)) {
+          free[0] &= ~past[0];
+          free[1] &= ~past[1];
+        }
+        out.add(new DayAvailability(date, intervals(free, minSlots)));
+      }
+      result.add(new LawyerAvailability(id, SLOT_MINUTES, out));
+    }
+    return result;
+  }
+
+  /** The lawyer's weekly template, or the default one if none has been set. */
+  public List<WorkingHours> getWorkingHours(Long lawyerId) {
+    List<WorkingHours> rows = workingHoursRepository.findByLawyerIdOrderByDayOfWeekAscStartTimeAsc(lawyerId);
+    return rows.isEmpty() ? DEFAULT_HOURS : rows;
+  }
+
+  /** Replaces the lawyer's weekly template; an empty list restores the default. */
+  @Transactional
+  public List<WorkingHours> setWorkingHours(Long lawyerId, List<WorkingHours> periods) {
+    if (periods == null) {
+      throw new IllegalArgumentException("Working hours are required");
+    }
+    for (WorkingHours p : periods) {
+      if (p.getDayOfWeek() == null || p.getStartTime() == null || p.getEndTime() == null) {
+        throw new IllegalArgumentException("Day of week, start time and end time are required");
+      }
+      if (!p.getStartTime().isBefore(p.getEndTime())) {
+        throw new IllegalArgumentException("Start time must be before end time");
+      }
+      p.setId(null);
+      p.setLawyerId(lawyerId);
+    }
+    workingHoursRepository.deleteByLawyerId(lawyerId);
+    List<WorkingHours> saved = workingHoursRepository.saveAll(periods);
+    TransactionHooks.afterCommit(() -> templates.asMap().compute(lawyerId, (id, template) -> {
+      templateChanges.incrementAndGet();
+      return null;
+    }));
+    recommender.onWorkingHoursChanged(lawyerId, saved);
+    return saved.isEmpty() ? DEFAULT_HOURS : saved;
+  }
+
+  private Map<Long, long[][]> templates(List<Long> ids) {
+    Map<Long, long[][]> result = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long id : ids) {
+      long[][] template = templates.getIfPresent(id);
+      if (template != null) {
+        result.put(id, template);
+      } else {
+        missing.add(id);
+      }
+    }
+    if (missing.isEmpty()) return result;
+
+    long stamp = templateChanges.get();
+    Map<Long, List<WorkingHours>> rows = new HashMap<>();
+    for (WorkingHours row : workingHoursRepository.findByLawyerIdIn(missing)) {
+      rows.computeIfAbsent(row.getLawyerId(), k -> new ArrayList<>()).add(row);
+    }
+    for (Long id : missing) {
+      long[][] template = toTemplate(rows.getOrDefault(id, DEFAULT_HOURS));
+      templates.asMap().compute(id, (k, cached) -> templateChanges.get() == stamp ? template : cached);
+      result.put(id, template);
+    }
+    return result;
+  }
+
+  // Booked bitmaps per lawyer for each day of the range; days not yet cached are loaded
+  // together and cached unless a booking changed them meanwhile.
+  private Map<Long, long[][]> booked(List<Long> ids, LocalDate from, int days) {
+    Map<Long, long[][]> result = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    for (Long id : ids) {
+      long[][] bitmaps = new long[days][];
+      boolean complete = true;
+      for (int d = 0; d < days; d++) {
+        bitmaps[d] = index.get(id, from.plusDays(d));
+        complete &= bitmaps[d] != null;
+      }
+      result.put(id, bitmaps);
+      if (!complete) missing.add(id);
+    }
+    if (missing.isEmpty()) return result;
+
+    Map<Long, long[]> stamps = new HashMap<>();
+    for (Long id : missing) {
+      long[] dayStamps = new long[days];
+      for (int d = 0; d < days; d++) {
+        dayStamps[d] = index.stamp(id, from.plusDays(d));
+      }
+      stamps.put(id, dayStamps);
+    }
+    Map<Long, long[][]> loaded = new HashMap<>();
+    for (Object[] row : appointmentRepository.findLiveSlots(missing, from, from.plusDays(days - 1))) {
+      long[] bits = loaded.computeIfAbsent((Long) row[0], k -> new long[days][2])
+          [(int) ChronoUnit.DAYS.between(from, (LocalDate) row[1])];
+      AvailabilityIndex.setRange(bits,
+          AvailabilityIndex.slotOf((LocalTime) row[2]), AvailabilityIndex.slotsUntil((LocalTime) row[3]));
+    }
+    for (Long id : missing) {
+      long[][] bitmaps = result.get(id);
+      long[][] fresh = loaded.get(id);
+      for (int d = 0; d < days; d++) {
+        long[] bits = fresh == null || (fresh[d][0] | fresh[d][1]) == 0 ? AvailabilityIndex.NONE : fresh[d];
+        bitmaps[d] = bits;
+        index.putIfUnchanged(id, from.plusDays(d), bits, stamps.get(id)[d]);
+      }
+    }
+    return result;
+  }
+
+  private static long[][] toTemplate(List<WorkingHours> periods) {
+    long[][] template = new long[7][2];
+    for (WorkingHours p : periods) {
+      // Only whole slots inside the working period
+      AvailabilityIndex.setRange(template[p.getDayOfWeek().getValue() - 1],
+          AvailabilityIndex.slotsUntil(p.getStartTime()), AvailabilityIndex.slotOf(p.getEndTime()));
+    }
+    return template;
+  }
+
+  private static List<FreeInterval> intervals(long[] free, int minSlots) {
+    List<FreeInterval> intervals = new ArrayList<>();
+    int start = AvailabilityIndex.nextSet(free, 0);
+    while (start < AvailabilityIndex.SLOTS_PER_DAY) {
+      int end = AvailabilityIndex.nextClear(free, start);
+      if (end - start >= minSlots) {
+        intervals.add(new FreeInterval(AvailabilityIndex.timeOf(start), AvailabilityIndex.timeOf(end)));
+      }
+      start = AvailabilityIndex.nextSet(free, end);
+    }
+    return intervals;
+  }
+
+  private static List<WorkingHours> defaultHours() {
+    List<WorkingHours> hours = new ArrayList<>();
+    for (DayOfWeek day : List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+        DayOfWeek.THURSDAY, DayOfWeek.FRIDAY)) {
+      WorkingHours period = new WorkingHours();
+      period.setDayOfWeek(day);
+      period.setStartTime(LocalTime.of(9, 0));
+      period.setEndTime(LocalTime.of(17, 0));
+      hours.add(period);
+    }
+    return List.copyOf(hours);
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when a booking overlaps another live appointment of the same lawyer, or when a
+ * status change targets an appointment that has been cancelled.
+ */
+public class BookingConflictException extends RuntimeException {
+  public BookingConflictException(String message) {
+    super(message);
+  }
+}
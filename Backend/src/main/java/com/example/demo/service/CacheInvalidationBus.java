@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache evictions between application nodes, so that a write handled by one node
+ * clears the copies every node holds. Transports are chosen with
+ * {@code app.cache.invalidation-bus}; {@link InProcessInvalidationBus} only reaches the
+ * local node and is meant for single-node deployments and tests.
+ * <p>
+ * Delivery is best effort. Subscribers must treat evictions as idempotent (they may also
+ * receive their own), and caches keep a TTL for anything a transport loses.
+ */
+public interface CacheInvalidationBus {
+
+  /** Sends the eviction to every subscriber, on this node and on the others. */
+  void publish(CacheEviction eviction);
+
+  void subscribe(Consumer<CacheEviction> subscriber);
+
+  /** Drop {@code key} from the named cache, or every entry when {@code key} is null. */
+  record CacheEviction(String cache, String key) {
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.example.demo.service.CacheInvalidationBus.CacheEviction;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for polled lists (the lawyer directory, each client's and each
+ * lawyer's appointments), used as ETags so that an unchanged list is answered with a 304
+ * without touching the database.
+ * <p>
+ * Writers call {@link #changed} inside their transaction; the counters move once it
+ * commits, here and, through the {@link CacheInvalidationBus}, on the other nodes.
+ * Readers must take the ETag <em>before</em> reading the list: a write that commits in
+ * between then shows up as a new version on the next poll instead of being hidden behind
+ * the old one.
+ * <p>
+ * Versions are drawn from one clock, so they only ever grow. Untracked lists share a
+ * floor value; when too many lists are tracked the map is dropped and the floor raised
+ * past every version handed out, which changes all ETags once. Each node starts from a
+ * random epoch, so ETags from before a restart or from another node never match.
+ */
+@Component
+public class CollectionVersions {
+
+  public static final String LAWYERS = "lawyers";
+
+  static final String BUS_CHANNEL = "collection-versions";
+  private static final int MAX_TRACKED = 100_000;
+
+  private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+  private final AtomicLong clock = new AtomicLong();
+  private final Map<String, Long> versions = new ConcurrentHashMap<>();
+  private volatile long floor;
+
+  private final CacheInvalidationBus bus;
+
+  public CollectionVersions(CacheInvalidationBus bus) {
+    this.bus = bus;
+    bus.subscribe(message -> {
+      if (BUS_CHANNEL.equals(message.cache())) bump(message.key());
+    });
+  }
+
+  public static String clientAppointments(Long clientId) {
+    return "appointments.client." + clientId;
+  }
+
+  public static String lawyerAppointments(Long lawyerId) {
+    return "appointments.lawyer." + lawyerId;
+  }
+
+  /** Strong ETag for the list's current version. */
+  public String etag(String collection) {
+    return "\"" + epoch + "-" + versions.getOrDefault(collection, floor) + "\"";
+  }
+
+  /** Moves the lists' versions on every node once the current transaction commits. */
+  public void changed(String... collections) {
+    TransactionHooks.afterCommit(() -> {
+      for (String collection : collections) {
+        bump(collection);
+        bus.publish(new CacheEviction(BUS_CHANNEL, collection));
+      }
+    });
+  }
+
+  private void bump(String collection) {
+    if (versions.size() >= MAX_TRACKED) {
+      floor = clock.incrementAndGet();
+      versions.clear();
+    }
+    versions.put(collection, clock.incrementAndGet());
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.User;
+import com.example.demo.repository.AppointmentArchiveRepository;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admin dashboard counters, kept in memory so {@code /api/profile/stats} is O(1).
+ * <p>
+ * Counters are seeded from GROUP BY queries at startup and then moved incrementally by
+ * the user and appointment write paths after each commit. A periodic reconciliation
+ * re-runs the GROUP BY queries and corrects any drift (for example writes made by
+ * another node, or increments that raced with a previous reconciliation).
+ * <p>
+ * {@code appointmentsByDate} counts appointments by the day they take place, from
+ * {@value #DAILY_WINDOW_DAYS} days back to as many ahead; days leave the window as it
+ * moves on at the next reconciliation.
+ */
+@Service
+public class DashboardStatsService {
+
+  private static final int DAILY_WINDOW_DAYS = 30;
+  private static final String UNKNOWN = "unknown";
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private AppointmentArchiveRepository archiveRepository;
+
+  private final LongAdder totalUsers = new LongAdder();
+  private final LongAdder totalClients = new LongAdder();
+  private final LongAdder totalLawyers = new LongAdder();
+  private final LongAdder pendingLawyers = new LongAdder();
+  private final LongAdder verifiedLawyers = new LongAdder();
+  private final Map<String, LongAdder> appointmentsByStatus = new ConcurrentHashMap<>();
+  private final Map<LocalDate, LongAdder> appointmentsByDate = new ConcurrentHashMap<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:600000}",
+      initialDelayString = "${app.stats.reconcile-interval-ms:600000}")
+  @Transactional(readOnly = true)
+  public void reconcile() {
+    long users = 0, clients = 0, lawyers = 0, pending = 0, verified = 0;
+    for (Object[] row : userRepository.countByRoleAndVerificationStatus()) {
+      String role = (String) row[0];
+      String status = (String) row[1];
+      long count = (Long) row[2];
+
+      users += count;
+      if ("client".equals(role)) clients += count;
+      if ("lawyer".equals(role)) {
+        lawyers += count;
+        if ("pending".equals(status)) pending += count;
+        if ("verified".equals(status)) verified += count;
+      }
+    }
+    set(totalUsers, users);
+    set(totalClients, clients);
+    set(totalLawyers, lawyers);
+    set(pendingLawyers, pending);
+    set(verifiedLawyers, verified);
+
+    Map<String, Long> byStatus = new HashMap<>();
+    // Archived appointments still count; they only moved table
+    for (List<Object[]> counts : List.of(appointmentRepository.countByStatus(), archiveRepository.countByStatus())) {
+      for (Object[] row : counts) {
+        byStatus.merge(statusKey((String) row[0]), (Long) row[1], Long::sum);
+      }
+    }
+    appointmentsByStatus.keySet().forEach(status -> byStatus.putIfAbsent(status, 0L));
+    byStatus.forEach((status, count) -> set(appointmentsByStatus.computeIfAbsent(status, k -> new LongAdder()), count));
+
+    LocalDate today = LocalDate.now();
+    LocalDate windowStart = today.minusDays(DAILY_WINDOW_DAYS);
+    LocalDate windowEnd = today.plusDays(DAILY_WINDOW_DAYS);
+    Map<LocalDate, Long> byDate = new HashMap<>();
+    for (List<Object[]> counts : List.of(appointmentRepository.countByDateBetween(windowStart, windowEnd),
+        archiveRepository.countByDateBetween(windowStart, windowEnd))) {
+      for (Object[] row : counts) {
+        byDate.merge((LocalDate) row[0], (Long) row[1], Long::sum);
+      }
+    }
+    appointmentsByDate.keySet().removeIf(date -> !inWindow(date, today));
+    appointmentsByDate.keySet().forEach(date -> byDate.putIfAbsent(date, 0L));
+    byDate.forEach((date, count) -> set(appointmentsByDate.computeIfAbsent(date, k -> new LongAdder()), count));
+  }
+
+  public void onUserRegistered(User user) {
+    String role = user.getRole();
+    String status = user.getVerificationStatus();
+    TransactionHooks.afterCommit(() -> {
+      totalUsers.increment();
+      if ("client".equals(role)) totalClients.increment();
+      if ("lawyer".equals(role)) {
+        totalLawyers.increment();
+        adjustVerification(status, 1);
+      }
+    });
+  }
+
+  public void onVerificationChanged(User user, String previousStatus) {
+    if (!"lawyer".equals(user.getRole())) return;
+    String status = user.getVerificationStatus();
+    TransactionHooks.afterCommit(() -> {
+      adjustVerification(previousStatus, -1);
+      adjustVerification(status, 1);
+    });
+  }
+
+  public void onAppointmentBooked(Appointment appointment) {
+    String status = statusKey(appointment.getStatus());
+    LocalDate date = appointment.getDate();
+    TransactionHooks.afterCommit(() -> {
+      appointmentsByStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+      if (date != null && inWindow(date, LocalDate.now())) {
+        appointmentsByDate.computeIfAbsent(date, k -> new LongAdder()).increment();
+      }
+    });
+  }
+
+  public void onAppointmentStatusChanged(String previousStatus, String status) {
+    String from = statusKey(previousStatus);
+    String to = statusKey(status);
+    if (from.equals(to)) return;
+    TransactionHooks.afterCommit(() -> {
+      appointmentsByStatus.computeIfAbsent(from, k -> new LongAdder()).decrement();
+      appointmentsByStatus.computeIfAbsent(to, k -> new LongAdder()).increment();
+    });
+  }
+
+  public Map<String, Object> snapshot() {
+    Map<String, Long> byStatus = new TreeMap<>();
+    long totalAppointments = 0;
+    for (Map.Entry<String, LongAdder> e : appointmentsByStatus.entrySet()) {
+      long count = e.getValue().sum();
+      byStatus.put(e.getKey(), count);
+      totalAppointments += count;
+    }
+    Map<String, Long> byDate = new TreeMap<>();
+    appointmentsByDate.forEach((date, count) -> byDate.put(date.toString(), count.sum()));
+
+    Map<String, Object> stats = new HashMap<>();
+    stats.put("totalUsers", totalUsers.sum());
+    stats.put("totalClients", totalClients.sum());
+    stats.put("totalLawyers", totalLawyers.sum());
+    stats.put("pendingVerifications", pendingLawyers.sum());
+    stats.put("verifiedLawyers", verifiedLawyers.sum());
+    stats.put("totalAppointments", totalAppointments);
+    stats.put("appointmentsByStatus", byStatus);
+    stats.put("appointmentsByDate", byDate);
+    return stats;
+  }
+
+  private static boolean inWindow(LocalDate date, LocalDate today) {
+    return !date.isBefore(today.minusDays(DAILY_WINDOW_DAYS)) && !date.isAfter(today.plusDays(DAILY_WINDOW_DAYS));
+  }
+
+  private void adjustVerification(String status, int delta) {
+    if ("pending".equals(status)) pendingLawyers.add(delta);
+    if ("verified".equals(status)) verifiedLawyers.add(delta);
+  }
+
+  private static String statusKey(String status) {
+    return status == null ? UNKNOWN : status;
+  }
+
+  // Applies the difference rather than reset()+add() so concurrent increments are not lost.
+  private static void set(LongAdder adder, long value) {
+    adder.add(value - adder.sum());
+  }
+}
@@ -0,0 +1,400 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ExportFilter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Admin exports of users, appointments and reviews as CSV or NDJSON, written straight
+ * from a forward-only JDBC cursor instead of entities. The driver fetches
+ * {@code app.export.fetch-size} rows at a time and the output is flushed after each such
+ * batch, so memory holds one batch however large the table is. (On MySQL the fetch size
+ * only takes effect with {@code useCursorFetch=true} on the connection URL.)
+ * <p>
+ * Each method runs in a read-only transaction, so with replicas configured the export
+ * reads from one of them.
+ */
+@Component
+public class DataExporter {
+
+  private static final int WRITE_BUFFER = 64 * 1024;
+
+  public enum Format {
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson");
+
+    public final MediaType mediaType;
+    public final String extension;
+
+    Format(MediaType mediaType, String extension) {
+      this.mediaType = mediaType;
+      this.extension = extension;
+    }
+
+    public static Format parse(String value) {
+      try {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown export format: " + value + " (csv or ndjson)");
+      }
+    }
+  }
+
+  private enum Type { TEXT, INT, LONG, BOOL, DATE, TIME, DATETIME }
+
+  private record Column(String sql, String name, Type type) {
+  }
+
+  private static final List<Column> USER_COLUMNS = List.of(
+      new Column("id", "id", Type.LONG),
+      new Column("name", "name", Type.TEXT),
+      new Column("email", "email", Type.TEXT),
+      new Column("phone", "phone", Type.TEXT),
+      new Column("role", "role", Type.TEXT),
+      new Column("bio", "bio", Type.TEXT),
+      new Column("location", "location", Type.TEXT),
+      new Column("consultation_fee", "consultationFee", Type.INT),
+      new Column("bar_council_number", "barCouncilNumber", Type.TEXT),
+      new Column("years_of_experience", "yearsOfExperience", Type.INT),
+      new Column("is_verified", "isVerified", Type.BOOL),
+      new Column("verification_status", "verificationStatus", Type.TEXT),
+      new Column("updated_at", "updatedAt", Type.DATETIME));
+
+  // Appended to each user row from the element collection tables, in this order
+  private static final List<String> USER_LISTS = List.of("specializations", "languages", "education");
+
+  private static final String USER_LIST_ROWS = """
+      select user_id, 0, specializations from user_specializations where user_id between ? and ?
+      union all
+      select user_id, 1, languages from user_languages where user_id between ? and ?
+      union all
+      select user_id, 2, education from user_education where user_id between ? and ?
+      """;
+
+  private static final List<Column> APPOINTMENT_COLUMNS = List.of(
+      new Column("id", "id", Type.LONG),
+      new Column("client_id", "clientId", Type.LONG),
+      new Column("lawyer_id", "lawyerId", Type.LONG),
+      new Column("type", "type", Type.TEXT),
+      new Column("status", "status", Type.TEXT),
+      new Column("date", "date", Type.DATE),
+      new Column("start_time", "startTime", Type.TIME),
+      new Column("end_time", "endTime", Type.TIME),
+      new Column("fee", "fee", Type.INT),
+      new Column("cancel_reason", "cancelReason", Type.TEXT),
+      new Column("updated_at", "updatedAt", Type.DATETIME));
+
+  private static final List<Column> REVIEW_COLUMNS = List.of(
+      new Column("id", "id", Type.LONG),
+      new Column("appointment_id", "appointmentId", Type.LONG),
+      new Column("client_id", "clientId", Type.LONG),
+      new Column("lawyer_id", "lawyerId", Type.LONG),
+      new Column("rating", "rating", Type.INT),
+      new Column("comment", "comment", Type.TEXT),
+      new Column("response", "response", Type.TEXT),
+      new Column("created_at", "createdAt", Type.DATETIME),
+      new Column("updated_at", "updatedAt", Type.DATETIME));
+
+  private final JdbcTemplate jdbc;
+  private final JsonFactory jsonFactory;
+  private final int fetchSize;
+
+  public DataExporter(JdbcTemplate jdbc, ObjectMapper objectMapper,
+                      @Value("${app.export.fetch-size:1000}") int fetchSize) {
+    if (fetchSize < 1) throw new IllegalArgumentException("app.export.fetch-size must be positive");
+    this.jdbc = jdbc;
+    this.jsonFactory = objectMapper.getFactory();
+    this.fetchSize = fetchSize;
+  }
+
+  /** Every account, or those with {@code filter.role}; never passwords or KYC documents. */
+  @Transactional(readOnly = true)
+  public long exportUsers(ExportFilter filter, Format format, OutputStream out) throws IOException {
+    List<String> names = new ArrayList<>(names(USER_COLUMNS));
+    names.addAll(USER_LISTS);
+    Select select = new Select("users", USER_COLUMNS)
+        .where("role = ?", filter.getRole());
+    return stream(select, new UserBatch(sink(format, out, names)));
+  }
+
+  /** Archived appointments (see {@link AppointmentArchiver}) first, then the rest. */
+  @Transactional(readOnly = true)
+  public long exportAppointments(ExportFilter filter, Format format, OutputStream out) throws IOException {
+    RowSink sink = sink(format, out, names(APPOINTMENT_COLUMNS));
+    long rows = 0;
+    for (String table : List.of("appointment_archive", "appointment")) {
+      Select select = new Select(table, APPOINTMENT_COLUMNS)
+          .where("lawyer_id = ?", filter.getLawyerId())
+          .where("client_id = ?", filter.getClientId())
+          .where("status = ?", filter.getStatus())
+          .where("date >= ?", filter.getFrom())
+          .where("date <= ?", filter.getTo());
+      rows += stream(select, sink);
+    }
+    return rows;
+  }
+
+  @Transactional(readOnly = true)
+  public long exportReviews(ExportFilter filter, Format format, OutputStream out) throws IOException {
+    Select select = new Select("review", REVIEW_COLUMNS)
+        .where("lawyer_id = ?", filter.getLawyerId())
+        .where("client_id = ?", filter.getClientId())
+        .where("created_at >= ?", filter.getFrom() == null ? null : filter.getFrom().atStartOfDay())
+        .where("created_at < ?", filter.getTo() == null ? null : filter.getTo().plusDays(1).atStartOfDay());
+    return stream(select, sink(format, out, names(REVIEW_COLUMNS)));
+  }
+
+  /**
+   * Runs the select on a forward-only, read-only cursor and hands each row to the sink,
+   * flushing it after every fetch-size rows and at the end. Returns the row count.
+   */
+  private long stream(Select select, RowSink sink) throws IOException {
+    long[] count = {0};
+    try {
+      jdbc.query(con -> {
+        PreparedStatement ps = con.prepareStatement(select.sql(), ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(fetchSize);
+        for (int i = 0; i < select.args.size(); i++) {
+          ps.setObject(i + 1, select.args.get(i));
+        }
+        return ps;
+      }, (RowCallbackHandler) rs -> {
+        Object[] row = new Object[select.columns.size()];
+        for (int i = 0; i < row.length; i++) {
+          row[i] = read(rs, i + 1, select.columns.get(i).type());
+        }
+        try {
+          sink.row(row);
+          if (++count[0] % fetchSize == 0) sink.flush();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      sink.flush();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return count[0];
+  }
+
+  private static Object read(ResultSet rs, int index, Type type) throws SQLException {
+    return switch (type) {
+      case TEXT -> rs.getString(index);
+      case INT -> rs.getObject(index, Integer.class);
+      case LONG -> rs.getObject(index, Long.class);
+      case BOOL -> rs.getObject(index, Boolean.class);
+      case DATE -> Objects.toString(rs.getObject(index, LocalDate.class), null);
+      case TIME -> Objects.toString(rs.getObject(index, LocalTime.class), null);
+      case DATETIME -> Objects.toString(rs.getObject(index, LocalDateTime.class), null);
+    };
+  }
+
+  private static List<String> names(List<Column> columns) {
+    return columns.stream().map(Column::name).toList();
+  }
+
+  private RowSink sink(Format format, OutputStream out, List<String> names) throws IOException {
+    return format == Format.CSV ? new CsvSink(out, names) : new NdjsonSink(jsonFactory, out, names);
+  }
+
+  /** {@code select <columns> from <table> [where ...] order by id}, filters left out when null. */
+  private static final class Select {
+    final String table;
+    final List<Column> columns;
+    final StringBuilder where = new StringBuilder();
+    final List<Object> args = new ArrayList<>();
+
+    Select(String table, List<Column> columns) {
+      this.table = table;
+      this.columns = columns;
+    }
+
+    Select where(String condition, Object value) {
+      if (value != null) {
+        where.append(where.isEmpty() ? " where " : " and ").append(condition);
+        args.add(value);
+      }
+      return this;
+    }
+
+    String sql() {
+      return "select " + String.join(", ", columns.stream().map(Column::sql).toList())
+          + " from " + table + where + " order by id";
+    }
+  }
+
+  /** Where rows go; {@link #flush} ends a batch and pushes it to the client. */
+  private interface RowSink {
+    void row(Object[] values) throws IOException;
+
+    void flush() throws IOException;
+  }
+
+  /**
+   * Holds one batch of user rows, then loads the batch's list columns with one query over
+   * its id range (rows arrive ordered by id) before writing it on.
+   */
+  private final class UserBatch implements RowSink {
+    private final RowSink out;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    UserBatch(RowSink out) {
+      this.out = out;
+    }
+
+    @Override
+    public void row(Object[] values) {
+      rows.add(Arrays.copyOf(values, values.length + USER_LISTS.size()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void flush() throws IOException {
+      if (!rows.isEmpty()) {
+        Map<Long, Object[]> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byId.put((Long) row[0], row));
+        Object first = rows.get(0)[0];
+        Object last = rows.get(rows.size() - 1)[0];
+        int base = USER_COLUMNS.size();
+        jdbc.query(USER_LIST_ROWS, (RowCallbackHandler) rs -> {
+          Object[] row = byId.get(rs.getLong(1));
+          String value = rs.getString(3);
+          if (row == null || value == null) return;
+          int slot = base + rs.getInt(2);
+          if (row[slot] == null) row[slot] = new ArrayList<String>();
+          ((List<String>) row[slot]).add(value);
+        }, first, last, first, last, first, last);
+        for (Object[] row : rows) {
+          for (int slot = base; slot < row.length; slot++) {
+            if (row[slot] == null) row[slot] = List.of();
+          }
+          out.row(row);
+        }
+        rows.clear();
+      }
+      out.flush();
+    }
+  }
+
+  /**
+   * RFC 4180 CSV with a header row. Fields with a comma, quote or line break are quoted;
+   * list values are joined with {@code ;}.
+   */
+  private static final class CsvSink implements RowSink {
+    private final Writer out;
+
+    CsvSink(OutputStream out, List<String> names) throws IOException {
+      this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER);
+      row(names.toArray());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void row(Object[] values) throws IOException {
+      for (int i = 0; i < values.length; i++) {
+        if (i > 0) out.write(',');
+        Object value = values[i];
+        if (value instanceof List<?> list) {
+          field(String.join(";", (List<String>) list));
+        } else if (value != null) {
+          field(value.toString());
+        }
+      }
+      out.write("\r\n");
+    }
+
+    private void field(String value) throws IOException {
+      boolean quote = false;
+      for (int i = 0; i < value.length() && !quote; i++) {
+        char c = value.charAt(i);
+        quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+      }
+      if (!quote) {
+        out.write(value);
+        return;
+      }
+      out.write('"');
+      out.write(value.replace("\"", "\"\""));
+      out.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+  }
+
+  /** One JSON object per line, keyed by the column names, with lists as arrays. */
+  private static final class NdjsonSink implements RowSink {
+    private final JsonGenerator json;
+    private final SerializedString[] names;
+
+    NdjsonSink(JsonFactory factory, OutputStream out, List<String> names) throws IOException {
+      this.json = factory.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      this.json.setRootValueSeparator(null);
+      this.names = names.stream().map(SerializedString::new).toArray(SerializedString[]::new);
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+      json.writeStartObject();
+      for (int i = 0; i < values.length; i++) {
+        json.writeFieldName(names[i]);
+        write(values[i]);
+      }
+      json.writeEndObject();
+      json.writeRaw('\n');
+    }
+
+    private void write(Object value) throws IOException {
+      switch (value) {
+        case null -> json.writeNull();
+        case String s -> json.writeString(s);
+        case Integer n -> json.writeNumber(n);
+        case Long n -> json.writeNumber(n);
+        case Boolean b -> json.writeBoolean(b);
+        case List<?> list -> {
+          json.writeStartArray();
+          for (Object item : list) json.writeString((String) item);
+          json.writeEndArray();
+        }
+        default -> json.writeString(value.toString());
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      json.flush();
+    }
+  }
+}
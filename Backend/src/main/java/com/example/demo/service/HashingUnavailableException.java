@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when the password hashing pool is saturated, so the caller can answer 503 at
+ * once instead of queueing behind other logins.
+ */
+public class HashingUnavailableException extends RuntimeException {
+  public HashingUnavailableException(String message) {
+    super(message);
+  }
+}
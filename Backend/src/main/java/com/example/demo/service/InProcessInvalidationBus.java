@@ -0,0 +1,31 @@
+package com.example.demo.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link CacheInvalidationBus} that delivers evictions synchronously to subscribers in
+ * this JVM. Enough for a single node; with several nodes, swap in a shared transport.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation-bus", havingValue = "in-process", matchIfMissing = true)
+public class InProcessInvalidationBus implements CacheInvalidationBus {
+
+  private final List<Consumer<CacheEviction>> subscribers = new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(CacheEviction eviction) {
+    for (Consumer<CacheEviction> subscriber : subscribers) {
+      subscriber.accept(eviction);
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<CacheEviction> subscriber) {
+    subscribers.add(subscriber);
+  }
+}
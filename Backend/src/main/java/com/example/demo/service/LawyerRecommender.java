@@ -0,0 +1,650 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.LawyerRating;
+import com.example.demo.model.LawyerRecommendation;
+import com.example.demo.model.RecommendationQuery;
+import com.example.demo.model.User;
+import com.example.demo.model.WorkingHours;
+import com.example.demo.repository.AppointmentArchiveRepository;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.LawyerRatingRepository;
+import com.example.demo.repository.WorkingHoursRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranks verified lawyers for {@code GET /api/lawyers/recommended}.
+ * <p>
+ * Every indexed lawyer gets a dense ordinal, and each feature is a primitive array
+ * indexed by it: fee, experience, review count and sum, completed appointments, weekly
+ * working minutes and minutes booked over the next {@value #WINDOW_DAYS} days. The part
+ * of the score that does not depend on the query (experience, Bayesian-smoothed rating,
+ * volume and availability) is kept precomputed per lawyer; a query only adds
+ * specialization, language and fee fit, each worth at most a fixed weight.
+ * <p>
+ * Ordinals are also kept sorted by the precomputed score. A query walks them best first,
+ * keeps the best {@code limit} in a bounded min-heap, and stops as soon as no remaining
+ * lawyer could reach the heap's minimum even with a perfect match on every criterion.
+ * Lawyers whose score changed since the sort are scored on the side; the order is redone
+ * on the first query after more than {@value #RESORT_AFTER_CHANGES} of them.
+ * <p>
+ * Features are updated by the write paths once their transaction commits, on the node
+ * that handled them. Everything is reloaded every {@code app.recommendations.refresh-ms},
+ * which also moves the availability window forward and picks up other nodes' writes.
+ */
+@Component
+public class LawyerRecommender {
+
+  public static final int DEFAULT_LIMIT = 20;
+  public static final int MAX_LIMIT = 100;
+  static final int WINDOW_DAYS = 7;
+
+  // Weights of the parts of the score, each of which is between 0 and 1
+  private static final double W_SPECIALIZATION = 0.30;
+  private static final double W_LANGUAGE = 0.10;
+  private static final double W_FEE = 0.15;
+  private static final double W_EXPERIENCE = 0.10;
+  private static final double W_RATING = 0.15;
+  private static final double W_VOLUME = 0.10;
+  private static final double W_AVAILABILITY = 0.10;
+
+  // A rating counts as if the lawyer also had this many reviews at the platform-wide
+  // average, so one 5-star review does not outrank a long record of 4.8s
+  private static final double PRIOR_REVIEWS = 10;
+  // Years of experience and completed appointments at which those parts reach one half
+  private static final double EXPERIENCE_HALF = 10;
+  private static final double VOLUME_HALF = 25;
+
+  private static final int RESORT_AFTER_CHANGES = 1024;
+  private static final int LOAD_CHUNK = 1000;
+  private static final int DEFAULT_WEEKLY_MINUTES = minutes(AvailabilityService.DEFAULT_HOURS);
+
+  @Autowired
+  private UserReadModels readModels;
+
+  @Autowired
+  private LawyerRatingRepository ratingRepository;
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private AppointmentArchiveRepository archiveRepository;
+
+  @Autowired
+  private WorkingHoursRepository workingHoursRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Columns columns = new Columns(64, 3);
+
+  // Live ordinals in ascending order of precomputed score, each as (score bits << 32 | ordinal)
+  private long[] order = new long[0];
+  private final BitSet changed = new BitSet();
+  private int changes;
+  private volatile boolean orderDirty = true;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${app.recommendations.refresh-ms:3600000}",
+      initialDelayString = "${app.recommendations.refresh-ms:3600000}")
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    List<LawyerCard> cards = readModels.lawyerCards(true);
+    List<LawyerRating> ratings = ratingRepository.findAll();
+    long reviews = 0;
+    long ratingSum = 0;
+    for (LawyerRating rating : ratings) {
+      reviews += rating.getReviewCount();
+      ratingSum += rating.getRatingSum();
+    }
+    Columns fresh = new Columns(Math.max(64, cards.size()), reviews == 0 ? 3 : (double) ratingSum / reviews);
+    cards.forEach(fresh::put);
+
+    for (LawyerRating rating : ratings) {
+      Integer i = fresh.ordinalById.get(rating.getLawyerId());
+      if (i == null) continue;
+      fresh.reviewCount[i] = rating.getReviewCount();
+      fresh.ratingSum[i] = rating.getRatingSum();
+    }
+    for (List<Object[]> counts : List.of(appointmentRepository.countCompletedByLawyer(),
+        archiveRepository.countCompletedByLawyer())) {
+      for (Object[] row : counts) {
+        Integer i = fresh.ordinalById.get((Long) row[0]);
+        if (i != null) fresh.completed[i] += ((Long) row[1]).intValue();
+      }
+    }
+    Map<Long, Integer> weekly = new HashMap<>();
+    for (Object[] row : workingHoursRepository.findAllPeriods()) {
+      weekly.merge((Long) row[0], minutes((LocalTime) row[1], (LocalTime) row[2]), Integer::sum);
+    }
+    weekly.forEach((id, minutes) -> {
+      Integer i = fresh.ordinalById.get(id);
+      if (i != null) fresh.weeklyMinutes[i] = minutes;
+    });
+
+    LocalDate today = LocalDate.now();
+    List<Long> ids = new ArrayList<>(fresh.ordinalById.keySet());
+    for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+      List<Long> chunk = ids.subList(from, Math.min(from + LOAD_CHUNK, ids.size()));
+      for (Object[] row : appointmentRepository.findLiveSlots(chunk, today, today.plusDays(WINDOW_DAYS - 1))) {
+        fresh.bookedMinutes[fresh.ordinalById.get((Long) row[0])] += minutes((LocalTime) row[2], (LocalTime) row[3]);
+      }
+    }
+    for (int i = fresh.live.nextSetBit(0); i >= 0; i = fresh.live.nextSetBit(i + 1)) {
+      fresh.rescore(i);
+    }
+
+    lock.writeLock().lock();
+    try {
+      columns = fresh;
+      changed.clear();
+      changes = 0;
+      orderDirty = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** The best {@code limit} lawyers for the query, best first. */
+  public List<LawyerRecommendation> recommend(RecommendationQuery query) {
+    int limit = query.getLimit() == null ? DEFAULT_LIMIT : query.getLimit();
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+    }
+    Integer budget = query.getBudget();
+    if (budget != null && budget <= 0) {
+      throw new IllegalArgumentException("budget must be positive");
+    }
+    List<String> specializations = normalize(query.getSpecialization());
+    List<String> languages = normalize(query.getLanguage());
+
+    lock.readLock().lock();
+    while (orderDirty) {
+      lock.readLock().unlock();
+      ensureOrdered();
+      lock.readLock().lock();
+    }
+    try {
+      Columns c = columns;
+      Match match = new Match(
+          specializations.stream().map(c.bySpecialization::get).toArray(BitSet[]::new),
+          languages.stream().map(c.byLanguage::get).toArray(BitSet[]::new),
+          budget);
+      TopK top = new TopK(limit);
+
+      for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+        if (c.live.get(i)) top.offer(i, match.score(c, i), c.ids[i]);
+      }
+      for (int pos = order.length - 1; pos >= 0; pos--) {
+        long entry = order[pos];
+        int i = (int) entry;
+        if (top.isFull() && Float.intBitsToFloat((int) (entry >>> 32)) + match.maxBonus < top.min()) break;
+        if (changed.get(i) || !c.live.get(i)) continue;
+        top.offer(i, match.score(c, i), c.ids[i]);
+      }
+
+      List<LawyerRecommendation> result = new ArrayList<>(top.size);
+      for (int n = top.size; n > 0; n--) {
+        double score = top.min();
+        int i = top.poll();
+        result.add(new LawyerRecommendation(c.cards[i], Math.round(score * 10_000) / 10_000.0,
+            c.reviewCount[i] == 0 ? 0 : Math.round(c.ratingSum[i] * 100.0 / c.reviewCount[i]) / 100.0,
+            c.reviewCount[i], c.completed[i]));
+      }
+      Collections.reverse(result);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Re-indexes a user after a profile or verification change, once the surrounding
+   * transaction has committed. A lawyer new to the index has their features loaded then.
+   */
+  public void index(User user) {
+    if (user == null || user.getId() == null) return;
+
+    Long id = user.getId();
+    LawyerCard card = isRecommendable(user) ? LawyerCard.from(user) : null;
+    TransactionHooks.afterCommit(() -> {
+      if (card == null) {
+        update(c -> c.remove(id));
+      } else if (!update(c -> c.replace(card))) {
+        Features features = loadFeatures(id);
+        update(c -> {
+          if (!c.replace(card)) c.add(card, features);
+          return true;
+        });
+      }
+    });
+  }
+
+  public void onReviewCreated(Long lawyerId, int rating) {
+    TransactionHooks.afterCommit(() -> update(lawyerId, (c, i) -> {
+      c.reviewCount[i]++;
+      c.ratingSum[i] += rating;
+    }));
+  }
+
+  public void onAppointmentBooked(Appointment apt) {
+    int minutes = minutes(apt.getStartTime(), apt.getEndTime());
+    boolean upcoming = inWindow(apt.getDate());
+    TransactionHooks.afterCommit(() -> update(apt.getLawyerId(), (c, i) -> {
+      if (upcoming) c.bookedMinutes[i] += minutes;
+    }));
+  }
+
+  public void onAppointmentStatusChanged(Appointment apt, String previousStatus, String status) {
+    int completed = ("completed".equals(status) ? 1 : 0) - ("completed".equals(previousStatus) ? 1 : 0);
+    int freed = "cancelled".equals(status) && !"cancelled".equals(previousStatus) && inWindow(apt.getDate())
+        ? minutes(apt.getStartTime(), apt.getEndTime()) : 0;
+    if (completed == 0 && freed == 0) return;
+    TransactionHooks.afterCommit(() -> update(apt.getLawyerId(), (c, i) -> {
+      c.completed[i] = Math.max(0, c.completed[i] + completed);
+      c.bookedMinutes[i] = Math.max(0, c.bookedMinutes[i] - freed);
+    }));
+  }
+
+  public void onWorkingHoursChanged(Long lawyerId, List<WorkingHours> periods) {
+    int weekly = periods.isEmpty() ? DEFAULT_WEEKLY_MINUTES : minutes(periods);
+    TransactionHooks.afterCommit(() -> update(lawyerId, (c, i) -> c.weeklyMinutes[i] = weekly));
+  }
+
+  private void ensureOrdered() {
+    if (!orderDirty) return;
+    lock.writeLock().lock();
+    try {
+      if (!orderDirty) return;
+      Columns c = columns;
+      long[] sorted = new long[c.live.cardinality()];
+      int n = 0;
+      for (int i = c.live.nextSetBit(0); i >= 0; i = c.live.nextSetBit(i + 1)) {
+        // Bits of a non-negative float order like the float itself
+        sorted[n++] = (long) Float.floatToIntBits(c.base[i]) << 32 | i;
+      }
+      Arrays.sort(sorted);
+      order = sorted;
+      changed.clear();
+      changes = 0;
+      orderDirty = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private interface FeatureUpdate {
+    void apply(Columns columns, int ordinal);
+  }
+
+  // Applies the update to an indexed lawyer and rescores them; unknown ids are ignored
+  private void update(Long lawyerId, FeatureUpdate change) {
+    update(c -> {
+      Integer i = c.ordinalById.get(lawyerId);
+      if (i == null) return false;
+      change.apply(c, i);
+      c.rescore(i);
+      c.lastTouched = i;
+      return true;
+    });
+  }
+
+  private interface Mutation {
+    boolean apply(Columns columns);
+  }
+
+  private boolean update(Mutation mutation) {
+    lock.writeLock().lock();
+    try {
+      Columns c = columns;
+      c.lastTouched = -1;
+      boolean applied = mutation.apply(c);
+      if (c.lastTouched >= 0) markChanged(c.lastTouched);
+      return applied;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void markChanged(int ordinal) {
+    if (changed.get(ordinal)) return;
+    changed.set(ordinal);
+    if (++changes > RESORT_AFTER_CHANGES) orderDirty = true;
+  }
+
+  private Features loadFeatures(Long lawyerId) {
+    TransactionTemplate template = new TransactionTemplate(transactionManager);
+    template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    template.setReadOnly(true);
+    return template.execute(status -> {
+      LawyerRating rating = ratingRepository.findById(lawyerId).orElse(LawyerRating.empty(lawyerId));
+      long completed = appointmentRepository.countByLawyerIdAndStatus(lawyerId, "completed")
+          + archiveRepository.countByLawyerIdAndStatus(lawyerId, "completed");
+      List<WorkingHours> hours = workingHoursRepository.findByLawyerIdOrderByDayOfWeekAscStartTimeAsc(lawyerId);
+      LocalDate today = LocalDate.now();
+      int booked = 0;
+      for (Object[] row : appointmentRepository.findLiveSlots(List.of(lawyerId), today,
+          today.plusDays(WINDOW_DAYS - 1))) {
+        booked += minutes((LocalTime) row[2], (LocalTime) row[3]);
+      }
+      return new Features(rating.getReviewCount(), rating.getRatingSum(), (int) completed,
+          hours.isEmpty() ? DEFAULT_WEEKLY_MINUTES : minutes(hours), booked);
+    });
+  }
+
+  private static boolean isRecommendable(User user) {
+    return "lawyer".equalsIgnoreCase(user.getRole()) && user.getIsVerified();
+  }
+
+  private static boolean inWindow(LocalDate date) {
+    LocalDate today = LocalDate.now();
+    return date != null && !date.isBefore(today) && date.isBefore(today.plusDays(WINDOW_DAYS));
+  }
+
+  private static List<String> normalize(List<String> values) {
+    if (values == null) return List.of();
+    return values.stream()
+        .filter(v -> v != null && !v.isBlank())
+        .map(v -> v.trim().toLowerCase(Locale.ROOT))
+        .distinct()
+        .toList();
+  }
+
+  private static int minutes(List<WorkingHours> periods) {
+    int total = 0;
+    for (WorkingHours period : periods) {
+      total += minutes(period.getStartTime(), period.getEndTime());
+    }
+    return total;
+  }
+
+  private static int minutes(LocalTime start, LocalTime end) {
+    return start == null || end == null || !start.isBefore(end) ? 0 : (int) Duration.between(start, end).toMinutes();
+  }
+
+  private record Features(long reviewCount, long ratingSum, int completed, int weeklyMinutes, int bookedMinutes) {
+  }
+
+  /** The query-dependent part of the score. */
+  private static final class Match {
+    final BitSet[] specializations;
+    final BitSet[] languages;
+    final Integer budget;
+    // The most this part can add to any lawyer's precomputed score
+    final double maxBonus;
+
+    Match(BitSet[] specializations, BitSet[] languages, Integer budget) {
+      this.specializations = specializations;
+      this.languages = languages;
+      this.budget = budget;
+      this.maxBonus = (specializations.length > 0 ? W_SPECIALIZATION : 0)
+          + (languages.length > 0 ? W_LANGUAGE : 0)
+          + (budget != null ? W_FEE : 0);
+    }
+
+    double score(Columns c, int i) {
+      double score = c.base[i];
+      if (specializations.length > 0) {
+        int matched = 0;
+        for (BitSet ordinals : specializations) {
+          if (ordinals != null && ordinals.get(i)) matched++;
+        }
+        score += W_SPECIALIZATION * matched / specializations.length;
+      }
+      for (BitSet ordinals : languages) {
+        if (ordinals != null && ordinals.get(i)) {
+          score += W_LANGUAGE;
+          break;
+        }
+      }
+      if (budget != null) {
+        score += W_FEE * feeFit(c.fee[i], budget);
+      }
+      return score;
+    }
+
+    // 1 within budget, falling to 0 at twice the budget; an unknown fee is a coin toss
+    static double feeFit(int fee, int budget) {
+      if (fee < 0) return 0.5;
+      if (fee <= budget) return 1;
+      return Math.max(0, 1 - (fee - budget) / (double) budget);
+    }
+  }
+
+  /** Bounded min-heap of the best ordinals so far; the root is the first to be dropped. */
+  private static final class TopK {
+    final int[] ordinals;
+    final double[] scores;
+    final long[] ids;
+    int size;
+
+    TopK(int capacity) {
+      ordinals = new int[capacity];
+      scores = new double[capacity];
+      ids = new long[capacity];
+    }
+
+    boolean isFull() {
+      return size == ordinals.length;
+    }
+
+    double min() {
+      return scores[0];
+    }
+
+    void offer(int ordinal, double score, long id) {
+      if (size < ordinals.length) {
+        set(size, ordinal, score, id);
+        siftUp(size++);
+      } else if (below(0, score, id)) {
+        set(0, ordinal, score, id);
+        siftDown(0);
+      }
+    }
+
+    /** Removes and returns the root, the worst of those kept. */
+    int poll() {
+      int ordinal = ordinals[0];
+      size--;
+      set(0, ordinals[size], scores[size], ids[size]);
+      siftDown(0);
+      return ordinal;
+    }
+
+    // Whether the entry at n ranks below (score, id): lower score, or equal and a higher id
+    private boolean below(int n, double score, long id) {
+      return scores[n] < score || (scores[n] == score && ids[n] > id);
+    }
+
+    private void siftUp(int n) {
+      while (n > 0) {
+        int parent = (n - 1) >>> 1;
+        if (!below(n, scores[parent], ids[parent])) return;
+        swap(n, parent);
+        n = parent;
+      }
+    }
+
+    private void siftDown(int n) {
+      while (true) {
+        int child = 2 * n + 1;
+        if (child >= size) return;
+        if (child + 1 < size && below(child + 1, scores[child], ids[child])) child++;
+        if (!below(child, scores[n], ids[n])) return;
+        swap(n, child);
+        n = child;
+      }
+    }
+
+    private void set(int n, int ordinal, double score, long id) {
+      ordinals[n] = ordinal;
+      scores[n] = score;
+      ids[n] = id;
+    }
+
+    private void swap(int a, int b) {
+      int ordinal = ordinals[a];
+      double score = scores[a];
+      long id = ids[a];
+      set(a, ordinals[b], scores[b], ids[b]);
+      set(b, ordinal, score, id);
+    }
+  }
+
+  /** The indexed lawyers: ordinals, postings and one primitive array per feature. */
+  private static final class Columns {
+    final double priorMean;
+    final Map<Long, Integer> ordinalById = new HashMap<>();
+    final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    final BitSet live = new BitSet();
+    final Map<String, BitSet> bySpecialization = new HashMap<>();
+    final Map<String, BitSet> byLanguage = new HashMap<>();
+    int nextOrdinal;
+    // Ordinal added, removed or replaced by the last mutation, or -1
+    int lastTouched = -1;
+
+    LawyerCard[] cards;
+    long[] ids;
+    int[] fee; // -1 when not set
+    int[] experience;
+    long[] reviewCount;
+    long[] ratingSum;
+    int[] completed;
+    int[] weeklyMinutes;
+    int[] bookedMinutes;
+    float[] base; // precomputed query-independent score
+
+    Columns(int capacity, double priorMean) {
+      this.priorMean = priorMean;
+      cards = new LawyerCard[capacity];
+      ids = new long[capacity];
+      fee = new int[capacity];
+      experience = new int[capacity];
+      reviewCount = new long[capacity];
+      ratingSum = new long[capacity];
+      completed = new int[capacity];
+      weeklyMinutes = new int[capacity];
+      bookedMinutes = new int[capacity];
+      base = new float[capacity];
+    }
+
+    /** Adds a lawyer with default features, or replaces the card of an indexed one. */
+    void put(LawyerCard card) {
+      if (!replace(card)) add(card, new Features(0, 0, 0, DEFAULT_WEEKLY_MINUTES, 0));
+    }
+
+    void add(LawyerCard card, Features features) {
+      int i = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+      if (i >= cards.length) grow(cards.length * 2);
+      ordinalById.put(card.getId(), i);
+      live.set(i);
+      ids[i] = card.getId();
+      reviewCount[i] = features.reviewCount();
+      ratingSum[i] = features.ratingSum();
+      completed[i] = features.completed();
+      weeklyMinutes[i] = features.weeklyMinutes();
+      bookedMinutes[i] = features.bookedMinutes();
+      setCard(i, card);
+      rescore(i);
+      lastTouched = i;
+    }
+
+    /** Replaces the profile of an indexed lawyer, keeping the features; false if not indexed. */
+    boolean replace(LawyerCard card) {
+      Integer i = ordinalById.get(card.getId());
+      if (i == null) return false;
+      unpost(i);
+      setCard(i, card);
+      rescore(i);
+      lastTouched = i;
+      return true;
+    }
+
+    boolean remove(Long id) {
+      Integer i = ordinalById.remove(id);
+      if (i == null) return false;
+      unpost(i);
+      cards[i] = null;
+      live.clear(i);
+      freeOrdinals.push(i);
+      lastTouched = i;
+      return true;
+    }
+
+    void rescore(int i) {
+      double experienceScore = experience[i] / (experience[i] + EXPERIENCE_HALF);
+      double rating = (PRIOR_REVIEWS * priorMean + ratingSum[i]) / (PRIOR_REVIEWS + reviewCount[i]);
+      double volume = completed[i] / (completed[i] + VOLUME_HALF);
+      int open = weeklyMinutes[i];
+      double availability = open == 0 ? 0 : 1 - Math.min(bookedMinutes[i], open) / (double) open;
+      base[i] = (float) (W_EXPERIENCE * experienceScore + W_RATING * (rating - 1) / 4
+          + W_VOLUME * volume + W_AVAILABILITY * availability);
+    }
+
+    private void setCard(int i, LawyerCard card) {
+      cards[i] = card;
+      fee[i] = card.getConsultationFee() == null ? -1 : card.getConsultationFee();
+      experience[i] = card.getYearsOfExperience() == null ? 0 : Math.max(0, card.getYearsOfExperience());
+      for (String specialization : card.getSpecializations()) {
+        post(bySpecialization, specialization, i);
+      }
+      for (String language : card.getLanguages()) {
+        post(byLanguage, language, i);
+      }
+    }
+
+    private void unpost(int i) {
+      LawyerCard old = cards[i];
+      for (String specialization : old.getSpecializations()) {
+        unpost(bySpecialization, specialization, i);
+      }
+      for (String language : old.getLanguages()) {
+        unpost(byLanguage, language, i);
+      }
+    }
+
+    private static void post(Map<String, BitSet> postings, String value, int i) {
+      String key = value.trim().toLowerCase(Locale.ROOT);
+      if (!key.isEmpty()) postings.computeIfAbsent(key, k -> new BitSet()).set(i);
+    }
+
+    private static void unpost(Map<String, BitSet> postings, String value, int i) {
+      String key = value.trim().toLowerCase(Locale.ROOT);
+      BitSet ordinals = postings.get(key);
+      if (ordinals == null) return;
+      ordinals.clear(i);
+      if (ordinals.isEmpty()) postings.remove(key);
+    }
+
+    private void grow(int capacity) {
+      cards = Arrays.copyOf(cards, capacity);
+      ids = Arrays.copyOf(ids, capacity);
+      fee = Arrays.copyOf(fee, capacity);
+      experience = Arrays.copyOf(experience, capacity);
+      reviewCount = Arrays.copyOf(reviewCount, capacity);
+      ratingSum = Arrays.copyOf(ratingSum, capacity);
+      completed = Arrays.copyOf(completed, capacity);
+      weeklyMinutes = Arrays.copyOf(weeklyMinutes, capacity);
+      bookedMinutes = Arrays.copyOf(bookedMinutes, capacity);
+      base = Arrays.copyOf(base, capacity);
+    }
+  }
+}
@@ -0,0 +1,479 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.LawyerSearchCriteria;
+import com.example.demo.model.LawyerSearchResponse;
+import com.example.demo.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory inverted index over verified lawyers backing {@code GET /api/lawyers/search}.
+ * <p>
+ * Every indexed lawyer gets a dense ordinal, and each posting list is a {@link BitSet}
+ * of ordinals, so combining filters is a handful of word-wise ANDs. Specializations and
+ * languages are matched by exact (case-insensitive) value; locations, names and
+ * specialization words are tokenized so that prefix lookups behave like the substring
+ * filters the directory page used to apply in the browser. Fee, experience and name
+ * orderings are kept as presorted ordinal arrays, so range filters and sorted pages need
+ * no per-request sort.
+ * <p>
+ * The index is seeded once at startup and then updated from the {@link UserService}
+ * write paths after their transaction commits.
+ */
+@Component
+public class LawyerSearchIndex {
+
+  private static final int MAX_PAGE_SIZE = 100;
+
+  // A sorted column scan is preferred over "collect then sort" until the range is this
+  // many times larger than the candidate set (roughly the cost of the sort).
+  private static final int SCAN_OVER_SORT_FACTOR = 8;
+
+  @Autowired
+  private UserReadModels readModels;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, Integer> ordinalById = new HashMap<>();
+  private LawyerCard[] cards = new LawyerCard[64];
+  private final BitSet live = new BitSet();
+  private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+  private int nextOrdinal = 0;
+
+  private final Map<String, BitSet> bySpecialization = new HashMap<>();
+  private final Map<String, BitSet> byLanguage = new HashMap<>();
+  private final NavigableMap<String, BitSet> byLocationToken = new TreeMap<>();
+  private final NavigableMap<String, BitSet> byTextToken = new TreeMap<>();
+
+  // Rebuilt lazily on the first search after a write.
+  private volatile boolean sortedDirty = true;
+  private SortedColumn byFee = SortedColumn.EMPTY;
+  private SortedColumn byExperience = SortedColumn.EMPTY;
+  private SortedColumn byName = SortedColumn.EMPTY;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    List<LawyerCard> loaded = readModels.lawyerCards(true);
+
+    lock.writeLock().lock();
+    try {
+      ordinalById.clear();
+      cards = new LawyerCard[Math.max(64, loaded.size())];
+      live.clear();
+      freeOrdinals.clear();
+      nextOrdinal = 0;
+      bySpecialization.clear();
+      byLanguage.clear();
+      byLocationToken.clear();
+      byTextToken.clear();
+      loaded.forEach(this::add);
+      sortedDirty = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Re-indexes a user after a profile or verification change. The card is snapshotted
+   * immediately (while lazy collections are still reachable) but only applied once the
+   * surrounding transaction, if any, has committed.
+   */
+  public void index(User user) {
+    if (user == null || user.getId() == null) return;
+
+    Long id = user.getId();
+    LawyerCard card = isSearchable(user) ? LawyerCard.from(user) : null;
+    TransactionHooks.afterCommit(() -> {
+      if (card != null) put(card);
+      else remove(id);
+    });
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return ordinalById.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public LawyerSearchResponse search(LawyerSearchCriteria criteria) {
+    int size = Math.min(Math.max(criteria.getSize(), 1), MAX_PAGE_SIZE);
+    int page = Math.max(criteria.getPage(), 0);
+    SortSpec sort = SortSpec.parse(criteria.getSort());
+    LawyerCard after = decodeCursor(criteria.getCursor());
+    int skip = after == null ? page * size : 0;
+
+    lock.readLock().lock();
+    while (sortedDirty) {
+      lock.readLock().unlock();
+      ensureSorted();
+      lock.readLock().lock();
+    }
+    try {
+      Filter filter = buildFilter(criteria);
+      Result result = filter.candidates.isEmpty()
+          ? new Result(List.of(), 0, false)
+          : execute(filter, sort, after, skip, size);
+
+      String nextCursor = result.hasMore() && !result.items().isEmpty()
+          ? encodeCursor(result.items().get(result.items().size() - 1))
+          : null;
+      return new LawyerSearchResponse(result.items(), result.total(), page, size, nextCursor);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Result execute(Filter filter, SortSpec sort, LawyerCard after, int skip, int size) {
+    SortedColumn column = switch (sort.field) {
+      case FEE -> byFee;
+      case EXPERIENCE -> byExperience;
+      case NAME -> byName;
+    };
+
+    int[] range = filter.rangeOf(column, sort.field);
+    long candidates = filter.candidates.cardinality();
+    if (range[1] - range[0] <= candidates * SCAN_OVER_SORT_FACTOR) {
+      return scanColumn(column, range, filter, sort, after, skip, size);
+    }
+    return collectAndSort(filter, sort, after, skip, size);
+  }
+
+  /** Walks a presorted column in result order; no sort needed. */
+  private Result scanColumn(SortedColumn column, int[] range, Filter filter, SortSpec sort,
+                            LawyerCard after, int skip, int size) {
+    List<LawyerCard> items = new ArrayList<>(size);
+    int total = 0;
+    int eligible = 0;
+
+    for (int n = range[0]; n < range[1]; n++) {
+      int i = sort.descending ? range[1] - 1 - (n - range[0]) : n;
+      int ordinal = column.ordinals[i];
+      if (!filter.candidates.get(ordinal)) continue;
+      LawyerCard doc = cards[ordinal];
+      if (!filter.matchesBounds(doc)) continue;
+
+      total++;
+      if (after != null && sort.comparator.compare(doc, after) <= 0) continue;
+      if (eligible++ < skip) continue;
+      if (items.size() < size) items.add(doc);
+    }
+    return new Result(items, total, eligible - skip > items.size());
+  }
+
+  /** Collects the (small) candidate set, then sorts only the matches. */
+  private Result collectAndSort(Filter filter, SortSpec sort, LawyerCard after, int skip, int size) {
+    List<LawyerCard> matches = new ArrayList<>();
+    BitSet candidates = filter.candidates;
+    for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+      LawyerCard doc = cards[ordinal];
+      if (filter.matchesBounds(doc)) matches.add(doc);
+    }
+    matches.sort(sort.comparator);
+
+    int from;
+    if (after != null) {
+      int pos = Collections.binarySearch(matches, after, sort.comparator);
+      from = pos >= 0 ? pos + 1 : -pos - 1;
+    } else {
+      from = Math.min(skip, matches.size());
+    }
+    int to = Math.min(from + size, matches.size());
+    return new Result(new ArrayList<>(matches.subList(from, to)), matches.size(), to < matches.size());
+  }
+
+  private Filter buildFilter(LawyerSearchCriteria criteria) {
+    Filter filter = new Filter((BitSet) live.clone(), criteria.getMaxFee(), criteria.getMinExperience());
+
+    if (hasText(criteria.getSpecialization())) {
+      filter.require(bySpecialization.get(normalize(criteria.getSpecialization())));
+    }
+    if (hasText(criteria.getLanguage())) {
+      filter.require(byLanguage.get(normalize(criteria.getLanguage())));
+    }
+    if (hasText(criteria.getLocation())) {
+      tokenize(criteria.getLocation()).forEach(t -> filter.require(unionOfPrefix(byLocationToken, t)));
+    }
+    if (hasText(criteria.getQ())) {
+      tokenize(criteria.getQ()).forEach(t -> filter.require(unionOfPrefix(byTextToken, t)));
+    }
+    return filter;
+  }
+
+  /** Ordinals having at least one token that starts with {@code prefix}. */
+  private static BitSet unionOfPrefix(NavigableMap<String, BitSet> tokens, String prefix) {
+    Collection<BitSet> postings = tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    if (postings.size() == 1) {
+      return postings.iterator().next(); // only ever read by the filter
+    }
+    BitSet union = new BitSet();
+    postings.forEach(union::or);
+    return union;
+  }
+
+  private void ensureSorted() {
+    if (!sortedDirty) return;
+    lock.writeLock().lock();
+    try {
+      if (!sortedDirty) return;
+      byFee = SortedColumn.of(cards, live, SortSpec.ascending(SortField.FEE), LawyerSearchIndex::feeOf);
+      byExperience = SortedColumn.of(cards, live, SortSpec.ascending(SortField.EXPERIENCE), LawyerSearchIndex::experienceOf);
+      byName = SortedColumn.of(cards, live, SortSpec.ascending(SortField.NAME), c -> 0);
+      sortedDirty = false;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void put(LawyerCard card) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(card.getId());
+      add(card);
+      sortedDirty = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      if (removeLocked(id)) sortedDirty = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void add(LawyerCard card) {
+    int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+    if (ordinal >= cards.length) {
+      cards = Arrays.copyOf(cards, cards.length * 2);
+    }
+    cards[ordinal] = card;
+    live.set(ordinal);
+    ordinalById.put(card.getId(), ordinal);
+
+    for (String spec : card.getSpecializations()) {
+      post(bySpecialization, normalize(spec), ordinal);
+      tokenize(spec).forEach(t -> post(byTextToken, t, ordinal));
+    }
+    for (String language : card.getLanguages()) {
+      post(byLanguage, normalize(language), ordinal);
+    }
+    tokenize(card.getLocation()).forEach(t -> post(byLocationToken, t, ordinal));
+    tokenize(card.getName()).forEach(t -> post(byTextToken, t, ordinal));
+  }
+
+  private boolean removeLocked(Long id) {
+    Integer ordinal = ordinalById.remove(id);
+    if (ordinal == null) return false;
+
+    LawyerCard old = cards[ordinal];
+    for (String spec : old.getSpecializations()) {
+      unpost(bySpecialization, normalize(spec), ordinal);
+      tokenize(spec).forEach(t -> unpost(byTextToken, t, ordinal));
+    }
+    for (String language : old.getLanguages()) {
+      unpost(byLanguage, normalize(language), ordinal);
+    }
+    tokenize(old.getLocation()).forEach(t -> unpost(byLocationToken, t, ordinal));
+    tokenize(old.getName()).forEach(t -> unpost(byTextToken, t, ordinal));
+
+    cards[ordinal] = null;
+    live.clear(ordinal);
+    freeOrdinals.push(ordinal);
+    return true;
+  }
+
+  private static void post(Map<String, BitSet> postings, String key, int ordinal) {
+    if (key.isEmpty()) return;
+    postings.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+  }
+
+  private static void unpost(Map<String, BitSet> postings, String key, int ordinal) {
+    BitSet ordinals = postings.get(key);
+    if (ordinals == null) return;
+    ordinals.clear(ordinal);
+    if (ordinals.isEmpty()) postings.remove(key);
+  }
+
+  private static boolean isSearchable(User user) {
+    return "lawyer".equalsIgnoreCase(user.getRole()) && user.getIsVerified();
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isBlank();
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static List<String> tokenize(String value) {
+    if (value == null) return List.of();
+    return Arrays.stream(value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+        .filter(t -> !t.isEmpty())
+        .toList();
+  }
+
+  private static int feeOf(LawyerCard card) {
+    return card.getConsultationFee() == null ? Integer.MAX_VALUE : card.getConsultationFee();
+  }
+
+  private static int experienceOf(LawyerCard card) {
+    return card.getYearsOfExperience() == null ? 0 : card.getYearsOfExperience();
+  }
+
+  private static String encodeCursor(LawyerCard last) {
+    String raw = last.getId() + "|" + feeOf(last) + "|" + experienceOf(last) + "|"
+        + (last.getName() == null ? "" : last.getName());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static LawyerCard decodeCursor(String cursor) {
+    if (!hasText(cursor)) return null;
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", 4);
+      return LawyerCard.builder()
+          .id(Long.parseLong(parts[0]))
+          .consultationFee(Integer.parseInt(parts[1]))
+          .yearsOfExperience(Integer.parseInt(parts[2]))
+          .name(parts[3])
+          .build();
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+  }
+
+  private enum SortField { FEE, EXPERIENCE, NAME }
+
+  private static final class SortSpec {
+    final SortField field;
+    final boolean descending;
+    final Comparator<LawyerCard> comparator;
+
+    private SortSpec(SortField field, boolean descending) {
+      this.field = field;
+      this.descending = descending;
+      Comparator<LawyerCard> base = ascending(field);
+      this.comparator = descending ? base.reversed() : base;
+    }
+
+    static Comparator<LawyerCard> ascending(SortField field) {
+      Comparator<LawyerCard> byValue = switch (field) {
+        case FEE -> Comparator.comparingInt(LawyerSearchIndex::feeOf);
+        case EXPERIENCE -> Comparator.comparingInt(LawyerSearchIndex::experienceOf);
+        case NAME -> Comparator.comparing((LawyerCard c) -> c.getName() == null ? "" : c.getName(),
+            String.CASE_INSENSITIVE_ORDER);
+      };
+      return byValue.thenComparing(LawyerCard::getId);
+    }
+
+    static SortSpec parse(String sort) {
+      String value = hasText(sort) ? sort.trim() : "-experience";
+      boolean descending = value.startsWith("-");
+      String name = descending ? value.substring(1) : value;
+      return switch (name.toLowerCase(Locale.ROOT)) {
+        case "fee" -> new SortSpec(SortField.FEE, descending);
+        case "experience" -> new SortSpec(SortField.EXPERIENCE, descending);
+        case "name" -> new SortSpec(SortField.NAME, descending);
+        default -> throw new IllegalArgumentException("Unsupported sort: " + sort);
+      };
+    }
+  }
+
+  private static final class Filter {
+    final BitSet candidates;
+    final Integer maxFee;
+    final Integer minExperience;
+
+    Filter(BitSet candidates, Integer maxFee, Integer minExperience) {
+      this.candidates = candidates;
+      this.maxFee = maxFee;
+      this.minExperience = minExperience;
+    }
+
+    void require(BitSet ordinals) {
+      if (ordinals == null) candidates.clear();
+      else candidates.and(ordinals);
+    }
+
+    boolean matchesBounds(LawyerCard doc) {
+      if (maxFee != null && (doc.getConsultationFee() == null || doc.getConsultationFee() > maxFee)) {
+        return false;
+      }
+      return minExperience == null || experienceOf(doc) >= minExperience;
+    }
+
+    /** The [from, to) slice of {@code column} that can satisfy this filter's bound on {@code field}. */
+    int[] rangeOf(SortedColumn column, SortField field) {
+      int from = 0;
+      int to = column.ordinals.length;
+      if (field == SortField.FEE && maxFee != null) {
+        to = column.upperBound(maxFee);
+      } else if (field == SortField.EXPERIENCE && minExperience != null) {
+        from = column.lowerBound(minExperience);
+      }
+      return new int[] { from, Math.max(from, to) };
+    }
+  }
+
+  /** Ordinals in ascending sort order, with the sort values alongside for binary search. */
+  private static final class SortedColumn {
+    static final SortedColumn EMPTY = new SortedColumn(new int[0], new int[0]);
+
+    final int[] ordinals;
+    final int[] values;
+
+    private SortedColumn(int[] ordinals, int[] values) {
+      this.ordinals = ordinals;
+      this.values = values;
+    }
+
+    static SortedColumn of(LawyerCard[] cards, BitSet live, Comparator<LawyerCard> order,
+                           ToIntFunction<LawyerCard> key) {
+      Integer[] sorted = live.stream().boxed().toArray(Integer[]::new);
+      Arrays.sort(sorted, (a, b) -> order.compare(cards[a], cards[b]));
+      int[] ordinals = new int[sorted.length];
+      int[] values = new int[sorted.length];
+      for (int i = 0; i < sorted.length; i++) {
+        ordinals[i] = sorted[i];
+        values[i] = key.applyAsInt(cards[sorted[i]]);
+      }
+      return new SortedColumn(ordinals, values);
+    }
+
+    /** First index whose value is {@code >= value}. */
+    int lowerBound(int value) {
+      int lo = 0, hi = values.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (values[mid] < value) lo = mid + 1;
+        else hi = mid;
+      }
+      return lo;
+    }
+
+    /** First index whose value is {@code > value}. */
+    int upperBound(int value) {
+      return value == Integer.MAX_VALUE ? values.length : lowerBound(value + 1);
+    }
+  }
+
+  private record Result(List<LawyerCard> items, int total, boolean hasMore) {
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox: side effects of a write are recorded as events in the
+ * {@code outbox_event} table by the transaction that makes the write, and applied later
+ * by {@link OutboxHandler}s on {@link OutboxDispatcher}'s workers. An event exists if and
+ * only if its write committed, and the request pays for one batched insert however many
+ * handlers there are.
+ * <p>
+ * Events of a type no handler subscribes to are not written at all.
+ */
+@Component
+public class Outbox {
+
+  private static final String INSERT = """
+      insert into outbox_event (event_type, aggregate_id, payload, created_at, available_at, attempts)
+      values (?, ?, ?, ?, ?, 0)
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final ObjectMapper objectMapper;
+  private final OutboxDispatcher dispatcher;
+  private final Set<String> subscribed;
+
+  public Outbox(JdbcTemplate jdbc, ObjectMapper objectMapper, OutboxDispatcher dispatcher,
+                List<OutboxHandler> handlers) {
+    this.jdbc = jdbc;
+    this.objectMapper = objectMapper;
+    this.dispatcher = dispatcher;
+    this.subscribed = handlers.stream().flatMap(h -> h.eventTypes().stream()).collect(Collectors.toSet());
+  }
+
+  /**
+   * Records an event in the current transaction; {@code payload} is stored as JSON. The
+   * rows of one transaction are inserted together just before it commits, and the
+   * dispatcher is woken once it has.
+   */
+  public void append(String type, Long aggregateId, Object payload) {
+    if (!subscribed.contains(type)) return;
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      throw new IllegalStateException("Outbox events must be appended inside the transaction of their write");
+    }
+    Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new Pending();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    LocalDateTime now = LocalDateTime.now();
+    pending.rows.add(new Object[]{type, aggregateId, toJson(payload), now, now});
+  }
+
+  private String toJson(Object payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Outbox payload cannot be serialized", e);
+    }
+  }
+
+  /** The events appended by one transaction. */
+  private final class Pending implements TransactionSynchronization {
+    final List<Object[]> rows = new ArrayList<>();
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      jdbc.batchUpdate(INSERT, rows);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(Outbox.this);
+      if (status == STATUS_COMMITTED) {
+        dispatcher.wake();
+      }
+    }
+  }
+}
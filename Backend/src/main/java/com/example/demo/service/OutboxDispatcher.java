@@ -0,0 +1,280 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the {@link Outbox}: claims due events in batches, runs their handlers on a
+ * worker pool and then deletes, reschedules or dead-letters the whole batch with a few
+ * batched statements.
+ * <p>
+ * A batch is claimed by moving its events' {@code available_at} forward by
+ * {@code app.outbox.lease-ms}, conditional on them still being due, so several nodes can
+ * poll the same table without running an event twice at once. An event whose node dies
+ * mid-batch becomes due again when the lease runs out. Handlers run on
+ * {@code app.outbox.workers} threads, and events of one batch in no particular order.
+ * <p>
+ * A failed event is retried after {@code app.outbox.backoff-ms}, doubling per attempt up
+ * to {@code app.outbox.max-backoff-ms} with jitter; after {@code app.outbox.max-attempts}
+ * it moves to {@code outbox_dead_letter}. Draining runs every {@code app.outbox.poll-ms}
+ * and right after a transaction appends events, and continues while batches come back
+ * full, so the batch size ({@code app.outbox.batch-size}) rather than the request rate
+ * sets the number of round trips.
+ * <p>
+ * Drains run on a thread of their own; the poll and the wake-ups only queue one, and
+ * requests that come while one is already queued share it. A drain stops after
+ * {@code app.outbox.max-batches} batches even if they keep coming back full, and the
+ * next poll carries on with the rest.
+ */
+@Component
+public class OutboxDispatcher {
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transactions;
+  private final Map<String, List<OutboxHandler>> handlers = new HashMap<>();
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration backoff;
+  private final Duration maxBackoff;
+  private final Duration lease;
+  private final int maxBatches;
+  private final ThreadPoolExecutor workers;
+
+  // One drain running and at most one queued behind it; further requests are covered by that one
+  private final ThreadPoolExecutor drainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(1), task -> {
+        Thread thread = new Thread(task, "outbox-drain");
+        thread.setDaemon(true);
+        return thread;
+      }, new ThreadPoolExecutor.DiscardPolicy());
+
+  private final AtomicBoolean draining = new AtomicBoolean();
+
+  private final Counter delivered;
+  private final Counter retried;
+  private final Counter deadLettered;
+
+  public OutboxDispatcher(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                          List<OutboxHandler> handlers, MeterRegistry meterRegistry,
+                          @Value("${app.outbox.batch-size:100}") int batchSize,
+                          @Value("${app.outbox.workers:4}") int workers,
+                          @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                          @Value("${app.outbox.backoff-ms:1000}") long backoffMs,
+                          @Value("${app.outbox.max-backoff-ms:600000}") long maxBackoffMs,
+                          @Value("${app.outbox.lease-ms:60000}") long leaseMs,
+                          @Value("${app.outbox.max-batches:10}") int maxBatches) {
+    this.jdbc = jdbc;
+    this.transactions = new TransactionTemplate(transactionManager);
+    for (OutboxHandler handler : handlers) {
+      for (String type : handler.eventTypes()) {
+        this.handlers.computeIfAbsent(type, t -> new ArrayList<>()).add(handler);
+      }
+    }
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.backoff = Duration.ofMillis(backoffMs);
+    this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+    this.lease = Duration.ofMillis(leaseMs);
+    this.maxBatches = maxBatches;
+    AtomicInteger counter = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), task -> {
+          Thread thread = new Thread(task, "outbox-worker-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.delivered = meterRegistry.counter("outbox.events", "outcome", "delivered");
+    this.retried = meterRegistry.counter("outbox.events", "outcome", "retried");
+    this.deadLettered = meterRegistry.counter("outbox.events", "outcome", "dead-lettered");
+  }
+
+  /** Queues a drain; called after a transaction appended events. */
+  void wake() {
+    drainer.execute(this::drain);
+  }
+
+  @Scheduled(fixedDelayString = "${app.outbox.poll-ms:1000}")
+  public void poll() {
+    drainer.execute(this::drain);
+  }
+
+  /**
+   * Dispatches batches until one is not full or {@code app.outbox.max-batches} have run.
+   * Returns the number of events processed, or 0 right away if a drain is already
+   * running on this node.
+   */
+  public int drain() {
+    if (!draining.compareAndSet(false, true)) return 0;
+    int total = 0;
+    try {
+      int dispatched;
+      int batches = 0;
+      do {
+        dispatched = dispatchBatch();
+        total += dispatched;
+      } while (dispatched == batchSize && ++batches < maxBatches);
+    } finally {
+      draining.set(false);
+    }
+    return total;
+  }
+
+  private int dispatchBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    List<OutboxHandler.Event> claimed = claim(now);
+    if (claimed.isEmpty()) return 0;
+
+    List<Callable<String>> jobs = new ArrayList<>(claimed.size());
+    for (OutboxHandler.Event event : claimed) {
+      jobs.add(() -> run(event));
+    }
+    List<Future<String>> errors;
+    try {
+      errors = workers.invokeAll(jobs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 0; // the lease runs out and the batch is claimed again
+    }
+
+    List<Object[]> done = new ArrayList<>();
+    List<Object[]> retry = new ArrayList<>();
+    for (int i = 0; i < claimed.size(); i++) {
+      OutboxHandler.Event event = claimed.get(i);
+      String error = errorOf(errors.get(i));
+      if (error == null) {
+        done.add(new Object[]{event.id()});
+      } else if (event.attempts() + 1 >= maxAttempts) {
+        deadLetter(event, error);
+      } else {
+        retry.add(new Object[]{event.attempts() + 1, LocalDateTime.now().plus(delay(event.attempts() + 1)),
+            error, event.id()});
+      }
+    }
+    transactions.executeWithoutResult(status -> {
+      if (!done.isEmpty()) {
+        jdbc.batchUpdate("delete from outbox_handled where event_id = ?", done);
+        jdbc.batchUpdate("delete from outbox_event where id = ?", done);
+      }
+      if (!retry.isEmpty()) {
+        jdbc.batchUpdate("update outbox_event set attempts = ?, available_at = ?, last_error = ? where id = ?",
+            retry);
+      }
+    });
+    delivered.increment(done.size());
+    retried.increment(retry.size());
+    return claimed.size();
+  }
+
+  // Due events that this node managed to lease; the others went to another node meanwhile
+  private List<OutboxHandler.Event> claim(LocalDateTime now) {
+    List<OutboxHandler.Event> due = jdbc.query("""
+            select id, event_type, aggregate_id, payload, attempts from outbox_event
+            where available_at <= ? order by available_at, id limit ?
+            """,
+        (rs, row) -> new OutboxHandler.Event(rs.getLong(1), rs.getString(2), (Long) rs.getObject(3, Long.class),
+            rs.getString(4), rs.getInt(5)),
+        now, batchSize);
+    if (due.isEmpty()) return due;
+
+    LocalDateTime leaseEnd = now.plus(lease);
+    List<Object[]> args = due.stream().map(e -> new Object[]{leaseEnd, e.id(), now}).toList();
+    int[] counts = jdbc.batchUpdate("update outbox_event set available_at = ? where id = ? and available_at <= ?", args);
+    List<OutboxHandler.Event> claimed = new ArrayList<>(due.size());
+    for (int i = 0; i < due.size(); i++) {
+      // A driver that rewrites batches may not report per-row counts; then rely on the handled records
+      if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+        claimed.add(due.get(i));
+      }
+    }
+    return claimed;
+  }
+
+  // Runs the handlers that have not applied the event yet; returns the first failure, or null
+  private String run(OutboxHandler.Event event) {
+    for (OutboxHandler handler : handlers.getOrDefault(event.type(), List.of())) {
+      try {
+        transactions.executeWithoutResult(status -> {
+          try {
+            jdbc.update("insert into outbox_handled (event_id, handler, handled_at) values (?, ?, ?)",
+                event.id(), handler.name(), LocalDateTime.now());
+          } catch (DuplicateKeyException e) {
+            return; // applied by an earlier delivery
+          }
+          handler.handle(event);
+        });
+      } catch (RuntimeException e) {
+        return handler.name() + ": " + e;
+      }
+    }
+    return null;
+  }
+
+  private void deadLetter(OutboxHandler.Event event, String error) {
+    transactions.executeWithoutResult(status -> {
+      jdbc.update("""
+          insert into outbox_dead_letter
+            (id, event_type, aggregate_id, payload, created_at, attempts, last_error, failed_at)
+          select id, event_type, aggregate_id, payload, created_at, ?, ?, ? from outbox_event where id = ?
+          """, event.attempts() + 1, truncate(error), LocalDateTime.now(), event.id());
+      jdbc.update("delete from outbox_handled where event_id = ?", event.id());
+      jdbc.update("delete from outbox_event where id = ?", event.id());
+    });
+    deadLettered.increment();
+  }
+
+  // backoff * 2^(attempt - 1), capped, then somewhere in its upper half
+  private Duration delay(int attempt) {
+    long ms = backoff.toMillis() << Math.min(attempt - 1, 30);
+    if (ms <= 0 || ms > maxBackoff.toMillis()) ms = maxBackoff.toMillis();
+    return Duration.ofMillis(ms / 2 + ThreadLocalRandom.current().nextLong(ms / 2 + 1));
+  }
+
+  private static String errorOf(Future<String> result) {
+    try {
+      return truncate(result.get());
+    } catch (ExecutionException e) {
+      return truncate(String.valueOf(e.getCause()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "interrupted";
+    }
+  }
+
+  private static String truncate(String error) {
+    return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    drainer.shutdownNow();
+    workers.shutdownNow();
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.service;
+
+import java.util.Set;
+
+/**
+ * A side effect of a committed write, run by {@link OutboxDispatcher} for every
+ * {@link Outbox} event of the types it subscribes to.
+ * <p>
+ * Delivery is at least once. {@link #handle} runs in a transaction that also records the
+ * event as applied by this handler, so a redelivered event is skipped once that has
+ * committed. Work outside the database (mail, HTTP calls) is not covered by that record
+ * and must tolerate repeats itself. Throwing rolls the handler's transaction back and the
+ * event is retried later; other handlers of the same event are not rerun.
+ */
+public interface OutboxHandler {
+
+  /** Stable name, recorded with each event this handler applied. */
+  String name();
+
+  Set<String> eventTypes();
+
+  void handle(Event event);
+
+  /** An outbox row: {@code payload} is the JSON given to {@link Outbox#append}. */
+  record Event(long id, String type, Long aggregateId, String payload, int attempts) {
+  }
+}
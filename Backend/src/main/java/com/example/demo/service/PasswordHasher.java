@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt hashing and verification on a dedicated pool, so a burst of logins cannot tie up
+ * every request thread on CPU-bound work.
+ * <p>
+ * The pool has {@code app.passwords.threads} threads (default: one per core) and queues
+ * at most {@code app.passwords.queue-size} more jobs. Beyond that, or when a job has
+ * waited {@code app.passwords.timeout-ms}, callers get a
+ * {@link HashingUnavailableException} right away. The cost is
+ * {@code app.passwords.bcrypt-cost}. Stored hashes with a different cost, and legacy
+ * plaintext passwords, report {@link #needsRehash} so the login path can upgrade them.
+ */
+@Component
+public class PasswordHasher {
+
+  private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+
+  private final BCryptPasswordEncoder encoder;
+  private final int cost;
+  private final long timeoutMs;
+  private final ThreadPoolExecutor pool;
+  private final Counter rejected;
+
+  // Verified against when the account does not exist, so that case takes as long as a wrong password
+  private final String dummyHash;
+
+  public PasswordHasher(MeterRegistry meterRegistry,
+                        @Value("${app.passwords.bcrypt-cost:10}") int cost,
+                        @Value("${app.passwords.threads:0}") int threads,
+                        @Value("${app.passwords.queue-size:64}") int queueSize,
+                        @Value("${app.passwords.timeout-ms:2000}") long timeoutMs) {
+    this.cost = cost;
+    this.encoder = new BCryptPasswordEncoder(cost);
+    this.timeoutMs = timeoutMs;
+    int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger counter = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize), task -> {
+          Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.rejected = meterRegistry.counter("auth.hashing.rejected");
+    meterRegistry.gauge("auth.hashing.queued", pool, p -> p.getQueue().size());
+    this.dummyHash = encoder.encode("no-such-account");
+  }
+
+  public String hash(String raw) {
+    return run(() -> encoder.encode(raw));
+  }
+
+  /** Checks a password against a stored BCrypt hash, or a legacy plaintext value. */
+  public boolean matches(String raw, String stored) {
+    if (raw == null) return false;
+    if (stored == null) {
+      run(() -> encoder.matches(raw, dummyHash));
+      return false;
+    }
+    if (!BCRYPT.matcher(stored).matches()) {
+      return MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+    return run(() -> encoder.matches(raw, stored));
+  }
+
+  /** True for plaintext and for hashes made with a cost other than the configured one. */
+  public boolean needsRehash(String stored) {
+    Matcher m = BCRYPT.matcher(stored);
+    return !m.matches() || Integer.parseInt(m.group(1)) != cost;
+  }
+
+  private <T> T run(Callable<T> job) {
+    Future<T> future;
+    try {
+      future = pool.submit(job);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new HashingUnavailableException("Too many sign-ins in progress, please retry");
+    }
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      rejected.increment();
+      throw new HashingUnavailableException("Too many sign-ins in progress, please retry");
+    } catch (InterruptedException e) {
+      future.cancel(false);
+      Thread.currentThread().interrupt();
+      throw new HashingUnavailableException("Interrupted while hashing");
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdownNow();
+  }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerRating;
+import com.example.demo.repository.LawyerRatingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Applies each new review to its lawyer's {@link LawyerRating}, off the request path: the
+ * review transaction only appends a {@link #REVIEW_CREATED} event to the {@link Outbox}.
+ */
+@Component
+public class RatingAggregator implements OutboxHandler {
+
+  public static final String REVIEW_CREATED = "review.created";
+  private static final String NAME = "rating-aggregator";
+
+  @Autowired
+  private LawyerRatingRepository ratingRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /** Payload of {@link #REVIEW_CREATED}. */
+  public record ReviewCreated(Long reviewId, Long lawyerId, int rating, LocalDateTime createdAt) {
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public Set<String> eventTypes() {
+    return Set.of(REVIEW_CREATED);
+  }
+
+  /**
+   * One UPDATE on the lawyer's row, or an insert for their first review. Two first reviews
+   * applied at once collide on the primary key; the loser is retried and then updates.
+   * The insert is a {@code persist}, not a {@code save}: for an entity with an assigned id
+   * {@code save} merges, which would overwrite the row of a first review that won the race.
+   */
+  @Override
+  public void handle(Event event) {
+    ReviewCreated review;
+    try {
+      review = objectMapper.readValue(event.payload(), ReviewCreated.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unreadable payload of outbox event " + event.id(), e);
+    }
+    if (ratingRepository.increment(review.lawyerId(), review.rating(), review.createdAt()) == 0) {
+      LawyerRating rating = LawyerRating.empty(review.lawyerId());
+      rating.add(review.rating(), review.createdAt());
+      entityManager.persist(rating);
+      entityManager.flush();
+    }
+  }
+
+  /**
+   * Records every pending {@link #REVIEW_CREATED} event as applied, for a rebuild that is
+   * about to count their reviews from the review table. Call it in the rebuild's
+   * transaction, before reading the reviews.
+   */
+  void skipPending() {
+    jdbc.update("""
+        insert into outbox_handled (event_id, handler, handled_at)
+        select e.id, ?, ? from outbox_event e
+        where e.event_type = ?
+          and not exists (select 1 from outbox_handled h where h.event_id = e.id and h.handler = ?)
+        """, NAME, LocalDateTime.now(), REVIEW_CREATED, NAME);
+  }
+}
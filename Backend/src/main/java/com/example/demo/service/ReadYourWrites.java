@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Accounts (user ids) whose data changed in the last {@code app.datasource.sticky-window},
+ * so that reads about them can go to the primary database instead of a replica that may
+ * not have the change yet (see {@code ReplicaRoutingDataSource}).
+ * <p>
+ * Writers call {@link #wrote} inside their transaction with the accounts it changes, for
+ * a booking the client and the lawyer; they are remembered from the commit. Keyed by
+ * account rather than by caller, so that clients behind one address do not share the
+ * window and a client reads its own writes whichever address it comes from.
+ */
+@Component
+public class ReadYourWrites {
+
+  private final Cache<Long, Boolean> recent;
+
+  public ReadYourWrites(@Value("${app.datasource.sticky-window:5s}") Duration window) {
+    this.recent = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(window)
+        .build();
+  }
+
+  /** Remembers the accounts once the current transaction commits. */
+  public void wrote(Long... accounts) {
+    TransactionHooks.afterCommit(() -> {
+      for (Long account : accounts) {
+        if (account != null) recent.put(account, Boolean.TRUE);
+      }
+    });
+  }
+
+  /** Whether any of the accounts had a write commit within the window. */
+  public boolean wroteRecently(Collection<Long> accounts) {
+    for (Long account : accounts) {
+      if (recent.getIfPresent(account) != null) return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerRating;
+import com.example.demo.model.Review;
+import com.example.demo.model.ReviewRequestDTO;
+import com.example.demo.repository.LawyerRatingRepository;
+import com.example.demo.repository.ReviewRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Review writes plus the per-lawyer {@link LawyerRating} aggregates derived from them.
+ * <p>
+ * Each review insert appends an event to the {@link Outbox} in its transaction, and
+ * {@link RatingAggregator} bumps the lawyer's aggregate from it shortly after, so readers
+ * never need to load a lawyer's reviews to show a rating. {@link #rebuildRatings()}
+ * recomputes every aggregate from the review table in a single streaming pass.
+ */
+@Service
+public class ReviewService {
+
+  public static final int MAX_BATCH_LAWYERS = 500;
+  private static final int REBUILD_FLUSH_SIZE = 500;
+
+  @Autowired
+  private ReviewRepository reviewRepository;
+
+  @Autowired
+  private LawyerRatingRepository ratingRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private UserEventHub events;
+
+  @Autowired
+  private ReadYourWrites readYourWrites;
+
+  @Autowired
+  private Outbox outbox;
+
+  @Autowired
+  private RatingAggregator ratingAggregator;
+
+  @Autowired
+  private LawyerRecommender recommender;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Saves the review, and in the same transaction records it for the rating aggregate,
+   * which is brought up to date once the outbox dispatcher has applied the event.
+   */
+  public Review createReview(ReviewRequestDTO dto) {
+    if (dto.getLawyerId() == null) {
+      throw new IllegalArgumentException("lawyerId is required");
+    }
+    if (dto.getRating() < 1 || dto.getRating() > 5) {
+      throw new IllegalArgumentException("Rating must be between 1 and 5");
+    }
+
+    return new TransactionTemplate(transactionManager).execute(status -> {
+      LocalDateTime now = LocalDateTime.now();
+      Review review = new Review();
+      review.setAppointmentId(dto.getAppointmentId());
+      review.setClientId(dto.getClientId());
+      review.setLawyerId(dto.getLawyerId());
+      review.setRating(dto.getRating());
+      review.setComment(dto.getComment());
+      review.setCreatedAt(now);
+      review.setUpdatedAt(now);
+      Review saved = reviewRepository.save(review);
+
+      outbox.append(RatingAggregator.REVIEW_CREATED, saved.getLawyerId(),
+          new RatingAggregator.ReviewCreated(saved.getId(), saved.getLawyerId(), saved.getRating(), now));
+      events.publish("review", saved, saved.getClientId(), saved.getLawyerId());
+      readYourWrites.wrote(saved.getClientId(), saved.getLawyerId());
+      recommender.onReviewCreated(saved.getLawyerId(), saved.getRating());
+      return saved;
+    });
+  }
+
+  /** Sets the lawyer's response and pushes the review to both sides; empty if there is no such review. */
+  @Transactional
+  public Optional<Review> respondToReview(Long id, String response) {
+    return reviewRepository.findById(id).map(review -> {
+      review.setResponse(response);
+      review.setUpdatedAt(LocalDateTime.now());
+      Review saved = reviewRepository.save(review);
+      events.publish("review", saved, saved.getClientId(), saved.getLawyerId());
+      readYourWrites.wrote(saved.getClientId(), saved.getLawyerId());
+      return saved;
+    });
+  }
+
+  /** Aggregates for the given lawyers, in request order; lawyers without reviews get an empty one. */
+  @Transactional(readOnly = true)
+  public List<LawyerRating> getRatings(Collection<Long> lawyerIds) {
+    Set<Long> ids = new LinkedHashSet<>(lawyerIds);
+    ids.remove(null);
+    if (ids.size() > MAX_BATCH_LAWYERS) {
+      throw new IllegalArgumentException("At most " + MAX_BATCH_LAWYERS + " lawyer ids per request");
+    }
+    if (ids.isEmpty()) return List.of();
+
+    Map<Long, LawyerRating> found = new HashMap<>();
+    for (LawyerRating rating : ratingRepository.findByLawyerIdIn(ids)) {
+      found.put(rating.getLawyerId(), rating);
+    }
+    List<LawyerRating> result = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      result.add(found.getOrDefault(id, LawyerRating.empty(id)));
+    }
+    return result;
+  }
+
+  /**
+   * Recomputes every aggregate from the review table. Reviews are streamed ordered by
+   * lawyer, so only the current lawyer's aggregate is held in memory and finished rows
+   * are flushed in batches. Reviews whose outbox events are still pending are counted
+   * here, so those events are marked as applied. Returns the number of lawyers written.
+   */
+  @Transactional
+  public int rebuildRatings() {
+    ratingAggregator.skipPending();
+    ratingRepository.deleteAllInBatch();
+
+    int written = 0;
+    LawyerRating current = null;
+    try (Stream<Object[]> rows = reviewRepository.streamRatingsByLawyer()) {
+      Iterator<Object[]> it = rows.iterator();
+      while (it.hasNext()) {
+        Object[] row = it.next();
+        Long lawyerId = (Long) row[0];
+        int rating = (Integer) row[1];
+        if (rating < 1 || rating > 5) continue; // predates validation; not counted
+
+        if (current == null || !current.getLawyerId().equals(lawyerId)) {
+          if (current != null) {
+            entityManager.persist(current);
+            if (++written % REBUILD_FLUSH_SIZE == 0) {
+              entityManager.flush();
+              entityManager.clear();
+            }
+          }
+          current = LawyerRating.empty(lawyerId);
+        }
+        current.add(rating, (LocalDateTime) row[2]);
+      }
+    }
+    if (current != null) {
+      entityManager.persist(current);
+      written++;
+    }
+    return written;
+  }
+
+  // The aggregate table is new; fill it on first start against an existing review table.
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildIfMissing() {
+    if (ratingRepository.count() == 0 && reviewRepository.count() > 0) {
+      new TransactionTemplate(transactionManager).executeWithoutResult(status -> rebuildRatings());
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck). Level 0 has {@code slots} buckets of one
+ * tick each; every level above has as many buckets, each as long as the whole level below.
+ * Adding an item and advancing by a tick cost O(1) however many items are held; items due
+ * beyond the top level wait in an overflow list until it comes round.
+ * <p>
+ * Times are epoch milliseconds. An item is handed out by the first {@link #advance} whose
+ * time is at least a tick past the start of its tick, so up to a tick late. Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+  private final long tick;
+  private final int slots;
+  private final long[] levelTicks;
+  private final List<List<Entry<T>>[]> levels = new ArrayList<>();
+  private List<Entry<T>> overflow = new ArrayList<>();
+
+  // Start of the current tick: everything due before it has been handed out
+  private long current;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  TimingWheel(long tickMillis, int slots, int levelCount, long startMillis) {
+    if (tickMillis < 1 || slots < 2 || levelCount < 1) throw new IllegalArgumentException("Invalid wheel shape");
+    this.tick = tickMillis;
+    this.slots = slots;
+    this.levelTicks = new long[levelCount];
+    long levelTick = tickMillis;
+    for (int i = 0; i < levelCount; i++) {
+      levelTicks[i] = levelTick;
+      List<Entry<T>>[] buckets = new List[slots];
+      for (int b = 0; b < slots; b++) {
+        buckets[b] = new ArrayList<>();
+      }
+      levels.add(buckets);
+      levelTick = Math.multiplyExact(levelTick, slots);
+    }
+    this.current = startMillis - Math.floorMod(startMillis, tickMillis);
+  }
+
+  /**
+   * Schedules the item. Returns false, without holding it, if it is already due, that is
+   * due before the current tick; the caller runs it right away.
+   */
+  boolean add(long dueMillis, T item) {
+    if (dueMillis < current) return false;
+    place(new Entry<>(dueMillis, item));
+    size++;
+    return true;
+  }
+
+  /** Moves the wheel up to {@code nowMillis}, handing out every item whose tick has passed. */
+  void advance(long nowMillis, Consumer<T> expired) {
+    while (current + tick <= nowMillis) {
+      List<Entry<T>>[] bottom = levels.get(0);
+      int index = bucket(current, 0);
+      List<Entry<T>> due = bottom[index];
+      bottom[index] = new ArrayList<>();
+      current += tick;
+      // Buckets of the levels above that now start: spread their items over the levels below
+      for (int i = levelTicks.length - 1; i > 0; i--) {
+        if (current % levelTicks[i] == 0) {
+          List<Entry<T>>[] buckets = levels.get(i);
+          int b = bucket(current, i);
+          List<Entry<T>> cascade = buckets[b];
+          buckets[b] = new ArrayList<>();
+          cascade.forEach(this::place);
+        }
+      }
+      if (!overflow.isEmpty() && current % (levelTicks[levelTicks.length - 1] * slots) == 0) {
+        List<Entry<T>> waiting = overflow;
+        overflow = new ArrayList<>();
+        waiting.forEach(this::place);
+      }
+      size -= due.size();
+      for (Entry<T> entry : due) {
+        expired.accept(entry.item());
+      }
+    }
+  }
+
+  /** Start of the current tick; every item due before it has been handed out. */
+  long currentTime() {
+    return current;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void place(Entry<T> entry) {
+    for (int i = 0; i < levelTicks.length; i++) {
+      long levelTick = levelTicks[i];
+      long levelStart = current - Math.floorMod(current, levelTick);
+      if (entry.due() < levelStart + levelTick * slots) {
+        levels.get(i)[bucket(entry.due(), i)].add(entry);
+        return;
+      }
+    }
+    overflow.add(entry);
+  }
+
+  private int bucket(long time, int level) {
+    return (int) Math.floorMod(Math.floorDiv(time, levelTicks[level]), (long) slots);
+  }
+
+  private record Entry<T>(long due, T item) {
+  }
+}
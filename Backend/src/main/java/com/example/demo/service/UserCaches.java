@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.UserSummary;
+import com.example.demo.service.CacheInvalidationBus.CacheEviction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through caches for profile lookups by email and by id, and for the lawyer
+ * directory.
+ * <p>
+ * The two user caches are bounded by an estimate of their size in bytes
+ * ({@code app.cache.users.max-weight-bytes} each) and expire entries after
+ * {@code app.cache.users.ttl}. The directory is a single list that expires after
+ * {@code app.cache.directory.ttl}. Hits, misses and evictions are exported as
+ * {@code cache.*} metrics tagged with the cache name.
+ * <p>
+ * Writers call {@link #evictUser} inside their transaction. Once it commits, the entries
+ * are dropped here and the eviction goes out on the {@link CacheInvalidationBus} to the
+ * other nodes. A read that loaded the old row before the commit is still in its loader
+ * at that point, so the eviction waits for it and removes what it stored. Cached
+ * summaries are shared between requests and must not be modified.
+ */
+@Component
+public class UserCaches {
+
+  static final String BY_EMAIL = "users.by-email";
+  static final String BY_ID = "users.by-id";
+  static final String DIRECTORY = "lawyers.directory";
+
+  private final Cache<String, UserSummary> byEmail;
+  private final Cache<Long, UserSummary> byId;
+  private final Cache<String, List<LawyerCard>> directory;
+  private final CacheInvalidationBus bus;
+
+  public UserCaches(CacheInvalidationBus bus, MeterRegistry meterRegistry,
+                    @Value("${app.cache.users.max-weight-bytes:16777216}") long maxWeightBytes,
+                    @Value("${app.cache.users.ttl:10m}") Duration usersTtl,
+                    @Value("${app.cache.directory.ttl:60s}") Duration directoryTtl) {
+    this.byEmail = Caffeine.newBuilder()
+        .maximumWeight(maxWeightBytes)
+        .weigher((String email, UserSummary user) -> weigh(user))
+        .expireAfterWrite(usersTtl)
+        .recordStats()
+        .build();
+    this.byId = Caffeine.newBuilder()
+        .maximumWeight(maxWeightBytes)
+        .weigher((Long id, UserSummary user) -> weigh(user))
+        .expireAfterWrite(usersTtl)
+        .recordStats()
+        .build();
+    this.directory = Caffeine.newBuilder()
+        .maximumSize(1)
+        .expireAfterWrite(directoryTtl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, byEmail, BY_EMAIL);
+    CaffeineCacheMetrics.monitor(meterRegistry, byId, BY_ID);
+    CaffeineCacheMetrics.monitor(meterRegistry, directory, DIRECTORY);
+
+    this.bus = bus;
+    bus.subscribe(this::apply);
+  }
+
+  /** The cached summary, loaded on a miss; {@code null} results are not cached. */
+  public UserSummary byEmail(String email, Function<String, UserSummary> loader) {
+    return email == null ? null : byEmail.get(email, loader);
+  }
+
+  public UserSummary byId(Long id, Function<Long, UserSummary> loader) {
+    return id == null ? null : byId.get(id, loader);
+  }
+
+  public List<LawyerCard> directory(Supplier<List<LawyerCard>> loader) {
+    return directory.get(DIRECTORY, k -> List.copyOf(loader.get()));
+  }
+
+  /**
+   * Drops the user's entries, and the directory if {@code lawyer}, on every node once the
+   * current transaction commits.
+   */
+  public void evictUser(Long id, String email, boolean lawyer) {
+    TransactionHooks.afterCommit(() -> {
+      if (email != null) send(new CacheEviction(BY_EMAIL, email));
+      if (id != null) send(new CacheEviction(BY_ID, id.toString()));
+      if (lawyer) send(new CacheEviction(DIRECTORY, null));
+    });
+  }
+
+  private void send(CacheEviction eviction) {
+    apply(eviction);
+    bus.publish(eviction);
+  }
+
+  private void apply(CacheEviction eviction) {
+    String key = eviction.key();
+    switch (eviction.cache()) {
+      case BY_EMAIL -> {
+        if (key == null) byEmail.invalidateAll();
+        else byEmail.invalidate(key);
+      }
+      case BY_ID -> {
+        if (key == null) byId.invalidateAll();
+        else byId.invalidate(Long.valueOf(key));
+      }
+      case DIRECTORY -> directory.invalidateAll();
+      default -> {
+        // Another component's cache
+      }
+    }
+  }
+
+  // Rough heap footprint: object headers and boxed fields, plus two bytes per character
+  static int weigh(UserSummary user) {
+    int chars = length(user.getName()) + length(user.getEmail()) + length(user.getPhone())
+        + length(user.getRole()) + length(user.getBio()) + length(user.getLocation())
+        + length(user.getBarCouncilNumber()) + length(user.getVerificationStatus())
+        + length(user.getAadhaarPan()) + length(user.getDriveLink())
+        + length(user.getSpecializations()) + length(user.getLanguages()) + length(user.getEducation());
+    return 400 + 2 * chars;
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : 40 + value.length();
+  }
+
+  private static int length(List<String> values) {
+    if (values == null) return 0;
+    int chars = 0;
+    for (String value : values) {
+      chars += length(value);
+    }
+    return chars;
+  }
+}
@@ -0,0 +1,243 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes appointment and review changes to their participants over Server-Sent Events.
+ * <p>
+ * An idle stream is an async servlet request plus a small bounded queue; no thread is
+ * held for it. Publishing serializes the event once, then offers it to each recipient's
+ * queue without blocking. A queue is drained by a virtual thread, started only while it
+ * has frames, so a slow socket blocks only its own writer. A subscriber whose queue fills
+ * up ({@code app.events.buffer-size}) is disconnected. The browser reconnects with
+ * {@code Last-Event-ID} and is replayed what it missed.
+ * <p>
+ * The last {@code app.events.replay-size} events are kept in a ring buffer. Event ids are
+ * consecutive, so a reconnect can tell whether the ring still covers its gap. If it does
+ * not (the gap is too old, or the id is from before a restart), the stream gets a
+ * {@code resync} event and the client reloads its lists. Ids start from the clock at
+ * startup, so ids from an earlier run fall below the ring. A comment line is sent every
+ * {@code app.events.heartbeat-ms} to keep proxies from closing idle streams and to find
+ * dead ones.
+ * <p>
+ * Events only reach streams connected to the node that handled the write.
+ */
+@Component
+public class UserEventHub {
+
+  public static final String RESYNC = "resync";
+
+  private static final int MAX_STREAMS_PER_USER = 5;
+  private static final Frame HEARTBEAT = new Frame(0, null, null);
+
+  private final ObjectMapper objectMapper;
+  private final int bufferSize;
+  private final long timeoutMs;
+  private final Counter dropped;
+
+  // Ring of recent events, and the subscriber map; both change only under this lock
+  private final Object lock = new Object();
+  private final Entry[] ring;
+  private int head;
+  private int size;
+  private long lastId;
+
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final AtomicInteger streams = new AtomicInteger();
+  private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+  public UserEventHub(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                      @Value("${app.events.replay-size:8192}") int replaySize,
+                      @Value("${app.events.buffer-size:64}") int bufferSize,
+                      @Value("${app.events.timeout-ms:1800000}") long timeoutMs) {
+    this.objectMapper = objectMapper;
+    this.ring = new Entry[replaySize];
+    this.bufferSize = bufferSize;
+    this.timeoutMs = timeoutMs;
+    this.lastId = System.currentTimeMillis() * 1000;
+    this.dropped = meterRegistry.counter("events.subscribers.dropped");
+    meterRegistry.gauge("events.subscribers", streams);
+  }
+
+  /**
+   * Opens a stream for the user. With {@code lastEventId}, events after it that are
+   * still in the ring are sent first, or a {@code resync} event if some are gone.
+   */
+  public SseEmitter subscribe(Long userId, Long lastEventId) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    Subscriber subscriber = new Subscriber(userId, emitter);
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(subscriber::close);
+    emitter.onError(e -> subscriber.close());
+
+    Subscriber evicted = null;
+    synchronized (lock) {
+      // An initial comment, so the response (and the browser's "open" event) goes out now
+      subscriber.offer(HEARTBEAT);
+      if (lastEventId != null) {
+        replay(subscriber, lastEventId);
+      }
+      Set<Subscriber> own = subscribers.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet());
+      if (own.size() >= MAX_STREAMS_PER_USER) {
+        evicted = own.iterator().next();
+      }
+      own.add(subscriber);
+      streams.incrementAndGet();
+    }
+    if (evicted != null) {
+      evicted.close();
+    }
+    return emitter;
+  }
+
+  /** Sends the event to the recipients' streams once the current transaction commits. */
+  public void publish(String type, Object data, Long... recipients) {
+    TransactionHooks.afterCommit(() -> send(type, data, recipients));
+  }
+
+  @Scheduled(fixedRateString = "${app.events.heartbeat-ms:20000}")
+  void heartbeat() {
+    for (Set<Subscriber> own : subscribers.values()) {
+      for (Subscriber subscriber : own) {
+        subscriber.offer(HEARTBEAT);
+      }
+    }
+  }
+
+  private void send(String type, Object data, Long[] recipients) {
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(data);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize " + type + " event", e);
+    }
+    Long[] users = Arrays.stream(recipients).filter(Objects::nonNull).distinct().toArray(Long[]::new);
+    synchronized (lock) {
+      Frame frame = new Frame(++lastId, type, json);
+      ring[head] = new Entry(frame, users);
+      head = (head + 1) % ring.length;
+      size = Math.min(size + 1, ring.length);
+      for (Long user : users) {
+        Set<Subscriber> own = subscribers.get(user);
+        if (own == null) continue;
+        for (Subscriber subscriber : own) {
+          subscriber.offer(frame);
+        }
+      }
+    }
+  }
+
+  // Caller holds the lock
+  private void replay(Subscriber subscriber, long lastEventId) {
+    long oldest = lastId - size + 1;
+    if (lastEventId < oldest - 1 || lastEventId > lastId) {
+      subscriber.offer(new Frame(lastId, RESYNC, "{}"));
+      return;
+    }
+    List<Frame> missed = new ArrayList<>();
+    for (int i = size - (int) (lastId - lastEventId); i < size; i++) {
+      Entry entry = ring[Math.floorMod(head - size + i, ring.length)];
+      if (Arrays.asList(entry.recipients).contains(subscriber.userId)) {
+        missed.add(entry.frame);
+      }
+    }
+    if (missed.size() >= bufferSize) {
+      subscriber.offer(new Frame(lastId, RESYNC, "{}"));
+    } else {
+      missed.forEach(subscriber::offer);
+    }
+  }
+
+  private record Frame(long id, String type, String json) {
+    SseEmitter.SseEventBuilder toEvent() {
+      if (type == null) return SseEmitter.event().comment("");
+      return SseEmitter.event().id(Long.toString(id)).name(type).data(json);
+    }
+  }
+
+  private record Entry(Frame frame, Long[] recipients) {
+  }
+
+  private final class Subscriber {
+    final Long userId;
+    final SseEmitter emitter;
+    final ArrayBlockingQueue<Frame> queue = new ArrayBlockingQueue<>(bufferSize);
+    final AtomicBoolean draining = new AtomicBoolean();
+    final AtomicBoolean closed = new AtomicBoolean();
+
+    Subscriber(Long userId, SseEmitter emitter) {
+      this.userId = userId;
+      this.emitter = emitter;
+    }
+
+    void offer(Frame frame) {
+      if (closed.get()) return;
+      if (!queue.offer(frame)) {
+        // Too slow to keep up: drop the stream; it reconnects and replays from the ring
+        dropped.increment();
+        close();
+        return;
+      }
+      if (draining.compareAndSet(false, true)) {
+        writers.execute(this::drain);
+      }
+    }
+
+    void drain() {
+      try {
+        Frame frame;
+        while (!closed.get() && (frame = queue.poll()) != null) {
+          emitter.send(frame.toEvent());
+        }
+      } catch (IOException | IllegalStateException e) {
+        close();
+      } finally {
+        draining.set(false);
+        if (!queue.isEmpty() && !closed.get() && draining.compareAndSet(false, true)) {
+          writers.execute(this::drain);
+        }
+      }
+    }
+
+    void close() {
+      if (!closed.compareAndSet(false, true)) return;
+      synchronized (lock) {
+        Set<Subscriber> own = subscribers.get(userId);
+        if (own != null && own.remove(this)) {
+          streams.decrementAndGet();
+          if (own.isEmpty()) subscribers.remove(userId);
+        }
+      }
+      queue.clear();
+      // Not on the caller's thread: completing waits for a send stuck on a slow socket
+      writers.execute(() -> {
+        try {
+          emitter.complete();
+        } catch (IllegalStateException e) {
+          // Already completed by the container
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.UserSummary;
+import com.example.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link UserSummary} and {@link LawyerCard} lists straight from projection
+ * queries, without materializing {@code User} entities. The query count is fixed at
+ * four regardless of how many users are listed (see {@link UserRepository}).
+ * <p>
+ * Lists and lookups that fill {@link UserCaches} or the in-memory lawyer indexes read
+ * the primary database, not a replica: a lagging row stored there would otherwise be
+ * served for the whole cache TTL, well after the replica caught up.
+ */
+@Component
+public class UserReadModels {
+
+  @Autowired
+  private UserRepository userRepository;
+
+  /** All users with the given role, or every user when {@code role} is null. */
+  @Transactional(readOnly = true)
+  public List<UserSummary> summaries(String role, boolean withDocuments) {
+    return summaries(role, withDocuments, null);
+  }
+
+  /** As above, but only users updated after {@code since}, unless it is null. */
+  @Transactional(readOnly = true)
+  public List<UserSummary> summaries(String role, boolean withDocuments, LocalDateTime since) {
+    Map<Long, List<String>> specializations = group(userRepository.findSpecializationRows(role, since));
+    Map<Long, List<String>> languages = group(userRepository.findLanguageRows(role, since));
+    Map<Long, List<String>> education = group(userRepository.findEducationRows(role, since));
+
+    List<UserSummary> result = new ArrayList<>();
+    for (Object[] row : userRepository.findSummaryRows(role, since)) {
+      Long id = (Long) row[0];
+      result.add(UserSummary.builder()
+          .id(id)
+          .name((String) row[1])
+          .email((String) row[2])
+          .phone((String) row[3])
+          .role((String) row[4])
+          .bio((String) row[5])
+          .location((String) row[6])
+          .consultationFee((Integer) row[7])
+          .barCouncilNumber((String) row[8])
+          .yearsOfExperience((Integer) row[9])
+          .verified(Boolean.TRUE.equals(row[10]))
+          .verificationStatus((String) row[11])
+          .aadhaarPan(withDocuments ? (String) row[12] : null)
+          .driveLink(withDocuments ? (String) row[13] : null)
+          .specializations(specializations.getOrDefault(id, List.of()))
+          .languages(languages.getOrDefault(id, List.of()))
+          .education(education.getOrDefault(id, List.of()))
+          .build());
+    }
+    return result;
+  }
+
+  /** The owner's view of one account, KYC document links included. */
+  @Transactional
+  public UserSummary profileByEmail(String email) {
+    return userRepository.findByEmail(email).map(user -> UserSummary.from(user, true)).orElse(null);
+  }
+
+  /** The public view of one account, without document links. */
+  @Transactional
+  public UserSummary summaryById(Long id) {
+    return userRepository.findById(id).map(UserSummary::from).orElse(null);
+  }
+
+  /** The whole directory, for the cache and the indexes. */
+  @Transactional
+  public List<LawyerCard> lawyerCards(boolean verifiedOnly) {
+    return lawyerCards(verifiedOnly, null);
+  }
+
+  @Transactional(readOnly = true)
+  public List<LawyerCard> lawyerCards(boolean verifiedOnly, LocalDateTime since) {
+    List<LawyerCard> cards = new ArrayList<>();
+    for (UserSummary s : summaries("lawyer", false, since)) {
+      if (verifiedOnly && !s.isVerified()) continue;
+      cards.add(LawyerCard.builder()
+          .id(s.getId())
+          .name(s.getName())
+          .role(s.getRole())
+          .bio(s.getBio())
+          .location(s.getLocation())
+          .consultationFee(s.getConsultationFee())
+          .yearsOfExperience(s.getYearsOfExperience())
+          .specializations(s.getSpecializations())
+          .languages(s.getLanguages())
+          .education(s.getEducation())
+          .verified(s.isVerified())
+          .verificationStatus(s.getVerificationStatus())
+          .build());
+    }
+    return cards;
+  }
+
+  private static Map<Long, List<String>> group(List<Object[]> rows) {
+    Map<Long, List<String>> byUser = new HashMap<>();
+    for (Object[] row : rows) {
+      if (row[1] == null) continue;
+      byUser.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[1]);
+    }
+    return byUser;
+  }
+}
@@ -1,57 +1,157 @@
 // UserService.java
 package com.example.demo.service;
 
+import com.example.demo.model.LawyerCard;
 import com.example.demo.model.User;
+import com.example.demo.model.UserSummary;
 import com.example.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "service.users", histogram = true)
 public class UserService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LawyerSearchIndex lawyerSearchIndex;
+
+    @Autowired
+    private LawyerRecommender lawyerRecommender;
+
+    @Autowired
+    private DashboardStatsService dashboardStats;
+
+    @Autowired
+    private UserReadModels readModels;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserCaches userCaches;
+
+    @Autowired
+    private CollectionVersions versions;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Passwords are hashed before the transaction starts, so no connection is held meanwhile
     public User registerUser(User user) {
         // Check if email already exists
-        Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
-        if (existingUser.isPresent()) {
+        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
             throw new RuntimeException("Email already registered");
         }
-        return userRepository.save(user);
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            throw new IllegalArgumentException("Password is required");
+        }
+        user.setPassword(passwordHasher.hash(user.getPassword()));
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+                throw new RuntimeException("Email already registered");
+            }
+            User saved = userRepository.save(user);
+            lawyerSearchIndex.index(saved);
+            lawyerRecommender.index(saved);
+            dashboardStats.onUserRegistered(saved);
+            userChanged(saved);
+            return saved;
+        });
     }
 
-    public Optional<User> login(String email, String password) {
-        return userRepository.findByEmail(email)
-            .filter(user -> user.getPassword().equals(password));
+    /**
+     * Reads the account in a short transaction, then checks the password outside it on the
+     * hashing pool (which may throw {@link HashingUnavailableException}). A stored hash with
+     * an outdated cost, or a legacy plaintext password, is replaced after a successful login.
+     * The account is read from the primary, since it may have been registered or had its
+     * password reset a moment ago.
+     */
+    public Optional<UserSummary> login(String email, String password) {
+        Optional<Credentials> account = new TransactionTemplate(transactionManager).execute(status ->
+            userRepository.findByEmail(email)
+                .map(u -> new Credentials(u.getId(), u.getPassword(), UserSummary.from(u))));
+
+        String stored = account.map(Credentials::password).orElse(null);
+        if (!passwordHasher.matches(password, stored)) {
+            meterRegistry.counter("auth.login.failures").increment();
+            return Optional.empty();
+        }
+        Credentials credentials = account.get();
+        if (passwordHasher.needsRehash(stored)) {
+            String rehashed = passwordHasher.hash(password);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                userRepository.replacePassword(credentials.id(), stored, rehashed));
+        }
+        return Optional.of(credentials.summary());
+    }
+
+    // The owner's own profile, so KYC document links are included
+    public UserSummary getUserByEmail(String email) {
+        return userCaches.byEmail(email, readModels::profileByEmail);
+    }
+
+    // Public view of any account
+    public UserSummary getUserById(Long id) {
+        return userCaches.byId(id, readModels::summaryById);
+    }
+
+    // Public directory listing
+    public List<LawyerCard> getLawyerCards() {
+        return userCaches.directory(() -> readModels.lawyerCards(false));
+    }
+
+    // Only lawyers changed after `since` (delta sync); not cached
+    public List<LawyerCard> getLawyerCards(LocalDateTime since) {
+        return since == null ? getLawyerCards() : readModels.lawyerCards(false, since);
     }
 
-    public User getUserByEmail(String email) {
-        return userRepository.findByEmail(email).orElse(null);
+    // Admin verification listing, with KYC document links
+    public List<UserSummary> getAllLawyers() {
+        return getAllLawyers(null);
     }
 
-    public List<User> getAllLawyers() {
-        return userRepository.findByRole("lawyer");
+    public List<UserSummary> getAllLawyers(LocalDateTime since) {
+        return readModels.summaries("lawyer", true, since);
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll(); // Adjust as per your repo logic
+    public List<UserSummary> getAllUsers() {
+        return readModels.summaries(null, false);
     }
 
-    public User updateVerificationStatus(Long id, String status) {
+    @Transactional
+    public UserSummary updateVerificationStatus(Long id, String status) {
         User user = userRepository.findById(id).orElse(null);
         if (user == null) return null;
 
+        String previousStatus = user.getVerificationStatus();
         user.setVerificationStatus(status);
         user.setIsVerified("verified".equalsIgnoreCase(status));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        lawyerSearchIndex.index(saved);
+        lawyerRecommender.index(saved);
+        dashboardStats.onVerificationChanged(saved, previousStatus);
+        userChanged(saved);
+        return UserSummary.from(saved, true);
     }
 
-    public User updateUserProfile(String email, User updatedData) {
+    @Transactional
+    public UserSummary updateUserProfile(String email, User updatedData) {
         Optional<User> existing = userRepository.findByEmail(email);
         if (existing.isPresent()) {
             User user = existing.get();
@@ -73,22 +173,46 @@ public class UserService {
             user.setAadhaarPan(updatedData.getAadhaarPan());
             user.setDriveLink(updatedData.getDriveLink());
 
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            lawyerSearchIndex.index(saved);
+            lawyerRecommender.index(saved);
+            userChanged(saved);
+            return UserSummary.from(saved, true);
         }
         return null;
     }
 
     public boolean updatePassword(String email, String newPassword) {
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        if (userOptional.isPresent()) {
+        if (userRepository.findByEmail(email).isEmpty()) {
+            return false; // User not found
+        }
+        String hash = passwordHasher.hash(newPassword);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Optional<User> userOptional = userRepository.findByEmail(email);
+            if (userOptional.isEmpty()) {
+                return false;
+            }
             User user = userOptional.get();
-            // IMPORTANT: In production, hash the new password before saving.
-            // user.setPassword(passwordEncoder.encode(newPassword));
-            user.setPassword(newPassword);
+            user.setPassword(hash);
             userRepository.save(user);
+            // Cached views hold no password, but every write to a user evicts it
+            userCaches.evictUser(user.getId(), user.getEmail(), false);
             return true;
-        }
-        return false; // User not found
+        });
+    }
+
+    // Drops cached copies of the user and, for lawyers, moves the directory's ETag,
+    // once the transaction commits
+    private void userChanged(User user) {
+        userCaches.evictUser(user.getId(), user.getEmail(), isLawyer(user));
+        if (isLawyer(user)) versions.changed(CollectionVersions.LAWYERS);
+    }
+
+    private static boolean isLawyer(User user) {
+        return "lawyer".equalsIgnoreCase(user.getRole());
+    }
+
+    private record Credentials(Long id, String password, UserSummary summary) {
     }
 
 }
@@ -1,74 +1,617 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.model.Appointment;
+import com.example.demo.model.AppointmentNote;
+import com.example.demo.model.AppointmentPage;
+import com.example.demo.model.AppointmentQuery;
 import com.example.demo.model.AppointmentRequestDTO;
+import com.example.demo.model.ArchivedAppointment;
+import com.example.demo.model.BulkItemResult;
+import com.example.demo.model.BulkStatusRequest;
+import com.example.demo.model.NotePage;
+import com.example.demo.repository.AppointmentArchiveRepository;
+import com.example.demo.repository.AppointmentNoteRepository;
 import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.service.AppointmentArchiver;
 import com.example.demo.service.AppointmentService;
+import com.example.demo.service.AppointmentSlotIndex;
+import com.example.demo.service.BookingConflictException;
+import com.example.demo.service.CollectionVersions;
+import com.example.demo.service.DashboardStatsService;
+import com.example.demo.service.LawyerRecommender;
+import com.example.demo.service.Outbox;
+import com.example.demo.service.ReadYourWrites;
+import com.example.demo.service.UserEventHub;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "service.appointments", histogram = true)
 public class AppointmentServiceImpl implements AppointmentService {
 
+  private static final int DEFAULT_PAGE_SIZE = 50;
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final int MAX_BULK_ITEMS = 500;
+  private static final int STREAM_CHUNK_SIZE = 100;
+
   @Autowired
   private AppointmentRepository repository;
 
+  @Autowired
+  private AppointmentNoteRepository noteRepository;
+
+  @Autowired
+  private AppointmentArchiveRepository archiveRepository;
+
+  @Autowired
+  private AppointmentArchiver archiver;
+
+  @Autowired
+  private AppointmentSlotIndex slotIndex;
+
+  @Autowired
+  private DashboardStatsService dashboardStats;
+
+  @Autowired
+  private LawyerRecommender recommender;
+
+  @Autowired
+  private CollectionVersions versions;
+
+  @Autowired
+  private UserEventHub events;
+
+  @Autowired
+  private ReadYourWrites readYourWrites;
+
+  @Autowired
+  private Outbox outbox;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   @Override
+  @Transactional
   public Appointment updateStatus(Long id, String status) {
     Appointment apt = repository.findById(id).orElseThrow();
-    apt.setStatus(status);
+    // As in updateStatuses: its slot may be taken by now, so it cannot come back
+    if ("cancelled".equals(apt.getStatus())) {
+      throw new BookingConflictException("Appointment " + id + " is cancelled");
+    }
+    changeStatus(apt, status);
     return repository.save(apt);
   }
 
   @Override
+  @Transactional
   public Appointment cancelAppointment(Long id, String reason) {
     Appointment apt = repository.findById(id).orElseThrow();
-    apt.setStatus("cancelled");
-    apt.setCancelReason(reason); // ✅ Set cancel reason separately
-    apt.getNotes().add("Cancelled: " + reason); // ✅ Optionally add to notes
+    cancel(apt, reason);
     return repository.save(apt);
   }
 
+  private void changeStatus(Appointment apt, String status) {
+    if ("cancelled".equals(status)) {
+      freeSlot(apt);
+    }
+    dashboardStats.onAppointmentStatusChanged(apt.getStatus(), status);
+    recommender.onAppointmentStatusChanged(apt, apt.getStatus(), status);
+    apt.setStatus(status);
+    appointmentChanged(apt, APPOINTMENT_STATUS_CHANGED);
+  }
+
+  // Once this commits: new ETags for the client's and the lawyer's appointment lists, the
+  // appointment pushed to both, and their reads kept on the primary for a while. The
+  // outbox event commits with the change itself.
+  private void appointmentChanged(Appointment apt, String eventType) {
+    versions.changed(CollectionVersions.clientAppointments(apt.getClientId()),
+        CollectionVersions.lawyerAppointments(apt.getLawyerId()));
+    events.publish("appointment", apt, apt.getClientId(), apt.getLawyerId());
+    readYourWrites.wrote(apt.getClientId(), apt.getLawyerId());
+    outbox.append(eventType, apt.getId(), apt);
+  }
 
+  private void cancel(Appointment apt, String reason) {
+    apt.setCancelReason(reason); // ✅ Set cancel reason separately
+    changeStatus(apt, "cancelled");
+    noteRepository.save(newNote(apt, null, "Cancelled: " + reason)); // ✅ Optionally add to notes
+  }
 
+  /**
+   * Books a slot for the lawyer. The booking transaction first locks the lawyer's row,
+   * which orders bookings for the lawyer across all nodes, then re-reads the day from the
+   * database and checks for overlaps under the lawyer's stripe lock before inserting. The
+   * unique key on (lawyer, date, start time) only rejects identical start times.
+   */
   @Override
   public Appointment bookAppointment(AppointmentRequestDTO request) {
-    Appointment appointment = Appointment.builder()
+    validate(request);
+    Appointment appointment = newAppointment(request);
+    Long lawyerId = request.getLawyerId();
+
+    try {
+      return new TransactionTemplate(transactionManager).execute(status -> {
+        if (slotIndex.lockLawyers(List.of(lawyerId)).isEmpty()) {
+          throw new IllegalArgumentException("Lawyer " + lawyerId + " not found");
+        }
+        return slotIndex.withLawyerLock(lawyerId, () -> {
+          slotIndex.reload(List.of(lawyerId), List.of(request.getDate()));
+          Long clash = slotIndex.findOverlap(lawyerId, request.getDate(), request.getStartTime(), request.getEndTime());
+          if (clash != null) {
+            throw conflict("Lawyer already has appointment " + clash + " in this time slot");
+          }
+          Appointment saved = repository.saveAndFlush(appointment);
+          appendInitialNotes(saved, request);
+          appointmentChanged(saved, APPOINTMENT_BOOKED);
+          slotIndex.reserve(saved);
+          dashboardStats.onAppointmentBooked(saved);
+          recommender.onAppointmentBooked(saved);
+          return saved;
+        });
+      });
+    } catch (DataIntegrityViolationException e) {
+      throw conflict("Lawyer already has an appointment in this time slot");
+    }
+  }
+
+  /**
+   * Books many slots in one transaction. It locks the rows of all lawyers involved and
+   * re-reads the days booked, as {@link #bookAppointment} does. Each item is then checked
+   * for overlaps (with live bookings and with earlier items of the same request) under
+   * the stripe locks of those lawyers; the accepted ones are inserted together as JDBC
+   * batches. Items for lawyers that do not exist are invalid. Should the batch still hit
+   * the unique constraint, the accepted items are booked one at a time instead.
+   */
+  @Override
+  public List<BulkItemResult> bookAppointments(List<AppointmentRequestDTO> requests) {
+    checkBulkSize(requests);
+    BulkItemResult[] results = new BulkItemResult[requests.size()];
+    List<Integer> valid = new ArrayList<>();
+    for (int i = 0; i < requests.size(); i++) {
+      try {
+        validate(requests.get(i));
+        valid.add(i);
+      } catch (IllegalArgumentException e) {
+        results[i] = BulkItemResult.failed(i, BulkItemResult.INVALID, e.getMessage());
+      }
+    }
+
+    Set<Long> lawyerIds = valid.stream().map(i -> requests.get(i).getLawyerId()).collect(Collectors.toSet());
+    Set<LocalDate> dates = valid.stream().map(i -> requests.get(i).getDate()).collect(Collectors.toSet());
+    Map<Integer, Appointment> accepted = new LinkedHashMap<>();
+    try {
+      new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+        if (valid.isEmpty()) return;
+        Set<Long> found = slotIndex.lockLawyers(lawyerIds);
+        slotIndex.withLawyerLocks(found, () -> {
+          // Up front: a query between the saves below would flush them one by one
+          slotIndex.reload(found, dates);
+          for (int i : valid) {
+            AppointmentRequestDTO request = requests.get(i);
+            if (!found.contains(request.getLawyerId())) {
+              results[i] = BulkItemResult.failed(i, BulkItemResult.INVALID,
+                  "Lawyer " + request.getLawyerId() + " not found");
+              continue;
+            }
+            Long clash = slotIndex.findOverlap(
+                request.getLawyerId(), request.getDate(), request.getStartTime(), request.getEndTime());
+            if (clash != null) {
+              results[i] = conflictResult(i, "Lawyer already has appointment " + clash + " in this time slot");
+              continue;
+            }
+            // The id comes from the pooled sequence, so nothing is inserted until the flush
+            Appointment saved = repository.save(newAppointment(request));
+            appendInitialNotes(saved, request);
+            appointmentChanged(saved, APPOINTMENT_BOOKED);
+            slotIndex.reserve(saved);
+            accepted.put(i, saved);
+            dashboardStats.onAppointmentBooked(saved);
+            recommender.onAppointmentBooked(saved);
+          }
+          repository.flush();
+          return null;
+        });
+      });
+      accepted.forEach((i, saved) -> results[i] = BulkItemResult.ok(i, saved));
+    } catch (DataIntegrityViolationException e) {
+      // Rolled back, which also dropped the days reserved above
+      for (int i : accepted.keySet()) {
+        try {
+          results[i] = BulkItemResult.ok(i, bookAppointment(requests.get(i)));
+        } catch (BookingConflictException conflict) {
+          results[i] = BulkItemResult.failed(i, BulkItemResult.CONFLICT, conflict.getMessage());
+        }
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Confirms or cancels many appointments in one transaction: one query loads them all
+   * and the changed rows are written back as a JDBC batch at commit. Cancelled
+   * appointments are left alone and reported as conflicts.
+   */
+  @Override
+  @Transactional
+  public List<BulkItemResult> updateStatuses(BulkStatusRequest request) {
+    List<Long> ids = request.getAppointmentIds();
+    checkBulkSize(ids);
+    String status = request.getStatus();
+    if (!"confirmed".equals(status) && !"cancelled".equals(status)) {
+      throw new IllegalArgumentException("Status must be confirmed or cancelled");
+    }
+
+    Map<Long, Appointment> found = new HashMap<>();
+    repository.findAllById(ids.stream().filter(Objects::nonNull).distinct().toList())
+        .forEach(apt -> found.put(apt.getId(), apt));
+
+    List<BulkItemResult> results = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Appointment apt = found.get(ids.get(i));
+      if (apt == null) {
+        results.add(BulkItemResult.failed(i, BulkItemResult.NOT_FOUND, "Appointment " + ids.get(i) + " not found"));
+      } else if ("cancelled".equals(apt.getStatus())) {
+        results.add(BulkItemResult.failed(i, BulkItemResult.CONFLICT, "Appointment " + apt.getId() + " is cancelled"));
+      } else {
+        if ("cancelled".equals(status)) {
+          cancel(apt, request.getReason());
+        } else {
+          changeStatus(apt, status);
+        }
+        results.add(BulkItemResult.ok(i, apt));
+      }
+    }
+    return results;
+  }
+
+  private static void checkBulkSize(List<?> items) {
+    if (items == null || items.isEmpty()) {
+      throw new IllegalArgumentException("At least one item is required");
+    }
+    if (items.size() > MAX_BULK_ITEMS) {
+      throw new IllegalArgumentException("At most " + MAX_BULK_ITEMS + " items per request");
+    }
+  }
+
+  private static Appointment newAppointment(AppointmentRequestDTO request) {
+    return Appointment.builder()
         .clientId(request.getClientId())
         .lawyerId(request.getLawyerId())
         .type(request.getType())
         .status("pending")
-        .notes(request.getNotes() != null ? request.getNotes() : new ArrayList<>())
         .date(request.getDate())
         .startTime(request.getStartTime())
         .endTime(request.getEndTime())
         .fee(request.getFee())
         .build();
+  }
+
+  // Notes sent with a booking request are the client's
+  private void appendInitialNotes(Appointment apt, AppointmentRequestDTO request) {
+    if (request.getNotes() == null) return;
+    for (String note : request.getNotes()) {
+      if (note != null && !note.isBlank()) {
+        noteRepository.save(newNote(apt, request.getClientId(), note));
+      }
+    }
+  }
+
+  private static AppointmentNote newNote(Appointment apt, Long authorId, String content) {
+    return AppointmentNote.builder()
+        .appointment(apt)
+        .appointmentId(apt.getId())
+        .authorId(authorId)
+        .content(content)
+        .createdAt(LocalDateTime.now())
+        .build();
+  }
+
+  private BulkItemResult conflictResult(int index, String message) {
+    return BulkItemResult.failed(index, BulkItemResult.CONFLICT, conflict(message).getMessage());
+  }
 
-    return repository.save(appointment);
+  private BookingConflictException conflict(String message) {
+    meterRegistry.counter("appointments.booking.conflicts").increment();
+    return new BookingConflictException(message);
+  }
+
+  private void freeSlot(Appointment apt) {
+    if (Boolean.TRUE.equals(apt.getActiveSlot())) {
+      apt.setActiveSlot(null);
+      slotIndex.releaseAfterCommit(apt);
+    }
+  }
+
+  private static void validate(AppointmentRequestDTO request) {
+    if (request == null) {
+      throw new IllegalArgumentException("Appointment request is required");
+    }
+    if (request.getLawyerId() == null || request.getClientId() == null) {
+      throw new IllegalArgumentException("Lawyer and client are required");
+    }
+    if (request.getDate() == null || request.getStartTime() == null || request.getEndTime() == null) {
+      throw new IllegalArgumentException("Date, start time and end time are required");
+    }
+    if (!request.getStartTime().isBefore(request.getEndTime())) {
+      throw new IllegalArgumentException("Start time must be before end time");
+    }
   }
 
 
   @Override
-  public List<Appointment> getAppointmentsForLawyer(Long lawyerId) {
-    return repository.findByLawyerId(lawyerId);
+  @Transactional(readOnly = true)
+  public AppointmentPage getAppointmentsForLawyer(Long lawyerId, AppointmentQuery query) {
+    HistoryCursor after = HistoryCursor.decode(query.getCursor());
+    int limit = pageLimit(query);
+    if (newestFirst(query)) {
+      List<Appointment> rows = repository.findLawyerHistoryNewestFirst(lawyerId, query.getFrom(), query.getTo(),
+          query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(), PageRequest.of(0, limit + 1));
+      if (archiver.mayHold(query.getFrom())) {
+        rows = merge(rows, archiveRepository.findLawyerHistoryNewestFirst(lawyerId, query.getFrom(), query.getTo(),
+            query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(),
+            PageRequest.of(0, limit + 1)), limit + 1, NEWEST_FIRST);
+      }
+      return toPage(rows, limit);
+    }
+    List<Appointment> rows = repository.findLawyerHistory(lawyerId, query.getFrom(), query.getTo(),
+        query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(), PageRequest.of(0, limit + 1));
+    if (archiver.mayHold(after.lowerBound(query))) {
+      rows = merge(rows, archiveRepository.findLawyerHistory(lawyerId, query.getFrom(), query.getTo(),
+          query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(), PageRequest.of(0, limit + 1)),
+          limit + 1, HISTORY_ORDER);
+    }
+    return toPage(rows, limit);
   }
 
   @Override
-  public List<Appointment> getAppointmentsForClient(Long clientId) {
-    return repository.findByClientId(clientId);
+  @Transactional(readOnly = true)
+  public AppointmentPage getAppointmentsForClient(Long clientId, AppointmentQuery query) {
+    HistoryCursor after = HistoryCursor.decode(query.getCursor());
+    int limit = pageLimit(query);
+    if (newestFirst(query)) {
+      List<Appointment> rows = repository.findClientHistoryNewestFirst(clientId, query.getFrom(), query.getTo(),
+          query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(), PageRequest.of(0, limit + 1));
+      if (archiver.mayHold(query.getFrom())) {
+        rows = merge(rows, archiveRepository.findClientHistoryNewestFirst(clientId, query.getFrom(), query.getTo(),
+            query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(),
+            PageRequest.of(0, limit + 1)), limit + 1, NEWEST_FIRST);
+      }
+      return toPage(rows, limit);
+    }
+    List<Appointment> rows = repository.findClientHistory(clientId, query.getFrom(), query.getTo(),
+        query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(), PageRequest.of(0, limit + 1));
+    if (archiver.mayHold(after.lowerBound(query))) {
+      rows = merge(rows, archiveRepository.findClientHistory(clientId, query.getFrom(), query.getTo(),
+          query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id(), PageRequest.of(0, limit + 1)),
+          limit + 1, HISTORY_ORDER);
+    }
+    return toPage(rows, limit);
   }
 
   @Override
-  public Appointment addNoteToAppointment(Long id, String note) {
-    Appointment apt = repository.findById(id).orElseThrow();
-    apt.getNotes().add(note);
-    return repository.save(apt);
+  @Transactional(readOnly = true)
+  public void streamAppointmentsForLawyer(Long lawyerId, AppointmentQuery query, Consumer<Appointment> sink) {
+    HistoryCursor after = HistoryCursor.decode(query.getCursor());
+    try (Stream<Appointment> rows = repository.streamLawyerHistory(lawyerId, query.getFrom(), query.getTo(),
+        query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id());
+         Stream<ArchivedAppointment> archived = archiver.mayHold(after.lowerBound(query))
+             ? archiveRepository.streamLawyerHistory(lawyerId, query.getFrom(), query.getTo(),
+                 query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id())
+             : Stream.empty()) {
+      drain(new MergedHistory(rows.iterator(), archived.map(ArchivedAppointment::toAppointment).iterator(),
+          HISTORY_ORDER), sink);
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void streamAppointmentsForClient(Long clientId, AppointmentQuery query, Consumer<Appointment> sink) {
+    HistoryCursor after = HistoryCursor.decode(query.getCursor());
+    try (Stream<Appointment> rows = repository.streamClientHistory(clientId, query.getFrom(), query.getTo(),
+        query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id());
+         Stream<ArchivedAppointment> archived = archiver.mayHold(after.lowerBound(query))
+             ? archiveRepository.streamClientHistory(clientId, query.getFrom(), query.getTo(),
+                 query.getStatus(), query.getSince(), after.date(), after.startTime(), after.id())
+             : Stream.empty()) {
+      drain(new MergedHistory(rows.iterator(), archived.map(ArchivedAppointment::toAppointment).iterator(),
+          HISTORY_ORDER), sink);
+    }
+  }
+
+  /**
+   * Hands rows to the sink in chunks, clearing the persistence context after each one so
+   * memory stays flat.
+   */
+  private void drain(Iterator<Appointment> it, Consumer<Appointment> sink) {
+    List<Appointment> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+    while (it.hasNext()) {
+      chunk.add(it.next());
+      if (chunk.size() == STREAM_CHUNK_SIZE || !it.hasNext()) {
+        chunk.forEach(sink);
+        chunk.clear();
+        entityManager.clear();
+      }
+    }
+  }
+
+  // Order of the history queries; both tables return their rows in it
+  private static final Comparator<Appointment> HISTORY_ORDER = Comparator
+      .comparing(Appointment::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(Appointment::getStartTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(Appointment::getId);
+
+  private static final Comparator<Appointment> NEWEST_FIRST = HISTORY_ORDER.reversed();
+
+  /** The first {@code limit} rows of both, which are each in the given order. */
+  private static List<Appointment> merge(List<Appointment> rows, List<ArchivedAppointment> archived, int limit,
+                                         Comparator<Appointment> order) {
+    if (archived.isEmpty()) return rows;
+    MergedHistory merged = new MergedHistory(rows.iterator(),
+        archived.stream().map(ArchivedAppointment::toAppointment).iterator(), order);
+    List<Appointment> result = new ArrayList<>(limit);
+    while (merged.hasNext() && result.size() < limit) {
+      result.add(merged.next());
+    }
+    return result;
+  }
+
+  /** Merges two iterators that are each in the given order. */
+  private static final class MergedHistory implements Iterator<Appointment> {
+    private final Iterator<Appointment> left;
+    private final Iterator<Appointment> right;
+    private final Comparator<Appointment> order;
+    private Appointment nextLeft;
+    private Appointment nextRight;
+
+    MergedHistory(Iterator<Appointment> left, Iterator<Appointment> right, Comparator<Appointment> order) {
+      this.left = left;
+      this.right = right;
+      this.order = order;
+      this.nextLeft = left.hasNext() ? left.next() : null;
+      this.nextRight = right.hasNext() ? right.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextLeft != null || nextRight != null;
+    }
+
+    @Override
+    public Appointment next() {
+      if (!hasNext()) throw new NoSuchElementException();
+      Appointment result;
+      if (nextRight == null || (nextLeft != null && order.compare(nextLeft, nextRight) <= 0)) {
+        result = nextLeft;
+        nextLeft = left.hasNext() ? left.next() : null;
+      } else {
+        result = nextRight;
+        nextRight = right.hasNext() ? right.next() : null;
+      }
+      return result;
+    }
   }
 
+  // ?order=desc; streams ignore it and always run oldest first
+  private static boolean newestFirst(AppointmentQuery query) {
+    String order = query.getOrder();
+    if (order == null || "asc".equalsIgnoreCase(order)) return false;
+    if ("desc".equalsIgnoreCase(order)) return true;
+    throw new IllegalArgumentException("Order must be asc or desc");
+  }
+
+  private static int pageLimit(AppointmentQuery query) {
+    return pageLimit(query.getLimit());
+  }
 
+  private static int pageLimit(Integer limit) {
+    return limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+  }
+
+  private static AppointmentPage toPage(List<Appointment> rows, int limit) {
+    if (rows.size() <= limit) {
+      return new AppointmentPage(rows, null);
+    }
+    List<Appointment> items = rows.subList(0, limit);
+    return new AppointmentPage(new ArrayList<>(items), HistoryCursor.of(items.get(limit - 1)).encode());
+  }
 
+  /** Keyset position (date, startTime, id) of the last row of a history page. */
+  private record HistoryCursor(LocalDate date, LocalTime startTime, Long id) {
+    static final HistoryCursor START = new HistoryCursor(null, null, null);
+
+    static HistoryCursor of(Appointment apt) {
+      return new HistoryCursor(apt.getDate(), apt.getStartTime(), apt.getId());
+    }
+
+    // Earliest date the rest of the history can have: the later of ?from and this position
+    LocalDate lowerBound(AppointmentQuery query) {
+      if (date == null) return query.getFrom();
+      return query.getFrom() == null || date.isAfter(query.getFrom()) ? date : query.getFrom();
+    }
+
+    static HistoryCursor decode(String cursor) {
+      if (cursor == null || cursor.isBlank()) return START;
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        return new HistoryCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+    }
+
+    String encode() {
+      String raw = date + "|" + startTime + "|" + id;
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  @Override
+  @Transactional
+  public AppointmentNote addNoteToAppointment(Long id, String note, Long authorId) {
+    if (note == null || note.isBlank()) {
+      throw new IllegalArgumentException("Note is required");
+    }
+    // Archived appointments keep their notes, so look there too; the load also says whom to notify
+    Appointment apt = repository.findById(id)
+        .or(() -> archiveRepository.findById(id).map(ArchivedAppointment::toAppointment))
+        .orElseThrow(() -> new NoSuchElementException("Appointment " + id + " not found"));
+    // The note points at the appointment by reference, which for an archived one is never loaded
+    AppointmentNote saved = noteRepository.save(newNote(repository.getReferenceById(id), authorId, note));
+    events.publish("appointment-note", saved, apt.getClientId(), apt.getLawyerId());
+    readYourWrites.wrote(apt.getClientId(), apt.getLawyerId());
+    return saved;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public NotePage getNotes(Long appointmentId, String cursor, Integer limit) {
+    Long beforeId;
+    try {
+      beforeId = cursor == null || cursor.isBlank() ? null : Long.valueOf(cursor);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    int size = pageLimit(limit);
+    List<AppointmentNote> rows = noteRepository.findPage(appointmentId, beforeId, PageRequest.of(0, size + 1));
+    if (rows.size() <= size) {
+      return new NotePage(rows, null);
+    }
+    List<AppointmentNote> items = new ArrayList<>(rows.subList(0, size));
+    return new NotePage(items, String.valueOf(items.get(size - 1).getId()));
+  }
 }
@@ -0,0 +1,119 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations took over. Databases
+-- that already have it are baselined at version 1.1 and skip both this script and V1_1,
+-- the per-vendor part (id generators and column types).
+
+create table users (
+    id bigint not null auto_increment,
+    name varchar(255),
+    email varchar(255),
+    phone varchar(255),
+    password varchar(255),
+    role varchar(255),
+    bio varchar(255),
+    location varchar(255),
+    consultation_fee integer,
+    bar_council_number varchar(255),
+    years_of_experience integer,
+    is_verified bit not null,
+    verification_status varchar(255),
+    aadhaar_pan varchar(255),
+    drive_link varchar(255),
+    version bigint not null,
+    updated_at datetime(6),
+    primary key (id)
+);
+
+create table user_specializations (
+    user_id bigint not null,
+    specializations varchar(255)
+);
+
+create table user_languages (
+    user_id bigint not null,
+    languages varchar(255)
+);
+
+create table user_education (
+    user_id bigint not null,
+    education varchar(255)
+);
+
+create table appointment (
+    id bigint not null,
+    client_id bigint,
+    lawyer_id bigint,
+    type varchar(255),
+    status varchar(255),
+    date date,
+    start_time time(6),
+    end_time time(6),
+    fee integer not null,
+    cancel_reason varchar(255),
+    active_slot bit,
+    version bigint not null,
+    updated_at datetime(6),
+    primary key (id)
+);
+
+create table appointment_note (
+    id bigint not null,
+    appointment_id bigint,
+    author_id bigint,
+    content text,
+    created_at datetime(6),
+    primary key (id)
+);
+
+create table review (
+    id bigint not null auto_increment,
+    appointment_id bigint,
+    client_id bigint,
+    lawyer_id bigint,
+    rating integer not null,
+    comment text,
+    response text,
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+);
+
+create table lawyer_rating (
+    lawyer_id bigint not null,
+    review_count bigint not null,
+    rating_sum bigint not null,
+    stars1 bigint not null,
+    stars2 bigint not null,
+    stars3 bigint not null,
+    stars4 bigint not null,
+    stars5 bigint not null,
+    last_review_at datetime(6),
+    primary key (lawyer_id)
+);
+
+create table working_hours (
+    id bigint not null auto_increment,
+    lawyer_id bigint,
+    day_of_week enum ('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY'),
+    start_time time(6),
+    end_time time(6),
+    primary key (id)
+);
+
+alter table appointment
+    add constraint uk_appointment_lawyer_slot unique (lawyer_id, date, start_time, active_slot);
+
+create index idx_appointment_note_appointment on appointment_note (appointment_id, id);
+
+create index idx_working_hours_lawyer on working_hours (lawyer_id);
+
+alter table appointment_note
+    add constraint FKgq3sxv8d7dn3tsvhpn2rx00kh foreign key (appointment_id) references appointment (id);
+
+alter table user_specializations
+    add constraint FKjjw3qoscu24qvo0fj9sxmoe98 foreign key (user_id) references users (id);
+
+alter table user_languages
+    add constraint FKt3sjkb7b30p03i378qdcr2s9k foreign key (user_id) references users (id);
+
+alter table user_education
+    add constraint FK925l7dikt8tmrc89n1kbp0ht9 foreign key (user_id) references users (id);
@@ -0,0 +1,19 @@
+-- Indexes for the repository queries; QueryPlanTest checks that each query uses one.
+
+-- Sign-in and profile lookups by email; also stops two accounts sharing an email, which
+-- registration only checked with a read. Fails if duplicates already exist: merge or
+-- rename them first.
+alter table users add constraint uk_users_email unique (email);
+
+-- findByRole and the directory/admin projections, which filter on role and order by id
+create index idx_users_role on users (role, id);
+
+-- Client history, in the order of its keyset cursor. The lawyer side is served by
+-- uk_appointment_lawyer_slot (lawyer_id, date, start_time, ...).
+create index idx_appointment_client on appointment (client_id, date, start_time, id);
+
+-- A lawyer's reviews, and the rating rebuild that streams them ordered by lawyer without
+-- reading the table
+create index idx_review_lawyer on review (lawyer_id, rating, created_at);
+
+create index idx_review_client on review (client_id);
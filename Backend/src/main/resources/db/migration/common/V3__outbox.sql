@@ -0,0 +1,39 @@
+-- Transactional outbox (see Outbox and OutboxDispatcher). Events are inserted in the
+-- transaction of the write they describe and deleted once every handler has run.
+
+create table outbox_event (
+    id bigint not null auto_increment,
+    event_type varchar(100) not null,
+    aggregate_id bigint,
+    payload varchar(4000) not null,
+    created_at datetime(6) not null,
+    available_at datetime(6) not null,
+    attempts integer not null default 0,
+    last_error varchar(1000),
+    primary key (id)
+);
+
+-- The dispatcher's poll: due events, oldest first
+create index idx_outbox_event_available on outbox_event (available_at, id);
+
+-- One row per handler that has applied an event, written in the handler's transaction,
+-- so a redelivered event skips the handlers that already ran
+create table outbox_handled (
+    event_id bigint not null,
+    handler varchar(100) not null,
+    handled_at datetime(6) not null,
+    primary key (event_id, handler)
+);
+
+-- Events that still failed after the last attempt, kept for inspection and replay
+create table outbox_dead_letter (
+    id bigint not null,
+    event_type varchar(100) not null,
+    aggregate_id bigint,
+    payload varchar(4000) not null,
+    created_at datetime(6) not null,
+    attempts integer not null,
+    last_error varchar(1000),
+    failed_at datetime(6) not null,
+    primary key (id)
+);
@@ -0,0 +1,31 @@
+-- Cold storage for appointment history (see AppointmentArchiver). Completed and cancelled
+-- appointments older than app.archive.horizon move here in batches, so the appointment
+-- table only grows with live and recent bookings. Rows keep their ids.
+
+create table appointment_archive (
+    id bigint not null,
+    client_id bigint,
+    lawyer_id bigint,
+    type varchar(255),
+    status varchar(255),
+    date date,
+    start_time time(6),
+    end_time time(6),
+    fee integer not null,
+    cancel_reason varchar(255),
+    version bigint not null,
+    updated_at datetime(6),
+    archived_at datetime(6) not null,
+    primary key (id)
+);
+
+-- History pages, in the order of their keyset cursor, as on the appointment table
+create index idx_appointment_archive_lawyer on appointment_archive (lawyer_id, date, start_time, id);
+
+create index idx_appointment_archive_client on appointment_archive (client_id, date, start_time, id);
+
+-- The newest archived day, which bounds the date ranges that have to look here
+create index idx_appointment_archive_date on appointment_archive (date);
+
+-- The archiver's scan for old, finished appointments; also the dashboard's per-day counts
+create index idx_appointment_date on appointment (date, status);
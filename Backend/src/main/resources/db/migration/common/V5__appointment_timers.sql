@@ -0,0 +1,27 @@
+-- Appointment reminders and pending expiry (see AppointmentTimers).
+
+-- idx_appointment_date gains start_time in V5_1 (per vendor) for the timers' window loads
+
+-- One row per timer that has fired, written in the transaction of its effect, so a timer
+-- fires at most once however often it is loaded and whichever node holds the lease
+create table appointment_timer_fired (
+    appointment_id bigint not null,
+    timer varchar(50) not null,
+    due_at datetime(6) not null,
+    fired_at datetime(6) not null,
+    primary key (appointment_id, timer)
+);
+
+-- Purge of records too old to be loaded again
+create index idx_appointment_timer_fired_due on appointment_timer_fired (due_at);
+
+-- Leases for work that one node at a time should do. watermark is how far its holder got.
+create table scheduler_lease (
+    name varchar(100) not null,
+    owner varchar(100),
+    expires_at datetime(6) not null,
+    watermark datetime(6),
+    primary key (name)
+);
+
+insert into scheduler_lease (name, expires_at) values ('appointment-timers', '1970-01-01 00:00:00');
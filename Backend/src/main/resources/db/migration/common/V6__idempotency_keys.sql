@@ -0,0 +1,19 @@
+-- Idempotency-Key support for booking, review and cancellation requests (see
+-- IdempotencyStore). A row is inserted when the first request with a key starts, as its
+-- claim, and gets the response once that request has finished. Later requests with the
+-- key are answered from it until expires_at.
+
+create table idempotency_key (
+    scope varchar(50) not null,
+    idem_key varchar(255) not null,
+    fingerprint char(64) not null,
+    claimed_at datetime(6) not null,
+    status integer,
+    content_type varchar(255),
+    body mediumtext,
+    expires_at datetime(6) not null,
+    primary key (scope, idem_key)
+);
+
+-- The purge of expired keys
+create index idx_idempotency_key_expires on idempotency_key (expires_at);
@@ -0,0 +1,7 @@
+-- Sequences for the pooled id generators; they must step by the entities' allocationSize
+create sequence appointment_seq start with 1 increment by 50;
+
+create sequence appointment_note_seq start with 1 increment by 50;
+
+-- Hibernate maps enums to a checked varchar on H2 rather than a native enum
+alter table working_hours alter column day_of_week varchar(255);
@@ -0,0 +1,3 @@
+-- Notes stay in appointment_note when their appointment is archived, so the foreign key
+-- to the appointment table goes; addNoteToAppointment checks the appointment exists.
+alter table appointment_note drop constraint FKgq3sxv8d7dn3tsvhpn2rx00kh;
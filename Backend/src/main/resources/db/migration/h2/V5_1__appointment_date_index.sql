@@ -0,0 +1,5 @@
+-- The timers load appointments starting in the next few minutes: a date range, then
+-- status and start time, all read from the index
+drop index idx_appointment_date;
+
+create index idx_appointment_date on appointment (date, status, start_time);
@@ -0,0 +1,12 @@
+-- MySQL has no sequences; Hibernate keeps the pooled id counters in one-row tables
+create table appointment_seq (
+    next_val bigint
+);
+
+insert into appointment_seq values (1);
+
+create table appointment_note_seq (
+    next_val bigint
+);
+
+insert into appointment_note_seq values (1);
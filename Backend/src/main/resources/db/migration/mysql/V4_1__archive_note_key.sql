@@ -0,0 +1,4 @@
+-- Notes stay in appointment_note when their appointment is archived, so the foreign key
+-- to the appointment table goes; addNoteToAppointment checks the appointment exists.
+-- idx_appointment_note_appointment, which backed it, stays for the note pages.
+alter table appointment_note drop foreign key FKgq3sxv8d7dn3tsvhpn2rx00kh;
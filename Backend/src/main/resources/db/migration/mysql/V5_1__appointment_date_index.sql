@@ -0,0 +1,5 @@
+-- The timers load appointments starting in the next few minutes: a date range, then
+-- status and start time, all read from the index
+alter table appointment
+    drop index idx_appointment_date,
+    add index idx_appointment_date (date, status, start_time);
@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+  @Test
+  void admitsUpToTheLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(3, 1, 10, 1.5);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(limit.tryAcquire());
+    }
+    assertFalse(limit.tryAcquire());
+
+    limit.release(FAST);
+    assertTrue(limit.tryAcquire());
+  }
+
+  @Test
+  void limitShrinksWhenRequestsSlowDownAndStopsAtTheMinimum() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, 1.5);
+    fill(limit);
+    run(limit, FAST, 20);
+    int usual = limit.limit();
+    assertTrue(usual >= 20, "limit " + usual);
+
+    run(limit, SLOW, 10);
+    assertTrue(limit.limit() < usual, "limit " + limit.limit());
+
+    run(limit, SLOW, 200);
+    assertEquals(4, limit.limit());
+  }
+
+  @Test
+  void samplesFromAMostlyIdleRouteLeaveTheLimitAlone() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, 1.5);
+    for (int i = 0; i < 50; i++) {
+      assertTrue(limit.tryAcquire());
+      limit.release(i < 10 ? FAST : SLOW);
+    }
+    assertEquals(20, limit.limit());
+  }
+
+  // Keeps every slot busy, finishing one request of the given latency at a time
+  private static void run(AdaptiveConcurrencyLimit limit, long nanos, int requests) {
+    for (int i = 0; i < requests; i++) {
+      limit.release(nanos);
+      fill(limit);
+    }
+  }
+
+  private static void fill(AdaptiveConcurrencyLimit limit) {
+    while (limit.tryAcquire()) {
+      // take every free slot
+    }
+  }
+}
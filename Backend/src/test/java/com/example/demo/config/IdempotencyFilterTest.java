@@ -0,0 +1,127 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Own database: the review written here would shift the rating prior other tests rank by
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class IdempotencyFilterTest {
+
+  private static final long LAWYER_ID = 99_001L;
+  private static final long CLIENT_ID = 99_002L;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void createLawyer() {
+    jdbc.update("insert into users (id, name, role, is_verified, version) select ?, 'Lawyer', 'lawyer', false, 0"
+        + " where not exists (select 1 from users where id = ?)", LAWYER_ID, LAWYER_ID);
+  }
+
+  @Test
+  void retriedBookingIsBookedOnceAndAnsweredTheSame() throws Exception {
+    String booking = booking("2031-03-03", "09:00");
+    MockHttpServletResponse first = send(post("/api/appointments/book"), "book-1", booking);
+    MockHttpServletResponse retry = send(post("/api/appointments/book"), "book-1", booking);
+
+    assertEquals(200, first.getStatus());
+    assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(200, retry.getStatus());
+    assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(first.getContentAsString(), retry.getContentAsString());
+    assertEquals(1, appointmentsOn("2031-03-03"));
+
+    // The same key for another request, and no key at all
+    assertEquals(422, send(post("/api/appointments/book"), "book-1", booking("2031-03-03", "10:00")).getStatus());
+    assertEquals(409, send(post("/api/appointments/book"), null, booking).getStatus());
+  }
+
+  @Test
+  void concurrentDuplicatesWaitForTheFirstResponse() throws Exception {
+    String booking = booking("2031-03-04", "09:00");
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+    try {
+      Callable<MockHttpServletResponse> book = () -> send(post("/api/appointments/book"), "book-2", booking);
+      for (int i = 0; i < 8; i++) {
+        responses.add(pool.submit(book));
+      }
+      String body = null;
+      int replays = 0;
+      for (Future<MockHttpServletResponse> response : responses) {
+        MockHttpServletResponse done = response.get();
+        assertEquals(200, done.getStatus());
+        if (body == null) body = done.getContentAsString();
+        assertEquals(body, done.getContentAsString());
+        if (done.getHeader(IdempotencyFilter.REPLAYED_HEADER) != null) replays++;
+      }
+      assertEquals(7, replays);
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(1, appointmentsOn("2031-03-04"));
+  }
+
+  @Test
+  void retriedReviewAndCancellationApplyOnce() throws Exception {
+    String review = "{\"lawyerId\":" + LAWYER_ID + ",\"clientId\":" + CLIENT_ID + ",\"rating\":5,\"comment\":\"Clear advice\"}";
+    assertEquals(200, send(post("/api/reviews/add"), "review-1", review).getStatus());
+    assertEquals(200, send(post("/api/reviews/add"), "review-1", review).getStatus());
+    assertEquals(1, jdbc.queryForObject("select count(*) from review where lawyer_id = ? and client_id = ?",
+        Integer.class, LAWYER_ID, CLIENT_ID));
+
+    send(post("/api/appointments/book"), "book-3", booking("2031-03-05", "09:00"));
+    Long id = jdbc.queryForObject("select id from appointment where lawyer_id = ? and date = '2031-03-05'",
+        Long.class, LAWYER_ID);
+    String cancel = "{\"reason\":\"Travelling\"}";
+    assertEquals(200, send(put("/api/appointments/" + id + "/cancel"), "cancel-1", cancel).getStatus());
+    assertEquals(200, send(put("/api/appointments/" + id + "/cancel"), "cancel-1", cancel).getStatus());
+    assertEquals(1, jdbc.queryForObject("select count(*) from appointment_note where appointment_id = ?",
+        Integer.class, id));
+  }
+
+  private MockHttpServletResponse send(MockHttpServletRequestBuilder request, String key, String body)
+      throws Exception {
+    request.contentType(MediaType.APPLICATION_JSON).content(body);
+    if (key != null) {
+      request.header(IdempotencyFilter.KEY_HEADER, key);
+    }
+    return mvc.perform(request).andReturn().getResponse();
+  }
+
+  private static String booking(String date, String start) {
+    return """
+        {"lawyerId": %d, "clientId": %d, "type": "video", "date": "%s",
+         "startTime": "%s", "endTime": "%s", "fee": 1500}
+        """.formatted(LAWYER_ID, CLIENT_ID, date, start, start.replace(":00", ":30"));
+  }
+
+  private int appointmentsOn(String date) {
+    return jdbc.queryForObject("select count(*) from appointment where lawyer_id = ? and date = ?",
+        Integer.class, LAWYER_ID, date);
+  }
+}
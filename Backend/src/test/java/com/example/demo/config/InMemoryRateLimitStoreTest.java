@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRateLimitStoreTest {
+
+  private static final Duration PERIOD = Duration.ofMillis(300);
+
+  private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(1000, Duration.ofMinutes(1));
+
+  @Test
+  void bucketRefusesOnceItsCapacityIsTakenAndRefillsOverThePeriod() throws InterruptedException {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, store.tryAcquire("a", 3, PERIOD));
+    }
+    long waitMs = store.tryAcquire("a", 3, PERIOD);
+    assertTrue(waitMs > 0 && waitMs <= PERIOD.toMillis() / 3, "wait " + waitMs);
+    // Other keys have buckets of their own
+    assertEquals(0, store.tryAcquire("b", 3, PERIOD));
+
+    // One token comes back per period / capacity, not the whole bucket at once
+    Thread.sleep(waitMs + 20);
+    assertEquals(0, store.tryAcquire("a", 3, PERIOD));
+    assertTrue(store.tryAcquire("a", 3, PERIOD) > 0);
+
+    Thread.sleep(PERIOD.toMillis() + 20);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, store.tryAcquire("a", 3, PERIOD));
+    }
+    assertTrue(store.tryAcquire("a", 3, PERIOD) > 0);
+  }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.config;
+
+import com.example.demo.config.RateLimitProperties.Concurrency;
+import com.example.demo.config.RateLimitProperties.Limit;
+import com.example.demo.config.RateLimitProperties.Route;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+  private static final Duration HOUR = Duration.ofHours(1);
+  private static final FilterChain OK = (request, response) -> { };
+
+  private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(1000, HOUR);
+
+  @Test
+  void accountOverItsLimitGetsTooManyRequests() throws Exception {
+    RateLimitFilter filter = filter(new Route(new Limit(10, HOUR), new Limit(2, HOUR)), 20);
+
+    assertEquals(200, send(filter, "/api/auth/login", "10.0.0.1", "{\"email\":\"a@x.com\"}").getStatus());
+    assertEquals(200, send(filter, "/api/auth/login", "10.0.0.2", "{\"email\":\" A@X.com\"}").getStatus());
+    MockHttpServletResponse refused = send(filter, "/api/auth/login", "10.0.0.3", "{\"email\":\"a@x.com\"}");
+
+    assertEquals(429, refused.getStatus());
+    assertTrue(Long.parseLong(refused.getHeader("Retry-After")) > 0);
+    assertEquals("*", refused.getHeader("Access-Control-Allow-Origin"));
+    assertEquals(200, send(filter, "/api/auth/login", "10.0.0.3", "{\"email\":\"b@x.com\"}").getStatus());
+  }
+
+  @Test
+  void addressOverItsLimitDoesNotSpendTheAccountsTokens() throws Exception {
+    RateLimitFilter filter = filter(new Route(new Limit(1, HOUR), new Limit(1, HOUR)), 20);
+
+    assertEquals(200, send(filter, "/api/auth/login", "10.0.0.1", "{\"email\":\"a@x.com\"}").getStatus());
+    assertEquals(429, send(filter, "/api/auth/login", "10.0.0.1", "{\"email\":\"b@x.com\"}").getStatus());
+
+    assertEquals(200, send(filter, "/api/auth/login", "10.0.0.2", "{\"email\":\"b@x.com\"}").getStatus());
+  }
+
+  @Test
+  void bulkBookingIsChargedToEveryClientInIt() throws Exception {
+    RateLimitFilter filter = filter(new Route(null, new Limit(1, HOUR)), 20);
+
+    assertEquals(200, send(filter, "/api/appointments/bulk", "10.0.0.1",
+        "[{\"clientId\":1},{\"clientId\":2},{\"clientId\":1}]").getStatus());
+
+    assertEquals(429, send(filter, "/api/appointments/book", "10.0.0.1", "{\"clientId\":2}").getStatus());
+    assertEquals(429, send(filter, "/api/appointments/bulk", "10.0.0.1",
+        "[{\"clientId\":3},{\"clientId\":1}]").getStatus());
+  }
+
+  @Test
+  void oversizedBodyIsRefusedWithoutBeingBuffered() throws Exception {
+    RateLimitFilter filter = filter(new Route(null, new Limit(10, HOUR)), 20);
+    String body = "{\"clientId\":1,\"notes\":\"" + "x".repeat(BufferedRequest.MAX_BODY_BYTES) + "\"}";
+
+    assertEquals(413, send(filter, "/api/appointments/book", "10.0.0.1", body).getStatus());
+  }
+
+  @Test
+  void requestsOverTheConcurrencyLimitAreShed() throws Exception {
+    RateLimitFilter filter = filter(new Route(null, null), 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    FilterChain slow = (request, response) -> {
+      started.countDown();
+      try {
+        finish.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    CompletableFuture<MockHttpServletResponse> running = CompletableFuture.supplyAsync(() -> {
+      try {
+        return send(filter, slow, "/api/appointments/book", "10.0.0.1", "{\"clientId\":1}");
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    assertTrue(started.await(10, TimeUnit.SECONDS));
+    MockHttpServletResponse shed = send(filter, "/api/appointments/book", "10.0.0.2", "{\"clientId\":2}");
+    finish.countDown();
+
+    assertEquals(503, shed.getStatus());
+    assertEquals("1", shed.getHeader("Retry-After"));
+    assertEquals(200, running.get(10, TimeUnit.SECONDS).getStatus());
+    assertEquals(200, send(filter, "/api/appointments/book", "10.0.0.2", "{\"clientId\":2}").getStatus());
+  }
+
+  private RateLimitFilter filter(Route route, int concurrency) {
+    RateLimitProperties properties = new RateLimitProperties(
+        Map.of("login", route, "booking", route), new Concurrency(concurrency, concurrency, concurrency, 1.5));
+    return new RateLimitFilter(store, properties, new ObjectMapper(), new SimpleMeterRegistry());
+  }
+
+  private static MockHttpServletResponse send(RateLimitFilter filter, String path, String address, String body)
+      throws Exception {
+    return send(filter, OK, path, address, body);
+  }
+
+  private static MockHttpServletResponse send(RateLimitFilter filter, FilterChain chain, String path, String address,
+                                              String body) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+    request.setRemoteAddr(address);
+    request.setContentType("application/json");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+}
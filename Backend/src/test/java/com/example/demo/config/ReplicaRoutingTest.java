@@ -0,0 +1,262 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.AvailabilityQuery;
+import com.example.demo.model.FreeInterval;
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.User;
+import com.example.demo.model.UserSummary;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.AvailabilityService;
+import com.example.demo.service.UserReadModels;
+import com.example.demo.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Two embedded databases stand in for the primary and a replica. The replica gets the
+ * same migrations but its own rows, so every read shows which database answered it.
+ */
+// Own primary database: the bookings made here would count towards other tests' rankings
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "app.datasource.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL + ";IFEXISTS=TRUE",
+    "app.datasource.replicas[0].username=sa",
+    "app.datasource.replicas[0].password="})
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingTest {
+
+  static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+  private static final long LAWYER_ID = 88_001L;
+  private static final long CLIENT_ID = 88_002L;
+  private static final long OTHER_CLIENT_ID = 88_003L;
+  private static final long SHARED_USER_ID = 88_004L;
+
+  private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private UserReadModels readModels;
+
+  @Autowired
+  private UserRepository users;
+
+  @Autowired
+  private AppointmentRepository appointments;
+
+  @Autowired
+  private AvailabilityService availabilityService;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ReplicaRoutingConfig routing;
+
+  @Autowired
+  private JdbcTemplate primary;
+
+  @BeforeAll
+  static void createReplica() {
+    Flyway.configure()
+        .dataSource(REPLICA_URL, "sa", "")
+        .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+        .load()
+        .migrate();
+    replica.update("insert into users (name, email, role, is_verified, version)"
+        + " values ('Replica Only', 'replica-only@routing.test', 'lawyer', false, 0)");
+  }
+
+  @Test
+  @Order(1)
+  void readOnlyTransactionsReadTheReplicaAndWritesGoToThePrimary() {
+    requestFor(OTHER_CLIENT_ID);
+    users.save(lawyer("Primary Only", "primary-only@routing.test"));
+
+    List<String> names = lawyerNames();
+    assertTrue(names.contains("Replica Only"));
+    assertFalse(names.contains("Primary Only"));
+  }
+
+  @Test
+  @Order(2)
+  void accountThatBookedReadsFromThePrimary() throws Exception {
+    primary.update("insert into users (id, name, role, is_verified, version) values (?, 'Lawyer', 'lawyer', false, 0)",
+        LAWYER_ID);
+    MockHttpServletResponse booked = mvc.perform(post("/api/appointments/book")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"lawyerId\":" + LAWYER_ID + ",\"clientId\":" + CLIENT_ID + ",\"type\":\"video\",\"date\":\""
+            + LocalDate.now().plusDays(3) + "\",\"startTime\":\"09:00\",\"endTime\":\"09:30\",\"fee\":1500}"))
+        .andReturn().getResponse();
+    assertEquals(200, booked.getStatus(), booked.getContentAsString());
+
+    // The replica has no appointments at all, so a list that has the booking came from the primary
+    assertTrue(mvc.perform(get("/api/appointments/client/" + CLIENT_ID)).andReturn().getResponse()
+        .getContentAsString().contains("\"clientId\":" + CLIENT_ID));
+    assertTrue(mvc.perform(get("/api/appointments/lawyer/" + LAWYER_ID)).andReturn().getResponse()
+        .getContentAsString().contains("\"clientId\":" + CLIENT_ID));
+
+    requestFor(CLIENT_ID);
+    assertFalse(lawyerNames().contains("Replica Only"));
+    requestFor(OTHER_CLIENT_ID);
+    assertTrue(lawyerNames().contains("Replica Only"));
+  }
+
+  @Test
+  @Order(3)
+  void writeAfterAReadInTheSameRequestGoesToThePrimary() throws Exception {
+    String insert = "insert into users (id, name, email, role, is_verified, version)"
+        + " values (?, 'Original', 'shared@routing.test', 'client', false, 0)";
+    primary.update(insert, SHARED_USER_ID);
+    replica.update(insert, SHARED_USER_ID);
+
+    assertEquals(200, mvc.perform(put("/test/users/" + SHARED_USER_ID + "/name").param("name", "Renamed"))
+        .andReturn().getResponse().getStatus());
+
+    assertEquals("Renamed", primary.queryForObject("select name from users where id = ?", String.class,
+        SHARED_USER_ID));
+    assertEquals("Original", replica.queryForObject("select name from users where id = ?", String.class,
+        SHARED_USER_ID));
+  }
+
+  @Test
+  @Order(4)
+  void availabilityIsLoadedFromThePrimary() {
+    LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+    appointments.save(Appointment.builder()
+        .lawyerId(LAWYER_ID)
+        .clientId(OTHER_CLIENT_ID)
+        .type("video")
+        .status("pending")
+        .date(monday)
+        .startTime(LocalTime.of(9, 0))
+        .endTime(LocalTime.of(10, 0))
+        .fee(1500)
+        .activeSlot(Boolean.TRUE)
+        .build());
+
+    RequestContextHolder.resetRequestAttributes();
+    AvailabilityQuery query = new AvailabilityQuery();
+    query.setFrom(monday);
+    query.setTo(monday);
+    List<FreeInterval> free = availabilityService.getAvailability(LAWYER_ID, query).getDays().get(0).getFree();
+    assertEquals(LocalTime.of(10, 0), free.get(0).getStart());
+  }
+
+  @Test
+  @Order(5)
+  void loginAndCacheFillsReadThePrimary() {
+    requestFor(OTHER_CLIENT_ID);
+    User registered = userService.registerUser(client("Just Registered", "just-registered@routing.test"));
+
+    assertTrue(userService.login("just-registered@routing.test", "secret-password").isPresent());
+    assertEquals("Just Registered", userService.getUserByEmail("just-registered@routing.test").getName());
+    assertEquals("Just Registered", userService.getUserById(registered.getId()).getName());
+    List<String> directory = userService.getLawyerCards().stream().map(LawyerCard::getName).toList();
+    assertTrue(directory.contains("Primary Only"));
+    assertFalse(directory.contains("Replica Only"));
+  }
+
+  @Test
+  @Order(6)
+  void unhealthyReplicaIsLeftOut() {
+    replica.execute("shutdown");
+    routing.checkReplicas();
+
+    List<String> names = lawyerNames();
+    assertFalse(names.contains("Replica Only"));
+    assertTrue(names.contains("Primary Only"));
+  }
+
+  private List<String> lawyerNames() {
+    return readModels.summaries("lawyer", false).stream().map(UserSummary::getName).toList();
+  }
+
+  // Replaces the mock request the test framework binds for each test with one about the account
+  private static void requestFor(long clientId) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setParameter("clientId", Long.toString(clientId));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  private static User client(String name, String email) {
+    User user = new User();
+    user.setName(name);
+    user.setEmail(email);
+    user.setPassword("secret-password");
+    user.setRole("client");
+    return user;
+  }
+
+  private static User lawyer(String name, String email) {
+    User user = new User();
+    user.setName(name);
+    user.setEmail(email);
+    user.setRole("lawyer");
+    return user;
+  }
+
+  @TestConfiguration
+  static class ReadThenWrite {
+
+    @Bean
+    RenameController renameController(UserRepository users) {
+      return new RenameController(users);
+    }
+  }
+
+  // Reads in a read-only transaction, then writes, in one request and so, with
+  // open-session-in-view, in one session
+  @RestController
+  static class RenameController {
+    private final UserRepository users;
+
+    RenameController(UserRepository users) {
+      this.users = users;
+    }
+
+    @PutMapping("/test/users/{id}/name")
+    void rename(@PathVariable Long id, @RequestParam String name) {
+      User user = users.findById(id).orElseThrow();
+      user.setName(name);
+      users.save(user);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.AppointmentRequestDTO;
+import com.example.demo.service.AppointmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Own database: the booking made here would count towards other tests' rankings
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+  private static final long LAWYER_ID = 55_001L;
+  private static final long CLIENT_ID = 55_002L;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private AppointmentService appointmentService;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Test
+  void unchangedListIsAnsweredWithNotModified() throws Exception {
+    MockHttpServletResponse first = mvc.perform(get("/api/lawyers")).andReturn().getResponse();
+    String etag = first.getHeader(HttpHeaders.ETAG);
+    assertEquals(200, first.getStatus());
+    assertNotNull(etag);
+    assertEquals("no-cache", first.getHeader(HttpHeaders.CACHE_CONTROL));
+    assertNotNull(first.getHeader(ConditionalGet.NEXT_SINCE_HEADER));
+
+    MockHttpServletResponse again = mvc.perform(get("/api/lawyers").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andReturn().getResponse();
+    assertEquals(304, again.getStatus());
+    assertEquals("", again.getContentAsString());
+  }
+
+  @Test
+  void bookingChangesTheEtagOfBothParticipantsLists() throws Exception {
+    String path = "/api/appointments/client/" + CLIENT_ID;
+    MockHttpServletResponse before = mvc.perform(get(path)).andReturn().getResponse();
+    String etag = before.getHeader(HttpHeaders.ETAG);
+    String lawyerEtag = mvc.perform(get("/api/appointments/lawyer/" + LAWYER_ID)).andReturn().getResponse()
+        .getHeader(HttpHeaders.ETAG);
+    assertEquals("[]", before.getContentAsString());
+    assertEquals(304, mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse()
+        .getStatus());
+
+    jdbc.update("insert into users (id, name, role, is_verified, version) values (?, 'Lawyer', 'lawyer', false, 0)",
+        LAWYER_ID);
+    appointmentService.bookAppointment(booking());
+
+    MockHttpServletResponse after = mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag)
+        .param("since", before.getHeader(ConditionalGet.NEXT_SINCE_HEADER))).andReturn().getResponse();
+    assertEquals(200, after.getStatus());
+    assertNotEquals(etag, after.getHeader(HttpHeaders.ETAG));
+    assertTrue(after.getContentAsString().contains("\"clientId\":" + CLIENT_ID));
+    assertEquals(200, mvc.perform(get("/api/appointments/lawyer/" + LAWYER_ID)
+        .header(HttpHeaders.IF_NONE_MATCH, lawyerEtag)).andReturn().getResponse().getStatus());
+  }
+
+  private static AppointmentRequestDTO booking() {
+    AppointmentRequestDTO request = new AppointmentRequestDTO();
+    request.setLawyerId(LAWYER_ID);
+    request.setClientId(CLIENT_ID);
+    request.setType("video");
+    request.setDate(LocalDate.now().plusDays(3));
+    request.setStartTime(LocalTime.of(9, 0));
+    request.setEndTime(LocalTime.of(9, 30));
+    request.setFee(1500);
+    return request;
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UserEventHub;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EventControllerTest {
+
+  private static final long USER_ID = 44_001L;
+  private static final long OTHER_USER_ID = 44_002L;
+  private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)\\nevent:appointment\\ndata:\\{\"n\":1}");
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private UserEventHub hub;
+
+  @Test
+  void reconnectIsReplayedOnlyTheEventsItMissed() throws Exception {
+    MvcResult live = mvc.perform(get("/api/events/" + USER_ID)).andReturn();
+    assertTrue(live.getRequest().isAsyncStarted());
+
+    hub.publish("appointment", Map.of("n", 1), USER_ID);
+    hub.publish("appointment", Map.of("n", 2), USER_ID);
+    hub.publish("appointment", Map.of("n", 3), OTHER_USER_ID);
+    String received = await(live.getResponse(), content -> content.contains("{\"n\":2}"));
+    assertFalse(received.contains("{\"n\":3}"));
+    Matcher first = EVENT_ID.matcher(received);
+    assertTrue(first.find(), received);
+
+    MvcResult resumed = mvc.perform(get("/api/events/" + USER_ID).header("Last-Event-ID", first.group(1)))
+        .andReturn();
+    String replayed = await(resumed.getResponse(), content -> content.contains("{\"n\":2}"));
+    assertFalse(replayed.contains("{\"n\":1}"));
+    assertFalse(replayed.contains("{\"n\":3}"));
+    assertFalse(replayed.contains(UserEventHub.RESYNC));
+  }
+
+  @Test
+  void reconnectFromBeforeTheRingIsToldToResync() throws Exception {
+    hub.publish("appointment", Map.of("n", 4), USER_ID);
+
+    // An id from an earlier run: ids start from the clock, so it falls below the ring
+    MvcResult resumed = mvc.perform(get("/api/events/" + USER_ID).param("lastEventId", "1")).andReturn();
+    String replayed = await(resumed.getResponse(), content -> content.contains("event:" + UserEventHub.RESYNC));
+    assertFalse(replayed.contains("{\"n\":4}"));
+  }
+
+  private static String await(MockHttpServletResponse response, Predicate<String> condition) throws Exception {
+    long deadline = System.currentTimeMillis() + 10_000;
+    String content = response.getContentAsString();
+    while (!condition.test(content)) {
+      assertTrue(System.currentTimeMillis() < deadline, "events did not arrive in time: " + content);
+      Thread.sleep(20);
+      content = response.getContentAsString();
+    }
+    return content;
+  }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.repository;
+
+import com.example.demo.service.AppointmentArchiver;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the repository queries are answered from the indexes created by the
+ * migrations (db/migration), so that a changed query or a dropped index cannot quietly
+ * turn a lookup into a full table scan.
+ * <p>
+ * Each test runs a repository method while the statements it sends are recorded, then
+ * asks H2 to {@code EXPLAIN} them. Parameters are written into the SQL as literals first,
+ * as MySQL Connector/J does with client-side prepared statements; that lets the optional
+ * filters ({@code :x is null or ...}) fold away the way they do on MySQL.
+ */
+@SpringBootTest
+@Transactional
+class QueryPlanTest {
+
+  private static final LocalDate DAY = LocalDate.of(2030, 1, 15);
+
+  @Autowired
+  private UserRepository users;
+
+  @Autowired
+  private AppointmentRepository appointments;
+
+  @Autowired
+  private ReviewRepository reviews;
+
+  @Autowired
+  private AppointmentNoteRepository notes;
+
+  @Autowired
+  private AppointmentArchiveRepository archive;
+
+  @Autowired
+  private AppointmentArchiver archiver;
+
+  @Autowired
+  private WorkingHoursRepository workingHours;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Test
+  void userLookupsUseEmailAndRoleIndexes() {
+    assertIndexed(plans(() -> users.findByEmail("someone@example.com")), "uk_users_email");
+    assertIndexed(plans(() -> users.findByRole("lawyer")), "idx_users_role");
+    assertIndexed(plans(() -> users.findSummaryRows("lawyer", null)), "idx_users_role");
+    assertIndexed(plans(() -> users.findSummaryRows("lawyer", LocalDateTime.now())), "idx_users_role");
+  }
+
+  @Test
+  void userCollectionsJoinOnIndexes() {
+    assertIndexed(plans(() -> users.findSpecializationRows("lawyer", null)), "idx_users_role");
+    assertIndexed(plans(() -> users.findLanguageRows("lawyer", null)), "idx_users_role");
+    assertIndexed(plans(() -> users.findEducationRows("lawyer", LocalDateTime.now())), "idx_users_role");
+  }
+
+  @Test
+  void lawyerAppointmentsUseSlotIndex() {
+    assertIndexed(plans(() -> appointments.findByLawyerId(1L)), "uk_appointment_lawyer_slot");
+    assertIndexed(plans(() -> appointments.findLiveSlotsOn(List.of(1L), List.of(DAY))),
+        "uk_appointment_lawyer_slot");
+    assertIndexed(plans(() -> appointments.findLiveSlots(List.of(1L, 2L), DAY, DAY.plusDays(6))),
+        "uk_appointment_lawyer_slot");
+    assertIndexed(plans(() -> appointments.countByLawyerIdAndStatus(1L, "completed")),
+        "uk_appointment_lawyer_slot");
+    assertIndexed(plans(() -> appointments.findLawyerHistory(1L, DAY, null, null, null,
+        null, null, null, Pageable.ofSize(20))), "uk_appointment_lawyer_slot");
+    assertIndexed(plans(() -> appointments.findLawyerHistory(1L, null, null, "pending", null,
+        DAY, LocalTime.NOON, 10L, Pageable.ofSize(20))),
+        "uk_appointment_lawyer_slot");
+    assertIndexed(plans(() -> appointments.findLawyerHistoryNewestFirst(1L, null, DAY, null, null,
+        DAY, LocalTime.NOON, 10L, Pageable.ofSize(20))), "uk_appointment_lawyer_slot");
+  }
+
+  @Test
+  void clientAppointmentsUseClientIndex() {
+    assertIndexed(plans(() -> appointments.findByClientId(1L)), "idx_appointment_client");
+    assertIndexed(plans(() -> appointments.findClientHistory(1L, null, null, null, LocalDateTime.now(),
+        null, null, null, Pageable.ofSize(20))), "idx_appointment_client");
+    assertIndexed(plans(() -> appointments.findClientHistoryNewestFirst(1L, null, DAY, null, null,
+        null, null, null, Pageable.ofSize(20))), "idx_appointment_client");
+    assertIndexed(plans(() -> {
+      try (Stream<?> rows = appointments.streamClientHistory(1L, DAY, DAY.plusDays(30), null, null,
+          null, null, null)) {
+        rows.count();
+      }
+    }), "idx_appointment_client");
+  }
+
+  @Test
+  void archiveReadsAndMovesUseTheirIndexes() {
+    assertIndexed(plans(() -> archive.findLawyerHistory(1L, null, DAY, null, null,
+        null, null, null, Pageable.ofSize(20))), "idx_appointment_archive_lawyer");
+    assertIndexed(plans(() -> archive.findClientHistoryNewestFirst(1L, null, DAY, null, null,
+        DAY, LocalTime.NOON, 10L, Pageable.ofSize(20))), "idx_appointment_archive_client");
+    assertIndexed(plans(() -> {
+      try (Stream<?> rows = archive.streamClientHistory(1L, null, null, "completed", null,
+          DAY, LocalTime.NOON, 10L)) {
+        rows.count();
+      }
+    }), "idx_appointment_archive_client");
+    assertIndexed(plans(() -> archive.countByLawyerIdAndStatus(1L, "completed")), "idx_appointment_archive_lawyer");
+    assertIndexed(plans(() -> appointments.countByDateBetween(DAY, DAY.plusDays(30))), "idx_appointment_date");
+
+    // The archiver's scan for finished appointments, then its refresh of the newest archived day
+    List<String> archiving = plans(archiver::archive);
+    assertIndexed(archiving.subList(0, 1), "idx_appointment_date");
+    assertIndexed(archiving.subList(archiving.size() - 1, archiving.size()), "idx_appointment_archive_date");
+  }
+
+  @Test
+  void reviewsUseLawyerAndClientIndexes() {
+    assertIndexed(plans(() -> reviews.findByLawyerId(1L)), "idx_review_lawyer");
+    assertIndexed(plans(() -> reviews.findByClientId(1L)), "idx_review_client");
+    assertIndexed(plans(() -> {
+      try (Stream<Object[]> rows = reviews.streamRatingsByLawyer()) {
+        rows.count();
+      }
+    }), "idx_review_lawyer");
+  }
+
+  @Test
+  void notesAndWorkingHoursUseTheirIndexes() {
+    assertIndexed(plans(() -> notes.findPage(1L, 500L, Pageable.ofSize(20))),
+        "idx_appointment_note_appointment");
+    assertIndexed(plans(() -> workingHours.findByLawyerIdOrderByDayOfWeekAscStartTimeAsc(1L)),
+        "idx_working_hours_lawyer");
+    assertIndexed(plans(() -> workingHours.findByLawyerIdIn(List.of(1L, 2L))), "idx_working_hours_lawyer");
+  }
+
+  /** Runs the call and returns the H2 plan of every query it sent. */
+  private List<String> plans(Runnable call) {
+    List<String> sql;
+    synchronized (RecordingDataSource.recorded) {
+      RecordingDataSource.recorded.clear();
+      RecordingDataSource.recording = true;
+      try {
+        call.run();
+      } finally {
+        RecordingDataSource.recording = false;
+      }
+      sql = new ArrayList<>(RecordingDataSource.recorded);
+    }
+    List<String> plans = new ArrayList<>();
+    for (String query : sql) {
+      if (query.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+        plans.add(jdbc.queryForObject("explain " + query, String.class));
+      }
+    }
+    assertFalse(plans.isEmpty(), "no query was sent");
+    return plans;
+  }
+
+  private static void assertIndexed(List<String> plans, String index) {
+    String all = String.join("\n", plans).toLowerCase(Locale.ROOT);
+    assertFalse(all.contains("tablescan"), "full table scan in:\n" + all);
+    // H2 names a unique constraint's index <constraint>_index_<n>
+    assertTrue(Pattern.compile("\\." + index + "(_index_\\w+)?[: ]").matcher(all).find(),
+        "index " + index + " not used in:\n" + all);
+  }
+
+  @TestConfiguration
+  static class Recording {
+
+    @Bean
+    static BeanPostProcessor recordingDataSource() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+              ? new RecordingDataSource(dataSource) : bean;
+        }
+      };
+    }
+  }
+
+  /**
+   * Hands out connections whose prepared statements, while {@link #recording} is on, note
+   * their SQL with the bound parameters written in as literals.
+   */
+  static final class RecordingDataSource extends DelegatingDataSource {
+
+    static final List<String> recorded = new ArrayList<>();
+    static volatile boolean recording;
+
+    RecordingDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return recordingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return recordingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection recordingConnection(Connection target) {
+      return proxy(Connection.class, target, (method, args, result) -> {
+        if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+          return recordingStatement(statement, (String) args[0]);
+        }
+        return result;
+      });
+    }
+
+    private static PreparedStatement recordingStatement(PreparedStatement target, String sql) {
+      TreeMap<Integer, Object> parameters = new TreeMap<>();
+      return proxy(PreparedStatement.class, target, (method, args, result) -> {
+        String name = method.getName();
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+          parameters.put(index, name.equals("setNull") ? null : args[1]);
+        } else if (name.startsWith("execute") && recording) {
+          synchronized (recorded) {
+            recorded.add(inline(sql, parameters));
+          }
+        }
+        return result;
+      });
+    }
+
+    private static String inline(String sql, TreeMap<Integer, Object> parameters) {
+      StringBuilder out = new StringBuilder();
+      int index = 0;
+      for (char c : sql.toCharArray()) {
+        out.append(c == '?' ? literal(parameters.get(++index)) : String.valueOf(c));
+      }
+      return out.toString();
+    }
+
+    private static String literal(Object value) {
+      if (value == null) return "null";
+      if (value instanceof Number || value instanceof Boolean) return value.toString();
+      if (value instanceof java.sql.Date || value instanceof LocalDate) return "date '" + value + "'";
+      if (value instanceof java.sql.Time || value instanceof LocalTime) return "time '" + value + "'";
+      if (value instanceof java.util.Date || value instanceof Temporal) {
+        return "timestamp '" + value.toString().replace('T', ' ') + "'";
+      }
+      return "'" + value.toString().replace("'", "''") + "'";
+    }
+
+    interface After {
+      Object apply(Method method, Object[] args, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, After after) {
+      return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+        if (method.getName().startsWith("execute")) after.apply(method, args, null);
+        Object result;
+        try {
+          result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+        return method.getName().startsWith("execute") ? result : after.apply(method, args, result);
+      });
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.AppointmentPage;
+import com.example.demo.model.AppointmentQuery;
+import com.example.demo.repository.AppointmentArchiveRepository;
+import com.example.demo.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AppointmentArchiverTest {
+
+  private static final long LAWYER_ID = 66_001L;
+  private static final long CLIENT_ID = 66_002L;
+
+  @Autowired
+  private AppointmentArchiver archiver;
+
+  @Autowired
+  private AppointmentService appointmentService;
+
+  @Autowired
+  private AppointmentRepository repository;
+
+  @Autowired
+  private AppointmentArchiveRepository archiveRepository;
+
+  @Test
+  void finishedHistoryMovesOutButStillReadsAsOneList() {
+    LocalDate old = LocalDate.now().minusDays(200);
+    Appointment completed = save(old, LocalTime.of(9, 0), "completed");
+    Appointment stalePending = save(old, LocalTime.of(10, 0), "pending");
+    Appointment cancelled = save(old.plusDays(1), LocalTime.of(9, 0), "cancelled");
+    Appointment recent = save(LocalDate.now().minusDays(5), LocalTime.of(9, 0), "completed");
+    Appointment upcoming = save(LocalDate.now().plusDays(5), LocalTime.of(9, 0), "confirmed");
+    appointmentService.addNoteToAppointment(completed.getId(), "Signed copy sent", CLIENT_ID);
+
+    assertTrue(archiver.archive() >= 2);
+
+    assertFalse(repository.existsById(completed.getId()));
+    assertFalse(repository.existsById(cancelled.getId()));
+    assertTrue(archiveRepository.existsById(completed.getId()));
+    assertTrue(repository.existsById(stalePending.getId()));
+    assertTrue(repository.existsById(recent.getId()));
+    assertFalse(archiver.archivedBefore().isAfter(LocalDate.now().minusDays(5)));
+
+    List<Long> all = List.of(completed.getId(), stalePending.getId(), cancelled.getId(), recent.getId(),
+        upcoming.getId());
+    AppointmentQuery query = new AppointmentQuery();
+    assertEquals(all, ids(appointmentService.getAppointmentsForLawyer(LAWYER_ID, query).getItems()));
+    assertEquals(all, ids(appointmentService.getAppointmentsForClient(CLIENT_ID, query).getItems()));
+
+    // Page by page across both tables
+    query.setLimit(2);
+    List<Long> paged = new ArrayList<>();
+    AppointmentPage page;
+    do {
+      page = appointmentService.getAppointmentsForLawyer(LAWYER_ID, query);
+      paged.addAll(ids(page.getItems()));
+      query.setCursor(page.getNextCursor());
+    } while (page.getNextCursor() != null);
+    assertEquals(all, paged);
+
+    // Past appointments newest first, as the history screen pages them
+    AppointmentQuery past = new AppointmentQuery();
+    past.setTo(LocalDate.now().minusDays(1));
+    past.setOrder("desc");
+    past.setLimit(2);
+    List<Long> newestFirst = new ArrayList<>();
+    do {
+      page = appointmentService.getAppointmentsForClient(CLIENT_ID, past);
+      newestFirst.addAll(ids(page.getItems()));
+      past.setCursor(page.getNextCursor());
+    } while (page.getNextCursor() != null);
+    assertEquals(List.of(recent.getId(), cancelled.getId(), stalePending.getId(), completed.getId()), newestFirst);
+
+    List<Appointment> streamed = new ArrayList<>();
+    appointmentService.streamAppointmentsForLawyer(LAWYER_ID, new AppointmentQuery(), streamed::add);
+    assertEquals(all, ids(streamed));
+
+    AppointmentQuery recentOnly = new AppointmentQuery();
+    recentOnly.setFrom(LocalDate.now().minusDays(30));
+    assertFalse(archiver.mayHold(recentOnly.getFrom()));
+    assertEquals(List.of(recent.getId(), upcoming.getId()),
+        ids(appointmentService.getAppointmentsForLawyer(LAWYER_ID, recentOnly).getItems()));
+
+    // Archived appointments keep their notes and can still get new ones
+    appointmentService.addNoteToAppointment(completed.getId(), "Invoice paid", LAWYER_ID);
+    assertEquals(2, appointmentService.getNotes(completed.getId(), null, null).getItems().size());
+  }
+
+  private Appointment save(LocalDate date, LocalTime start, String status) {
+    return repository.save(Appointment.builder()
+        .lawyerId(LAWYER_ID)
+        .clientId(CLIENT_ID)
+        .type("video")
+        .status(status)
+        .date(date)
+        .startTime(start)
+        .endTime(start.plusMinutes(30))
+        .fee(1000)
+        .activeSlot("cancelled".equals(status) ? null : Boolean.TRUE)
+        .build());
+  }
+
+  private static List<Long> ids(List<Appointment> appointments) {
+    return appointments.stream().map(Appointment::getId).toList();
+  }
+}
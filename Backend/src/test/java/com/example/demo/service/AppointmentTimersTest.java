@@ -0,0 +1,202 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.repository.AppointmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database, so that no other test context's timers touch these appointments
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:timers;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "app.timers.enabled=true",
+    "app.timers.reminders=2h",
+    "app.timers.expire-pending=1h",
+    "app.timers.tick-ms=100",
+    "app.timers.load-ms=100",
+    "app.timers.lease-ms=300",
+    "spring.task.scheduling.pool.size=1"})
+class AppointmentTimersTest {
+
+  private static final long LAWYER_ID = 88_001L;
+  private static final long CLIENT_ID = 88_002L;
+
+  @Autowired
+  private AppointmentTimers timers;
+
+  @Autowired
+  private AppointmentRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  void wheelHandsOutItemsOnceTheirTickHasPassed() {
+    // 10 ms ticks, 4 slots, 2 levels: 40 ms at the bottom, 160 ms in all, the rest overflows
+    TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 2, 3);
+    assertEquals(0, wheel.currentTime());
+    assertFalse(wheel.add(-1, -1L));
+    for (long due : List.of(0L, 5L, 37L, 95L, 150L, 500L)) {
+      assertTrue(wheel.add(due, due));
+    }
+    assertEquals(6, wheel.size());
+
+    List<Long> fired = new ArrayList<>();
+    for (long now = 0; now <= 520; now++) {
+      long time = now;
+      wheel.advance(now, due -> {
+        assertTrue(time >= due + 1 && time <= due + 10, due + " handed out at " + time);
+        fired.add(due);
+      });
+    }
+    assertEquals(List.of(0L, 5L, 37L, 95L, 150L, 500L), fired);
+    assertEquals(0, wheel.size());
+    assertEquals(520, wheel.currentTime());
+  }
+
+  @Test
+  void remindsAndExpiresWhenTheirTimeComes() {
+    double reminded = count("reminded");
+    double expired = count("expired");
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    Appointment unconfirmed = save(now.plusHours(1).plusSeconds(2), "pending");
+    Appointment confirmed = save(now.plusHours(2).plusSeconds(2), "confirmed");
+    Appointment later = save(now.plusHours(5), "pending");
+
+    await(() -> "cancelled".equals(status(unconfirmed)) && count("reminded") > reminded);
+    Appointment cancelled = repository.findById(unconfirmed.getId()).orElseThrow();
+    assertEquals(AppointmentTimers.EXPIRED_REASON, cancelled.getCancelReason());
+    assertEquals("confirmed", status(confirmed));
+    assertEquals("pending", status(later));
+
+    // Reloads and further ticks do not fire them again
+    sleep(500);
+    timers.tick();
+    assertEquals(reminded + 1, count("reminded"));
+    assertEquals(expired + 1, count("expired"));
+    assertEquals(2, jdbc.queryForObject("select count(*) from appointment_timer_fired where appointment_id in (?, ?, ?)",
+        Integer.class, unconfirmed.getId(), confirmed.getId(), later.getId()));
+  }
+
+  @Test
+  void nodeTakingOverFiresWhatWasMissedButNothingTwice() {
+    double expired = count("expired");
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    // Another node holds the lease and has fired up to an hour ago
+    jdbc.update("update scheduler_lease set owner = 'other-node', expires_at = ?, watermark = ? where name = ?",
+        now.plusHours(1), now.minusHours(1), AppointmentTimers.LEASE);
+    // This node only finds out at its next renewal; until then it would fire what it loads
+    sleep(500);
+    Appointment missed = save(now.plusMinutes(30), "pending");
+    Appointment firedElsewhere = save(now.plusMinutes(40), "pending");
+    jdbc.update("insert into appointment_timer_fired (appointment_id, timer, due_at, fired_at) values (?, ?, ?, ?)",
+        firedElsewhere.getId(), AppointmentTimers.EXPIRY, now.minusMinutes(20), now);
+
+    sleep(500);
+    assertEquals("pending", status(missed));
+
+    // It stops renewing; this node takes over from its watermark
+    jdbc.update("update scheduler_lease set expires_at = ? where name = ?", now.minusSeconds(1), AppointmentTimers.LEASE);
+    await(() -> "cancelled".equals(status(missed)) && count("expired") > expired);
+    assertEquals("pending", status(firedElsewhere));
+    assertEquals(expired + 1, count("expired"));
+    assertNotEquals("other-node", jdbc.queryForObject("select owner from scheduler_lease where name = ?",
+        String.class, AppointmentTimers.LEASE));
+  }
+
+  @Test
+  void windowLoadsUseTheDateIndex() {
+    LocalDateTime from = LocalDateTime.of(2030, 1, 15, 23, 55);
+    for (String sql : List.of(AppointmentTimers.PENDING, AppointmentTimers.REMINDED)) {
+      String plan = jdbc.queryForObject("explain " + literals(sql, from, from.plusMinutes(10)), String.class)
+          .toLowerCase(Locale.ROOT);
+      assertFalse(plan.contains("tablescan"), plan);
+      assertTrue(plan.contains("idx_appointment_date"), plan);
+    }
+  }
+
+  // The window query with its parameters written in, as the timers bind them
+  private static String literals(String sql, LocalDateTime from, LocalDateTime to) {
+    for (Object value : List.of(from.toLocalDate(), to.toLocalDate(), from.toLocalDate(), from.toLocalTime(),
+        to.toLocalDate(), to.toLocalTime())) {
+      sql = sql.replaceFirst("\\?", "'" + value + "'");
+    }
+    return sql;
+  }
+
+  private Appointment save(LocalDateTime start, String status) {
+    LocalDate date = start.toLocalDate();
+    return repository.save(Appointment.builder()
+        .lawyerId(LAWYER_ID)
+        .clientId(CLIENT_ID)
+        .type("video")
+        .status(status)
+        .date(date)
+        .startTime(start.toLocalTime())
+        .endTime(start.toLocalTime().plusMinutes(30))
+        .fee(1000)
+        .build());
+  }
+
+  private String status(Appointment appointment) {
+    return repository.findById(appointment.getId()).orElseThrow().getStatus();
+  }
+
+  private double count(String outcome) {
+    return meterRegistry.counter("appointment.timers", "outcome", outcome).count();
+  }
+
+  // The timers tick on their own; wait for them
+  private static void await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "timers did not fire in time");
+      sleep(20);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  // Keeps the one shared scheduler thread busy for the whole run, as a long archive run
+  // would; the timers have to tick regardless. Let go on close, which otherwise waits for it
+  @TestConfiguration
+  static class BusyScheduler {
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    @Scheduled(fixedDelay = 1000)
+    void occupy() throws InterruptedException {
+      closed.await();
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    void release() {
+      closed.countDown();
+    }
+  }
+}
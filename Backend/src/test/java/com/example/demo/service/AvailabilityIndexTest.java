@@ -0,0 +1,46 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+
+  private static final LocalDate DAY = LocalDate.of(2031, 5, 5);
+
+  private final AvailabilityIndex index = new AvailabilityIndex(Duration.ofMinutes(1));
+
+  @Test
+  void loadIsCachedWhenNothingChangedTheDay() {
+    long stamp = index.stamp(1L, DAY);
+    long[] loaded = new long[2];
+    index.putIfUnchanged(1L, DAY, loaded, stamp);
+
+    assertSame(loaded, index.get(1L, DAY));
+  }
+
+  @Test
+  void loadThatRacedWithABookingIsNotCached() {
+    long stamp = index.stamp(2L, DAY);
+    // Booked after the load read the database, while the day was not cached yet
+    index.markBooked(2L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0));
+    index.putIfUnchanged(2L, DAY, new long[2], stamp);
+
+    assertNull(index.get(2L, DAY));
+  }
+
+  @Test
+  void bookingsUpdateCachedDays() {
+    index.putIfUnchanged(3L, DAY, new long[2], index.stamp(3L, DAY));
+    index.markBooked(3L, DAY, LocalTime.of(9, 0), LocalTime.of(9, 20));
+
+    long[] booked = index.get(3L, DAY);
+    assertEquals(AvailabilityIndex.slotOf(LocalTime.of(9, 0)), AvailabilityIndex.nextSet(booked, 0));
+    assertEquals(AvailabilityIndex.slotOf(LocalTime.of(9, 30)), AvailabilityIndex.nextClear(booked,
+        AvailabilityIndex.slotOf(LocalTime.of(9, 0))));
+  }
+}
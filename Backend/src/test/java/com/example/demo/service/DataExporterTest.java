@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ExportFilter;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DataExporterTest {
+
+  @Autowired
+  private DataExporter exporter;
+
+  @Autowired
+  private UserRepository users;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Test
+  void csvQuotesFieldsAndJoinsLists() throws IOException {
+    User user = new User();
+    user.setName("Shah, \"Senior\" Advocate");
+    user.setEmail("shah@export.test");
+    user.setRole("export-csv");
+    user.setSpecializations(List.of("Tax Law", "Civil Law"));
+    user.setLanguages(List.of("English"));
+    users.save(user);
+
+    ExportFilter filter = new ExportFilter();
+    filter.setRole("export-csv");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(1, exporter.exportUsers(filter, DataExporter.Format.CSV, out));
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("id,name,email,"));
+    assertTrue(lines[0].endsWith(",specializations,languages,education"));
+    assertTrue(lines[1].startsWith(user.getId() + ",\"Shah, \"\"Senior\"\" Advocate\",shah@export.test,"));
+    assertTrue(lines[1].endsWith(",Tax Law;Civil Law,English,"), lines[1]);
+  }
+
+  @Test
+  void ndjsonAppliesTheFilters() throws IOException {
+    jdbc.update("""
+        insert into review (appointment_id, client_id, lawyer_id, rating, comment, created_at)
+        values (1, 2, 88001, 5, 'Clear advice', '2026-03-01 10:00:00'),
+               (3, 4, 88001, 2, 'Late', '2026-04-01 10:00:00'),
+               (5, 6, 88002, 4, 'Other lawyer', '2026-03-01 10:00:00')
+        """);
+
+    ExportFilter filter = new ExportFilter();
+    filter.setLawyerId(88001L);
+    filter.setTo(LocalDate.of(2026, 3, 31));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(1, exporter.exportReviews(filter, DataExporter.Format.NDJSON, out));
+
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(1, lines.length);
+    JsonNode review = objectMapper.readTree(lines[0]);
+    assertEquals(5, review.get("rating").asInt());
+    assertEquals("Clear advice", review.get("comment").asText());
+    assertEquals("2026-03-01T10:00", review.get("createdAt").asText());
+    assertTrue(review.get("response").isNull());
+  }
+
+  @Test
+  void unknownFormatIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> DataExporter.Format.parse("xlsx"));
+  }
+
+  /**
+   * Exports two million users in a JVM with a 48 MB heap. The rows come from views shaped
+   * like the real tables, computed as they are read (the file database only spills the
+   * sort to disk), so everything held in the heap is the export's own. As entities or
+   * summaries the users alone would need several times that heap.
+   */
+  @Test
+  void millionsOfRowsExportInASmallFixedHeap(@TempDir Path dir) throws Exception {
+    Process child = new ProcessBuilder(
+        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+        "-Xmx48m", "-XX:+UseSerialGC",
+        "-cp", System.getProperty("java.class.path"),
+        SmallHeapExport.class.getName(), dir.toString(), String.valueOf(SmallHeapExport.USERS))
+        .redirectErrorStream(true)
+        .start();
+    String output = new String(child.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertTrue(child.waitFor(5, TimeUnit.MINUTES), "export did not finish");
+    assertEquals(0, child.exitValue(), output);
+    assertTrue(output.contains("exported " + SmallHeapExport.USERS + " rows, "
+        + (SmallHeapExport.USERS + 1) + " lines"), output);
+  }
+
+  static final class SmallHeapExport {
+
+    static final int USERS = 2_000_000;
+
+    public static void main(String[] args) throws Exception {
+      int count = Integer.parseInt(args[1]);
+      String url = "jdbc:h2:file:" + Path.of(args[0], "export")
+          + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;LAZY_QUERY_EXECUTION=TRUE";
+      DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+      JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+      jdbc.execute("""
+          create view users as
+          select n as id, concat('User ', n) as name, concat('user', n, '@export.test') as email,
+                 concat('+91 98', n) as phone, case when mod(n, 10) = 0 then 'lawyer' else 'client' end as role,
+                 'Synthetic account, for the export test' as bio, 'Pune' as location,
+                 1000 as consultation_fee, cast(null as varchar) as bar_council_number,
+                 mod(n, 30) as years_of_experience, mod(n, 2) = 0 as is_verified,
+                 'verified' as verification_status, timestamp '2026-01-01 09:30:00' as updated_at
+          from system_range(1, %d) r(n)
+          """.formatted(count));
+      jdbc.execute("""
+          create view user_specializations as
+          select n as user_id, 'Tax Law' as specializations from system_range(1, %d) r(n) where mod(n, 10) = 0
+          """.formatted(count));
+      jdbc.execute("""
+          create view user_languages as
+          select n as user_id, 'English' as languages from system_range(1, %d) r(n)
+          """.formatted(count));
+      jdbc.execute("create table user_education (user_id bigint, education varchar(255))");
+
+      DataExporter exporter = new DataExporter(jdbc, new ObjectMapper(), 1000);
+      Counting out = new Counting(OutputStream.nullOutputStream());
+      TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+      readOnly.setReadOnly(true);
+      long rows = readOnly.execute(status -> {
+        try {
+          return exporter.exportUsers(new ExportFilter(), DataExporter.Format.CSV, out);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      System.out.println("exported " + rows + " rows, " + out.lines + " lines, " + out.bytes + " bytes, max heap "
+          + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+    }
+  }
+
+  /** Counts the bytes and line breaks written through it. */
+  private static final class Counting extends FilterOutputStream {
+    long bytes;
+    long lines;
+
+    Counting(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      bytes++;
+      if (b == '\n') lines++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      bytes += len;
+      for (int i = off; i < off + len; i++) {
+        if (b[i] == '\n') lines++;
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerRecommendation;
+import com.example.demo.model.RecommendationQuery;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LawyerRecommenderTest {
+
+  @Autowired
+  private LawyerRecommender recommender;
+
+  @Autowired
+  private UserRepository users;
+
+  @Test
+  void matchingLawyerRanksFirstAndReviewsMoveTheRanking() {
+    User exact = lawyer("Exact Match", "Maritime Law", 1500, 5);
+    User pricey = lawyer("Pricey Match", "Maritime Law", 9000, 5);
+    lawyer("No Match", "Tax Law", 1500, 5);
+
+    RecommendationQuery query = new RecommendationQuery();
+    query.setSpecialization(List.of("maritime law"));
+    query.setBudget(2000);
+    query.setLimit(2);
+    assertEquals(List.of(exact.getId(), pricey.getId()), ids(recommender.recommend(query)));
+
+    // Outside a transaction the update applies at once
+    for (int i = 0; i < 50; i++) {
+      recommender.onReviewCreated(pricey.getId(), 5);
+    }
+    query.setBudget(null);
+    assertEquals(List.of(pricey.getId(), exact.getId()), ids(recommender.recommend(query)));
+  }
+
+  @Test
+  void boundedResultIsThePrefixOfTheFullRanking() {
+    for (int i = 0; i < 30; i++) {
+      lawyer("Ranked " + i, i % 2 == 0 ? "Family Law" : "Civil Law", 500 + 100 * i, i);
+    }
+    RecommendationQuery query = new RecommendationQuery();
+    query.setSpecialization(List.of("Family Law"));
+    query.setLimit(LawyerRecommender.MAX_LIMIT);
+    List<LawyerRecommendation> all = recommender.recommend(query);
+    query.setLimit(7);
+    List<LawyerRecommendation> top = recommender.recommend(query);
+
+    assertEquals(ids(all.subList(0, 7)), ids(top));
+    for (int i = 1; i < all.size(); i++) {
+      assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore());
+    }
+  }
+
+  @Test
+  void invalidLimitIsRejected() {
+    RecommendationQuery query = new RecommendationQuery();
+    query.setLimit(0);
+    assertThrows(IllegalArgumentException.class, () -> recommender.recommend(query));
+  }
+
+  private User lawyer(String name, String specialization, int fee, int experience) {
+    User user = new User();
+    user.setName(name);
+    user.setEmail(name.toLowerCase().replace(' ', '.') + "@recommend.test");
+    user.setRole("lawyer");
+    user.setIsVerified(true);
+    user.setConsultationFee(fee);
+    user.setYearsOfExperience(experience);
+    user.setSpecializations(List.of(specialization));
+    user.setLanguages(List.of("English"));
+    User saved = users.save(user);
+    recommender.index(saved);
+    return saved;
+  }
+
+  private static List<Long> ids(List<LawyerRecommendation> results) {
+    return results.stream().map(r -> r.getLawyer().getId()).toList();
+  }
+}
@@ -0,0 +1,263 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.LawyerSearchCriteria;
+import com.example.demo.model.LawyerSearchResponse;
+import com.example.demo.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LawyerSearchIndexTest {
+
+  private static final List<String> FIRST_NAMES = List.of("Asha", "Vikram", "Priya", "Rohan", "Meera", "Karan");
+  private static final List<String> LAST_NAMES = List.of("Rao", "Mehta", "Nair", "Das", "Iyer", "Shah");
+  private static final List<String> SPECIALIZATIONS = List.of("Criminal Law", "Family Law", "Corporate Law",
+      "Property Disputes", "Tax");
+  private static final List<String> LANGUAGES = List.of("English", "Hindi", "Tamil", "Marathi");
+  private static final List<String> LOCATIONS = List.of("New Delhi", "Mumbai", "Bengaluru", "Pune", "Chennai");
+
+  // Word starts only: the index matches by word prefix, the browser matched anywhere
+  private static final List<String> TEXT_QUERIES = List.of("crim", "fam", "law", "tax", "asha", "meh", "nair", "prop");
+  private static final List<String> LOCATION_QUERIES = List.of("new", "del", "mum", "pune", "che");
+  private static final List<String> SORTS = List.of("fee", "-fee", "experience", "-experience", "name", "-name");
+
+  private final LawyerSearchIndex index = new LawyerSearchIndex();
+  private final Map<Long, User> users = new HashMap<>();
+
+  @Test
+  void filterCombinationsMatchTheBrowserFilters() {
+    Random random = new Random(42);
+    for (long id = 1; id <= 300; id++) {
+      put(randomUser(id, random));
+    }
+
+    for (int i = 0; i < 300; i++) {
+      LawyerSearchCriteria criteria = new LawyerSearchCriteria();
+      if (random.nextInt(3) == 0) criteria.setQ(pick(TEXT_QUERIES, random));
+      if (random.nextInt(3) == 0) criteria.setSpecialization(pick(SPECIALIZATIONS, random));
+      if (random.nextInt(3) == 0) criteria.setLocation(pick(LOCATION_QUERIES, random));
+      if (random.nextInt(4) == 0) criteria.setLanguage(pick(LANGUAGES, random));
+      if (random.nextInt(3) == 0) criteria.setMaxFee(500 + 250 * random.nextInt(20));
+      if (random.nextInt(3) == 0) criteria.setMinExperience(random.nextInt(25));
+      criteria.setSort(pick(SORTS, random));
+      criteria.setSize(1 + random.nextInt(15));
+
+      List<Long> expected = ids(browse(criteria));
+      assertEquals(expected, cursorPages(criteria), criteria.toString());
+      assertEquals(expected, numberedPages(criteria), criteria.toString());
+    }
+  }
+
+  @Test
+  void unknownValuesMatchNothing() {
+    Random random = new Random(7);
+    for (long id = 1; id <= 20; id++) {
+      put(randomUser(id, random));
+    }
+    LawyerSearchCriteria criteria = new LawyerSearchCriteria();
+    criteria.setSpecialization("Maritime Law");
+    assertEquals(0, index.search(criteria).getTotal());
+
+    criteria = new LawyerSearchCriteria();
+    criteria.setQ("zz");
+    assertTrue(index.search(criteria).getItems().isEmpty());
+    assertNull(index.search(criteria).getNextCursor());
+  }
+
+  @Test
+  void cursorStaysInPlaceWhenLawyersChangeBetweenPages() {
+    for (long id = 1; id <= 40; id++) {
+      put(lawyer(id, 1000 + 10 * (int) id));
+    }
+    LawyerSearchCriteria criteria = new LawyerSearchCriteria();
+    criteria.setSort("fee");
+    criteria.setSize(5);
+    LawyerSearchResponse first = index.search(criteria);
+    assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(first.getItems()));
+
+    // Between the pages: one lawyer moves before the cursor, one from the first page moves
+    // after it, one stops being listed and a new one lands right after the cursor
+    put(lawyer(12, 100));
+    put(lawyer(3, 9_999));
+    User unverified = lawyer(8, 1080);
+    unverified.setIsVerified(false);
+    put(unverified);
+    put(lawyer(41, 1055));
+
+    List<Long> rest = new ArrayList<>();
+    String cursor = first.getNextCursor();
+    while (cursor != null) {
+      criteria.setCursor(cursor);
+      LawyerSearchResponse page = index.search(criteria);
+      rest.addAll(ids(page.getItems()));
+      cursor = page.getNextCursor();
+    }
+
+    List<Long> expected = new ArrayList<>(List.of(41L, 6L, 7L, 9L, 10L, 11L));
+    for (long id = 13; id <= 40; id++) {
+      expected.add(id);
+    }
+    expected.add(3L);
+    assertEquals(expected, rest);
+  }
+
+  @Test
+  void verificationAndRoleDecideWhoIsListed() {
+    put(lawyer(1, 1000));
+    User client = lawyer(2, 1000);
+    client.setRole("client");
+    put(client);
+    User pending = lawyer(3, 1000);
+    pending.setIsVerified(false);
+    put(pending);
+    assertEquals(1, index.size());
+
+    pending.setIsVerified(true);
+    put(pending);
+    assertEquals(List.of(1L, 3L), ids(index.search(sortedBy("fee")).getItems()));
+  }
+
+  // Every page from following nextCursor
+  private List<Long> cursorPages(LawyerSearchCriteria criteria) {
+    List<Long> seen = new ArrayList<>();
+    String cursor = null;
+    do {
+      criteria.setCursor(cursor);
+      LawyerSearchResponse page = index.search(criteria);
+      assertEquals(browse(criteria).size(), page.getTotal());
+      seen.addAll(ids(page.getItems()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+    criteria.setCursor(null);
+    return seen;
+  }
+
+  // Every page by number, up to the reported total
+  private List<Long> numberedPages(LawyerSearchCriteria criteria) {
+    List<Long> seen = new ArrayList<>();
+    int total;
+    int page = 0;
+    do {
+      criteria.setPage(page++);
+      LawyerSearchResponse response = index.search(criteria);
+      seen.addAll(ids(response.getItems()));
+      total = response.getTotal();
+    } while (seen.size() < total);
+    criteria.setPage(0);
+    return seen;
+  }
+
+  /**
+   * What FindLawyers.tsx did before the index: filter the verified lawyers in the browser,
+   * text by name or specialization and location by substring, specialization by exact
+   * value. Language and sorting were added with the index.
+   */
+  private List<LawyerCard> browse(LawyerSearchCriteria criteria) {
+    String q = lower(criteria.getQ());
+    String location = lower(criteria.getLocation());
+    List<LawyerCard> matches = new ArrayList<>();
+    for (User user : users.values()) {
+      if (!"lawyer".equals(user.getRole()) || !user.getIsVerified()) continue;
+      if (q != null && !lower(user.getName()).contains(q)
+          && user.getSpecializations().stream().noneMatch(s -> lower(s).contains(q))) continue;
+      if (criteria.getSpecialization() != null
+          && !user.getSpecializations().contains(criteria.getSpecialization())) continue;
+      if (location != null && !lower(user.getLocation()).contains(location)) continue;
+      if (criteria.getLanguage() != null && !user.getLanguages().contains(criteria.getLanguage())) continue;
+      if (criteria.getMaxFee() != null
+          && (user.getConsultationFee() == null || user.getConsultationFee() > criteria.getMaxFee())) continue;
+      if (criteria.getMinExperience() != null && experience(user) < criteria.getMinExperience()) continue;
+      matches.add(LawyerCard.from(user));
+    }
+    matches.sort(order(criteria.getSort()));
+    return matches;
+  }
+
+  private static Comparator<LawyerCard> order(String sort) {
+    boolean descending = sort.startsWith("-");
+    Comparator<LawyerCard> order = switch (descending ? sort.substring(1) : sort) {
+      case "fee" -> Comparator.comparing((LawyerCard c) -> c.getConsultationFee() == null
+          ? Integer.MAX_VALUE : c.getConsultationFee());
+      case "experience" -> Comparator.comparing((LawyerCard c) -> c.getYearsOfExperience() == null
+          ? 0 : c.getYearsOfExperience());
+      default -> Comparator.comparing((LawyerCard c) -> c.getName(), String.CASE_INSENSITIVE_ORDER);
+    };
+    order = order.thenComparing(LawyerCard::getId);
+    return descending ? order.reversed() : order;
+  }
+
+  private static LawyerSearchCriteria sortedBy(String sort) {
+    LawyerSearchCriteria criteria = new LawyerSearchCriteria();
+    criteria.setSort(sort);
+    return criteria;
+  }
+
+  // Outside a transaction the index applies the change right away
+  private void put(User user) {
+    users.put(user.getId(), user);
+    index.index(user);
+  }
+
+  private static User randomUser(long id, Random random) {
+    User user = new User();
+    user.setId(id);
+    user.setName(pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random));
+    user.setRole(random.nextInt(10) == 0 ? "client" : "lawyer");
+    user.setIsVerified(random.nextInt(8) != 0);
+    user.setLocation(pick(LOCATIONS, random));
+    user.setConsultationFee(random.nextInt(12) == 0 ? null : 500 + 250 * random.nextInt(20));
+    user.setYearsOfExperience(random.nextInt(12) == 0 ? null : random.nextInt(30));
+    user.setSpecializations(distinct(SPECIALIZATIONS, 1 + random.nextInt(3), random));
+    user.setLanguages(distinct(LANGUAGES, 1 + random.nextInt(2), random));
+    return user;
+  }
+
+  private static User lawyer(long id, int fee) {
+    User user = new User();
+    user.setId(id);
+    user.setName("Lawyer " + id);
+    user.setRole("lawyer");
+    user.setIsVerified(true);
+    user.setLocation("Pune");
+    user.setConsultationFee(fee);
+    user.setYearsOfExperience(5);
+    user.setSpecializations(List.of("Tax"));
+    user.setLanguages(List.of("English"));
+    return user;
+  }
+
+  private static List<String> distinct(List<String> values, int count, Random random) {
+    Set<String> picked = new HashSet<>();
+    while (picked.size() < count) {
+      picked.add(pick(values, random));
+    }
+    return values.stream().filter(picked::contains).toList();
+  }
+
+  private static <T> T pick(List<T> values, Random random) {
+    return values.get(random.nextInt(values.size()));
+  }
+
+  private static int experience(User user) {
+    return user.getYearsOfExperience() == null ? 0 : user.getYearsOfExperience();
+  }
+
+  private static String lower(String value) {
+    return value == null ? null : value.toLowerCase(Locale.ROOT);
+  }
+
+  private static List<Long> ids(List<LawyerCard> cards) {
+    return cards.stream().map(LawyerCard::getId).toList();
+  }
+}
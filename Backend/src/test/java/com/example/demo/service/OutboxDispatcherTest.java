@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.model.ReviewRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database: dispatchers of other cached contexts would otherwise claim the test events.
+// Polls only at startup, so that drains run when a test calls them or a write wakes one
+@SpringBootTest(properties = {"app.outbox.max-attempts=3", "app.outbox.backoff-ms=1",
+    "app.outbox.batch-size=5", "app.outbox.max-batches=2", "app.outbox.poll-ms=3600000",
+    "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+class OutboxDispatcherTest {
+
+  private static final String TEST_EVENT = "test.event";
+
+  @Autowired
+  private Outbox outbox;
+
+  @Autowired
+  private OutboxDispatcher dispatcher;
+
+  @Autowired
+  private ReviewService reviewService;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void reviewReachesTheRatingThroughTheOutbox() {
+    ReviewRequestDTO review = new ReviewRequestDTO();
+    review.setLawyerId(77_001L);
+    review.setClientId(77_002L);
+    review.setRating(4);
+    reviewService.createReview(review);
+    reviewService.createReview(review);
+
+    awaitDrained(() -> reviewService.getRatings(Set.of(77_001L)).get(0).getReviewCount() == 2);
+    assertEquals(4.0, reviewService.getRatings(Set.of(77_001L)).get(0).getAverageRating());
+  }
+
+  @Test
+  void failedHandlerIsRetriedWithoutRerunningTheOthers() {
+    append(1001L, 1);
+
+    awaitDrained(() -> Recording.calls.containsKey("flaky:1001") && pending(1001L) == 0);
+    assertEquals(1, Recording.calls.get("steady:1001").get());
+    assertEquals(2, Recording.calls.get("flaky:1001").get());
+    assertEquals(0, deadLetters(1001L));
+  }
+
+  @Test
+  void eventThatKeepsFailingIsDeadLettered() {
+    append(1002L, Integer.MAX_VALUE);
+
+    awaitDrained(() -> deadLetters(1002L) == 1);
+    assertEquals(0, pending(1002L));
+    assertEquals(3, Recording.calls.get("flaky:1002").get());
+    assertEquals(1, Recording.calls.get("steady:1002").get());
+  }
+
+  @Test
+  void drainStopsAfterItsBatchBudget() {
+    // Inserted directly, so no write wakes a drain of its own
+    LocalDateTime now = LocalDateTime.now();
+    for (long i = 0; i < 25; i++) {
+      jdbc.update("""
+          insert into outbox_event (event_type, aggregate_id, payload, created_at, available_at, attempts)
+          values ('test.unhandled', ?, '{}', ?, ?, 0)
+          """, 2000 + i, now, now);
+    }
+
+    assertEquals(10, dispatcher.drain());
+    assertEquals(15, unhandledPending());
+    assertEquals(10, dispatcher.drain());
+    assertEquals(5, dispatcher.drain());
+    assertEquals(0, unhandledPending());
+  }
+
+  // An event for both test handlers; the flaky one fails its first `failures` runs
+  private void append(long aggregateId, int failures) {
+    Recording.failures.put(aggregateId, failures);
+    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+        outbox.append(TEST_EVENT, aggregateId, Map.of("n", aggregateId)));
+  }
+
+  private int pending(long aggregateId) {
+    return jdbc.queryForObject("select count(*) from outbox_event where aggregate_id = ? and event_type = ?",
+        Integer.class, aggregateId, TEST_EVENT);
+  }
+
+  private int unhandledPending() {
+    return jdbc.queryForObject("select count(*) from outbox_event where event_type = 'test.unhandled'",
+        Integer.class);
+  }
+
+  private int deadLetters(long aggregateId) {
+    return jdbc.queryForObject("select count(*) from outbox_dead_letter where aggregate_id = ?",
+        Integer.class, aggregateId);
+  }
+
+  // The dispatcher also drains on its own; keep nudging it until the condition holds
+  private void awaitDrained(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "outbox not drained in time");
+      dispatcher.drain();
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  @TestConfiguration
+  static class Recording {
+
+    static final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    static final Map<Long, Integer> failures = new ConcurrentHashMap<>();
+
+    @Bean
+    OutboxHandler steadyHandler() {
+      return handler("steady", false);
+    }
+
+    @Bean
+    OutboxHandler flakyHandler() {
+      return handler("flaky", true);
+    }
+
+    private static OutboxHandler handler(String name, boolean flaky) {
+      return new OutboxHandler() {
+        @Override
+        public String name() {
+          return name;
+        }
+
+        @Override
+        public Set<String> eventTypes() {
+          return Set.of(TEST_EVENT);
+        }
+
+        @Override
+        public void handle(Event event) {
+          int call = calls.computeIfAbsent(name + ":" + event.aggregateId(), k -> new AtomicInteger())
+              .incrementAndGet();
+          if (flaky && call <= failures.get(event.aggregateId())) {
+            throw new IllegalStateException("failure " + call);
+          }
+        }
+      };
+    }
+  }
+}
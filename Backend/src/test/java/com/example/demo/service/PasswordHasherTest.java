@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// Own database: the pool below is one thread and one queued job, unlike the shared context's
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:passwords;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "app.passwords.threads=1",
+    "app.passwords.queue-size=1",
+    "app.passwords.timeout-ms=300"})
+@AutoConfigureMockMvc
+class PasswordHasherTest {
+
+  // Cost 13 with a made-up salt and digest: checking any password against it keeps the
+  // hashing thread busy for a second or more
+  private static final String SLOW_HASH = "$2a$13$" + "abcdefghijklmnopqrstuv" + "x".repeat(31);
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private PasswordHasher passwordHasher;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private MockMvc mvc;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @Test
+  void legacyPasswordsAreRehashedOnLogin() {
+    insertUser("plaintext@passwords.test", "legacy-secret");
+    insertUser("old-cost@passwords.test", new BCryptPasswordEncoder(6).encode("old-cost-secret"));
+
+    assertTrue(userService.login("plaintext@passwords.test", "wrong-secret").isEmpty());
+    assertEquals("legacy-secret", storedPassword("plaintext@passwords.test"));
+
+    assertTrue(userService.login("plaintext@passwords.test", "legacy-secret").isPresent());
+    assertTrue(userService.login("old-cost@passwords.test", "old-cost-secret").isPresent());
+    for (String email : new String[]{"plaintext@passwords.test", "old-cost@passwords.test"}) {
+      String stored = storedPassword(email);
+      assertTrue(stored.startsWith("$2a$04$"), stored); // the test profile's cost
+      assertFalse(passwordHasher.needsRehash(stored));
+    }
+    assertTrue(userService.login("plaintext@passwords.test", "legacy-secret").isPresent());
+
+    // Already at the configured cost: left as it is
+    String current = storedPassword("plaintext@passwords.test");
+    assertTrue(userService.login("plaintext@passwords.test", "legacy-secret").isPresent());
+    assertEquals(current, storedPassword("plaintext@passwords.test"));
+  }
+
+  @Test
+  void saturatedPoolTurnsSignInsAway() throws Exception {
+    insertUser("busy@passwords.test", "busy-secret");
+    double rejectedBefore = meterRegistry.counter("auth.hashing.rejected").count();
+    ExecutorService callers = Executors.newFixedThreadPool(2);
+    List<Future<Boolean>> slow = List.of(
+        callers.submit(() -> passwordHasher.matches("anything", SLOW_HASH)),
+        callers.submit(() -> passwordHasher.matches("anything", SLOW_HASH)));
+    awaitQueued(1);
+
+    // One slow job runs and the other fills the queue: turned away without waiting
+    MockHttpServletResponse busy = login("busy@passwords.test", "busy-secret");
+    assertEquals(503, busy.getStatus(), busy.getContentAsString());
+    assertEquals("1", busy.getHeader("Retry-After"));
+
+    // Their callers give up after the timeout, whether the job was running or still queued
+    for (Future<Boolean> f : slow) {
+      ExecutionException timedOut = assertThrows(ExecutionException.class, () -> f.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(HashingUnavailableException.class, timedOut.getCause());
+    }
+    callers.shutdown();
+    assertEquals(3, meterRegistry.counter("auth.hashing.rejected").count() - rejectedBefore);
+
+    // The abandoned queued job is skipped once the running one is done
+    awaitQueued(0);
+    assertEquals(200, login("busy@passwords.test", "busy-secret").getStatus());
+  }
+
+  private MockHttpServletResponse login(String email, String password) throws Exception {
+    return mvc.perform(post("/api/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+        .andReturn().getResponse();
+  }
+
+  private void awaitQueued(int jobs) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30_000;
+    while (meterRegistry.get("auth.hashing.queued").gauge().value() != jobs) {
+      assertTrue(System.currentTimeMillis() < deadline, "hashing queue never reached " + jobs);
+      Thread.sleep(10);
+    }
+  }
+
+  private void insertUser(String email, String password) {
+    jdbc.update("insert into users (name, email, password, role, is_verified, version)"
+        + " values ('Member', ?, ?, 'client', false, 0)", email, password);
+  }
+
+  private String storedPassword(String email) {
+    return jdbc.queryForObject("select password from users where email = ?", String.class, email);
+  }
+}
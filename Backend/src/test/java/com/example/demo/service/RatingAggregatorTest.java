@@ -0,0 +1,55 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerRating;
+import com.example.demo.repository.LawyerRatingRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Own database: the ratings written here would shift the rating prior other tests rank by
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ratings;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class RatingAggregatorTest {
+
+  private static final long LAWYER_ID = 66_001L;
+  private static final LocalDateTime NOON = LocalDateTime.of(2031, 4, 4, 12, 0);
+
+  @Autowired
+  private RatingAggregator aggregator;
+
+  @Autowired
+  private LawyerRatingRepository ratings;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void reviewsAppliedOutOfOrderKeepTheLatestReviewTime() throws Exception {
+    apply(1, 5, NOON);
+    apply(2, 3, NOON.minusHours(1));
+
+    LawyerRating rating = ratings.findById(LAWYER_ID).orElseThrow();
+    assertEquals(2, rating.getReviewCount());
+    assertEquals(8, rating.getRatingSum());
+    assertArrayEquals(new long[]{0, 0, 1, 0, 1}, rating.getHistogram());
+    assertEquals(NOON, rating.getLastReviewAt());
+
+    apply(3, 4, NOON.plusHours(1));
+    assertEquals(NOON.plusHours(1), ratings.findById(LAWYER_ID).orElseThrow().getLastReviewAt());
+  }
+
+  private void apply(long reviewId, int stars, LocalDateTime at) throws Exception {
+    String payload = objectMapper.writeValueAsString(new RatingAggregator.ReviewCreated(reviewId, LAWYER_ID, stars, at));
+    OutboxHandler.Event event = new OutboxHandler.Event(reviewId, RatingAggregator.REVIEW_CREATED, LAWYER_ID, payload, 0);
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> aggregator.handle(event));
+  }
+}
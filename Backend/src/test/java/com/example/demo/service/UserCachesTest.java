@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LawyerCard;
+import com.example.demo.model.User;
+import com.example.demo.model.UserSummary;
+import com.example.demo.service.CacheInvalidationBus.CacheEviction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserCachesTest {
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private CacheInvalidationBus bus;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  private final List<CacheEviction> published = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  void recordEvictions() {
+    bus.subscribe(published::add);
+  }
+
+  @Test
+  void updateEvictsOnceItCommits() {
+    User lawyer = userService.registerUser(lawyer("commit@caches.test"));
+    UserSummary byEmail = userService.getUserByEmail("commit@caches.test");
+    UserSummary byId = userService.getUserById(lawyer.getId());
+    List<LawyerCard> directory = userService.getLawyerCards();
+    published.clear();
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      userService.updateUserProfile("commit@caches.test", renamed("After"));
+      // Other readers may not see the change yet, so neither may the cache
+      assertSame(byEmail, userService.getUserByEmail("commit@caches.test"));
+      assertSame(byId, userService.getUserById(lawyer.getId()));
+      assertSame(directory, userService.getLawyerCards());
+      assertTrue(published.isEmpty());
+    });
+
+    assertEquals("After", userService.getUserByEmail("commit@caches.test").getName());
+    assertEquals("After", userService.getUserById(lawyer.getId()).getName());
+    assertNotSame(directory, userService.getLawyerCards());
+    assertTrue(published.containsAll(List.of(
+        new CacheEviction(UserCaches.BY_EMAIL, "commit@caches.test"),
+        new CacheEviction(UserCaches.BY_ID, lawyer.getId().toString()),
+        new CacheEviction(UserCaches.DIRECTORY, null))), published.toString());
+  }
+
+  @Test
+  void rolledBackWriteLeavesTheCacheAlone() {
+    User lawyer = userService.registerUser(lawyer("rollback@caches.test"));
+    UserSummary byEmail = userService.getUserByEmail("rollback@caches.test");
+    UserSummary byId = userService.getUserById(lawyer.getId());
+    List<LawyerCard> directory = userService.getLawyerCards();
+    published.clear();
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      userService.updateUserProfile("rollback@caches.test", renamed("Rolled Back"));
+      status.setRollbackOnly();
+    });
+
+    assertEquals("Before", jdbc.queryForObject("select name from users where id = ?", String.class,
+        lawyer.getId()));
+    assertSame(byEmail, userService.getUserByEmail("rollback@caches.test"));
+    assertSame(byId, userService.getUserById(lawyer.getId()));
+    assertSame(directory, userService.getLawyerCards());
+    assertTrue(published.isEmpty(), published.toString());
+  }
+
+  private static User lawyer(String email) {
+    User user = new User();
+    user.setName("Before");
+    user.setEmail(email);
+    user.setPassword("secret-password");
+    user.setRole("lawyer");
+    return user;
+  }
+
+  private static User renamed(String name) {
+    User user = new User();
+    user.setName(name);
+    return user;
+  }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.AppointmentRequestDTO;
+import com.example.demo.model.BulkItemResult;
+import com.example.demo.model.BulkStatusRequest;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.service.AppointmentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AppointmentServiceImplBulkTest {
+
+  private static final long LAWYER_ID = 9_101L;
+  private static final int REQUESTS = 400;
+  private static final int THREADS = 16;
+
+  @Autowired
+  private AppointmentService appointmentService;
+
+  @Autowired
+  private AppointmentRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void createLawyers() {
+    for (long id = LAWYER_ID; id <= LAWYER_ID + 3; id++) {
+      jdbc.update("insert into users (id, name, role, is_verified, version) select ?, 'Lawyer', 'lawyer', false, 0"
+          + " where not exists (select 1 from users where id = ?)", id, id);
+    }
+  }
+
+  @Test
+  void eachItemIsBookedOrRejectedOnItsOwn() {
+    LocalDate day = LocalDate.now().plusDays(70);
+    Appointment existing = appointmentService.bookAppointment(
+        request(LAWYER_ID + 1, day, LocalTime.of(11, 0), LocalTime.of(12, 0)));
+
+    List<BulkItemResult> results = appointmentService.bookAppointments(List.of(
+        request(LAWYER_ID, day, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+        request(LAWYER_ID, day, LocalTime.of(10, 0), LocalTime.of(9, 0)),
+        request(LAWYER_ID + 9, day, LocalTime.of(9, 0), LocalTime.of(10, 0)),
+        request(LAWYER_ID, day, LocalTime.of(9, 30), LocalTime.of(10, 30)),
+        request(LAWYER_ID + 1, day, LocalTime.of(11, 30), LocalTime.of(12, 30)),
+        request(LAWYER_ID + 1, day, LocalTime.of(12, 0), LocalTime.of(13, 0))));
+
+    assertEquals(List.of(BulkItemResult.OK, BulkItemResult.INVALID, BulkItemResult.INVALID,
+        BulkItemResult.CONFLICT, BulkItemResult.CONFLICT, BulkItemResult.OK), outcomes(results));
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i, results.get(i).getIndex());
+    }
+    // Item 3 clashes with item 0 of the same request, item 4 with the booking made before
+    assertTrue(results.get(3).getError().contains(results.get(0).getAppointment().getId().toString()),
+        results.get(3).getError());
+    assertTrue(results.get(4).getError().contains(existing.getId().toString()), results.get(4).getError());
+
+    assertEquals(List.of(LocalTime.of(9, 0)), startTimes(LAWYER_ID, day));
+    assertEquals(List.of(LocalTime.of(11, 0), LocalTime.of(12, 0)), startTimes(LAWYER_ID + 1, day));
+    assertEquals(results.get(5).getAppointment().getId(),
+        repository.findByLawyerId(LAWYER_ID + 1).stream()
+            .filter(apt -> apt.getStartTime().equals(LocalTime.of(12, 0)))
+            .findFirst().orElseThrow().getId());
+  }
+
+  @Test
+  void cancelledAppointmentsAreConflictsInABulkStatusChange() {
+    LocalDate day = LocalDate.now().plusDays(71);
+    Appointment pending = appointmentService.bookAppointment(
+        request(LAWYER_ID + 2, day, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    Appointment cancelled = appointmentService.bookAppointment(
+        request(LAWYER_ID + 2, day, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+    appointmentService.cancelAppointment(cancelled.getId(), "client unavailable");
+    // Takes the cancelled appointment's slot, so confirming that one would double book it
+    appointmentService.bookAppointment(request(LAWYER_ID + 2, day, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+
+    BulkStatusRequest confirm = new BulkStatusRequest();
+    confirm.setAppointmentIds(Arrays.asList(pending.getId(), cancelled.getId(), -1L));
+    confirm.setStatus("confirmed");
+    List<BulkItemResult> results = appointmentService.updateStatuses(confirm);
+
+    assertEquals(List.of(BulkItemResult.OK, BulkItemResult.CONFLICT, BulkItemResult.NOT_FOUND), outcomes(results));
+    assertEquals("confirmed", repository.findById(pending.getId()).orElseThrow().getStatus());
+    Appointment stored = repository.findById(cancelled.getId()).orElseThrow();
+    assertEquals("cancelled", stored.getStatus());
+    assertNull(stored.getActiveSlot());
+
+    BulkStatusRequest complete = new BulkStatusRequest();
+    complete.setAppointmentIds(List.of(pending.getId()));
+    complete.setStatus("completed");
+    assertThrows(IllegalArgumentException.class, () -> appointmentService.updateStatuses(complete));
+  }
+
+  @Test
+  void requestsNamingTheSameLawyersInOppositeOrderDoNotDeadlock() throws Exception {
+    LocalDate firstDay = LocalDate.now().plusDays(72);
+    long first = LAWYER_ID + 3;
+    long second = LAWYER_ID;
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger booked = new AtomicInteger();
+
+    List<Future<List<BulkItemResult>>> futures = new ArrayList<>();
+    for (int i = 0; i < REQUESTS; i++) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      AppointmentRequestDTO a = randomRequest(first, firstDay, random);
+      AppointmentRequestDTO b = randomRequest(second, firstDay, random);
+      List<AppointmentRequestDTO> items = i % 2 == 0 ? List.of(a, b) : List.of(b, a);
+      futures.add(pool.submit(() -> {
+        start.await();
+        return appointmentService.bookAppointments(items);
+      }));
+    }
+    start.countDown();
+    for (Future<List<BulkItemResult>> f : futures) {
+      for (BulkItemResult result : f.get(60, TimeUnit.SECONDS)) { // a deadlock times out or rethrows
+        assertTrue(BulkItemResult.OK.equals(result.getOutcome())
+            || BulkItemResult.CONFLICT.equals(result.getOutcome()), result.getError());
+        if (BulkItemResult.OK.equals(result.getOutcome())) booked.incrementAndGet();
+      }
+    }
+    pool.shutdown();
+
+    List<Appointment> stored = new ArrayList<>(repository.findByLawyerId(first));
+    stored.addAll(repository.findByLawyerId(second).stream()
+        .filter(apt -> !apt.getDate().isBefore(firstDay))
+        .toList());
+    assertEquals(booked.get(), stored.size());
+    assertTrue(booked.get() > 0);
+
+    Map<List<Object>, List<Appointment>> byLawyerAndDay = stored.stream()
+        .collect(Collectors.groupingBy(apt -> List.of(apt.getLawyerId(), apt.getDate())));
+    for (List<Appointment> day : byLawyerAndDay.values()) {
+      day.sort(Comparator.comparing(Appointment::getStartTime));
+      for (int i = 1; i < day.size(); i++) {
+        Appointment prev = day.get(i - 1);
+        Appointment next = day.get(i);
+        assertFalse(prev.getEndTime().isAfter(next.getStartTime()),
+            "appointments " + prev.getId() + " and " + next.getId() + " overlap");
+      }
+    }
+  }
+
+  private List<LocalTime> startTimes(long lawyerId, LocalDate day) {
+    return repository.findByLawyerId(lawyerId).stream()
+        .filter(apt -> apt.getDate().equals(day) && !"cancelled".equals(apt.getStatus()))
+        .map(Appointment::getStartTime)
+        .sorted()
+        .toList();
+  }
+
+  private static List<String> outcomes(List<BulkItemResult> results) {
+    return results.stream().map(BulkItemResult::getOutcome).toList();
+  }
+
+  private static AppointmentRequestDTO randomRequest(long lawyerId, LocalDate firstDay, ThreadLocalRandom random) {
+    LocalDate day = firstDay.plusDays(random.nextInt(3));
+    LocalTime startTime = LocalTime.of(9, 0).plusMinutes(15L * random.nextInt(32)); // 09:00 - 16:45
+    LocalTime endTime = startTime.plusMinutes(random.nextBoolean() ? 30 : 60);
+    return request(lawyerId, day, startTime, endTime);
+  }
+
+  private static AppointmentRequestDTO request(Long lawyerId, LocalDate day, LocalTime startTime, LocalTime endTime) {
+    AppointmentRequestDTO request = new AppointmentRequestDTO();
+    request.setClientId(1L);
+    request.setLawyerId(lawyerId);
+    request.setType("video");
+    request.setDate(day);
+    request.setStartTime(startTime);
+    request.setEndTime(endTime);
+    request.setFee(1500);
+    return request;
+  }
+}
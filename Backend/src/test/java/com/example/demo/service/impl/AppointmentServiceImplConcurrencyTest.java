@@ -0,0 +1,180 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.model.Appointment;
+import com.example.demo.model.AppointmentRequestDTO;
+import com.example.demo.repository.AppointmentRepository;
+import com.example.demo.service.AppointmentService;
+import com.example.demo.service.BookingConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class AppointmentServiceImplConcurrencyTest {
+
+  private static final long LAWYER_ID = 9_001L;
+  private static final int BOOKINGS = 3_000;
+  private static final int THREADS = 32;
+
+  @Autowired
+  private AppointmentService appointmentService;
+
+  @Autowired
+  private AppointmentRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void createLawyers() {
+    for (long id = LAWYER_ID; id <= LAWYER_ID + 2; id++) {
+      jdbc.update("insert into users (id, name, role, is_verified, version) select ?, 'Lawyer', 'lawyer', false, 0"
+          + " where not exists (select 1 from users where id = ?)", id, id);
+    }
+  }
+
+  @Test
+  void parallelBookingsForOneLawyerNeverOverlap() throws Exception {
+    LocalDate firstDay = LocalDate.now().plusDays(30);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger booked = new AtomicInteger();
+    AtomicInteger conflicts = new AtomicInteger();
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < BOOKINGS; i++) {
+      AppointmentRequestDTO request = randomRequest(firstDay, ThreadLocalRandom.current());
+      futures.add(pool.submit(() -> {
+        start.await();
+        try {
+          appointmentService.bookAppointment(request);
+          booked.incrementAndGet();
+        } catch (BookingConflictException e) {
+          conflicts.incrementAndGet();
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> f : futures) {
+      f.get(60, TimeUnit.SECONDS); // rethrows anything other than a conflict
+    }
+    pool.shutdown();
+
+    assertEquals(BOOKINGS, booked.get() + conflicts.get());
+    assertTrue(booked.get() > 0);
+    assertTrue(conflicts.get() > 0);
+
+    List<Appointment> stored = repository.findByLawyerId(LAWYER_ID);
+    assertEquals(booked.get(), stored.size());
+
+    Map<LocalDate, List<Appointment>> byDay = stored.stream()
+        .collect(Collectors.groupingBy(Appointment::getDate));
+    for (List<Appointment> day : byDay.values()) {
+      day.sort(Comparator.comparing(Appointment::getStartTime));
+      for (int i = 1; i < day.size(); i++) {
+        Appointment prev = day.get(i - 1);
+        Appointment next = day.get(i);
+        assertFalse(prev.getEndTime().isAfter(next.getStartTime()),
+            "appointments " + prev.getId() + " and " + next.getId() + " overlap");
+      }
+    }
+  }
+
+  @Test
+  void cancelledSlotCanBeBookedAgain() {
+    LocalDate day = LocalDate.now().plusDays(60);
+    AppointmentRequestDTO request = request(LAWYER_ID + 1, day, LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+    Appointment first = appointmentService.bookAppointment(request);
+    assertThrows(BookingConflictException.class, () -> appointmentService.bookAppointment(request));
+
+    appointmentService.cancelAppointment(first.getId(), "client unavailable");
+    Appointment second = appointmentService.bookAppointment(request);
+    assertNotEquals(first.getId(), second.getId());
+  }
+
+  @Test
+  void bookingSeesAppointmentsMadeThroughAnotherNode() {
+    LocalDate day = LocalDate.now().plusDays(61);
+    appointmentService.bookAppointment(request(LAWYER_ID + 2, day, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+
+    // Inserted behind this node's back, as another node would; the cached day misses it
+    repository.save(Appointment.builder()
+        .lawyerId(LAWYER_ID + 2)
+        .clientId(2L)
+        .type("video")
+        .status("pending")
+        .date(day)
+        .startTime(LocalTime.of(10, 0))
+        .endTime(LocalTime.of(11, 0))
+        .fee(1500)
+        .activeSlot(Boolean.TRUE)
+        .build());
+
+    assertThrows(BookingConflictException.class, () -> appointmentService.bookAppointment(
+        request(LAWYER_ID + 2, day, LocalTime.of(10, 30), LocalTime.of(11, 30))));
+    assertThrows(IllegalArgumentException.class, () -> appointmentService.bookAppointment(
+        request(LAWYER_ID + 3, day, LocalTime.of(10, 30), LocalTime.of(11, 30))));
+  }
+
+  @Test
+  void cancelledAppointmentCannotBeConfirmed() {
+    LocalDate day = LocalDate.now().plusDays(62);
+    AppointmentRequestDTO request = request(LAWYER_ID + 1, day, LocalTime.of(14, 0), LocalTime.of(15, 0));
+    Appointment cancelled = appointmentService.bookAppointment(request);
+    appointmentService.cancelAppointment(cancelled.getId(), "expired");
+    Appointment rebooked = appointmentService.bookAppointment(request);
+
+    assertThrows(BookingConflictException.class,
+        () -> appointmentService.updateStatus(cancelled.getId(), "confirmed"));
+    Appointment stored = repository.findById(cancelled.getId()).orElseThrow();
+    assertEquals("cancelled", stored.getStatus());
+    assertNull(stored.getActiveSlot());
+    assertEquals("confirmed", appointmentService.updateStatus(rebooked.getId(), "confirmed").getStatus());
+  }
+
+  @Test
+  void onlyLawyersCanBeBooked() {
+    long clientId = LAWYER_ID + 4;
+    jdbc.update("insert into users (id, name, role, is_verified, version) select ?, 'Client', 'client', false, 0"
+        + " where not exists (select 1 from users where id = ?)", clientId, clientId);
+
+    assertThrows(IllegalArgumentException.class, () -> appointmentService.bookAppointment(
+        request(clientId, LocalDate.now().plusDays(63), LocalTime.of(9, 0), LocalTime.of(10, 0))));
+    assertTrue(repository.findByLawyerId(clientId).isEmpty());
+  }
+
+  private static AppointmentRequestDTO randomRequest(LocalDate firstDay, ThreadLocalRandom random) {
+    LocalDate day = firstDay.plusDays(random.nextInt(5));
+    LocalTime startTime = LocalTime.of(9, 0).plusMinutes(15L * random.nextInt(32)); // 09:00 - 16:45
+    LocalTime endTime = startTime.plusMinutes(random.nextBoolean() ? 30 : 60);
+    return request(LAWYER_ID, day, startTime, endTime);
+  }
+
+  private static AppointmentRequestDTO request(Long lawyerId, LocalDate day, LocalTime startTime, LocalTime endTime) {
+    AppointmentRequestDTO request = new AppointmentRequestDTO();
+    request.setClientId(1L);
+    request.setLawyerId(lawyerId);
+    request.setType("video");
+    request.setDate(day);
+    request.setStartTime(startTime);
+    request.setEndTime(endTime);
+    request.setFee(1500);
+    return request;
+  }
+}
@@ -1,6 +1,7 @@
-import React, { useState } from 'react';
+import React, { useEffect, useState } from 'react';
 import axios from 'axios';
-import { Lawyer } from '../../types';
+import { DayAvailability, Lawyer, LawyerAvailability } from '../../types';
+import { useIdempotencyKey } from '../../hooks/useIdempotencyKey';
 
 interface Props {
   lawyer: Lawyer;
@@ -10,10 +11,34 @@ interface Props {
 
 const BookAppointmentModal: React.FC<Props> = ({ lawyer, onClose, clientId }) => {
   const [date, setDate] = useState('');
+  const idempotency = useIdempotencyKey();
   const [startTime, setStartTime] = useState('');
   const [endTime, setEndTime] = useState('');
   const [type, setType] = useState('video');
   const [notes, setNotes] = useState('');
+  const [freeSlots, setFreeSlots] = useState<DayAvailability['free'] | null>(null);
+
+  // Free intervals for the chosen day, so the client picks a time the lawyer can take
+  useEffect(() => {
+    if (!date) return;
+    setFreeSlots(null);
+    axios
+      .get<LawyerAvailability>(`http://localhost:8080/api/lawyers/${lawyer.id}/availability`, {
+        params: { from: date, to: date },
+      })
+      .then(res => setFreeSlots(res.data.days[0]?.free ?? []))
+      .catch(err => console.error('Failed to load availability:', err));
+  }, [date, lawyer.id]);
+
+  // Picks the first 30 minutes of a free interval (or all of it, if shorter)
+  const pickSlot = (slot: { start: string; end: string | null }) => {
+    const toMinutes = (t: string) => Number(t.slice(0, 2)) * 60 + Number(t.slice(3, 5));
+    const format = (m: number) => `${String(Math.floor(m / 60)).padStart(2, '0')}:${String(m % 60).padStart(2, '0')}`;
+    const start = toMinutes(slot.start);
+    const end = Math.min(start + 30, slot.end ? toMinutes(slot.end) : 24 * 60 - 1);
+    setStartTime(format(start));
+    setEndTime(format(end));
+  };
 
   const handleBooking = async () => {
     try {
@@ -28,13 +53,20 @@ const BookAppointmentModal: React.FC<Props> = ({ lawyer, onClose, clientId }) =>
         fee: lawyer.consultationFee,
       };
   
-      const response = await axios.post('http://localhost:8080/api/appointments/book', payload);
+      const response = await axios.post('http://localhost:8080/api/appointments/book', payload, {
+        headers: { 'Idempotency-Key': idempotency.keyFor(payload) },
+      });
+      idempotency.done();
       console.log('Appointment booked:', response.data);
       alert('Appointment successfully booked!');
       onClose();
     } catch (error) {
       console.error('Booking failed:', error);
-      alert('Something went wrong. Please try again.');
+      if (axios.isAxiosError(error) && error.response?.status === 409) {
+        alert('This time slot is already booked. Please choose another time.');
+      } else {
+        alert('Something went wrong. Please try again.');
+      }
     }
   };
   
@@ -56,6 +88,28 @@ const BookAppointmentModal: React.FC<Props> = ({ lawyer, onClose, clientId }) =>
           />
         </div>
 
+        {date && freeSlots && (
+          <div className="mb-4">
+            <label className="block text-sm font-medium text-gray-700 mb-1">Free on this day</label>
+            {freeSlots.length === 0 ? (
+              <p className="text-sm text-gray-500">No free time on this day.</p>
+            ) : (
+              <div className="flex flex-wrap gap-2">
+                {freeSlots.map(slot => (
+                  <button
+                    key={slot.start}
+                    type="button"
+                    onClick={() => pickSlot(slot)}
+                    className="px-2 py-1 text-xs rounded bg-green-50 text-green-700 hover:bg-green-100"
+                  >
+                    {slot.start.slice(0, 5)} - {slot.end ? slot.end.slice(0, 5) : '24:00'}
+                  </button>
+                ))}
+              </div>
+            )}
+          </div>
+        )}
+
         <div className="mb-4 flex gap-4">
           <div className="w-1/2">
             <label className="block text-sm font-medium text-gray-700 mb-1">Start Time</label>
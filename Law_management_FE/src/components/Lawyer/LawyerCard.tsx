@@ -1,5 +1,5 @@
 import React, { useState } from 'react';
-import { MapPin, Clock, DollarSign } from 'lucide-react';
+import { MapPin, Clock, DollarSign, Star } from 'lucide-react';
 import { Lawyer } from '../../types';
 import LawyerProfileModal from './LawyerProfileModal';
 import BookAppointmentModal from './BookAppointmentModal';
@@ -41,6 +41,12 @@ const LawyerCard: React.FC<LawyerCardProps> = ({
           <div className="flex-1">
             <h3 className="text-lg font-semibold text-gray-900">{lawyer.name}</h3>
             <p className="text-gray-600 text-sm">{lawyer.specializations.join(', ')}</p>
+            {lawyer.reviewCount > 0 && (
+              <div className="flex items-center text-sm text-gray-700 mt-1">
+                <Star className="h-4 w-4 text-yellow-400 fill-current mr-1" />
+                {lawyer.rating.toFixed(1)} ({lawyer.reviewCount} reviews)
+              </div>
+            )}
 
             <div className="mt-3 space-y-2">
               <div className="flex items-center text-sm text-gray-700">
@@ -61,6 +67,9 @@ const LawyerCard: React.FC<LawyerCardProps> = ({
                 </span>
                 ₹{lawyer.consultationFee}/consultation
               </div>
+              {lawyer.nextAvailable && (
+                <div className="text-sm text-green-700">Next available: {lawyer.nextAvailable}</div>
+              )}
             </div>
 
             <div className="flex items-center space-x-3 mt-4">
@@ -0,0 +1,22 @@
+import { useRef } from 'react';
+
+// Idempotency-Key for a submission: the same key while the same request is retried (so a
+// booking or review whose response got lost is not made twice), a new one once the request
+// changes or done() is called after it went through.
+export const useIdempotencyKey = () => {
+  const last = useRef<{ request: string; key: string } | null>(null);
+
+  const keyFor = (request: unknown) => {
+    const serialized = JSON.stringify(request);
+    if (last.current?.request !== serialized) {
+      last.current = { request: serialized, key: crypto.randomUUID() };
+    }
+    return last.current.key;
+  };
+
+  const done = () => {
+    last.current = null;
+  };
+
+  return { keyFor, done };
+};
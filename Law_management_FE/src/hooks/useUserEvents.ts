@@ -0,0 +1,22 @@
+import { useEffect, useRef } from 'react';
+
+type Handlers = Partial<Record<'appointment' | 'appointment-note' | 'review' | 'resync', (data: any) => void>>;
+
+// Server-Sent Events for the signed-in user (GET /api/events/:userId). EventSource
+// reconnects on its own and resumes after the last event it saw; "resync" means some
+// events could not be replayed, so the page should reload its list.
+export const useUserEvents = (userId: string | number | undefined, handlers: Handlers) => {
+  const handlersRef = useRef(handlers);
+  handlersRef.current = handlers;
+
+  useEffect(() => {
+    if (!userId) return;
+    const source = new EventSource(`http://localhost:8080/api/events/${userId}`);
+    (['appointment', 'appointment-note', 'review', 'resync'] as const).forEach(type => {
+      source.addEventListener(type, event => {
+        handlersRef.current[type]?.(JSON.parse((event as MessageEvent).data));
+      });
+    });
+    return () => source.close();
+  }, [userId]);
+};
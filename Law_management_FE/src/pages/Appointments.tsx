@@ -4,18 +4,26 @@ import {
   AlertCircle, CheckCircle, XCircle, RotateCcw
 } from 'lucide-react';
 import { useAuth } from '../context/AuthContext';
-import { Appointment } from '../types';
-import { format, parseISO, isToday, isTomorrow } from 'date-fns';
+import { Appointment, AppointmentNote } from '../types';
+import { format, parseISO, isToday, isTomorrow, subDays } from 'date-fns';
 import LoadingSpinner from '../components/Common/LoadingSpinner';
+import { useUserEvents } from '../hooks/useUserEvents';
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey';
 
 const Appointments: React.FC = () => {
   const { user } = useAuth();
   const [appointments, setAppointments] = useState<Appointment[]>([]);
+  const cancelKey = useIdempotencyKey();
   const [loading, setLoading] = useState(true);
   const [filter, setFilter] = useState<'all' | 'pending' | 'confirmed' | 'completed' | 'cancelled'>('all');
   const [selectedAppointment, setSelectedAppointment] = useState<Appointment | null>(null);
   const [showCancelModal, setShowCancelModal] = useState(false);
   const [cancelReason, setCancelReason] = useState('');
+  // Upcoming appointments (from today) are paged first, earlier ones only once asked for
+  const [range, setRange] = useState<'upcoming' | 'past'>('upcoming');
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  // Conversations are loaded only when opened; items are oldest first for display.
+  const [notes, setNotes] = useState<Record<string, { items: AppointmentNote[]; nextCursor: string | null }>>({});
 
   const lawyerImageUrls = [
     'https://randomuser.me/api/portraits/men/32.jpg',
@@ -32,16 +40,31 @@ const Appointments: React.FC = () => {
 
   const getRandomImage = (index: number) => lawyerImageUrls[index % lawyerImageUrls.length];
 
-  const fetchAppointments = async () => {
-    setLoading(true);
+  // Pages and pushed updates can carry the same appointment; the latest copy wins
+  const mergeById = (current: Appointment[], incoming: Appointment[]) => {
+    const byId = new Map(current.map(apt => [String(apt.id), apt] as [string, Appointment]));
+    incoming.forEach(apt => byId.set(String(apt.id), apt));
+    return [...byId.values()];
+  };
+
+  const fetchAppointments = async (cursor?: string, pages: 'upcoming' | 'past' = 'upcoming') => {
+    const restart = !cursor && pages === 'upcoming';
+    if (restart) setLoading(true);
     try {
-      const res = await fetch(
-        user?.role === 'lawyer'
-          ? `http://localhost:8080/api/appointments/lawyer/${user.id}`
-          : `http://localhost:8080/api/appointments/client/${user.id}`
-      );
-      const data = await res.json();
-      setAppointments(data);
+      const base = user?.role === 'lawyer'
+        ? `http://localhost:8080/api/appointments/lawyer/${user.id}`
+        : `http://localhost:8080/api/appointments/client/${user?.id}`;
+      // History is paged by the server: upcoming soonest first, past most recent first.
+      // X-Next-Cursor points at the next page.
+      const params = new URLSearchParams(pages === 'upcoming'
+        ? { from: format(new Date(), 'yyyy-MM-dd') }
+        : { to: format(subDays(new Date(), 1), 'yyyy-MM-dd'), order: 'desc' });
+      if (cursor) params.set('cursor', cursor);
+      const res = await fetch(`${base}?${params}`);
+      const data: Appointment[] = await res.json();
+      setAppointments(prev => mergeById(restart ? [] : prev, data));
+      setRange(pages);
+      setNextCursor(res.headers.get('X-Next-Cursor'));
     } catch (error) {
       console.error("Error fetching appointments:", error);
     } finally {
@@ -53,6 +76,23 @@ const Appointments: React.FC = () => {
     fetchAppointments();
   }, []);
 
+  // Confirmations, cancellations and new notes arrive as pushed events instead of refetches
+  useUserEvents(user?.id, {
+    appointment: (updated: Appointment) => {
+      setAppointments(prev => mergeById(prev, [updated]));
+    },
+    'appointment-note': (note: AppointmentNote) => {
+      const key = String(note.appointmentId);
+      setNotes(prev => {
+        const open = prev[key];
+        // Only conversations already opened are kept in memory
+        if (!open || open.items.some(n => String(n.id) === String(note.id))) return prev;
+        return { ...prev, [key]: { ...open, items: [...open.items, note] } };
+      });
+    },
+    resync: () => fetchAppointments(),
+  });
+
   const getStatusIcon = (status: string) => {
     switch (status) {
       case 'pending': return <AlertCircle className="h-4 w-4 text-yellow-500" />;
@@ -94,11 +134,13 @@ const Appointments: React.FC = () => {
   const handleCancelAppointment = async () => {
     if (!selectedAppointment) return;
     try {
+      const key = cancelKey.keyFor({ id: selectedAppointment.id, reason: cancelReason });
       await fetch(`http://localhost:8080/api/appointments/${selectedAppointment.id}/cancel`, {
         method: 'PUT',
-        headers: { 'Content-Type': 'application/json' },
+        headers: { 'Content-Type': 'application/json', 'Idempotency-Key': key },
         body: JSON.stringify({ reason: cancelReason }),
       });
+      cancelKey.done();
       setAppointments(prev => prev.map(apt =>
         apt.id === selectedAppointment.id ? { ...apt, status: 'cancelled', cancelReason } : apt
       ));
@@ -110,24 +152,63 @@ const Appointments: React.FC = () => {
     }
   };
 
+  const fetchNotes = async (appointmentId: string, cursor?: string | null) => {
+    try {
+      const url = `http://localhost:8080/api/appointments/${appointmentId}/notes`;
+      const res = await fetch(cursor ? `${url}?cursor=${encodeURIComponent(cursor)}` : url);
+      const page: AppointmentNote[] = await res.json();
+      const older = [...page].reverse();
+      setNotes(prev => ({
+        ...prev,
+        [appointmentId]: {
+          items: cursor ? [...older, ...(prev[appointmentId]?.items ?? [])] : older,
+          nextCursor: res.headers.get('X-Next-Cursor'),
+        },
+      }));
+    } catch (err) {
+      console.error('Failed to load notes:', err);
+    }
+  };
+
   const handleAddNote = async (appointmentId: string, newNote: string) => {
     if (!newNote) return;
     try {
       const res = await fetch(`http://localhost:8080/api/appointments/${appointmentId}/add-note`, {
         method: 'PUT',
         headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify({ note: newNote }),
+        body: JSON.stringify({ note: newNote, authorId: user?.id }),
+      });
+      if (!res.ok) return;
+      const added: AppointmentNote = await res.json();
+      setNotes(prev => {
+        const items = prev[appointmentId]?.items ?? [];
+        // The pushed copy of this note may have arrived first
+        if (items.some(n => String(n.id) === String(added.id))) return prev;
+        return {
+          ...prev,
+          [appointmentId]: {
+            items: [...items, added],
+            nextCursor: prev[appointmentId]?.nextCursor ?? null,
+          },
+        };
       });
-      const updated = await res.json();
-      setAppointments(prev =>
-        prev.map(apt => (apt.id === updated.id ? { ...apt, notes: updated.notes } : apt))
-      );
     } catch (err) {
       console.error('Failed to add note:', err);
     }
   };
 
-  const filteredAppointments = appointments.filter(apt => filter === 'all' || apt.status === filter);
+  // Upcoming soonest first, then earlier ones most recent first
+  const filteredAppointments = useMemo(() => {
+    const today = format(new Date(), 'yyyy-MM-dd');
+    return appointments
+      .filter(apt => filter === 'all' || apt.status === filter)
+      .sort((a, b) => {
+        const aPast = a.date < today;
+        if (aPast !== b.date < today) return aPast ? 1 : -1;
+        const order = `${a.date} ${a.startTime}`.localeCompare(`${b.date} ${b.startTime}`);
+        return aPast ? -order : order;
+      });
+  }, [appointments, filter]);
 
   if (loading) return <LoadingSpinner size="lg" text="Loading appointments..." />;
 
@@ -194,11 +275,30 @@ const Appointments: React.FC = () => {
 
                     <div className="mt-4 bg-gray-50 p-3 rounded-lg">
                       <h4 className="text-sm font-medium text-gray-800 mb-2">Conversation:</h4>
-                      <ul className="text-sm space-y-1 max-h-32 overflow-y-auto">
-                        {appointment.notes?.map((note, index) => (
-                          <li key={index} className="text-gray-600 bg-white p-2 rounded shadow-sm">{note}</li>
-                        ))}
-                      </ul>
+                      {!notes[appointment.id] ? (
+                        <button
+                          onClick={() => fetchNotes(appointment.id)}
+                          className="text-sm text-blue-600 hover:underline"
+                        >
+                          Show conversation
+                        </button>
+                      ) : (
+                        <ul className="text-sm space-y-1 max-h-32 overflow-y-auto">
+                          {notes[appointment.id].nextCursor && (
+                            <li>
+                              <button
+                                onClick={() => fetchNotes(appointment.id, notes[appointment.id].nextCursor)}
+                                className="text-xs text-blue-600 hover:underline"
+                              >
+                                Load earlier messages
+                              </button>
+                            </li>
+                          )}
+                          {notes[appointment.id].items.map(note => (
+                            <li key={note.id} className="text-gray-600 bg-white p-2 rounded shadow-sm">{note.content}</li>
+                          ))}
+                        </ul>
+                      )}
                       <form
                         onSubmit={async (e) => {
                           e.preventDefault();
@@ -260,6 +360,17 @@ const Appointments: React.FC = () => {
         </div>
       )}
 
+      {(nextCursor || range === 'upcoming') && (
+        <div className="text-center">
+          <button
+            onClick={() => (nextCursor ? fetchAppointments(nextCursor, range) : fetchAppointments(undefined, 'past'))}
+            className="px-4 py-2 rounded-lg text-sm font-medium bg-gray-100 text-gray-700 hover:bg-gray-200"
+          >
+            {nextCursor ? 'Load more' : 'Show past appointments'}
+          </button>
+        </div>
+      )}
+
       {showCancelModal && selectedAppointment && (
         <div className="fixed inset-0 bg-black bg-opacity-50 flex items-center justify-center p-4 z-50">
           <div className="bg-white rounded-lg max-w-md w-full p-6">
@@ -10,24 +10,30 @@ import {
 import axios from 'axios';
 import { useAuth } from '../context/AuthContext';
 import ReviewModal from './ReviewModal';
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey';
 
 const Dashboard: React.FC = () => {
   const { user } = useAuth();
   const [isModalOpen, setModalOpen] = useState(false);
   const [selectedLawyerId, setSelectedLawyerId] = useState<string | null>(null);
+  const reviewKey = useIdempotencyKey();
 
   if (!user) return null;
 
   // Inside Dashboard component
 const handleSubmitReview = async (lawyerId: string, rating: number, comment: string) => {
   try {
-    await axios.post('http://localhost:8080/api/reviews/add', {
+    const review = {
       appointmentId: 1, // Optional or actual appointment ID
       clientId: user.id,
       lawyerId,
       rating,
       comment
+    };
+    await axios.post('http://localhost:8080/api/reviews/add', review, {
+      headers: { 'Idempotency-Key': reviewKey.keyFor(review) },
     });
+    reviewKey.done();
     alert('Review submitted successfully!');
   } catch (err) {
     console.error(err);
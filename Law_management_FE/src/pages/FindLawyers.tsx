@@ -1,13 +1,13 @@
 import React, { useState, useEffect } from 'react';
 import { Search, Filter, MapPin, DollarSign, Briefcase } from 'lucide-react';
 import axios from 'axios';
-import { Lawyer } from '../types';
+import { Lawyer, LawyerAvailability } from '../types';
 import LawyerCard from '../components/Lawyer/LawyerCard';
 import LoadingSpinner from '../components/Common/LoadingSpinner';
 
 const FindLawyers: React.FC = () => {
-  const [lawyers, setLawyers] = useState<Lawyer[]>([]);
   const [filteredLawyers, setFilteredLawyers] = useState<Lawyer[]>([]);
+  const [total, setTotal] = useState(0);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
   const [filters, setFilters] = useState({
@@ -19,20 +19,66 @@ const FindLawyers: React.FC = () => {
   const [showFilters, setShowFilters] = useState(false);
 
   useEffect(() => {
-    fetchLawyers();
-  }, []);
-
-  useEffect(() => {
-    filterLawyers();
-  }, [searchTerm, filters, lawyers]);
+    // Debounce typing so each keystroke does not become a request.
+    const timer = setTimeout(() => {
+      fetchLawyers();
+    }, 250);
+    return () => clearTimeout(timer);
+  }, [searchTerm, filters]);
 
   const fetchLawyers = async () => {
-    setLoading(true);
     try {
-      const res = await axios.get('http://localhost:8080/api/lawyers');
-      // ✅ Filter only verified lawyers
-      const verifiedLawyers = res.data.filter((lawyer: Lawyer) => lawyer.isVerified === true);
-      setLawyers(verifiedLawyers);
+      // Without a name, location or experience filter, show the server's ranked picks
+      if (!searchTerm && !filters.location && filters.experience <= 0) {
+        const res = await axios.get('http://localhost:8080/api/lawyers/recommended', {
+          params: {
+            specialization: filters.specialization || undefined,
+            budget: filters.maxFee < 10000 ? filters.maxFee : undefined,
+          },
+        });
+        const items = res.data.map((r: any) => ({
+          ...r.lawyer,
+          rating: r.averageRating,
+          reviewCount: r.reviewCount,
+          completedConsultations: r.completedAppointments,
+        }));
+        setFilteredLawyers(items);
+        setTotal(items.length);
+        if (items.length > 0) {
+          const nextFree = await fetchNextFree(items.map((l: any) => l.id).join(','));
+          setFilteredLawyers(items.map((l: any) => ({ ...l, nextAvailable: nextFree.get(String(l.id)) })));
+        }
+        return;
+      }
+
+      // ✅ Filtering and verification checks happen on the server
+      const res = await axios.get('http://localhost:8080/api/lawyers/search', {
+        params: {
+          q: searchTerm || undefined,
+          specialization: filters.specialization || undefined,
+          location: filters.location || undefined,
+          maxFee: filters.maxFee < 10000 ? filters.maxFee : undefined,
+          minExperience: filters.experience > 0 ? filters.experience : undefined,
+          size: 100,
+        },
+      });
+      const items = res.data.items;
+      setFilteredLawyers(items);
+      if (items.length > 0) {
+        // One batch call each for every card's rating and next free slot, not one per lawyer
+        const lawyerIds = items.map((l: any) => l.id).join(',');
+        const [ratings, nextFree] = await Promise.all([
+          axios.get('http://localhost:8080/api/reviews/ratings', { params: { lawyerIds } }),
+          fetchNextFree(lawyerIds),
+        ]);
+        const byId = new Map(ratings.data.map((r: any) => [String(r.lawyerId), r]));
+        setFilteredLawyers(items.map((l: any) => {
+          const r: any = byId.get(String(l.id));
+          const withRating = r ? { ...l, rating: r.averageRating, reviewCount: r.reviewCount } : l;
+          return { ...withRating, nextAvailable: nextFree.get(String(l.id)) };
+        }));
+      }
+      setTotal(res.data.total);
     } catch (err) {
       console.error('Error fetching lawyers:', err);
     } finally {
@@ -40,39 +86,17 @@ const FindLawyers: React.FC = () => {
     }
   };
 
-  const filterLawyers = () => {
-    let filtered = [...lawyers];
-
-    if (searchTerm) {
-      filtered = filtered.filter(lawyer =>
-        lawyer.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        lawyer.specializations.some(spec =>
-          spec.toLowerCase().includes(searchTerm.toLowerCase())
-        )
-      );
-    }
-
-    if (filters.specialization) {
-      filtered = filtered.filter(lawyer =>
-        lawyer.specializations.includes(filters.specialization)
-      );
-    }
-
-    if (filters.location) {
-      filtered = filtered.filter(lawyer =>
-        lawyer.location.toLowerCase().includes(filters.location.toLowerCase())
-      );
-    }
-
-    if (filters.maxFee < 10000) {
-      filtered = filtered.filter(lawyer => lawyer.consultationFee <= filters.maxFee);
-    }
-
-    if (filters.experience > 0) {
-      filtered = filtered.filter(lawyer => lawyer.yearsOfExperience >= filters.experience);
-    }
-
-    setFilteredLawyers(filtered);
+  // "yyyy-MM-dd HH:mm" of each lawyer's first free 30 minutes, by lawyer id
+  const fetchNextFree = async (lawyerIds: string) => {
+    const availability = await axios.get('http://localhost:8080/api/lawyers/availability', {
+      params: { lawyerIds, minMinutes: 30 },
+    });
+    const nextFree = new Map<string, string>();
+    availability.data.forEach((a: LawyerAvailability) => {
+      const day = a.days.find(d => d.free.length > 0);
+      if (day) nextFree.set(String(a.lawyerId), `${day.date} ${day.free[0].start.slice(0, 5)}`);
+    });
+    return nextFree;
   };
 
   const specializations = [
@@ -176,7 +200,7 @@ const FindLawyers: React.FC = () => {
 
       <div className="mb-4">
         <p className="text-gray-600">
-          Showing {filteredLawyers.length} verified lawyer{filteredLawyers.length !== 1 ? 's' : ''}
+          Showing {total} verified lawyer{total !== 1 ? 's' : ''}
         </p>
       </div>
 
@@ -4,10 +4,13 @@ import { useAuth } from '../context/AuthContext';
 import { Review, Lawyer } from '../types';
 import { format } from 'date-fns';
 import LoadingSpinner from '../components/Common/LoadingSpinner';
+import { useUserEvents } from '../hooks/useUserEvents';
+import { useIdempotencyKey } from '../hooks/useIdempotencyKey';
 
 const Reviews: React.FC = () => {
   const { user } = useAuth();
   const [reviews, setReviews] = useState<Review[]>([]);
+  const reviewKey = useIdempotencyKey();
   const [lawyers, setLawyers] = useState<Lawyer[]>([]);
   const [loading, setLoading] = useState(true);
   const [filter, setFilter] = useState<'all' | '5' | '4' | '3' | '2' | '1'>('all');
@@ -28,6 +31,16 @@ const Reviews: React.FC = () => {
     }
   }, [user]);
 
+  // New reviews and lawyer responses are pushed by the server
+  useUserEvents(user?.id, {
+    review: (updated: Review) => {
+      setReviews(prev => prev.some(r => String(r.id) === String(updated.id))
+        ? prev.map(r => (String(r.id) === String(updated.id) ? updated : r))
+        : [updated, ...prev]);
+    },
+    resync: () => fetchReviews(),
+  });
+
   const fetchReviews = async () => {
     setLoading(true);
     try {
@@ -87,16 +100,15 @@ const Reviews: React.FC = () => {
     if (!newReview.lawyerId || newReview.rating === 0 || !newReview.comment.trim()) return;
 
     try {
+      const review = { ...newReview, clientId: user?.id };
       const res = await fetch('http://localhost:8080/api/reviews/add', {
         method: 'POST',
-        headers: { 'Content-Type': 'application/json' },
-        body: JSON.stringify({
-          ...newReview,
-          clientId: user?.id
-        })
+        headers: { 'Content-Type': 'application/json', 'Idempotency-Key': reviewKey.keyFor(review) },
+        body: JSON.stringify(review)
       });
 
       if (res.ok) {
+        reviewKey.done();
         const added = await res.json();
         setReviews(prev => [added, ...prev]);
         setShowAddReviewModal(false);
@@ -33,22 +33,6 @@ const AdminDashboard: React.FC = () => {
       const statsRes = await fetch("http://localhost:8080/api/profile/stats");
       const statsData = await statsRes.json();
 
-      const lawyersRes = await fetch(
-        "http://localhost:8080/api/profile/lawyers"
-      );
-      const lawyersData = await lawyersRes.json();
-
-      const pending = lawyersData.filter(
-        (lawyer: any) =>
-          lawyer.verificationStatus === "pending" || !lawyer.isVerified
-      ).length;
-
-      const verified = lawyersData.filter(
-        (lawyer: any) =>
-          lawyer.verificationStatus === "verified" || lawyer.isVerified
-      ).length;
-
-      const mockAppointments = 3456;
       const mockRevenue = 2847500;
       const mockMonthlyRevenue = 485600;
       const activeConsultations = 23;
@@ -58,12 +42,12 @@ const AdminDashboard: React.FC = () => {
         totalUsers: statsData.totalUsers,
         totalClients: statsData.totalClients,
         totalLawyers: statsData.totalLawyers,
-        totalAppointments: mockAppointments,
+        totalAppointments: statsData.totalAppointments,
         totalRevenue: mockRevenue,
         monthlyRevenue: mockMonthlyRevenue,
         activeConsultations,
-        pendingVerifications: pending,
-        verifiedLawyers: verified,
+        pendingVerifications: statsData.pendingVerifications,
+        verifiedLawyers: statsData.verifiedLawyers,
         disputesCount,
       };
 
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { Search, MoreVertical, Eye, Ban, Trash2, UserCheck, Mail, Phone } from 'lucide-react';
+import { Search, MoreVertical, Eye, Ban, Trash2, UserCheck, Mail, Phone, Download } from 'lucide-react';
 import { format } from 'date-fns';
 import LoadingSpinner from '../../components/Common/LoadingSpinner';
 
@@ -92,7 +92,17 @@ const UserManagement: React.FC = () => {
 
   return (
     <div className="max-w-7xl mx-auto p-4 space-y-6">
-      <h1 className="text-3xl font-bold text-gray-800">User Management</h1>
+      <div className="flex items-center justify-between">
+        <h1 className="text-3xl font-bold text-gray-800">User Management</h1>
+        {/* Streamed by the server as a CSV download, however many users there are */}
+        <a
+          href={`http://localhost:8080/api/export/users?format=csv${roleFilter !== 'all' ? `&role=${roleFilter}` : ''}`}
+          className="flex items-center gap-2 py-2 px-4 border rounded-md border-gray-300 text-sm text-gray-700 hover:bg-gray-50"
+        >
+          <Download className="w-4 h-4" />
+          Export CSV
+        </a>
+      </div>
 
       <div className="flex flex-col md:flex-row gap-4">
         <div className="relative flex-1">
@@ -30,6 +30,7 @@ export interface Lawyer extends User {
   isVerified: boolean;
   verificationStatus: 'pending' | 'verified' | 'rejected';
   availability: AvailabilitySlot[];
+  nextAvailable?: string; // "yyyy-MM-dd HH:mm" of the first free slot in the next two weeks
   documents?: LawyerDocument[];
   totalEarnings?: number;
   completedConsultations?: number;
@@ -68,11 +69,31 @@ export interface Appointment {
   endTime: string;
   type: 'video' | 'chat';
   status: 'pending' | 'confirmed' | 'cancelled' | 'completed' | 'rescheduled';
-  notes: string[]; // <-- make sure it's a string array
   fee: number;
   cancelReason?: string;
 }
 
+// GET /api/lawyers/:id/availability: free, 15-minute aligned intervals per day
+export interface DayAvailability {
+  date: string;
+  free: { start: string; end: string | null }[]; // end null means midnight
+}
+
+export interface LawyerAvailability {
+  lawyerId: string;
+  slotMinutes: number;
+  days: DayAvailability[];
+}
+
+// Notes are fetched separately, newest page first (GET /api/appointments/:id/notes)
+export interface AppointmentNote {
+  id: string;
+  appointmentId: string;
+  authorId?: string | null; // null for notes the system adds
+  content: string;
+  createdAt?: string | null;
+}
+
 
 export interface Consultation {
   id: string;